@@ -0,0 +1,49 @@
+plugins {
+    `java-library`
+    `maven-publish`
+    id("me.champeau.jmh") version "0.6.8"
+}
+
+repositories {
+    mavenLocal()
+    maven {
+        url = uri("https://repo.maven.apache.org/maven2/")
+    }
+}
+
+// Signs Momento presigned URLs with the keys the lambda rotates. Signing uses the JDK's RSA implementation, so the
+// only dependencies are the signing key cache and Gson for reading the JWK.
+dependencies {
+    api(project(":app:signing-key-cache"))
+    implementation("com.google.code.gson:gson:2.8.9")
+    testImplementation("org.junit.jupiter:junit-jupiter-api:5.6.0")
+    testImplementation("org.junit.jupiter:junit-jupiter-engine:5.6.0")
+}
+
+group = "com.example"
+version = "1.0-SNAPSHOT"
+description = "momento-presigned-url-signer"
+java.sourceCompatibility = JavaVersion.VERSION_1_8
+
+publishing {
+    publications.create<MavenPublication>("maven") {
+        from(components["java"])
+    }
+}
+
+// Run with `./gradlew :app:presigned-url-signer:jmh`, results are written to build/results/jmh
+jmh {
+    jmhVersion.set("1.36")
+    profilers.add("gc")
+    fork.set(1)
+    warmupIterations.set(3)
+    iterations.set(5)
+}
+
+tasks.test {
+    useJUnitPlatform()
+}
+
+tasks.withType<JavaCompile>() {
+    options.encoding = "UTF-8"
+}
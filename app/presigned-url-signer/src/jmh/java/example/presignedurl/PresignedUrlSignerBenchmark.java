@@ -0,0 +1,123 @@
+package example.presignedurl;
+
+import com.google.gson.JsonObject;
+import example.signingkeycache.SigningKey;
+import example.signingkeycache.SigningKeyCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.math.BigInteger;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.RSAPrivateCrtKey;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+// Presigned URLs signed per second on a single thread, so the scores read as signatures per second per core. The key
+// is a freshly generated 2048 bit RSA JWK, the same size Momento mints. signBatch reports per URL, not per batch
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(1)
+public class PresignedUrlSignerBenchmark {
+    private static final int BATCH_SIZE = 100;
+
+    private PresignedUrlSigner signer;
+    private SigningKeyCache signingKeyCache;
+    private RotatingPresignedUrlSigner rotatingSigner;
+    private PresignedUrlRequest getRequest;
+    private PresignedUrlRequest setRequest;
+    private List<PresignedUrlRequest> batch;
+
+    @Setup
+    public void setup() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        RSAPrivateCrtKey privateKey = (RSAPrivateCrtKey) generator.generateKeyPair().getPrivate();
+        JsonObject jwk = new JsonObject();
+        jwk.addProperty("kty", "RSA");
+        jwk.addProperty("kid", "5a0b2ea6-8b7c-4fb2");
+        jwk.addProperty("alg", "RS256");
+        jwk.addProperty("use", "sig");
+        jwk.addProperty("n", encode(privateKey.getModulus()));
+        jwk.addProperty("e", encode(privateKey.getPublicExponent()));
+        jwk.addProperty("d", encode(privateKey.getPrivateExponent()));
+        jwk.addProperty("p", encode(privateKey.getPrimeP()));
+        jwk.addProperty("q", encode(privateKey.getPrimeQ()));
+        jwk.addProperty("dp", encode(privateKey.getPrimeExponentP()));
+        jwk.addProperty("dq", encode(privateKey.getPrimeExponentQ()));
+        jwk.addProperty("qi", encode(privateKey.getCrtCoefficient()));
+
+        Date keyExpiresAt = new Date(System.currentTimeMillis() + TimeUnit.DAYS.toMillis(14));
+        signer = new PresignedUrlSigner(new SigningKey("5a0b2ea6-8b7c-4fb2",
+                "cell-us-east-1-1.prod.a.momentohq.com",
+                jwk.toString(),
+                keyExpiresAt));
+
+        JsonObject secret = new JsonObject();
+        secret.addProperty("key_id", "5a0b2ea6-8b7c-4fb2");
+        secret.addProperty("endpoint", "cell-us-east-1-1.prod.a.momentohq.com");
+        secret.addProperty("key", jwk.toString());
+        secret.addProperty("expires_at", "2099-01-01T00:00:00Z");
+        String secretString = secret.toString();
+        signingKeyCache = new SigningKeyCache(versionStage ->
+                "AWSCURRENT".equals(versionStage) ? Optional.of(secretString) : Optional.empty());
+        rotatingSigner = new RotatingPresignedUrlSigner(signingKeyCache);
+
+        Date urlExpiresAt = new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1));
+        getRequest = PresignedUrlRequest.get("my-cache", "user/42/avatar", urlExpiresAt);
+        setRequest = PresignedUrlRequest.set("my-cache", "user/42/avatar", 300, urlExpiresAt);
+        batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            batch.add(PresignedUrlRequest.get("my-cache", "user/" + i + "/avatar", urlExpiresAt));
+        }
+        // Builds the rotating signer's PresignedUrlSigner outside of the measurement
+        rotatingSigner.createPresignedUrl(getRequest);
+    }
+
+    @TearDown
+    public void tearDown() {
+        signingKeyCache.close();
+    }
+
+    @Benchmark
+    public String signGet() {
+        return signer.createPresignedUrl(getRequest);
+    }
+
+    @Benchmark
+    public String signSet() {
+        return signer.createPresignedUrl(setRequest);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public List<String> signBatch() {
+        return signer.createPresignedUrls(batch);
+    }
+
+    // Includes picking the key from the cache for every URL
+    @Benchmark
+    public String rotatingSignGet() {
+        return rotatingSigner.createPresignedUrl(getRequest);
+    }
+
+    private static String encode(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        // Drops the sign byte BigInteger adds when the top bit is set
+        int offset = bytes.length > 1 && bytes[0] == 0 ? 1 : 0;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOfRange(bytes, offset, bytes.length));
+    }
+}
@@ -0,0 +1,76 @@
+package example.presignedurl;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+// A single cache item to presign a URL for: read it with GET, or write it with SET and the TTL the item is stored
+// with. The URL stops working at expiresAt, which Momento checks to the second.
+public final class PresignedUrlRequest {
+    public enum Operation {
+        GET,
+        SET
+    }
+
+    private final Operation operation;
+    private final String cacheName;
+    private final String cacheKey;
+    private final long expiresAtEpochSeconds;
+    private final long ttlSeconds;
+
+    private PresignedUrlRequest(Operation operation, String cacheName, String cacheKey, long expiresAtEpochSeconds, long ttlSeconds) {
+        if (cacheName == null || cacheName.isEmpty() || cacheKey == null || cacheKey.isEmpty()) {
+            throw new IllegalArgumentException("Expected a cache name and a cache key");
+        }
+        this.operation = operation;
+        this.cacheName = cacheName;
+        this.cacheKey = cacheKey;
+        this.expiresAtEpochSeconds = expiresAtEpochSeconds;
+        this.ttlSeconds = ttlSeconds;
+    }
+
+    public static PresignedUrlRequest get(String cacheName, String cacheKey, Date expiresAt) {
+        return new PresignedUrlRequest(Operation.GET, cacheName, cacheKey, toEpochSeconds(expiresAt), 0);
+    }
+
+    public static PresignedUrlRequest set(String cacheName, String cacheKey, long ttlSeconds, Date expiresAt) {
+        if (ttlSeconds <= 0) {
+            throw new IllegalArgumentException(String.format("Expected a positive TTL, got %d", ttlSeconds));
+        }
+        return new PresignedUrlRequest(Operation.SET, cacheName, cacheKey, toEpochSeconds(expiresAt), ttlSeconds);
+    }
+
+    private static long toEpochSeconds(Date expiresAt) {
+        return TimeUnit.MILLISECONDS.toSeconds(expiresAt.getTime());
+    }
+
+    public Operation getOperation() {
+        return this.operation;
+    }
+
+    public String getCacheName() {
+        return this.cacheName;
+    }
+
+    public String getCacheKey() {
+        return this.cacheKey;
+    }
+
+    public long getExpiresAtEpochSeconds() {
+        return this.expiresAtEpochSeconds;
+    }
+
+    public long getExpiresAtMillis() {
+        return TimeUnit.SECONDS.toMillis(this.expiresAtEpochSeconds);
+    }
+
+    // Only set for SET
+    public long getTtlSeconds() {
+        return this.ttlSeconds;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("PresignedUrlRequest{operation=%s, cacheName=%s, cacheKey=%s, expiresAtEpochSeconds=%d}",
+                this.operation, this.cacheName, this.cacheKey, this.expiresAtEpochSeconds);
+    }
+}
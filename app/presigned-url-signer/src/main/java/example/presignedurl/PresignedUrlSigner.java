@@ -0,0 +1,206 @@
+package example.presignedurl;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import example.signingkeycache.SigningKey;
+
+import java.io.UnsupportedEncodingException;
+import java.math.BigInteger;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PrivateKey;
+import java.security.Signature;
+import java.security.spec.RSAPrivateCrtKeySpec;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+// Signs presigned URLs with one version of the signing key. The JWK is parsed once when the signer is built, so
+// signing a URL only encodes the claims and runs RS256 over them. Safe to share between threads: each thread gets
+// its own Signature, already initialized with the key, and reuses it for every URL it signs.
+public final class PresignedUrlSigner {
+    // Presigned URLs go to the REST endpoint of the cell the key was minted in
+    private static final String REST_HOST_PREFIX = "rest.";
+    private static final Base64.Encoder BASE64_URL = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder BASE64_URL_DECODER = Base64.getUrlDecoder();
+
+    private final SigningKey signingKey;
+    private final PrivateKey privateKey;
+    private final String encodedHeader;
+    private final String urlPrefix;
+    private final ThreadLocal<Signature> signatures;
+
+    public PresignedUrlSigner(SigningKey signingKey) {
+        this.signingKey = signingKey;
+        this.privateKey = parsePrivateKey(signingKey.getKey());
+        this.encodedHeader = BASE64_URL.encodeToString(String.format("{\"alg\":\"RS256\",\"kid\":\"%s\",\"typ\":\"JWT\"}",
+                escapeJson(signingKey.getKeyId())).getBytes(StandardCharsets.UTF_8));
+        this.urlPrefix = "https://" + REST_HOST_PREFIX + signingKey.getEndpoint() + "/cache/";
+        // Fails here rather than on the first URL if the JDK can't sign with the key
+        Signature signature = newSignature();
+        this.signatures = ThreadLocal.withInitial(this::newSignature);
+        this.signatures.set(signature);
+    }
+
+    public SigningKey getSigningKey() {
+        return this.signingKey;
+    }
+
+    public String createPresignedUrl(PresignedUrlRequest request) {
+        return appendPresignedUrl(new StringBuilder(512), request, this.signatures.get()).toString();
+    }
+
+    // Signs the URLs in order, reusing one buffer and this thread's Signature for the whole batch
+    public List<String> createPresignedUrls(List<PresignedUrlRequest> requests) {
+        Signature signature = this.signatures.get();
+        StringBuilder url = new StringBuilder(512);
+        List<String> urls = new ArrayList<>(requests.size());
+        for (PresignedUrlRequest request : requests) {
+            url.setLength(0);
+            urls.add(appendPresignedUrl(url, request, signature).toString());
+        }
+        return urls;
+    }
+
+    // The access token on its own, for callers that build the URL themselves
+    public String signAccessToken(PresignedUrlRequest request) {
+        return appendAccessToken(new StringBuilder(384), request, this.signatures.get()).toString();
+    }
+
+    private StringBuilder appendPresignedUrl(StringBuilder url, PresignedUrlRequest request, Signature signature) {
+        url.append(this.urlPrefix)
+                .append(request.getOperation() == PresignedUrlRequest.Operation.GET ? "get/" : "set/")
+                .append(encodePathSegment(request.getCacheName()))
+                .append('/')
+                .append(encodePathSegment(request.getCacheKey()))
+                .append('?');
+        if (request.getOperation() == PresignedUrlRequest.Operation.SET) {
+            url.append("ttl_milliseconds=").append(request.getTtlSeconds() * 1000).append('&');
+        }
+        url.append("token=");
+        return appendAccessToken(url, request, signature);
+    }
+
+    // Appends header.claims.signature, the token is made of URL-safe characters only
+    private StringBuilder appendAccessToken(StringBuilder out, PresignedUrlRequest request, Signature signature) {
+        if (!this.signingKey.isValidAt(request.getExpiresAtMillis())) {
+            throw new IllegalArgumentException(String.format("%s expires before %s", this.signingKey, request));
+        }
+        int tokenStart = out.length();
+        out.append(this.encodedHeader)
+                .append('.')
+                .append(BASE64_URL.encodeToString(claims(request).getBytes(StandardCharsets.UTF_8)));
+        byte[] signingInput = out.substring(tokenStart).getBytes(StandardCharsets.US_ASCII);
+        try {
+            signature.update(signingInput);
+            return out.append('.').append(BASE64_URL.encodeToString(signature.sign()));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(String.format("Failed to sign %s with %s", request, this.signingKey), e);
+        }
+    }
+
+    private static String claims(PresignedUrlRequest request) {
+        StringBuilder claims = new StringBuilder(128)
+                .append("{\"exp\":").append(request.getExpiresAtEpochSeconds())
+                .append(",\"cache\":\"").append(escapeJson(request.getCacheName()))
+                .append("\",\"key\":\"").append(escapeJson(request.getCacheKey()))
+                .append("\",\"method\":[\"")
+                .append(request.getOperation() == PresignedUrlRequest.Operation.GET ? "get" : "set")
+                .append("\"]");
+        if (request.getOperation() == PresignedUrlRequest.Operation.SET) {
+            claims.append(",\"ttl\":").append(request.getTtlSeconds());
+        }
+        return claims.append('}').toString();
+    }
+
+    private Signature newSignature() {
+        try {
+            Signature signature = Signature.getInstance("SHA256withRSA");
+            signature.initSign(this.privateKey);
+            return signature;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("The JDK can't sign with RS256", e);
+        }
+    }
+
+    // Momento signing keys are RSA JWKs with the CRT parameters, which lets the JDK sign about three times faster
+    private static PrivateKey parsePrivateKey(String jwk) {
+        JsonObject key;
+        try {
+            JsonElement parsed = JsonParser.parseString(jwk);
+            if (!parsed.isJsonObject()) {
+                throw new IllegalArgumentException("Expected the signing key to be a JWK object");
+            }
+            key = parsed.getAsJsonObject();
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("The signing key is not a valid JWK", e);
+        }
+        if (!"RSA".equals(getString(key, "kty"))) {
+            throw new IllegalArgumentException(String.format("Expected an RSA signing key, got kty %s", getString(key, "kty")));
+        }
+        try {
+            return KeyFactory.getInstance("RSA").generatePrivate(new RSAPrivateCrtKeySpec(
+                    getInteger(key, "n"),
+                    getInteger(key, "e"),
+                    getInteger(key, "d"),
+                    getInteger(key, "p"),
+                    getInteger(key, "q"),
+                    getInteger(key, "dp"),
+                    getInteger(key, "dq"),
+                    getInteger(key, "qi")));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalArgumentException("The signing key is not a valid RSA private key", e);
+        }
+    }
+
+    private static String getString(JsonObject key, String member) {
+        JsonElement value = key.get(member);
+        return value == null || !value.isJsonPrimitive() ? null : value.getAsString();
+    }
+
+    private static BigInteger getInteger(JsonObject key, String member) {
+        String value = getString(key, member);
+        if (value == null) {
+            throw new IllegalArgumentException(String.format("The signing key JWK has no %s", member));
+        }
+        return new BigInteger(1, BASE64_URL_DECODER.decode(value));
+    }
+
+    private static String encodePathSegment(String segment) {
+        try {
+            return URLEncoder.encode(segment, "UTF-8").replace("+", "%20");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String escapeJson(String value) {
+        StringBuilder escaped = null;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c != '"' && c != '\\' && c >= 0x20) {
+                if (escaped != null) {
+                    escaped.append(c);
+                }
+                continue;
+            }
+            if (escaped == null) {
+                escaped = new StringBuilder(value.length() + 8).append(value, 0, i);
+            }
+            if (c == '"' || c == '\\') {
+                escaped.append('\\').append(c);
+            } else {
+                escaped.append(String.format("\\u%04x", (int) c));
+            }
+        }
+        return escaped == null ? value : escaped.toString();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("PresignedUrlSigner{%s}", this.signingKey);
+    }
+}
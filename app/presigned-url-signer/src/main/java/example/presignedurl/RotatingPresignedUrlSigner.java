@@ -0,0 +1,97 @@
+package example.presignedurl;
+
+import example.signingkeycache.SigningKey;
+import example.signingkeycache.SigningKeyCache;
+import example.signingkeycache.SigningKeys;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Signs presigned URLs with whichever key the SigningKeyCache picks for the URL's expiry, see
+// SigningKeys.forUrlExpiringAt. A PresignedUrlSigner is built once per key version the first time the key is needed
+// and swapped in atomically together with the signers of the other keys that are still live, so signers for keys that
+// rotated out are dropped and a thread never sees a half-built one. Once a key has its signer, picking it only reads
+// the cached keys and the signer map.
+public class RotatingPresignedUrlSigner {
+    private final SigningKeyCache signingKeyCache;
+    private final AtomicReference<Map<String, PresignedUrlSigner>> signers =
+            new AtomicReference<>(Collections.emptyMap());
+    private final AtomicLong signersBuilt = new AtomicLong();
+
+    public RotatingPresignedUrlSigner(SigningKeyCache signingKeyCache) {
+        this.signingKeyCache = signingKeyCache;
+    }
+
+    public String createPresignedUrl(PresignedUrlRequest request) {
+        return getSigner(this.signingKeyCache.getKeys(), request).createPresignedUrl(request);
+    }
+
+    // Every URL of the batch is signed with the keys as they were when the batch started. Consecutive requests that
+    // use the same key are signed together
+    public List<String> createPresignedUrls(List<PresignedUrlRequest> requests) {
+        SigningKeys keys = this.signingKeyCache.getKeys();
+        List<String> urls = new ArrayList<>(requests.size());
+        int runStart = 0;
+        PresignedUrlSigner runSigner = null;
+        for (int i = 0; i < requests.size(); i++) {
+            PresignedUrlSigner signer = getSigner(keys, requests.get(i));
+            if (signer != runSigner) {
+                if (runSigner != null) {
+                    urls.addAll(runSigner.createPresignedUrls(requests.subList(runStart, i)));
+                }
+                runSigner = signer;
+                runStart = i;
+            }
+        }
+        if (runSigner != null) {
+            urls.addAll(runSigner.createPresignedUrls(requests.subList(runStart, requests.size())));
+        }
+        return urls;
+    }
+
+    public String signAccessToken(PresignedUrlRequest request) {
+        return getSigner(this.signingKeyCache.getKeys(), request).signAccessToken(request);
+    }
+
+    private PresignedUrlSigner getSigner(SigningKeys keys, PresignedUrlRequest request) {
+        SigningKey signingKey = keys.forUrlExpiringAt(request.getExpiresAtMillis())
+                .orElseThrow(() -> new IllegalStateException(String.format(
+                        "Neither the current nor the pending signing key is valid until %s expires", request)));
+        PresignedUrlSigner signer = this.signers.get().get(signingKey.getKeyId());
+        return signer != null ? signer : install(keys, signingKey);
+    }
+
+    // Several threads can build a signer for the same new key at once, the first one swapped in is used by all
+    private PresignedUrlSigner install(SigningKeys keys, SigningKey signingKey) {
+        PresignedUrlSigner built = new PresignedUrlSigner(signingKey);
+        this.signersBuilt.incrementAndGet();
+        while (true) {
+            Map<String, PresignedUrlSigner> existing = this.signers.get();
+            PresignedUrlSigner installed = existing.get(signingKey.getKeyId());
+            if (installed != null) {
+                return installed;
+            }
+            Map<String, PresignedUrlSigner> updated = new HashMap<>();
+            for (Optional<SigningKey> liveKey : Arrays.asList(keys.getPrevious(), keys.getCurrent(), keys.getPending())) {
+                liveKey.map(key -> existing.get(key.getKeyId()))
+                        .ifPresent(signer -> updated.put(signer.getSigningKey().getKeyId(), signer));
+            }
+            updated.put(signingKey.getKeyId(), built);
+            if (this.signers.compareAndSet(existing, Collections.unmodifiableMap(updated))) {
+                return built;
+            }
+        }
+    }
+
+    // Number of key versions parsed into a signer, including ones built by threads that lost the race to swap theirs in
+    public long getSignersBuilt() {
+        return this.signersBuilt.get();
+    }
+}
@@ -0,0 +1,101 @@
+package example.presignedurl;
+
+import example.signingkeycache.SigningKey;
+import org.junit.jupiter.api.Test;
+
+import java.security.KeyPair;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PresignedUrlSignerTest {
+    private static final KeyPair KEY_PAIR = TestSigningKeys.generateKeyPair();
+    // 2023-11-14T22:13:20Z, whole seconds so the exp claim is exact
+    private static final long URL_EXPIRES_AT_MILLIS = 1_700_000_000_000L;
+    private static final Date URL_EXPIRES_AT = new Date(URL_EXPIRES_AT_MILLIS);
+
+    private final SigningKey signingKey = TestSigningKeys.signingKey("key-id", KEY_PAIR,
+            URL_EXPIRES_AT_MILLIS + TimeUnit.DAYS.toMillis(1));
+    private final PresignedUrlSigner signer = new PresignedUrlSigner(this.signingKey);
+
+    @Test
+    public void signsWithRs256UnderTheKeyId() {
+        String token = this.signer.signAccessToken(PresignedUrlRequest.get("cache", "key", URL_EXPIRES_AT));
+
+        assertEquals("{\"alg\":\"RS256\",\"kid\":\"key-id\",\"typ\":\"JWT\"}", TestSigningKeys.header(token));
+        assertTrue(TestSigningKeys.verifies(token, KEY_PAIR));
+        assertFalse(TestSigningKeys.verifies(token, TestSigningKeys.generateKeyPair()));
+    }
+
+    @Test
+    public void getUrlHasTheGetClaimsAndNoTtl() {
+        String url = this.signer.createPresignedUrl(PresignedUrlRequest.get("cache", "key", URL_EXPIRES_AT));
+
+        assertTrue(url.startsWith("https://rest." + TestSigningKeys.ENDPOINT + "/cache/get/cache/key?token="), url);
+        String token = TestSigningKeys.tokenOf(url);
+        assertEquals("{\"exp\":1700000000,\"cache\":\"cache\",\"key\":\"key\",\"method\":[\"get\"]}",
+                TestSigningKeys.claims(token));
+        assertTrue(TestSigningKeys.verifies(token, KEY_PAIR));
+    }
+
+    @Test
+    public void setUrlCarriesTheTtlInMillisecondsAndTheClaimsInSeconds() {
+        String url = this.signer.createPresignedUrl(PresignedUrlRequest.set("cache", "key", 60, URL_EXPIRES_AT));
+
+        assertTrue(url.startsWith("https://rest." + TestSigningKeys.ENDPOINT
+                + "/cache/set/cache/key?ttl_milliseconds=60000&token="), url);
+        assertEquals("{\"exp\":1700000000,\"cache\":\"cache\",\"key\":\"key\",\"method\":[\"set\"],\"ttl\":60}",
+                TestSigningKeys.claims(TestSigningKeys.tokenOf(url)));
+    }
+
+    @Test
+    public void encodesThePathButSignsTheRawNames() {
+        String url = this.signer.createPresignedUrl(PresignedUrlRequest.get("my cache", "a/b?c=\"d\"&e+\u00e9", URL_EXPIRES_AT));
+
+        assertTrue(url.startsWith("https://rest." + TestSigningKeys.ENDPOINT
+                + "/cache/get/my%20cache/a%2Fb%3Fc%3D%22d%22%26e%2B%C3%A9?token="), url);
+        assertEquals("{\"exp\":1700000000,\"cache\":\"my cache\",\"key\":\"a/b?c=\\\"d\\\"&e+\u00e9\",\"method\":[\"get\"]}",
+                TestSigningKeys.claims(TestSigningKeys.tokenOf(url)));
+    }
+
+    @Test
+    public void rejectsAKeyThatExpiresBeforeTheUrl() {
+        PresignedUrlSigner expiringSigner = new PresignedUrlSigner(
+                TestSigningKeys.signingKey("key-id", KEY_PAIR, URL_EXPIRES_AT_MILLIS));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> expiringSigner.createPresignedUrl(PresignedUrlRequest.get("cache", "key", URL_EXPIRES_AT)));
+        assertThrows(IllegalArgumentException.class,
+                () -> expiringSigner.signAccessToken(PresignedUrlRequest.get("cache", "key", URL_EXPIRES_AT)));
+    }
+
+    @Test
+    public void batchSignsLikeOneAtATime() {
+        List<PresignedUrlRequest> requests = Arrays.asList(
+                PresignedUrlRequest.get("cache", "first", URL_EXPIRES_AT),
+                PresignedUrlRequest.set("cache", "second", 30, URL_EXPIRES_AT),
+                PresignedUrlRequest.get("other cache", "third", URL_EXPIRES_AT));
+
+        List<String> urls = this.signer.createPresignedUrls(requests);
+
+        // RS256 signatures are deterministic, so each URL matches the one signed on its own
+        assertEquals(requests.size(), urls.size());
+        for (int i = 0; i < requests.size(); i++) {
+            assertEquals(this.signer.createPresignedUrl(requests.get(i)), urls.get(i));
+        }
+    }
+
+    @Test
+    public void rejectsAKeyThatIsNotAnRsaJwk() {
+        assertThrows(IllegalArgumentException.class, () -> new PresignedUrlSigner(
+                new SigningKey("key-id", TestSigningKeys.ENDPOINT, "{\"kty\":\"EC\"}", URL_EXPIRES_AT)));
+        assertThrows(IllegalArgumentException.class, () -> new PresignedUrlSigner(
+                new SigningKey("key-id", TestSigningKeys.ENDPOINT, "not a jwk", URL_EXPIRES_AT)));
+    }
+}
@@ -0,0 +1,159 @@
+package example.presignedurl;
+
+import example.signingkeycache.SigningKey;
+import example.signingkeycache.SigningKeyCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.security.KeyPair;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RotatingPresignedUrlSignerTest {
+    private static final KeyPair FIRST_KEY_PAIR = TestSigningKeys.generateKeyPair();
+    private static final KeyPair SECOND_KEY_PAIR = TestSigningKeys.generateKeyPair();
+    private static final KeyPair THIRD_KEY_PAIR = TestSigningKeys.generateKeyPair();
+    private static final int THREADS = 8;
+
+    private final long now = System.currentTimeMillis();
+    // The first key runs out in a day, the second lasts a week and the third two
+    private final SigningKey firstKey = TestSigningKeys.signingKey("first", FIRST_KEY_PAIR, this.now + TimeUnit.DAYS.toMillis(1));
+    private final SigningKey secondKey = TestSigningKeys.signingKey("second", SECOND_KEY_PAIR, this.now + TimeUnit.DAYS.toMillis(7));
+    private final SigningKey thirdKey = TestSigningKeys.signingKey("third", THIRD_KEY_PAIR, this.now + TimeUnit.DAYS.toMillis(14));
+    private final AtomicReference<Map<String, String>> stages = new AtomicReference<>(Collections.emptyMap());
+    private final SigningKeyCache signingKeyCache = new SigningKeyCache(
+            versionStage -> Optional.ofNullable(this.stages.get().get(versionStage)));
+    private final RotatingPresignedUrlSigner signer = new RotatingPresignedUrlSigner(this.signingKeyCache);
+
+    @AfterEach
+    public void closeCache() {
+        this.signingKeyCache.close();
+    }
+
+    @Test
+    public void signsWithThePendingKeyWhenTheCurrentOneExpiresFirst() {
+        publish(this.firstKey, this.secondKey);
+
+        String shortLived = this.signer.createPresignedUrl(get("short", TimeUnit.HOURS.toMillis(1)));
+        String longLived = this.signer.createPresignedUrl(get("long", TimeUnit.DAYS.toMillis(2)));
+
+        assertSignedBy(shortLived, "first", FIRST_KEY_PAIR);
+        assertSignedBy(longLived, "second", SECOND_KEY_PAIR);
+        assertThrows(IllegalStateException.class,
+                () -> this.signer.createPresignedUrl(get("too long", TimeUnit.DAYS.toMillis(8))));
+    }
+
+    @Test
+    public void batchSignsEachUrlWithItsOwnKeyInOrder() {
+        publish(this.firstKey, this.secondKey);
+        List<PresignedUrlRequest> requests = Arrays.asList(
+                get("a", TimeUnit.HOURS.toMillis(1)),
+                get("b", TimeUnit.HOURS.toMillis(2)),
+                get("c", TimeUnit.DAYS.toMillis(2)),
+                get("d", TimeUnit.HOURS.toMillis(3)),
+                get("e", TimeUnit.DAYS.toMillis(3)));
+
+        List<String> urls = this.signer.createPresignedUrls(requests);
+
+        assertEquals(requests.size(), urls.size());
+        List<String> keyIds = Arrays.asList("first", "first", "second", "first", "second");
+        for (int i = 0; i < urls.size(); i++) {
+            assertTrue(urls.get(i).contains("/cache/get/cache/" + requests.get(i).getCacheKey() + "?"), urls.get(i));
+            assertSignedBy(urls.get(i), keyIds.get(i), keyIds.get(i).equals("first") ? FIRST_KEY_PAIR : SECOND_KEY_PAIR);
+        }
+        // One signer per key, however often the batch switches between them
+        assertEquals(2, this.signer.getSignersBuilt());
+    }
+
+    @Test
+    public void concurrentFirstUseSwapsInOneSignerForTheKey() throws Exception {
+        publish(this.firstKey, null);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<String>> urls = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                urls.add(executor.submit(() -> {
+                    start.await();
+                    return this.signer.createPresignedUrl(get("key", TimeUnit.HOURS.toMillis(1)));
+                }));
+            }
+            start.countDown();
+            for (Future<String> url : urls) {
+                assertSignedBy(url.get(10, TimeUnit.SECONDS), "first", FIRST_KEY_PAIR);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        long signersBuilt = this.signer.getSignersBuilt();
+        assertTrue(signersBuilt >= 1 && signersBuilt <= THREADS, String.valueOf(signersBuilt));
+
+        // Whichever signer won is used from then on
+        this.signer.createPresignedUrl(get("key", TimeUnit.HOURS.toMillis(1)));
+        assertEquals(signersBuilt, this.signer.getSignersBuilt());
+    }
+
+    @Test
+    public void dropsTheSignersOfKeysThatRotatedOut() {
+        publish(this.firstKey, this.secondKey);
+        this.signer.createPresignedUrl(get("a", TimeUnit.HOURS.toMillis(1)));
+        this.signer.createPresignedUrl(get("b", TimeUnit.DAYS.toMillis(2)));
+        assertEquals(2, this.signer.getSignersBuilt());
+
+        // The next rotation started, the first key isn't AWSCURRENT or AWSPENDING any more. Swapping in the third
+        // key's signer keeps the second key's and drops the first key's
+        publish(this.secondKey, this.thirdKey);
+        assertSignedBy(this.signer.createPresignedUrl(get("c", TimeUnit.DAYS.toMillis(8))), "third", THIRD_KEY_PAIR);
+        assertEquals(3, this.signer.getSignersBuilt());
+        assertSignedBy(this.signer.createPresignedUrl(get("d", TimeUnit.HOURS.toMillis(1))), "second", SECOND_KEY_PAIR);
+        assertEquals(3, this.signer.getSignersBuilt());
+
+        // Bringing the first key back has to parse it again
+        publish(this.firstKey, this.secondKey);
+        assertSignedBy(this.signer.createPresignedUrl(get("e", TimeUnit.HOURS.toMillis(1))), "first", FIRST_KEY_PAIR);
+        assertEquals(4, this.signer.getSignersBuilt());
+    }
+
+    // Makes the keys the source's AWSCURRENT and AWSPENDING and waits for the cache to read them
+    private void publish(SigningKey current, SigningKey pending) {
+        Map<String, String> stages = new HashMap<>();
+        stages.put("AWSCURRENT", TestSigningKeys.toSecretString(current));
+        if (pending != null) {
+            stages.put("AWSPENDING", TestSigningKeys.toSecretString(pending));
+        }
+        this.stages.set(stages);
+        this.signingKeyCache.refresh().join();
+        // A read that was already in flight may have returned the previous stages
+        while (!this.signingKeyCache.getCurrent().getKeyId().equals(current.getKeyId())
+                || !this.signingKeyCache.getPending().map(SigningKey::getKeyId).equals(
+                        Optional.ofNullable(pending).map(SigningKey::getKeyId))) {
+            this.signingKeyCache.refresh().join();
+        }
+    }
+
+    private PresignedUrlRequest get(String cacheKey, long expiresInMillis) {
+        return PresignedUrlRequest.get("cache", cacheKey, new Date(this.now + expiresInMillis));
+    }
+
+    private static void assertSignedBy(String url, String keyId, KeyPair keyPair) {
+        String token = TestSigningKeys.tokenOf(url);
+        assertTrue(TestSigningKeys.header(token).contains("\"kid\":\"" + keyId + "\""), url);
+        assertTrue(TestSigningKeys.verifies(token, keyPair), url);
+    }
+}
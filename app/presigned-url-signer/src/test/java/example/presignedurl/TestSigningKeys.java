@@ -0,0 +1,106 @@
+package example.presignedurl;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import example.signingkeycache.SigningKey;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+import java.security.interfaces.RSAPrivateCrtKey;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+
+// RSA signing keys generated for the tests, in the JWK form Momento hands out and the lambda stores
+final class TestSigningKeys {
+    static final String ENDPOINT = "cell-us-east-1-1.prod.a.momentohq.com";
+    private static final Base64.Encoder BASE64_URL = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder BASE64_URL_DECODER = Base64.getUrlDecoder();
+
+    private TestSigningKeys() {
+    }
+
+    static KeyPair generateKeyPair() {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(2048);
+            return generator.generateKeyPair();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static SigningKey signingKey(String keyId, KeyPair keyPair, long expiresAtMillis) {
+        return new SigningKey(keyId, ENDPOINT, toJwk(keyPair), new Date(expiresAtMillis));
+    }
+
+    // The signing key as the lambda stores it in Secrets Manager
+    static String toSecretString(SigningKey signingKey) {
+        JsonObject secret = new JsonObject();
+        secret.addProperty("key_id", signingKey.getKeyId());
+        secret.addProperty("endpoint", signingKey.getEndpoint());
+        secret.addProperty("key", signingKey.getKey());
+        secret.addProperty("expires_at", Instant.ofEpochMilli(signingKey.getExpiresAtMillis()).toString());
+        return new Gson().toJson(secret);
+    }
+
+    static String toJwk(KeyPair keyPair) {
+        RSAPrivateCrtKey privateKey = (RSAPrivateCrtKey) keyPair.getPrivate();
+        JsonObject jwk = new JsonObject();
+        jwk.addProperty("kty", "RSA");
+        jwk.addProperty("alg", "RS256");
+        jwk.addProperty("n", encode(privateKey.getModulus()));
+        jwk.addProperty("e", encode(privateKey.getPublicExponent()));
+        jwk.addProperty("d", encode(privateKey.getPrivateExponent()));
+        jwk.addProperty("p", encode(privateKey.getPrimeP()));
+        jwk.addProperty("q", encode(privateKey.getPrimeQ()));
+        jwk.addProperty("dp", encode(privateKey.getPrimeExponentP()));
+        jwk.addProperty("dq", encode(privateKey.getPrimeExponentQ()));
+        jwk.addProperty("qi", encode(privateKey.getCrtCoefficient()));
+        return new Gson().toJson(jwk);
+    }
+
+    // The access token at the end of a presigned URL
+    static String tokenOf(String url) {
+        return url.substring(url.indexOf("token=") + "token=".length());
+    }
+
+    static String header(String token) {
+        return decode(token.split("\\.")[0]);
+    }
+
+    static String claims(String token) {
+        return decode(token.split("\\.")[1]);
+    }
+
+    static boolean verifies(String token, KeyPair keyPair) {
+        int signatureStart = token.lastIndexOf('.');
+        try {
+            Signature signature = Signature.getInstance("SHA256withRSA");
+            signature.initVerify(keyPair.getPublic());
+            signature.update(token.substring(0, signatureStart).getBytes(StandardCharsets.US_ASCII));
+            return signature.verify(BASE64_URL_DECODER.decode(token.substring(signatureStart + 1)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String encode(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        // JWK integers are unsigned, drop the sign byte BigInteger adds when the top bit is set
+        if (bytes.length > 1 && bytes[0] == 0) {
+            byte[] unsigned = new byte[bytes.length - 1];
+            System.arraycopy(bytes, 1, unsigned, 0, unsigned.length);
+            bytes = unsigned;
+        }
+        return BASE64_URL.encodeToString(bytes);
+    }
+
+    private static String decode(String part) {
+        return new String(BASE64_URL_DECODER.decode(part), StandardCharsets.UTF_8);
+    }
+}
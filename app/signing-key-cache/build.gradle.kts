@@ -0,0 +1,41 @@
+plugins {
+    `java-library`
+    `maven-publish`
+}
+
+repositories {
+    mavenLocal()
+    maven {
+        url = uri("https://repo.maven.apache.org/maven2/")
+    }
+}
+
+val javaSdkVersion = rootProject.ext["javaSdkVersion"]
+
+// Reader-side library for services that consume the signing keys the lambda writes to Secrets Manager. It only
+// depends on the Secrets Manager client and Gson so it can be pulled into any JVM service.
+dependencies {
+    api("com.amazonaws:aws-java-sdk-secretsmanager:$javaSdkVersion")
+    implementation("com.google.code.gson:gson:2.8.9")
+    testImplementation("org.junit.jupiter:junit-jupiter-api:5.6.0")
+    testImplementation("org.junit.jupiter:junit-jupiter-engine:5.6.0")
+}
+
+group = "com.example"
+version = "1.0-SNAPSHOT"
+description = "momento-signing-key-cache"
+java.sourceCompatibility = JavaVersion.VERSION_1_8
+
+publishing {
+    publications.create<MavenPublication>("maven") {
+        from(components["java"])
+    }
+}
+
+tasks.test {
+    useJUnitPlatform()
+}
+
+tasks.withType<JavaCompile>() {
+    options.encoding = "UTF-8"
+}
@@ -0,0 +1,76 @@
+package example.signingkeycache;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Refreshes a SigningKeyCache as soon as the lambda announces a new key, instead of waiting for the cache's max age.
+// The lambda writes the announcement to a Momento cache item (KEYSET_NOTIFICATION_CACHE_NAME, key
+// "keyset-notification/<secret name>"). This library doesn't depend on the Momento SDK, so the caller passes in how to
+// read it, e.g. () -> momentoClient.get(cacheName, "keyset-notification/momento/signing-key").string(). Reading that
+// item is a cheap cache hit, the secret is only read again when the announcement changes.
+public class KeysetChangeWatcher implements AutoCloseable {
+    public static final long DEFAULT_POLL_INTERVAL_MILLIS = TimeUnit.SECONDS.toMillis(10);
+
+    private final SigningKeyCache cache;
+    private final Supplier<Optional<String>> notification;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "keyset-change-watcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Only touched by the scheduler thread
+    private Optional<String> lastNotification;
+
+    private final AtomicLong refreshes = new AtomicLong();
+    private final AtomicLong failedPolls = new AtomicLong();
+
+    public KeysetChangeWatcher(SigningKeyCache cache, Supplier<Optional<String>> notification) {
+        this(cache, notification, DEFAULT_POLL_INTERVAL_MILLIS);
+    }
+
+    public KeysetChangeWatcher(SigningKeyCache cache, Supplier<Optional<String>> notification, long pollIntervalMillis) {
+        if (pollIntervalMillis <= 0) {
+            throw new IllegalArgumentException(String.format("Expected a positive poll interval, got %d", pollIntervalMillis));
+        }
+        this.cache = cache;
+        this.notification = notification;
+        this.scheduler.scheduleWithFixedDelay(this::poll, 0, pollIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void poll() {
+        Optional<String> current;
+        try {
+            current = this.notification.get();
+        } catch (RuntimeException e) {
+            // The cache still refreshes on its own schedule
+            this.failedPolls.incrementAndGet();
+            return;
+        }
+        // The first poll only learns the starting point, the cache reads the keys on its own when it's created
+        if (this.lastNotification != null && current.isPresent() && !Objects.equals(current, this.lastNotification)) {
+            this.refreshes.incrementAndGet();
+            this.cache.refresh();
+        }
+        this.lastNotification = current;
+    }
+
+    // Number of times a new announcement made the cache re-read the keys
+    public long getRefreshes() {
+        return this.refreshes.get();
+    }
+
+    public long getFailedPolls() {
+        return this.failedPolls.get();
+    }
+
+    @Override
+    public void close() {
+        this.scheduler.shutdownNow();
+    }
+}
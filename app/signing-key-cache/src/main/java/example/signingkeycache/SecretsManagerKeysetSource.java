@@ -0,0 +1,76 @@
+package example.signingkeycache;
+
+import com.amazonaws.services.secretsmanager.AWSSecretsManager;
+import com.amazonaws.services.secretsmanager.model.GetSecretValueRequest;
+import com.amazonaws.services.secretsmanager.model.ResourceNotFoundException;
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+// Reads the keyset document the lambda publishes when KEYSET_SECRET_SUFFIX is set, so the previous, current and next
+// keys all come from a single GetSecretValue call and from the same moment in the rotation. The keyset's previous,
+// current and next keys are returned as the AWSPREVIOUS, AWSCURRENT and AWSPENDING stages of the signing key secret.
+public class SecretsManagerKeysetSource implements SigningKeySource {
+    private static final Gson GSON = new Gson();
+    private static final Map<String, String> STAGE_FIELDS;
+
+    static {
+        Map<String, String> stageFields = new HashMap<>();
+        stageFields.put("AWSPREVIOUS", "previous");
+        stageFields.put("AWSCURRENT", "current");
+        stageFields.put("AWSPENDING", "next");
+        STAGE_FIELDS = Collections.unmodifiableMap(stageFields);
+    }
+
+    private final AWSSecretsManager secretsManager;
+    private final String keysetSecretId;
+
+    // keysetSecretId is the signing key secret's name followed by KEYSET_SECRET_SUFFIX, e.g. "momento/signing-key/keyset"
+    public SecretsManagerKeysetSource(AWSSecretsManager secretsManager, String keysetSecretId) {
+        this.secretsManager = secretsManager;
+        this.keysetSecretId = keysetSecretId;
+    }
+
+    @Override
+    public Optional<String> getSecretString(String versionStage) {
+        return Optional.ofNullable(getSecretStrings(Collections.singletonList(versionStage)).get(versionStage));
+    }
+
+    // Always returns every key in the keyset, whichever stages were asked for
+    @Override
+    public Map<String, String> getSecretStrings(List<String> versionStages) {
+        Optional<String> keyset = readKeyset();
+        if (!keyset.isPresent()) {
+            return Collections.emptyMap();
+        }
+        JsonElement document = JsonParser.parseString(keyset.get());
+        if (!document.isJsonObject()) {
+            throw new IllegalArgumentException("Secret does not hold a signing keyset");
+        }
+        JsonObject keysetObject = document.getAsJsonObject();
+        Map<String, String> secretStrings = new HashMap<>();
+        for (Map.Entry<String, String> stageField : STAGE_FIELDS.entrySet()) {
+            JsonElement signingKey = keysetObject.get(stageField.getValue());
+            if (signingKey != null && signingKey.isJsonObject()) {
+                secretStrings.put(stageField.getKey(), GSON.toJson(signingKey));
+            }
+        }
+        return secretStrings;
+    }
+
+    private Optional<String> readKeyset() {
+        try {
+            return Optional.ofNullable(this.secretsManager.getSecretValue(new GetSecretValueRequest()
+                    .withSecretId(this.keysetSecretId)).getSecretString());
+        } catch (ResourceNotFoundException e) {
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package example.signingkeycache;
+
+import com.amazonaws.services.secretsmanager.AWSSecretsManager;
+import com.amazonaws.services.secretsmanager.model.GetSecretValueRequest;
+import com.amazonaws.services.secretsmanager.model.ResourceNotFoundException;
+
+import java.util.Optional;
+
+public class SecretsManagerSigningKeySource implements SigningKeySource {
+    private final AWSSecretsManager secretsManager;
+    private final String secretId;
+
+    public SecretsManagerSigningKeySource(AWSSecretsManager secretsManager, String secretId) {
+        this.secretsManager = secretsManager;
+        this.secretId = secretId;
+    }
+
+    @Override
+    public Optional<String> getSecretString(String versionStage) {
+        try {
+            return Optional.ofNullable(this.secretsManager.getSecretValue(new GetSecretValueRequest()
+                    .withSecretId(this.secretId)
+                    .withVersionStage(versionStage)).getSecretString());
+        } catch (ResourceNotFoundException e) {
+            return Optional.empty();
+        }
+    }
+}
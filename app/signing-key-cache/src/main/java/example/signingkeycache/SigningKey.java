@@ -0,0 +1,49 @@
+package example.signingkeycache;
+
+import java.util.Date;
+
+// Reader-side view of the signing key JSON the lambda stores in Secrets Manager
+public final class SigningKey {
+    private final String keyId;
+    private final String endpoint;
+    private final String key;
+    private final Date expiresAt;
+
+    public SigningKey(String keyId, String endpoint, String key, Date expiresAt) {
+        this.keyId = keyId;
+        this.endpoint = endpoint;
+        this.key = key;
+        this.expiresAt = new Date(expiresAt.getTime());
+    }
+
+    public String getKeyId() {
+        return this.keyId;
+    }
+
+    public String getEndpoint() {
+        return this.endpoint;
+    }
+
+    // The JWK used to sign presigned URLs
+    public String getKey() {
+        return this.key;
+    }
+
+    public Date getExpiresAt() {
+        return new Date(this.expiresAt.getTime());
+    }
+
+    public long getExpiresAtMillis() {
+        return this.expiresAt.getTime();
+    }
+
+    public boolean isValidAt(long epochMillis) {
+        return epochMillis < this.expiresAt.getTime();
+    }
+
+    @Override
+    public String toString() {
+        // Never log the key itself
+        return String.format("SigningKey{keyId=%s, endpoint=%s, expiresAt=%s}", this.keyId, this.endpoint, this.expiresAt);
+    }
+}
@@ -0,0 +1,230 @@
+package example.signingkeycache;
+
+import com.google.gson.FieldNamingPolicy;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Keeps the current and pending signing keys in memory so signing a presigned URL never waits on Secrets Manager.
+// The keys are re-read in the background before they go stale: maxAgeMillis after they were read so a rotation is
+// picked up, and refreshMarginMillis before the current key expires at the latest. Callers keep being served the
+// keys they have while a refresh runs, and only block when there's no key left that hasn't expired. However many
+// callers find the keys missing at once, Secrets Manager is only read once.
+public class SigningKeyCache implements AutoCloseable {
+    public static final long DEFAULT_MAX_AGE_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    public static final long DEFAULT_REFRESH_MARGIN_MILLIS = TimeUnit.HOURS.toMillis(1);
+    private static final String AWSCURRENT = "AWSCURRENT";
+    private static final String AWSPENDING = "AWSPENDING";
+    private static final String AWSPREVIOUS = "AWSPREVIOUS";
+    private static final List<String> VERSION_STAGES = Arrays.asList(AWSCURRENT, AWSPENDING);
+    private static final long MIN_RETRY_DELAY_MILLIS = TimeUnit.SECONDS.toMillis(1);
+    // Reads what the lambda's Gson writes. Its dates carry no time zone and are always in UTC
+    private static final Gson GSON = new GsonBuilder()
+            .setFieldNamingPolicy(FieldNamingPolicy.LOWER_CASE_WITH_UNDERSCORES)
+            .registerTypeAdapter(Date.class, new UtcDateTypeAdapter())
+            .create();
+
+    private final SigningKeySource source;
+    private final long maxAgeMillis;
+    private final long refreshMarginMillis;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "signing-key-cache-refresher");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicReference<CompletableFuture<SigningKeys>> inFlight = new AtomicReference<>();
+
+    private volatile SigningKeys keys;
+    private volatile RuntimeException lastRefreshError;
+    private ScheduledFuture<?> scheduledRefresh;
+    private int consecutiveFailures;
+
+    private final AtomicLong fetches = new AtomicLong();
+    private final AtomicLong failedFetches = new AtomicLong();
+    private final AtomicLong coalescedLoads = new AtomicLong();
+
+    public SigningKeyCache(SigningKeySource source) {
+        this(source, DEFAULT_MAX_AGE_MILLIS, DEFAULT_REFRESH_MARGIN_MILLIS);
+    }
+
+    // Starts reading the keys in the background right away so they're usually there by the first request
+    public SigningKeyCache(SigningKeySource source, long maxAgeMillis, long refreshMarginMillis) {
+        if (maxAgeMillis <= 0 || refreshMarginMillis < 0) {
+            throw new IllegalArgumentException(String.format(
+                    "Expected a positive max age and a non-negative refresh margin, got %d and %d",
+                    maxAgeMillis, refreshMarginMillis));
+        }
+        this.source = source;
+        this.maxAgeMillis = maxAgeMillis;
+        this.refreshMarginMillis = refreshMarginMillis;
+        this.scheduler.execute(this::refresh);
+    }
+
+    public SigningKey getCurrent() {
+        return getKeys().getCurrent()
+                .orElseThrow(() -> new IllegalStateException("The signing key secret has no AWSCURRENT version"));
+    }
+
+    public Optional<SigningKey> getPending() {
+        return getKeys().getPending();
+    }
+
+    // The key to sign a presigned URL that expires at urlExpiresAt with, see SigningKeys.forUrlExpiringAt
+    public SigningKey getForUrlExpiringAt(Date urlExpiresAt) {
+        return getKeys().forUrlExpiringAt(urlExpiresAt.getTime())
+                .orElseThrow(() -> new IllegalStateException(String.format(
+                        "Neither the current nor the pending signing key is valid until %s", urlExpiresAt)));
+    }
+
+    // Returns the cached keys if the current one hasn't expired yet, and otherwise waits for them to be read
+    public SigningKeys getKeys() {
+        SigningKeys keys = this.keys;
+        if (keys != null && keys.getCurrent().filter(key -> key.isValidAt(System.currentTimeMillis())).isPresent()) {
+            return keys;
+        }
+        try {
+            return refresh().join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    // Re-reads the keys, or joins the read already in flight
+    public CompletableFuture<SigningKeys> refresh() {
+        while (true) {
+            CompletableFuture<SigningKeys> existing = this.inFlight.get();
+            if (existing != null) {
+                this.coalescedLoads.incrementAndGet();
+                return existing;
+            }
+            CompletableFuture<SigningKeys> mine = new CompletableFuture<>();
+            if (this.inFlight.compareAndSet(null, mine)) {
+                try {
+                    this.scheduler.execute(() -> fetchInto(mine));
+                } catch (RejectedExecutionException e) {
+                    // Closed, so nothing will ever complete the read. Callers get the error instead of waiting forever
+                    this.inFlight.set(null);
+                    mine.completeExceptionally(new IllegalStateException("The signing key cache is closed", e));
+                }
+                return mine;
+            }
+        }
+    }
+
+    // The read is cleared from inFlight however it ends, an Error from the source included, so a failed read never
+    // leaves later callers joining a future nothing will complete
+    private void fetchInto(CompletableFuture<SigningKeys> result) {
+        this.fetches.incrementAndGet();
+        long nextRefreshDelayMillis;
+        try {
+            Map<String, String> secretStrings = this.source.getSecretStrings(VERSION_STAGES);
+            SigningKeys keys = new SigningKeys(read(secretStrings, AWSPREVIOUS),
+                    read(secretStrings, AWSCURRENT),
+                    read(secretStrings, AWSPENDING),
+                    System.currentTimeMillis());
+            this.keys = keys;
+            this.lastRefreshError = null;
+            this.consecutiveFailures = 0;
+            nextRefreshDelayMillis = refreshDelayMillis(keys);
+            this.inFlight.set(null);
+            result.complete(keys);
+        } catch (Throwable e) {
+            this.failedFetches.incrementAndGet();
+            this.lastRefreshError = e instanceof RuntimeException
+                    ? (RuntimeException) e
+                    : new IllegalStateException("Failed to read the signing keys", e);
+            this.consecutiveFailures++;
+            nextRefreshDelayMillis = retryDelayMillis();
+            this.inFlight.set(null);
+            result.completeExceptionally(e);
+        }
+        scheduleRefresh(nextRefreshDelayMillis);
+    }
+
+    private static Optional<SigningKey> read(Map<String, String> secretStrings, String versionStage) {
+        return Optional.ofNullable(secretStrings.get(versionStage)).map(SigningKeyCache::parse);
+    }
+
+    static SigningKey parse(String secretString) {
+        StoredSigningKey stored = GSON.fromJson(secretString, StoredSigningKey.class);
+        if (stored == null || stored.keyId == null || stored.key == null || stored.expiresAt == null) {
+            throw new IllegalArgumentException("Secret does not hold a signing key");
+        }
+        return new SigningKey(stored.keyId, stored.endpoint, stored.key, stored.expiresAt);
+    }
+
+    private long refreshDelayMillis(SigningKeys keys) {
+        long now = System.currentTimeMillis();
+        long refreshAt = now + this.maxAgeMillis;
+        if (keys.getCurrent().isPresent()) {
+            refreshAt = Math.min(refreshAt, keys.getCurrent().get().getExpiresAtMillis() - this.refreshMarginMillis);
+        }
+        return Math.max(MIN_RETRY_DELAY_MILLIS, refreshAt - now);
+    }
+
+    // Doubles from one second up to maxAgeMillis while Secrets Manager keeps failing
+    private long retryDelayMillis() {
+        long delay = MIN_RETRY_DELAY_MILLIS << Math.min(20, this.consecutiveFailures - 1);
+        return Math.min(this.maxAgeMillis, delay);
+    }
+
+    // Only called from the scheduler thread
+    private void scheduleRefresh(long delayMillis) {
+        if (this.scheduledRefresh != null) {
+            this.scheduledRefresh.cancel(false);
+        }
+        try {
+            this.scheduledRefresh = this.scheduler.schedule(this::refresh, delayMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Closed, the keys are no longer refreshed
+        }
+    }
+
+    public Optional<RuntimeException> getLastRefreshError() {
+        return Optional.ofNullable(this.lastRefreshError);
+    }
+
+    // Number of times Secrets Manager was read, each read fetches both stages
+    public long getFetches() {
+        return this.fetches.get();
+    }
+
+    public long getFailedFetches() {
+        return this.failedFetches.get();
+    }
+
+    // Number of refreshes that joined a read already in flight instead of starting their own
+    public long getCoalescedLoads() {
+        return this.coalescedLoads.get();
+    }
+
+    @Override
+    public void close() {
+        this.scheduler.shutdownNow();
+    }
+
+    // Gson target matching the lambda's serialized MomentoSigningKey
+    private static final class StoredSigningKey {
+        private String keyId;
+        private String endpoint;
+        private String key;
+        private Date expiresAt;
+    }
+}
@@ -0,0 +1,22 @@
+package example.signingkeycache;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+// Where the cache reads signing keys from. Returns the secret string stored in the given version stage, or empty if
+// no version has that stage, which is the normal state for AWSPENDING outside of a rotation.
+public interface SigningKeySource {
+    Optional<String> getSecretString(String versionStage);
+
+    // The secret strings of every stage that has one, read together. The default reads the stages one by one, sources
+    // that get several stages from one request override it and may also return stages that weren't asked for
+    default Map<String, String> getSecretStrings(List<String> versionStages) {
+        Map<String, String> secretStrings = new HashMap<>();
+        for (String versionStage : versionStages) {
+            getSecretString(versionStage).ifPresent(secretString -> secretStrings.put(versionStage, secretString));
+        }
+        return secretStrings;
+    }
+}
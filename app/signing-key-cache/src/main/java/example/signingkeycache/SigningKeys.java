@@ -0,0 +1,51 @@
+package example.signingkeycache;
+
+import java.util.Optional;
+
+// Immutable snapshot of the AWSCURRENT and AWSPENDING signing keys as of one read from Secrets Manager, and of the key
+// AWSCURRENT replaced when they were read from a keyset
+public final class SigningKeys {
+    private final Optional<SigningKey> previous;
+    private final Optional<SigningKey> current;
+    private final Optional<SigningKey> pending;
+    private final long fetchedAtMillis;
+
+    public SigningKeys(Optional<SigningKey> current, Optional<SigningKey> pending, long fetchedAtMillis) {
+        this(Optional.empty(), current, pending, fetchedAtMillis);
+    }
+
+    public SigningKeys(Optional<SigningKey> previous, Optional<SigningKey> current, Optional<SigningKey> pending, long fetchedAtMillis) {
+        this.previous = previous;
+        this.current = current;
+        this.pending = pending;
+        this.fetchedAtMillis = fetchedAtMillis;
+    }
+
+    // Only known when the keys come from a keyset. It's still valid until it expires, so URLs signed with it just
+    // before a rotation keep working
+    public Optional<SigningKey> getPrevious() {
+        return this.previous;
+    }
+
+    public Optional<SigningKey> getCurrent() {
+        return this.current;
+    }
+
+    // Only present between the createSecret and finishSecret steps of a rotation
+    public Optional<SigningKey> getPending() {
+        return this.pending;
+    }
+
+    public long getFetchedAtMillis() {
+        return this.fetchedAtMillis;
+    }
+
+    // The key to sign a URL that must stay valid until urlExpiresAtMillis: the current key if it lives that long,
+    // otherwise the pending key if that one does
+    public Optional<SigningKey> forUrlExpiringAt(long urlExpiresAtMillis) {
+        if (this.current.filter(key -> key.isValidAt(urlExpiresAtMillis)).isPresent()) {
+            return this.current;
+        }
+        return this.pending.filter(key -> key.isValidAt(urlExpiresAtMillis));
+    }
+}
@@ -0,0 +1,76 @@
+package example.signingkeycache;
+
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.text.DateFormat;
+import java.text.ParsePosition;
+import java.text.SimpleDateFormat;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+
+// Gson's default date format, en-US with no time zone, but always in UTC rather than the JVM's zone. The lambda
+// writes expires_at with it and the signing key cache reads it back, so neither side shifts the expiry by its own
+// zone. Parsing also accepts the format of older JDKs and ISO 8601 dates with an offset.
+public final class UtcDateTypeAdapter extends TypeAdapter<Date> {
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+    // The en-US default format differs between JDKs: older ones have no comma after the year
+    private static final String[] US_PATTERNS = {"MMM d, yyyy, h:mm:ss a", "MMM d, yyyy h:mm:ss a"};
+
+    // Not thread-safe, like every DateFormat
+    public static DateFormat newDateFormat() {
+        DateFormat format = DateFormat.getDateTimeInstance(DateFormat.DEFAULT, DateFormat.DEFAULT, Locale.US);
+        format.setTimeZone(UTC);
+        return format;
+    }
+
+    @Override
+    public void write(JsonWriter out, Date value) throws IOException {
+        if (value == null) {
+            out.nullValue();
+            return;
+        }
+        out.value(newDateFormat().format(value));
+    }
+
+    @Override
+    public Date read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return parse(in.nextString());
+    }
+
+    static Date parse(String date) {
+        // Newer JDKs put a narrow no-break space before AM/PM
+        String normalized = date.replace('\u202f', ' ');
+        Date parsed = parseFully(newDateFormat(), normalized);
+        for (int i = 0; parsed == null && i < US_PATTERNS.length; i++) {
+            SimpleDateFormat format = new SimpleDateFormat(US_PATTERNS[i], Locale.US);
+            format.setTimeZone(UTC);
+            parsed = parseFully(format, normalized);
+        }
+        if (parsed != null) {
+            return parsed;
+        }
+        try {
+            return Date.from(OffsetDateTime.parse(date).toInstant());
+        } catch (DateTimeParseException e) {
+            throw new JsonSyntaxException(String.format("Unparseable date: %s", date), e);
+        }
+    }
+
+    private static Date parseFully(DateFormat format, String date) {
+        ParsePosition position = new ParsePosition(0);
+        Date parsed = format.parse(date, position);
+        return position.getIndex() == date.length() ? parsed : null;
+    }
+}
@@ -0,0 +1,233 @@
+package example.signingkeycache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SigningKeyCacheTest {
+    private static final long TIMEOUT_SECONDS = 10;
+    private static final int THREADS = 8;
+
+    private final FakeSigningKeySource source = new FakeSigningKeySource();
+    private SigningKeyCache cache;
+
+    @AfterEach
+    public void closeCache() {
+        if (this.cache != null) {
+            this.cache.close();
+        }
+    }
+
+    @Test
+    public void concurrentCallersShareOneRead() throws Exception {
+        this.source.setCurrent("first", System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1));
+        this.source.hold();
+        this.cache = new SigningKeyCache(this.source);
+        // The cache's own first read is now waiting on the source
+        assertTrue(this.source.entered.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<SigningKeys>> keys = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                keys.add(executor.submit(() -> this.cache.getKeys()));
+            }
+            waitUntil(() -> this.cache.getCoalescedLoads() >= THREADS);
+            this.source.release();
+
+            SigningKeys first = keys.get(0).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            for (Future<SigningKeys> key : keys) {
+                assertSame(first, key.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, this.cache.getFetches());
+        assertEquals("first", this.cache.getCurrent().getKeyId());
+    }
+
+    @Test
+    public void refreshesRefreshMarginBeforeTheCurrentKeyExpires() throws Exception {
+        long expiresAt = System.currentTimeMillis() + 3_000;
+        this.source.setCurrent("first", expiresAt);
+        this.cache = new SigningKeyCache(this.source, TimeUnit.HOURS.toMillis(1), 1_500);
+        this.cache.getKeys();
+
+        waitUntil(() -> this.source.getCalls() >= 2);
+
+        // Scheduled from expiresAt, long before the hour-long max age
+        long refreshedAt = this.source.getCallTimes().get(1);
+        assertTrue(refreshedAt >= expiresAt - 1_500 - 100, String.valueOf(expiresAt - refreshedAt));
+        assertTrue(refreshedAt < expiresAt, String.valueOf(expiresAt - refreshedAt));
+    }
+
+    @Test
+    public void refreshesAfterMaxAgeWhileTheKeyIsFarFromExpiring() throws Exception {
+        this.source.setCurrent("first", System.currentTimeMillis() + TimeUnit.DAYS.toMillis(1));
+        this.cache = new SigningKeyCache(this.source, 1_000, TimeUnit.HOURS.toMillis(1));
+        SigningKeys keys = this.cache.getKeys();
+
+        this.source.setCurrent("second", System.currentTimeMillis() + TimeUnit.DAYS.toMillis(2));
+        waitUntil(() -> this.source.getCalls() >= 2);
+        waitUntil(() -> "second".equals(this.cache.getCurrent().getKeyId()));
+
+        long readAfterMillis = this.source.getCallTimes().get(1) - keys.getFetchedAtMillis();
+        assertTrue(readAfterMillis >= 900, String.valueOf(readAfterMillis));
+    }
+
+    @Test
+    public void keepsServingTheStillValidKeyWhenARefreshFails() {
+        this.source.setCurrent("first", System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1));
+        this.cache = new SigningKeyCache(this.source);
+        this.cache.getKeys();
+        IllegalStateException failure = new IllegalStateException("Secrets Manager is down");
+        this.source.fail(failure);
+
+        CompletionException e = assertThrows(CompletionException.class, () -> this.cache.refresh().join());
+
+        assertSame(failure, e.getCause());
+        assertEquals("first", this.cache.getCurrent().getKeyId());
+        assertEquals(Optional.of(failure), this.cache.getLastRefreshError());
+        assertEquals(1, this.cache.getFailedFetches());
+    }
+
+    @Test
+    public void waitsForANewKeyOnceTheCachedOneHasExpired() {
+        this.source.setCurrent("first", System.currentTimeMillis() - 1);
+        this.cache = new SigningKeyCache(this.source);
+        this.cache.refresh().join();
+        this.source.setCurrent("second", System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1));
+
+        assertEquals("second", this.cache.getCurrent().getKeyId());
+    }
+
+    @Test
+    public void anErrorFromTheSourceDoesNotLeaveLaterReadsWaiting() throws Exception {
+        this.source.setCurrent("first", System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1));
+        this.source.fail(new AssertionError("not a RuntimeException"));
+        this.cache = new SigningKeyCache(this.source);
+        ExecutionException e = assertThrows(ExecutionException.class,
+                () -> this.cache.refresh().get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof AssertionError, String.valueOf(e.getCause()));
+
+        this.source.fail(null);
+
+        assertEquals("first", this.cache.refresh().get(TIMEOUT_SECONDS, TimeUnit.SECONDS).getCurrent().get().getKeyId());
+    }
+
+    @Test
+    public void readsAfterCloseFailInsteadOfWaiting() throws Exception {
+        this.source.setCurrent("first", System.currentTimeMillis() - 1);
+        this.cache = new SigningKeyCache(this.source);
+        this.cache.close();
+
+        for (int i = 0; i < 2; i++) {
+            ExecutionException e = assertThrows(ExecutionException.class,
+                    () -> this.cache.refresh().get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            assertTrue(e.getCause() instanceof IllegalStateException, String.valueOf(e.getCause()));
+        }
+        assertThrows(IllegalStateException.class, () -> this.cache.getKeys());
+    }
+
+    @Test
+    public void parsesTheExpiryTheLambdaWritesInUtc() {
+        SigningKey signingKey = SigningKeyCache.parse(
+                "{\"key_id\":\"first\",\"endpoint\":\"endpoint\",\"key\":\"jwk\",\"expires_at\":\"Nov 14, 2023, 10:13:20 PM\"}");
+
+        assertEquals(1_700_000_000_000L, signingKey.getExpiresAtMillis());
+    }
+
+    private static void waitUntil(Condition condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS);
+        while (!condition.holds()) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("Timed out waiting for the cache");
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    private interface Condition {
+        boolean holds();
+    }
+
+    // Serves the current key as the lambda stores it, and can be held or made to fail
+    private static class FakeSigningKeySource implements SigningKeySource {
+        private final CountDownLatch entered = new CountDownLatch(1);
+        private final List<Long> callTimes = Collections.synchronizedList(new ArrayList<>());
+        private volatile Map<String, String> secretStrings = Collections.emptyMap();
+        private volatile CountDownLatch held = new CountDownLatch(0);
+        private volatile Throwable failure;
+
+        void setCurrent(String keyId, long expiresAtMillis) {
+            Map<String, String> secretStrings = new HashMap<>();
+            secretStrings.put("AWSCURRENT", String.format("{\"key_id\":\"%s\",\"endpoint\":\"endpoint\",\"key\":\"jwk\",\"expires_at\":\"%s\"}",
+                    keyId, Instant.ofEpochMilli(expiresAtMillis)));
+            this.secretStrings = secretStrings;
+        }
+
+        void hold() {
+            this.held = new CountDownLatch(1);
+        }
+
+        void release() {
+            this.held.countDown();
+        }
+
+        void fail(Throwable failure) {
+            this.failure = failure;
+        }
+
+        int getCalls() {
+            return this.callTimes.size();
+        }
+
+        List<Long> getCallTimes() {
+            return new ArrayList<>(this.callTimes);
+        }
+
+        @Override
+        public Optional<String> getSecretString(String versionStage) {
+            throw new UnsupportedOperationException("The cache reads every stage at once");
+        }
+
+        @Override
+        public Map<String, String> getSecretStrings(List<String> versionStages) {
+            this.callTimes.add(System.currentTimeMillis());
+            this.entered.countDown();
+            try {
+                this.held.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+            Throwable failure = this.failure;
+            if (failure instanceof RuntimeException) {
+                throw (RuntimeException) failure;
+            }
+            if (failure instanceof Error) {
+                throw (Error) failure;
+            }
+            return this.secretStrings;
+        }
+    }
+}
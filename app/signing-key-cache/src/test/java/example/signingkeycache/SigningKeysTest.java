@@ -0,0 +1,43 @@
+package example.signingkeycache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class SigningKeysTest {
+    private static final long CURRENT_EXPIRES_AT = 1_700_000_000_000L;
+    private static final long PENDING_EXPIRES_AT = CURRENT_EXPIRES_AT + 1_000_000;
+
+    private final SigningKey current = new SigningKey("current", "endpoint", "jwk", new Date(CURRENT_EXPIRES_AT));
+    private final SigningKey pending = new SigningKey("pending", "endpoint", "jwk", new Date(PENDING_EXPIRES_AT));
+    private final SigningKeys keys = new SigningKeys(Optional.of(this.current), Optional.of(this.pending), 0);
+
+    @Test
+    public void signsWithTheCurrentKeyWhileItOutlivesTheUrl() {
+        assertEquals(Optional.of(this.current), this.keys.forUrlExpiringAt(CURRENT_EXPIRES_AT - 1));
+    }
+
+    @Test
+    public void signsWithThePendingKeyOnceTheCurrentOneExpiresFirst() {
+        // A key is no longer valid at the instant it expires
+        assertEquals(Optional.of(this.pending), this.keys.forUrlExpiringAt(CURRENT_EXPIRES_AT));
+        assertEquals(Optional.of(this.pending), this.keys.forUrlExpiringAt(PENDING_EXPIRES_AT - 1));
+    }
+
+    @Test
+    public void hasNoKeyForAUrlThatOutlivesBoth() {
+        assertEquals(Optional.empty(), this.keys.forUrlExpiringAt(PENDING_EXPIRES_AT));
+        assertEquals(Optional.empty(), new SigningKeys(Optional.of(this.current), Optional.empty(), 0)
+                .forUrlExpiringAt(CURRENT_EXPIRES_AT));
+    }
+
+    @Test
+    public void neverSignsWithThePreviousKey() {
+        SigningKeys withPrevious = new SigningKeys(Optional.of(this.pending), Optional.of(this.current), Optional.empty(), 0);
+
+        assertEquals(Optional.empty(), withPrevious.forUrlExpiringAt(CURRENT_EXPIRES_AT));
+    }
+}
@@ -1,6 +1,8 @@
 plugins {
     java
+    `java-test-fixtures`
     `maven-publish`
+    id("me.champeau.jmh") version "0.6.8"
 }
 
 repositories {
@@ -16,13 +18,31 @@ repositories {
 
 val javaSdkVersion = rootProject.ext["javaSdkVersion"]
 val momentoSdkVersion = rootProject.ext["momentoSdkVersion"]
+val awsSdkV2Version = rootProject.ext["awsSdkV2Version"]
 
 dependencies {
     implementation("com.amazonaws:aws-lambda-java-core:1.2.1")
     implementation("com.amazonaws:aws-java-sdk-secretsmanager:$javaSdkVersion")
     implementation("com.amazonaws:aws-java-sdk-cloudwatchmetrics:$javaSdkVersion")
+    // Non-blocking clients, used when USE_ASYNC_CLIENTS is set. They run on the CRT HTTP client so the Netty and
+    // Apache clients the SDK would otherwise pull in are left out
+    implementation(platform("software.amazon.awssdk:bom:$awsSdkV2Version"))
+    implementation("software.amazon.awssdk:secretsmanager") {
+        exclude(group = "software.amazon.awssdk", module = "netty-nio-client")
+        exclude(group = "software.amazon.awssdk", module = "apache-client")
+    }
+    implementation("software.amazon.awssdk:cloudwatch") {
+        exclude(group = "software.amazon.awssdk", module = "netty-nio-client")
+        exclude(group = "software.amazon.awssdk", module = "apache-client")
+    }
+    implementation("software.amazon.awssdk:aws-crt-client")
     implementation("com.google.code.gson:gson:2.8.9")
+    // For UtcDateTypeAdapter, so the lambda writes expires_at with the same adapter readers parse it with
+    implementation(project(":app:signing-key-cache"))
     implementation("momento.sandbox:momento-sdk:$momentoSdkVersion")
+    implementation("org.crac:crac:1.4.0")
+    // The Secrets Manager emulator in src/testFixtures, shared by the tests and the load test
+    testFixturesImplementation("com.amazonaws:aws-java-sdk-secretsmanager:$javaSdkVersion")
     testImplementation("org.apache.logging.log4j:log4j-api:[2.17.1,)")
     testImplementation("org.apache.logging.log4j:log4j-core:[2.17.1,)")
     testImplementation("org.apache.logging.log4j:log4j-slf4j18-impl:[2.17.1,)")
@@ -35,12 +55,21 @@ version = "1.0-SNAPSHOT"
 description = "momento-signing-key-renewal-lambda"
 java.sourceCompatibility = JavaVersion.VERSION_1_8
 
+// Only the lambda itself is published, not the emulator
+val javaComponent = components["java"] as AdhocComponentWithVariants
+javaComponent.withVariantsFromConfiguration(configurations["testFixturesApiElements"]) { skip() }
+javaComponent.withVariantsFromConfiguration(configurations["testFixturesRuntimeElements"]) { skip() }
+
 publishing {
     publications.create<MavenPublication>("maven") {
         from(components["java"])
     }
 }
 
+tasks.test {
+    useJUnitPlatform()
+}
+
 tasks.register<Copy>("copyDependencies") {
     from(configurations.runtimeClasspath)
     into("$buildDir/dependencies")
@@ -58,6 +87,32 @@ tasks.withType<Jar> {
     })
 }
 
+// Run with `./gradlew :app:signing-key-renewal-lambda:jmh`, results are written to build/results/jmh
+jmh {
+    jmhVersion.set("1.36")
+    // Reports allocation rates next to the timings
+    profilers.add("gc")
+    fork.set(1)
+    warmupIterations.set(3)
+    iterations.set(5)
+}
+
+// The offline rotation load test, kept out of the lambda jar like the benchmarks. Run with
+// `./gradlew :app:signing-key-renewal-lambda:loadTest`, it's configured with ROTATION_LOAD_TEST_* environment variables
+val loadtest by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output + sourceSets["testFixtures"].output
+    runtimeClasspath += sourceSets.main.get().output + sourceSets["testFixtures"].output
+}
+
+configurations["loadtestImplementation"].extendsFrom(configurations.implementation.get())
+configurations["loadtestRuntimeOnly"].extendsFrom(configurations.runtimeOnly.get())
+
+tasks.register<JavaExec>("loadTest") {
+    description = "Runs the offline rotation load test"
+    classpath = loadtest.runtimeClasspath
+    mainClass.set("example.loadtest.RotationLoadTest")
+}
+
 tasks.withType<JavaCompile>() {
     options.encoding = "UTF-8"
 }
@@ -0,0 +1,33 @@
+package example;
+
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
+import com.google.gson.Gson;
+import example.metrics.NoOpMetricsSink;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+
+import java.util.concurrent.TimeUnit;
+
+// What a cold invocation pays before any rotation work happens: the Gson and the container clients, with their
+// codec, Handler builds when it's loaded, then the container's logger and AWS clients built on first use. The local stubs stand in for the AWS clients so
+// nothing goes over the network. The Momento client needs a real auth token and is left out.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class HandlerBenchmark {
+    @Benchmark
+    public ContainerClients initializeContainerClients() {
+        Gson gson = ContainerClients.createGson();
+        ContainerClients containerClients = new ContainerClients(gson, NoOpMetricsSink.INSTANCE);
+        LambdaLogger logger = containerClients.getLogger(new NoOpLambdaLogger());
+        containerClients.getSecretsManager(true, logger);
+        containerClients.getCloudWatch(true, false, logger);
+        return containerClients;
+    }
+
+    @Benchmark
+    public Gson createGson() {
+        return Handler.createGson();
+    }
+}
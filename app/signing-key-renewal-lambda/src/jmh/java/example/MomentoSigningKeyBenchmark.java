@@ -0,0 +1,62 @@
+package example;
+
+import com.google.gson.Gson;
+import momento.sdk.messages.CreateSigningKeyResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+// Serializing a freshly minted signing key into the JSON stored in Secrets Manager, through Gson and through the
+// streaming codec. Run with the gc profiler (the default in build.gradle.kts) to compare gc.alloc.rate.norm
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MomentoSigningKeyBenchmark {
+    private static final String KEY = "{\"p\":\"5TvY8Kl3Ngc1NTrbtjOj\",\"kty\":\"RSA\",\"q\":\"0HhSVeCBn9xyBT\","
+            + "\"d\":\"R1BOh-8b9VZsJpuKxEfCWQLbTnE7wYr3\",\"e\":\"AQAB\",\"use\":\"sig\",\"kid\":\"5a0b2ea6-8b7c-4fb2\","
+            + "\"qi\":\"Ba3tvRfhBX0\",\"dp\":\"ngsBo4Z8BYw\",\"alg\":\"RS256\",\"dq\":\"QGXQSJR8DTU\","
+            + "\"n\":\"qAhJxLCCuXJqz1ksnf6u1Q8h3ZbyhQ1xwFSqYB94yw8RkswMR5RGXE84wq0PXaXUWoBVxN3m3G7jk1\"}";
+
+    private Gson gson;
+    private MomentoSigningKeyCodec prettyCodec;
+    private MomentoSigningKeyCodec compactCodec;
+    private CreateSigningKeyResponse response;
+
+    @Setup
+    public void setup() {
+        gson = Handler.createGson();
+        prettyCodec = new MomentoSigningKeyCodec(MomentoSigningKeyCodec.Format.V1_PRETTY);
+        compactCodec = new MomentoSigningKeyCodec(MomentoSigningKeyCodec.Format.V2_COMPACT);
+        response = new CreateSigningKeyResponse("5a0b2ea6-8b7c-4fb2",
+                "cell-us-east-1-1.prod.a.momentohq.com",
+                KEY,
+                new Date(1651187392000L));
+    }
+
+    @Benchmark
+    public MomentoSigningKey fromCreateSigningResponse() {
+        return MomentoSigningKey.fromCreateSigningResponse(response);
+    }
+
+    @Benchmark
+    public String serialize() {
+        return gson.toJson(MomentoSigningKey.fromCreateSigningResponse(response));
+    }
+
+    @Benchmark
+    public String serializeWithCodec() {
+        return prettyCodec.toJson(response);
+    }
+
+    @Benchmark
+    public String serializeCompactWithCodec() {
+        return compactCodec.toJson(response);
+    }
+}
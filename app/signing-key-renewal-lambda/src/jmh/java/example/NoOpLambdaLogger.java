@@ -0,0 +1,14 @@
+package example;
+
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
+
+// Drops everything so logging doesn't show up in the benchmark results
+public class NoOpLambdaLogger implements LambdaLogger {
+    @Override
+    public void log(String message) {
+    }
+
+    @Override
+    public void log(byte[] message) {
+    }
+}
@@ -0,0 +1,57 @@
+package example;
+
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
+import example.awsclients.cloudwatch.CloudWatch;
+import example.awsclients.cloudwatch.LocalCloudWatchClient;
+import example.awsclients.secretsmanager.LocalSecretsMangerClient;
+import example.awsclients.secretsmanager.SecretsManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Measures the overhead RotationWorkflow adds on top of its dependencies for each rotation step. The local stubs
+// report the AWSPENDING version as already present, so createSecret never reaches Momento and no client is needed.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RotationWorkflowBenchmark {
+    @Param({"createSecret", "setSecret", "testSecret", "finishSecret"})
+    public String step;
+
+    private RotationWorkflow rotationWorkflow;
+    private Map<String, String> event;
+
+    @Setup
+    public void setup() {
+        LambdaLogger logger = new NoOpLambdaLogger();
+        Map<String, List<String>> versionStages = new HashMap<>();
+        versionStages.put("a", Collections.singletonList("AWSPREVIOUS"));
+        versionStages.put("b", Collections.singletonList("AWSCURRENT"));
+        versionStages.put("c", Collections.singletonList("AWSPENDING"));
+        SecretsManager secretsManager = new LocalSecretsMangerClient(logger, "token", versionStages);
+        CloudWatch cloudWatch = new LocalCloudWatchClient(logger);
+        MomentoSigningKeyCodec signingKeyCodec = new MomentoSigningKeyCodec(MomentoSigningKeyCodec.Format.V1_PRETTY);
+        rotationWorkflow = new RotationWorkflow(logger, secretsManager, cloudWatch, signingKeyCodec, null, 60, true);
+
+        event = new HashMap<>();
+        event.put("SecretId", "arn:aws:secretsmanager:us-west-2:123456789012:secret:foo/bar/baz");
+        event.put("ClientRequestToken", "c");
+        event.put("Step", step);
+    }
+
+    @Benchmark
+    public void processRotation() {
+        rotationWorkflow.processRotation(event);
+    }
+}
@@ -0,0 +1,202 @@
+package example.loadtest;
+
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
+import example.ContainerClients;
+import example.MomentoSigningKey;
+import example.MomentoSigningKeyCodec;
+import example.RotationConfig;
+import example.RotationWorkflow;
+import example.awsclients.cloudwatch.CloudWatch;
+import example.awsclients.cloudwatch.InstrumentedCloudWatch;
+import example.awsclients.cloudwatch.LocalCloudWatchClient;
+import example.awsclients.resilience.ResiliencePolicy;
+import example.awsclients.secretsmanager.InMemorySecretsManager;
+import example.awsclients.secretsmanager.InstrumentedSecretsManager;
+import example.awsclients.secretsmanager.ResilientSecretsManager;
+import example.awsclients.secretsmanager.SecretsManager;
+import example.metrics.InMemoryMetricsSink;
+import example.metrics.LatencyHistogram;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Drives RotationWorkflow offline the way Secrets Manager would for a fleet of secrets: each rotation labels a new
+// version AWSPENDING, then runs the createSecret, setSecret, testSecret and finishSecret steps with its token. Secrets
+// Manager is the in-memory emulator and Momento a stand-in, both with configurable latency, so the numbers show
+// what the workflow itself does under load. Reports p50/p99 per step, rotations per second and every dependency
+// call made. Secrets Manager calls go through the same rate limit and retries as in the lambda, so its
+// SECRETS_MANAGER_MAX_REQUESTS_PER_SECOND (40 by default) caps the rotation rate here too. Run with
+// `./gradlew :app:signing-key-renewal-lambda:loadTest`, see RotationLoadTestConfig for settings.
+public class RotationLoadTest {
+    private static final List<String> STEPS = Arrays.asList("createSecret", "setSecret", "testSecret", "finishSecret");
+    private static final List<String> SECRETS_MANAGER_OPERATIONS = Arrays.asList("GetSecretValue", "DescribeSecret",
+            "PutSecretValue", "UpdateSecretVersionStage", "CreateSecret", "ListSecrets", "TagResource");
+    private static final String SECRET_NAME_PREFIX = "load-test/signing-key-";
+    private static final int SIGNING_KEY_TTL_MINUTES = (int) TimeUnit.DAYS.toMinutes(14);
+
+    private final RotationLoadTestConfig config;
+    private final InMemorySecretsManager secretsManager = new InMemorySecretsManager();
+    private final SimulatedSigningKeyMinter signingKeyMinter;
+    // The lambda's rate limit, retries and circuit breaker, including any SECRETS_MANAGER_* overrides
+    private final ResiliencePolicy secretsManagerPolicy;
+    private final InMemoryMetricsSink metrics = new InMemoryMetricsSink();
+    private final MomentoSigningKeyCodec signingKeyCodec = new MomentoSigningKeyCodec(RotationConfig.getSigningKeyFormat());
+    private final LongAdder completedRotations = new LongAdder();
+    private final ConcurrentMap<String, LongAdder> failedRotations = new ConcurrentHashMap<>();
+    private final AtomicLong elapsedNanos = new AtomicLong();
+    private final Map<String, Long> setupCalls = new HashMap<>();
+
+    public RotationLoadTest(RotationLoadTestConfig config) {
+        this.config = config;
+        this.signingKeyMinter = new SimulatedSigningKeyMinter(config.getMomentoMinLatencyMillis(), config.getMomentoMaxLatencyMillis());
+        this.secretsManagerPolicy = new ContainerClients(ContainerClients.createGson(), this.metrics).getSecretsManagerPolicy();
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        RotationLoadTestConfig config = RotationLoadTestConfig.fromEnvironment();
+        System.out.println("Load test: " + config);
+        RotationLoadTest loadTest = new RotationLoadTest(config);
+        loadTest.run();
+        loadTest.report(System.out);
+    }
+
+    public void run() throws InterruptedException {
+        createSecrets();
+        this.secretsManager.setLatency(this.config.getSecretsManagerMinLatencyMillis(), this.config.getSecretsManagerMaxLatencyMillis());
+        this.secretsManager.setMaxRequestsPerSecond(this.config.getSecretsManagerMaxRequestsPerSecond());
+        // The workflow logs every step, which would only measure the console
+        LambdaLogger logger = new DiscardingLogger();
+        CloudWatch cloudWatch = new InstrumentedCloudWatch(new LocalCloudWatchClient(logger), this.metrics);
+        SecretsManager secretsManager = new InstrumentedSecretsManager(
+                new ResilientSecretsManager(this.secretsManager, this.secretsManagerPolicy), this.metrics);
+        RotationWorkflow rotationWorkflow = RotationWorkflow.builder(logger, secretsManager, cloudWatch, this.signingKeyCodec)
+                .signingKeyMinter(this.signingKeyMinter)
+                .signingKeyTtlMinutes(SIGNING_KEY_TTL_MINUTES)
+                .exportMetrics(this.config.shouldExportMetrics())
+                .metrics(this.metrics)
+                .speculativeMint(this.config.isSpeculativeMintEnabled())
+                .build();
+
+        ExecutorService executor = Executors.newFixedThreadPool(this.config.getConcurrency());
+        long startNanos = System.nanoTime();
+        for (int secret = 0; secret < this.config.getSecrets(); secret++) {
+            String secretId = SECRET_NAME_PREFIX + secret;
+            executor.execute(() -> rotateSecret(rotationWorkflow, secretId));
+        }
+        executor.shutdown();
+        executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        cloudWatch.flush();
+        this.elapsedNanos.set(System.nanoTime() - startNanos);
+    }
+
+    // Runs before latency and throttling are turned on, and its calls are subtracted from the report
+    private void createSecrets() {
+        for (int secret = 0; secret < this.config.getSecrets(); secret++) {
+            this.secretsManager.createSecret(SECRET_NAME_PREFIX + secret, this.signingKeyCodec.toJson(new MomentoSigningKey(
+                    UUID.randomUUID().toString(),
+                    "simulated.momentohq.com",
+                    "{}",
+                    new Date(System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(SIGNING_KEY_TTL_MINUTES)))), null);
+        }
+        for (String operation : SECRETS_MANAGER_OPERATIONS) {
+            this.setupCalls.put(operation, this.secretsManager.getCallCount(operation));
+        }
+    }
+
+    // A failed rotation is left behind with its AWSPENDING version, like Secrets Manager would, and the next rotation
+    // of the secret replaces it
+    private void rotateSecret(RotationWorkflow rotationWorkflow, String secretId) {
+        for (int rotation = 0; rotation < this.config.getRotationsPerSecret(); rotation++) {
+            long startNanos = System.nanoTime();
+            try {
+                String token = this.secretsManager.startRotation(secretId);
+                for (String step : STEPS) {
+                    Map<String, String> event = new HashMap<>();
+                    event.put("SecretId", secretId);
+                    event.put("ClientRequestToken", token);
+                    event.put("Step", step);
+                    rotationWorkflow.processRotation(event);
+                }
+                this.metrics.recordLatency("rotation", System.nanoTime() - startNanos);
+                this.completedRotations.increment();
+            } catch (RuntimeException e) {
+                this.failedRotations.computeIfAbsent(e.getClass().getSimpleName(), key -> new LongAdder()).increment();
+            }
+        }
+    }
+
+    public void report(PrintStream out) {
+        double elapsedSeconds = this.elapsedNanos.get() / (double) TimeUnit.SECONDS.toNanos(1);
+        long completed = this.completedRotations.sum();
+        out.println(String.format("Rotations: completed=%d failed=%d in %.2fs, %.1f rotations/s",
+                completed, getFailedRotations(), elapsedSeconds, elapsedSeconds == 0 ? 0 : completed / elapsedSeconds));
+        this.failedRotations.forEach((errorType, count) -> out.println(String.format("  failed with %s: %d", errorType, count.sum())));
+
+        out.println("Latency:");
+        this.metrics.getLatency("rotation").ifPresent(latency -> out.println(describeLatency("rotation", latency)));
+        for (String step : STEPS) {
+            this.metrics.getLatency("step." + step).ifPresent(latency -> out.println(describeLatency(step, latency)));
+        }
+
+        out.println("Dependency calls:");
+        for (String operation : SECRETS_MANAGER_OPERATIONS) {
+            long calls = this.secretsManager.getCallCount(operation) - this.setupCalls.getOrDefault(operation, 0L);
+            if (calls > 0) {
+                out.println(String.format("  secretsmanager.%s: %d (%.2f per rotation)", operation, calls, perRotation(calls)));
+            }
+        }
+        out.println(String.format("  secretsmanager throttled: %d", this.secretsManager.getThrottledCalls()));
+        out.println("  " + this.secretsManagerPolicy.describe());
+        out.println(String.format("  momento.createSigningKey: %d (%.2f per rotation)",
+                this.signingKeyMinter.getCreateCalls(), perRotation(this.signingKeyMinter.getCreateCalls())));
+        out.println(String.format("  momento.revokeSigningKey: %d", this.signingKeyMinter.getRevokeCalls()));
+        for (String operation : Arrays.asList("cloudwatch.putMetricData", "cloudwatch.flush")) {
+            long calls = this.metrics.getLatency(operation).map(LatencyHistogram::getCount).orElse(0L);
+            out.println(String.format("  %s: %d", operation, calls));
+        }
+    }
+
+    public long getCompletedRotations() {
+        return this.completedRotations.sum();
+    }
+
+    public long getFailedRotations() {
+        return this.failedRotations.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    public InMemoryMetricsSink getMetrics() {
+        return this.metrics;
+    }
+
+    private double perRotation(long calls) {
+        long rotations = this.completedRotations.sum() + getFailedRotations();
+        return rotations == 0 ? 0 : calls / (double) rotations;
+    }
+
+    private static String describeLatency(String name, LatencyHistogram latency) {
+        return String.format("  %-13s count=%d p50=%.1fms p99=%.1fms max=%.1fms",
+                name, latency.getCount(), latency.getPercentileMillis(50), latency.getPercentileMillis(99), latency.getMaxMillis());
+    }
+
+    private static class DiscardingLogger implements LambdaLogger {
+        @Override
+        public void log(String message) {
+        }
+
+        @Override
+        public void log(byte[] message) {
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package example.loadtest;
+
+import java.util.Map;
+import java.util.Optional;
+
+// Settings for the rotation load test, read from ROTATION_LOAD_TEST_* environment variables
+public class RotationLoadTestConfig {
+    private static final String PREFIX = "ROTATION_LOAD_TEST_";
+    private static final String SECRETS = "SECRETS";
+    private static final String ROTATIONS_PER_SECRET = "ROTATIONS_PER_SECRET";
+    private static final String CONCURRENCY = "CONCURRENCY";
+    private static final String MOMENTO_MIN_LATENCY_MILLIS = "MOMENTO_MIN_LATENCY_MILLIS";
+    private static final String MOMENTO_MAX_LATENCY_MILLIS = "MOMENTO_MAX_LATENCY_MILLIS";
+    private static final String SECRETS_MANAGER_MIN_LATENCY_MILLIS = "SECRETS_MANAGER_MIN_LATENCY_MILLIS";
+    private static final String SECRETS_MANAGER_MAX_LATENCY_MILLIS = "SECRETS_MANAGER_MAX_LATENCY_MILLIS";
+    private static final String SECRETS_MANAGER_MAX_REQUESTS_PER_SECOND = "SECRETS_MANAGER_MAX_REQUESTS_PER_SECOND";
+    private static final String EXPORT_METRICS = "EXPORT_METRICS";
+    private static final String SPECULATIVE_MINT = "SPECULATIVE_MINT";
+    private static final int DEFAULT_SECRETS = 1000;
+    private static final int DEFAULT_ROTATIONS_PER_SECRET = 1;
+    private static final int DEFAULT_CONCURRENCY = 64;
+    // Roughly what createSigningKey takes from inside the same region
+    private static final long DEFAULT_MOMENTO_MIN_LATENCY_MILLIS = 20;
+    private static final long DEFAULT_MOMENTO_MAX_LATENCY_MILLIS = 60;
+    private static final long DEFAULT_SECRETS_MANAGER_MIN_LATENCY_MILLIS = 5;
+    private static final long DEFAULT_SECRETS_MANAGER_MAX_LATENCY_MILLIS = 20;
+
+    private final int secrets;
+    private final int rotationsPerSecret;
+    private final int concurrency;
+    private final long momentoMinLatencyMillis;
+    private final long momentoMaxLatencyMillis;
+    private final long secretsManagerMinLatencyMillis;
+    private final long secretsManagerMaxLatencyMillis;
+    private final Optional<Double> secretsManagerMaxRequestsPerSecond;
+    private final boolean exportMetrics;
+    private final boolean speculativeMint;
+
+    public RotationLoadTestConfig(int secrets,
+                                  int rotationsPerSecret,
+                                  int concurrency,
+                                  long momentoMinLatencyMillis,
+                                  long momentoMaxLatencyMillis,
+                                  long secretsManagerMinLatencyMillis,
+                                  long secretsManagerMaxLatencyMillis,
+                                  Optional<Double> secretsManagerMaxRequestsPerSecond,
+                                  boolean exportMetrics,
+                                  boolean speculativeMint) {
+        requireAtLeastOne(SECRETS, secrets);
+        requireAtLeastOne(ROTATIONS_PER_SECRET, rotationsPerSecret);
+        requireAtLeastOne(CONCURRENCY, concurrency);
+        if (secretsManagerMaxRequestsPerSecond.filter(limit -> limit <= 0).isPresent()) {
+            throw new IllegalArgumentException(String.format("%s%s must be positive, got %s",
+                    PREFIX, SECRETS_MANAGER_MAX_REQUESTS_PER_SECOND, secretsManagerMaxRequestsPerSecond.get()));
+        }
+        this.secrets = secrets;
+        this.rotationsPerSecret = rotationsPerSecret;
+        this.concurrency = concurrency;
+        this.momentoMinLatencyMillis = momentoMinLatencyMillis;
+        this.momentoMaxLatencyMillis = momentoMaxLatencyMillis;
+        this.secretsManagerMinLatencyMillis = secretsManagerMinLatencyMillis;
+        this.secretsManagerMaxLatencyMillis = secretsManagerMaxLatencyMillis;
+        this.secretsManagerMaxRequestsPerSecond = secretsManagerMaxRequestsPerSecond;
+        this.exportMetrics = exportMetrics;
+        this.speculativeMint = speculativeMint;
+    }
+
+    public static RotationLoadTestConfig fromEnvironment() {
+        final Map<String, String> env = System.getenv();
+        return new RotationLoadTestConfig(Integer.parseInt(env.getOrDefault(PREFIX + SECRETS, String.valueOf(DEFAULT_SECRETS))),
+                Integer.parseInt(env.getOrDefault(PREFIX + ROTATIONS_PER_SECRET, String.valueOf(DEFAULT_ROTATIONS_PER_SECRET))),
+                Integer.parseInt(env.getOrDefault(PREFIX + CONCURRENCY, String.valueOf(DEFAULT_CONCURRENCY))),
+                Long.parseLong(env.getOrDefault(PREFIX + MOMENTO_MIN_LATENCY_MILLIS, String.valueOf(DEFAULT_MOMENTO_MIN_LATENCY_MILLIS))),
+                Long.parseLong(env.getOrDefault(PREFIX + MOMENTO_MAX_LATENCY_MILLIS, String.valueOf(DEFAULT_MOMENTO_MAX_LATENCY_MILLIS))),
+                Long.parseLong(env.getOrDefault(PREFIX + SECRETS_MANAGER_MIN_LATENCY_MILLIS, String.valueOf(DEFAULT_SECRETS_MANAGER_MIN_LATENCY_MILLIS))),
+                Long.parseLong(env.getOrDefault(PREFIX + SECRETS_MANAGER_MAX_LATENCY_MILLIS, String.valueOf(DEFAULT_SECRETS_MANAGER_MAX_LATENCY_MILLIS))),
+                Optional.ofNullable(env.get(PREFIX + SECRETS_MANAGER_MAX_REQUESTS_PER_SECOND)).map(Double::parseDouble),
+                Boolean.parseBoolean(env.getOrDefault(PREFIX + EXPORT_METRICS, "true")),
+                Boolean.parseBoolean(env.get(PREFIX + SPECULATIVE_MINT)));
+    }
+
+    public int getSecrets() {
+        return this.secrets;
+    }
+
+    public int getRotationsPerSecret() {
+        return this.rotationsPerSecret;
+    }
+
+    // Secrets rotated at once. The rotations of one secret always run one after another
+    public int getConcurrency() {
+        return this.concurrency;
+    }
+
+    public long getMomentoMinLatencyMillis() {
+        return this.momentoMinLatencyMillis;
+    }
+
+    public long getMomentoMaxLatencyMillis() {
+        return this.momentoMaxLatencyMillis;
+    }
+
+    public long getSecretsManagerMinLatencyMillis() {
+        return this.secretsManagerMinLatencyMillis;
+    }
+
+    public long getSecretsManagerMaxLatencyMillis() {
+        return this.secretsManagerMaxLatencyMillis;
+    }
+
+    // Calls beyond this rate are throttled like a Secrets Manager quota would. Empty means no limit
+    public Optional<Double> getSecretsManagerMaxRequestsPerSecond() {
+        return this.secretsManagerMaxRequestsPerSecond;
+    }
+
+    public boolean shouldExportMetrics() {
+        return this.exportMetrics;
+    }
+
+    public boolean isSpeculativeMintEnabled() {
+        return this.speculativeMint;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("secrets=%d rotationsPerSecret=%d concurrency=%d momentoLatency=%d-%dms "
+                        + "secretsManagerLatency=%d-%dms secretsManagerMaxRequestsPerSecond=%s exportMetrics=%s speculativeMint=%s",
+                this.secrets, this.rotationsPerSecret, this.concurrency, this.momentoMinLatencyMillis, this.momentoMaxLatencyMillis,
+                this.secretsManagerMinLatencyMillis, this.secretsManagerMaxLatencyMillis,
+                this.secretsManagerMaxRequestsPerSecond.map(String::valueOf).orElse("none"), this.exportMetrics, this.speculativeMint);
+    }
+
+    private static void requireAtLeastOne(String name, long value) {
+        if (value < 1) {
+            throw new IllegalArgumentException(String.format("%s%s must be at least 1, got %d", PREFIX, name, value));
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package example.loadtest;
+
+import example.MomentoSigningKey;
+import example.SigningKeyMinter;
+
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// Stands in for Momento during a load test. Every call sleeps for a random duration between the configured bounds,
+// like a round trip would, and createSigningKey hands back a placeholder key that is never used to sign anything.
+public class SimulatedSigningKeyMinter implements SigningKeyMinter {
+    private static final String ENDPOINT = "simulated.momentohq.com";
+    private static final String KEY = "{\"kty\":\"RSA\",\"alg\":\"RS256\",\"use\":\"sig\"}";
+
+    private final long minLatencyNanos;
+    private final long maxLatencyNanos;
+    private final AtomicLong createCalls = new AtomicLong();
+    private final AtomicLong revokeCalls = new AtomicLong();
+
+    public SimulatedSigningKeyMinter(long minLatencyMillis, long maxLatencyMillis) {
+        if (minLatencyMillis < 0 || maxLatencyMillis < minLatencyMillis) {
+            throw new IllegalArgumentException(String.format("Invalid latency range %d to %d ms", minLatencyMillis, maxLatencyMillis));
+        }
+        this.minLatencyNanos = TimeUnit.MILLISECONDS.toNanos(minLatencyMillis);
+        this.maxLatencyNanos = TimeUnit.MILLISECONDS.toNanos(maxLatencyMillis);
+    }
+
+    @Override
+    public MomentoSigningKey createSigningKey(int ttlMinutes) {
+        this.createCalls.incrementAndGet();
+        simulateLatency();
+        return new MomentoSigningKey(UUID.randomUUID().toString(),
+                ENDPOINT,
+                KEY,
+                new Date(System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(ttlMinutes)));
+    }
+
+    @Override
+    public void revokeSigningKey(String keyId) {
+        this.revokeCalls.incrementAndGet();
+        simulateLatency();
+    }
+
+    public long getCreateCalls() {
+        return this.createCalls.get();
+    }
+
+    public long getRevokeCalls() {
+        return this.revokeCalls.get();
+    }
+
+    private void simulateLatency() {
+        if (this.maxLatencyNanos > 0) {
+            LockSupport.parkNanos(this.minLatencyNanos == this.maxLatencyNanos
+                    ? this.minLatencyNanos
+                    : ThreadLocalRandom.current().nextLong(this.minLatencyNanos, this.maxLatencyNanos + 1));
+        }
+    }
+}
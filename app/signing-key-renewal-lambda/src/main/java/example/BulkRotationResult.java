@@ -0,0 +1,57 @@
+package example;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Per-secret outcome of a bulk rotation. Secrets in `remaining` were not rotated before the invocation ran out of
+// time and can be passed back in as `momento_signing_key_secret_names` to resume. With a rotation journal, secrets in
+// `already_rotated` were rotated by an earlier invocation of the same `run_id` and skipped.
+public class BulkRotationResult {
+    private String runId;
+    private final List<String> rotated = new ArrayList<>();
+    private final List<String> alreadyRotated = new ArrayList<>();
+    private final Map<String, String> failed = new LinkedHashMap<>();
+    private final List<String> remaining = new ArrayList<>();
+
+    public void addRotated(String secretName) {
+        this.rotated.add(secretName);
+    }
+
+    public void setRunId(String runId) {
+        this.runId = runId;
+    }
+
+    public void addAlreadyRotated(String secretName) {
+        this.alreadyRotated.add(secretName);
+    }
+
+    public void addFailed(String secretName, String error) {
+        this.failed.put(secretName, error);
+    }
+
+    public void addRemaining(String secretName) {
+        this.remaining.add(secretName);
+    }
+
+    public List<String> getRotated() {
+        return this.rotated;
+    }
+
+    public String getRunId() {
+        return this.runId;
+    }
+
+    public List<String> getAlreadyRotated() {
+        return this.alreadyRotated;
+    }
+
+    public Map<String, String> getFailed() {
+        return this.failed;
+    }
+
+    public List<String> getRemaining() {
+        return this.remaining;
+    }
+}
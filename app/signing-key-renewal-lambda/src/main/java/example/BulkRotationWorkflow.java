@@ -0,0 +1,178 @@
+package example;
+
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
+import example.journal.RotationJournal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Rotates many signing key secrets in a single invocation. Every secret goes through the same RotationWorkflow, so the
+// Secrets Manager and Momento clients are shared, and at most maxConcurrency rotations run at once. A rotation is only
+// started while there's still time before the deadline for it to finish, going by the slowest one so far. Rotations
+// still running at the deadline get a short grace period, after which they're interrupted and reported as remaining
+// along with everything that never started, so the caller can resume them. The rotation threads are gone by the time
+// rotate returns, none is left to run on in a frozen container. Rotating an interrupted secret again is safe, and with
+// a journal the retry reuses the version and key the interrupted attempt picked. With a rotation journal every run has
+// an id, and invoking the run again with the same id skips the secrets it already rotated, so the whole list can be
+// passed back in rather than just what was remaining.
+public class BulkRotationWorkflow {
+    // Within the margin Handler leaves between the deadline and the Lambda timeout
+    private static final long IN_FLIGHT_GRACE_MILLIS = TimeUnit.SECONDS.toMillis(5);
+    // How long interrupted rotations get to unwind, also within Handler's margin
+    private static final long INTERRUPTED_EXIT_MILLIS = TimeUnit.SECONDS.toMillis(2);
+    // What a rotation is assumed to take before any has finished
+    private static final long MIN_ROTATION_BUDGET_MILLIS = TimeUnit.SECONDS.toMillis(2);
+
+    private final LambdaLogger logger;
+    private final RotationWorkflow rotationWorkflow;
+    private final int maxConcurrency;
+    private final Optional<RotationJournal> journal;
+    private final Optional<String> runId;
+
+    public BulkRotationWorkflow(LambdaLogger logger, RotationWorkflow rotationWorkflow, int maxConcurrency) {
+        this(logger, rotationWorkflow, maxConcurrency, Optional.empty(), Optional.empty());
+    }
+
+    public BulkRotationWorkflow(LambdaLogger logger,
+                                RotationWorkflow rotationWorkflow,
+                                int maxConcurrency,
+                                Optional<RotationJournal> journal,
+                                Optional<String> runId) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException(String.format("max_concurrency must be at least 1, got %d", maxConcurrency));
+        }
+        this.logger = logger;
+        this.rotationWorkflow = rotationWorkflow;
+        this.maxConcurrency = maxConcurrency;
+        this.journal = journal;
+        this.runId = runId;
+    }
+
+    public BulkRotationResult rotate(List<String> secretNames, long deadlineMillis) {
+        BulkRotationResult result = new BulkRotationResult();
+        this.runId.ifPresent(result::setRunId);
+        if (secretNames.isEmpty()) {
+            return result;
+        }
+        // Kept so they can be joined, an executor counts as terminated just before its last threads exit
+        List<Thread> threads = Collections.synchronizedList(new ArrayList<>());
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(this.maxConcurrency, secretNames.size()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "bulk-rotation");
+                    thread.setDaemon(true);
+                    threads.add(thread);
+                    return thread;
+                });
+        AtomicLong slowestRotationMillis = new AtomicLong(MIN_ROTATION_BUDGET_MILLIS);
+        try {
+            Map<String, Future<Outcome>> rotations = new LinkedHashMap<>();
+            for (String secretName : secretNames) {
+                rotations.put(secretName, executor.submit(
+                        () -> rotateBeforeDeadline(secretName, deadlineMillis, slowestRotationMillis)));
+            }
+            for (Map.Entry<String, Future<Outcome>> rotation : rotations.entrySet()) {
+                collect(result, rotation.getKey(), rotation.getValue(), deadlineMillis);
+            }
+        } finally {
+            // Everything still running was already reported as remaining, interrupt it and wait for the threads to exit
+            executor.shutdownNow();
+            awaitRotationThreads(threads);
+        }
+        this.logger.log(String.format("Bulk rotation finished: %d rotated, %d already rotated, %d failed, %d remaining",
+                result.getRotated().size(), result.getAlreadyRotated().size(), result.getFailed().size(),
+                result.getRemaining().size()));
+        return result;
+    }
+
+    private Outcome rotateBeforeDeadline(String secretName, long deadlineMillis, AtomicLong slowestRotationMillis) {
+        long startedAtMillis = System.currentTimeMillis();
+        if (startedAtMillis + slowestRotationMillis.get() >= deadlineMillis) {
+            return Outcome.NOT_STARTED;
+        }
+        if (isCompletedInThisRun(secretName)) {
+            return Outcome.ALREADY_ROTATED;
+        }
+        this.rotationWorkflow.manualRotation(secretName, this.runId);
+        slowestRotationMillis.accumulateAndGet(System.currentTimeMillis() - startedAtMillis, Math::max);
+        return Outcome.ROTATED;
+    }
+
+    private void awaitRotationThreads(List<Thread> threads) {
+        long exitDeadlineMillis = System.currentTimeMillis() + INTERRUPTED_EXIT_MILLIS;
+        int stillRunning = 0;
+        try {
+            synchronized (threads) {
+                for (Thread thread : threads) {
+                    thread.join(Math.max(1, exitDeadlineMillis - System.currentTimeMillis()));
+                    if (thread.isAlive()) {
+                        stillRunning++;
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (stillRunning > 0) {
+            this.logger.log(String.format("%d bulk rotation threads still running %d ms after being interrupted",
+                    stillRunning, INTERRUPTED_EXIT_MILLIS));
+        }
+    }
+
+    // The checkpoint: the journal's latest entry for the secret says this run already rotated it
+    private boolean isCompletedInThisRun(String secretName) {
+        if (!this.journal.isPresent() || !this.runId.isPresent()) {
+            return false;
+        }
+        try {
+            return this.journal.get().latest(secretName)
+                    .map(entry -> entry.isCompletedInRun(this.runId.get()))
+                    .orElse(false);
+        } catch (RuntimeException e) {
+            this.logger.log(String.format("Could not read the rotation journal of %s, rotating it: %s", secretName, e));
+            return false;
+        }
+    }
+
+    private void collect(BulkRotationResult result, String secretName, Future<Outcome> rotation, long deadlineMillis) {
+        try {
+            long waitMillis = Math.max(0, deadlineMillis + IN_FLIGHT_GRACE_MILLIS - System.currentTimeMillis());
+            switch (rotation.get(waitMillis, TimeUnit.MILLISECONDS)) {
+                case ROTATED:
+                    result.addRotated(secretName);
+                    break;
+                case ALREADY_ROTATED:
+                    result.addAlreadyRotated(secretName);
+                    break;
+                default:
+                    result.addRemaining(secretName);
+            }
+        } catch (TimeoutException e) {
+            // Still running when we ran out of time, rotating it again on resume is harmless. Whatever it ends with
+            // once interrupted, it stays remaining
+            rotation.cancel(true);
+            result.addRemaining(secretName);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            this.logger.log(String.format("Failed to rotate %s: %s", secretName, cause));
+            result.addFailed(secretName, cause.toString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.addRemaining(secretName);
+        }
+    }
+
+    private enum Outcome {
+        ROTATED, ALREADY_ROTATED, NOT_STARTED
+    }
+}
@@ -0,0 +1,472 @@
+package example;
+
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
+import com.google.gson.FieldNamingPolicy;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.stream.JsonReader;
+import example.awsclients.AwsClientsFactory;
+import example.awsclients.cloudwatch.CloudWatch;
+import example.awsclients.cloudwatch.InstrumentedCloudWatch;
+import example.awsclients.resilience.ResiliencePolicy;
+import example.awsclients.secretsmanager.InstrumentedSecretsManager;
+import example.awsclients.secretsmanager.ResilientSecretsManager;
+import example.awsclients.secretsmanager.SecretsManager;
+import example.journal.RotationJournal;
+import example.journal.RotationJournalConfig;
+import example.logging.LoggingConfig;
+import example.logging.StructuredLogger;
+import example.metrics.InMemoryMetricsSink;
+import example.metrics.MetricsSink;
+import example.metrics.NoOpMetricsSink;
+import example.signingkeycache.UtcDateTypeAdapter;
+import momento.sdk.SimpleCacheClient;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// Container-scoped holder for everything that is expensive to build: the rotation config, the AWS clients and the
+// Momento client (and the auth token it was built with). Lambda reuses the JVM across warm invocations so these are
+// built on the first request and handed back to every request after it.
+public class ContainerClients {
+    private static final long AUTH_TOKEN_TTL_MILLIS = TimeUnit.MINUTES.toMillis(15);
+    private static final int MOMENTO_CLIENT_DEFAULT_TTL_SECONDS = 300;
+    // Secrets Manager's default quota for GetSecretValue and DescribeSecret is well above this, but the rotation
+    // shares it with every other reader of the account's secrets
+    private static final double SECRETS_MANAGER_MAX_REQUESTS_PER_SECOND = 40;
+    private static final int SECRETS_MANAGER_MAX_ATTEMPTS = 5;
+    private static final int SECRETS_MANAGER_CIRCUIT_FAILURE_THRESHOLD = 10;
+    private static final long SECRETS_MANAGER_CIRCUIT_OPEN_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+    private final Gson gson;
+    private final MomentoSigningKeyCodec signingKeyCodec = new MomentoSigningKeyCodec(RotationConfig.getSigningKeyFormat());
+    private final boolean useAsyncClients;
+    private final MetricsSink metricsSink;
+    private final RenewalSchedule renewalSchedule = new RenewalSchedule();
+    // One per replica region, each region has its own Secrets Manager quota
+    private final Map<String, ResiliencePolicy> replicaPolicies = new LinkedHashMap<>();
+
+    private RotationConfig config;
+    private Boolean awsClientsUseLocalStubs;
+    private SecretsManager secretsManager;
+    // Outlives the clients so the rate limit and circuit breaker hold across every invocation on the container
+    private ResiliencePolicy secretsManagerPolicy;
+    private CloudWatch cloudWatch;
+    private boolean cloudWatchUsesEmbeddedMetricFormat;
+    // Automatic rotation reads its auth token from Secrets Manager, manual and bulk rotations pass one in the event.
+    // Each source has its own client so alternating between them doesn't rebuild or mix them up
+    private final CachedMomentoClient secretMomentoClient = new CachedMomentoClient();
+    private final CachedMomentoClient eventMomentoClient = new CachedMomentoClient();
+    // How many rotations are using each Momento client. A client that's replaced while some still use it is only
+    // closed once the last of them releases it, so one rotation's failure doesn't break the others' calls
+    private final Map<SimpleCacheClient, Integer> momentoClientUsers = new IdentityHashMap<>();
+    private final Set<SimpleCacheClient> retiredMomentoClients = Collections.newSetFromMap(new IdentityHashMap<>());
+    private Optional<SigningKeyPoolConfig> signingKeyPoolConfig;
+    private SecretKey signingKeyPoolEncryptionKey;
+    private Optional<ReplicationConfig> replicationConfig;
+    private Optional<RotationJournalConfig> rotationJournalConfig;
+    private Optional<KeysetConfig> keysetConfig;
+    private Map<String, SecretsManager> replicaSecretsManagers;
+    private StructuredLogger logger;
+
+    public ContainerClients(Gson gson) {
+        this(gson, RotationConfig.isInMemoryMetricsSinkEnabled() ? new InMemoryMetricsSink() : NoOpMetricsSink.INSTANCE);
+    }
+
+    public ContainerClients(Gson gson, MetricsSink metricsSink) {
+        this.gson = gson;
+        this.useAsyncClients = RotationConfig.isAsyncClientsEnabled();
+        this.metricsSink = metricsSink;
+    }
+
+    // The Gson every entry point hands to the constructor. It lives here rather than in Handler so the rotation daemon
+    // can use it without loading Handler, whose static state is only meant for Lambda. Dates are always written in UTC
+    public static Gson createGson() {
+        return new GsonBuilder()
+                .setFieldNamingPolicy(FieldNamingPolicy.LOWER_CASE_WITH_UNDERSCORES)
+                .setPrettyPrinting()
+                .registerTypeAdapter(Date.class, new UtcDateTypeAdapter())
+                .create();
+    }
+
+    public MetricsSink getMetricsSink() {
+        return this.metricsSink;
+    }
+
+    // The container's logger, without any fields since the clients cached here outlive the invocation that built
+    // them. Built once over the first invocation's logger, Lambda hands every invocation the same one, so the
+    // clients cached here and flushLogs always share its buffer. Lines are buffered until flushLogs only if
+    // LOG_BUFFER_BYTES is set
+    public synchronized StructuredLogger getLogger(LambdaLogger sink) {
+        if (this.logger == null) {
+            this.logger = StructuredLogger.create(sink, LoggingConfig.fromEnvironment());
+        }
+        return this.logger;
+    }
+
+    // Writes the buffered log lines, called before every invocation returns
+    public synchronized void flushLogs() {
+        if (this.logger != null) {
+            this.logger.flush();
+        }
+    }
+
+    public synchronized RotationConfig getConfig() {
+        if (this.config == null) {
+            this.config = RotationConfig.fromEnvironment();
+        }
+        return this.config;
+    }
+
+    public synchronized SecretsManager getSecretsManager(boolean useLocalStubs, LambdaLogger logger) {
+        resetAwsClientsIfStubModeChanged(useLocalStubs);
+        if (this.secretsManager == null) {
+            this.secretsManager = new InstrumentedSecretsManager(new ResilientSecretsManager(
+                    AwsClientsFactory.getSecretsManagerClient(useLocalStubs, this.useAsyncClients, logger),
+                    getSecretsManagerPolicy()), this.metricsSink);
+        }
+        return this.secretsManager;
+    }
+
+    // Reads the SECRETS_MANAGER_* overrides for the rate limit, retries and circuit breaker once per container
+    public synchronized ResiliencePolicy getSecretsManagerPolicy() {
+        if (this.secretsManagerPolicy == null) {
+            this.secretsManagerPolicy = ResiliencePolicy.fromEnvironment("Secrets Manager",
+                    "secretsmanager",
+                    this.metricsSink,
+                    "SECRETS_MANAGER",
+                    SECRETS_MANAGER_MAX_REQUESTS_PER_SECOND,
+                    SECRETS_MANAGER_MAX_ATTEMPTS,
+                    SECRETS_MANAGER_CIRCUIT_FAILURE_THRESHOLD,
+                    SECRETS_MANAGER_CIRCUIT_OPEN_MILLIS);
+        }
+        return this.secretsManagerPolicy;
+    }
+
+    // Logs how often Secrets Manager calls were throttled, retried or rejected and, with the in-memory metrics sink,
+    // the latency of every step and dependency so far. Called before every invocation returns
+    public synchronized void logInvocationStats(LambdaLogger logger) {
+        if (this.secretsManagerPolicy != null) {
+            logger.log(this.secretsManagerPolicy.describe());
+        }
+        for (ResiliencePolicy replicaPolicy : this.replicaPolicies.values()) {
+            logger.log(replicaPolicy.describe());
+        }
+        if (this.metricsSink instanceof InMemoryMetricsSink) {
+            logger.log(((InMemoryMetricsSink) this.metricsSink).describe());
+        }
+    }
+
+    public synchronized CloudWatch getCloudWatch(boolean useLocalStubs, boolean useEmbeddedMetricFormat, LambdaLogger logger) {
+        resetAwsClientsIfStubModeChanged(useLocalStubs);
+        if (this.cloudWatch != null && this.cloudWatchUsesEmbeddedMetricFormat != useEmbeddedMetricFormat) {
+            this.cloudWatch.flush();
+            this.cloudWatch = null;
+        }
+        if (this.cloudWatch == null) {
+            this.cloudWatch = new InstrumentedCloudWatch(AwsClientsFactory.getCloudWatchClient(useLocalStubs,
+                    useEmbeddedMetricFormat,
+                    this.useAsyncClients,
+                    logger), this.metricsSink);
+            this.cloudWatchUsesEmbeddedMetricFormat = useEmbeddedMetricFormat;
+        }
+        return this.cloudWatch;
+    }
+
+    // Publishes any buffered metrics, called before every invocation returns
+    public synchronized void flushMetrics() {
+        if (this.cloudWatch != null) {
+            this.cloudWatch.flush();
+        }
+    }
+
+    // Returns a Momento client for the auth token stored in Secrets Manager. The token is re-read once it is older
+    // than AUTH_TOKEN_TTL_MILLIS, and the client is only rebuilt if the token actually changed. Every client acquired
+    // must be handed back to releaseMomentoClient once the rotation using it is done.
+    public synchronized SimpleCacheClient acquireMomentoClient(SecretsManager secretsManager,
+                                                               String momentoAuthTokenSecretId,
+                                                               String authTokenKeyValue) {
+        long now = System.currentTimeMillis();
+        CachedMomentoClient cached = this.secretMomentoClient;
+        if (cached.authToken != null && now - cached.authTokenFetchedAtMillis < AUTH_TOKEN_TTL_MILLIS) {
+            return retain(cached.get(cached.authToken));
+        }
+        String authToken = parseAuthToken(secretsManager.getSecretValueString(momentoAuthTokenSecretId, null, null),
+                authTokenKeyValue);
+        cached.authTokenFetchedAtMillis = now;
+        return retain(cached.get(authToken));
+    }
+
+    // Returns a Momento client for an auth token passed in an event, reusing the cached client if it was built with the
+    // same one. Released the same way.
+    public synchronized SimpleCacheClient acquireMomentoClient(String authToken) {
+        return retain(this.eventMomentoClient.get(authToken));
+    }
+
+    // Closes the client if it has been replaced and this was its last user
+    public synchronized void releaseMomentoClient(SimpleCacheClient momentoClient) {
+        Integer users = this.momentoClientUsers.get(momentoClient);
+        if (users == null) {
+            return;
+        }
+        if (users > 1) {
+            this.momentoClientUsers.put(momentoClient, users - 1);
+            return;
+        }
+        this.momentoClientUsers.remove(momentoClient);
+        if (this.retiredMomentoClients.remove(momentoClient)) {
+            momentoClient.close();
+        }
+    }
+
+    private SimpleCacheClient retain(SimpleCacheClient momentoClient) {
+        this.momentoClientUsers.merge(momentoClient, 1, Integer::sum);
+        return momentoClient;
+    }
+
+    // Called once a client is no longer cached. It's closed right away unless a rotation still uses it
+    private void retire(SimpleCacheClient momentoClient) {
+        if (this.momentoClientUsers.containsKey(momentoClient)) {
+            this.retiredMomentoClients.add(momentoClient);
+        } else {
+            momentoClient.close();
+        }
+    }
+
+    // Returns the signing key pool if one is configured and its keys have the TTL the rotation asks for. The pool is
+    // cheap to create, what's cached here is the config and the encryption key read from Secrets Manager. Pooled keys
+    // are minted and revoked through signingKeyMinter
+    public synchronized Optional<SigningKeyPool> getSigningKeyPool(LambdaLogger logger,
+                                                                   SecretsManager secretsManager,
+                                                                   SimpleCacheClient momentoClient,
+                                                                   SigningKeyMinter signingKeyMinter,
+                                                                   int signingKeyTtlMinutes) {
+        if (this.signingKeyPoolConfig == null) {
+            this.signingKeyPoolConfig = SigningKeyPoolConfig.fromEnvironment();
+        }
+        if (!this.signingKeyPoolConfig.isPresent()) {
+            return Optional.empty();
+        }
+        SigningKeyPoolConfig config = this.signingKeyPoolConfig.get();
+        // A manual or bulk rotation can ask for another TTL than the pooled keys were minted with
+        if (signingKeyTtlMinutes != config.getSigningKeyTtlMinutes()) {
+            logger.log(String.format("Not using the signing key pool, its keys have a TTL of %d minutes instead of %d",
+                    config.getSigningKeyTtlMinutes(), signingKeyTtlMinutes));
+            return Optional.empty();
+        }
+        if (this.signingKeyPoolEncryptionKey == null) {
+            byte[] encryptionKey = Base64.getDecoder().decode(
+                    secretsManager.getSecretValueString(config.getEncryptionKeySecretArn(), null, null).trim());
+            this.signingKeyPoolEncryptionKey = new SecretKeySpec(encryptionKey, "AES");
+        }
+        return Optional.of(new SigningKeyPool(logger,
+                momentoClient,
+                signingKeyMinter,
+                gson,
+                config,
+                this.signingKeyPoolEncryptionKey));
+    }
+
+    // Returns the replicator if REPLICA_REGIONS is set. Replication is skipped with the local stubs, which only stand in
+    // for the lambda's own region
+    public synchronized Optional<SigningKeyReplicator> getSigningKeyReplicator(boolean useLocalStubs, LambdaLogger logger) {
+        if (this.replicationConfig == null) {
+            this.replicationConfig = ReplicationConfig.fromEnvironment();
+        }
+        if (!this.replicationConfig.isPresent() || useLocalStubs) {
+            return Optional.empty();
+        }
+        ReplicationConfig config = this.replicationConfig.get();
+        if (this.replicaSecretsManagers == null) {
+            Map<String, SecretsManager> replicaSecretsManagers = new LinkedHashMap<>();
+            for (String region : config.getRegions()) {
+                ResiliencePolicy policy = this.replicaPolicies.computeIfAbsent(region, name ->
+                        ResiliencePolicy.fromEnvironment(String.format("Secrets Manager (%s)", name),
+                                "secretsmanager." + name,
+                                this.metricsSink,
+                                "SECRETS_MANAGER",
+                                SECRETS_MANAGER_MAX_REQUESTS_PER_SECOND,
+                                SECRETS_MANAGER_MAX_ATTEMPTS,
+                                SECRETS_MANAGER_CIRCUIT_FAILURE_THRESHOLD,
+                                SECRETS_MANAGER_CIRCUIT_OPEN_MILLIS));
+                replicaSecretsManagers.put(region, new ResilientSecretsManager(
+                        AwsClientsFactory.getSecretsManagerClient(region, this.useAsyncClients), policy));
+            }
+            this.replicaSecretsManagers = replicaSecretsManagers;
+        }
+        return Optional.of(new SigningKeyReplicator(logger,
+                this.replicaSecretsManagers,
+                config.getWriteQuorum(),
+                config.getTimeoutMillis(),
+                this.metricsSink));
+    }
+
+    // Returns the rotation journal if ROTATION_JOURNAL is set. Like the signing key pool it's cheap to create, only the
+    // config is cached, since the Momento backend has to use the current Momento client
+    public synchronized Optional<RotationJournal> getRotationJournal(SecretsManager secretsManager, SimpleCacheClient momentoClient) {
+        if (this.rotationJournalConfig == null) {
+            this.rotationJournalConfig = RotationJournalConfig.fromEnvironment();
+        }
+        return this.rotationJournalConfig.map(config -> config.create(secretsManager, momentoClient));
+    }
+
+    public synchronized Optional<KeysetPublisher> getKeysetPublisher(LambdaLogger logger,
+                                                                     SecretsManager secretsManager,
+                                                                     SimpleCacheClient momentoClient) {
+        if (this.keysetConfig == null) {
+            this.keysetConfig = KeysetConfig.fromEnvironment();
+        }
+        return this.keysetConfig.map(config -> new KeysetPublisher(logger, secretsManager, momentoClient, config));
+    }
+
+    // The rotation workflow every entry point runs, wired to the container's signing key pool, journal, replicator,
+    // keyset publisher and metrics. logger is the container's logger, which the cached clients are built with, and
+    // workflowLogger the one carrying the rotation's fields. config has the TTL, metrics and stub settings, manual and
+    // bulk rotations read those from the event
+    public RotationWorkflow newRotationWorkflow(StructuredLogger logger,
+                                                StructuredLogger workflowLogger,
+                                                RotationConfig config,
+                                                SecretsManager secretsManager,
+                                                CloudWatch cloudWatch,
+                                                SimpleCacheClient momentoClient,
+                                                SigningKeyMinter signingKeyMinter) {
+        return RotationWorkflow.builder(workflowLogger, secretsManager, cloudWatch, this.signingKeyCodec)
+                .signingKeyMinter(signingKeyMinter)
+                .signingKeyTtlMinutes(config.getSigningKeyTtlMinutes())
+                .exportMetrics(config.shouldExportMetrics())
+                .signingKeyPool(getSigningKeyPool(logger,
+                        secretsManager,
+                        momentoClient,
+                        signingKeyMinter,
+                        config.getSigningKeyTtlMinutes()))
+                .metrics(this.metricsSink)
+                .replicator(getSigningKeyReplicator(config.shouldUseLocalStubs(), logger))
+                .journal(getRotationJournal(secretsManager, momentoClient))
+                .speculativeMint(RotationConfig.isSpeculativeMintEnabled())
+                .keysetPublisher(getKeysetPublisher(logger, secretsManager, momentoClient))
+                .build();
+    }
+
+    // Expiry times of the managed signing keys, kept across invocations so the renewal scheduler only has to read keys
+    // it hasn't seen yet
+    public RenewalSchedule getRenewalSchedule() {
+        return this.renewalSchedule;
+    }
+
+    // Drops the cached Momento clients so the next call builds a new channel. If refreshAuthToken is set the auth token
+    // is also forgotten so it's re-read from Secrets Manager. Rotations still using a dropped client keep it until
+    // they release it.
+    public synchronized void invalidateMomentoClient(boolean refreshAuthToken) {
+        this.secretMomentoClient.invalidate(refreshAuthToken);
+        this.eventMomentoClient.invalidate(refreshAuthToken);
+    }
+
+    // Same as invalidateMomentoClient, but only for the cached client that is failedClient, if any. When rotations run
+    // concurrently, several can fail on the same broken client and only the first should replace it
+    public synchronized void invalidateMomentoClient(SimpleCacheClient failedClient, boolean refreshAuthToken) {
+        for (CachedMomentoClient cached : Arrays.asList(this.secretMomentoClient, this.eventMomentoClient)) {
+            if (cached.client == failedClient) {
+                cached.invalidate(refreshAuthToken);
+            }
+        }
+    }
+
+    // Drops every client so the next invocation builds them again with new connections and credentials
+    public synchronized void reset() {
+        flushMetrics();
+        this.secretsManager = null;
+        this.cloudWatch = null;
+        this.awsClientsUseLocalStubs = null;
+        this.signingKeyPoolEncryptionKey = null;
+        this.replicaSecretsManagers = null;
+        this.renewalSchedule.clear();
+        invalidateMomentoClient(true);
+    }
+
+
+    private void resetAwsClientsIfStubModeChanged(boolean useLocalStubs) {
+        if (this.awsClientsUseLocalStubs != null && this.awsClientsUseLocalStubs != useLocalStubs) {
+            this.secretsManager = null;
+            if (this.cloudWatch != null) {
+                this.cloudWatch.flush();
+                this.cloudWatch = null;
+            }
+        }
+        this.awsClientsUseLocalStubs = useLocalStubs;
+    }
+
+    private String parseAuthToken(String momentoAuthToken, String authTokenKeyValue) {
+        // If your token is stored like this: '{"token": "<momento auth token value>"}',
+        // you would pass in "token" for authTokenKeyValue.
+        // Otherwise, this will presume your token is stored as a simple string
+        Optional<String> maybeAuthTokenKeyValue = Optional.ofNullable(authTokenKeyValue);
+        if (maybeAuthTokenKeyValue.isPresent()) {
+            return readStringField(momentoAuthToken, maybeAuthTokenKeyValue.get());
+        }
+        return momentoAuthToken;
+    }
+
+    // Streams through the top level of the object to the one field we need rather than building a tree of the whole
+    // secret. The secret's contents are never put in the exception message
+    private static String readStringField(String json, String fieldName) {
+        try (JsonReader reader = new JsonReader(new StringReader(json))) {
+            reader.setLenient(true);
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if (fieldName.equals(reader.nextName())) {
+                    return reader.nextString();
+                }
+                reader.skipValue();
+            }
+        } catch (IOException | IllegalStateException e) {
+            throw new IllegalArgumentException(String.format("Could not read %s from the auth token secret, expected a " +
+                    "JSON object with a string field of that name", fieldName), e);
+        }
+        throw new IllegalArgumentException(String.format("The auth token secret has no %s field", fieldName));
+    }
+
+    // A Momento client and the auth token it was built with. Only used while holding the ContainerClients lock
+    private final class CachedMomentoClient {
+        private SimpleCacheClient client;
+        private String authToken;
+        private long authTokenFetchedAtMillis;
+
+        private SimpleCacheClient get(String authToken) {
+            if (this.client != null && authToken.equals(this.authToken)) {
+                return this.client;
+            }
+            drop();
+            this.client = SimpleCacheClient.builder(authToken, MOMENTO_CLIENT_DEFAULT_TTL_SECONDS).build();
+            this.authToken = authToken;
+            return this.client;
+        }
+
+        private void invalidate(boolean refreshAuthToken) {
+            drop();
+            if (refreshAuthToken) {
+                this.authToken = null;
+                this.authTokenFetchedAtMillis = 0;
+            }
+        }
+
+        // The client stays open for the rotations still using it, see retire
+        private void drop() {
+            if (this.client != null) {
+                retire(this.client);
+                this.client = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package example;
+
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
+import com.amazonaws.services.secretsmanager.model.ResourceNotFoundException;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import example.awsclients.cloudwatch.CloudWatch;
+import example.awsclients.secretsmanager.SecretsManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+// Renews signing keys only once they're about to expire, instead of on a fixed schedule. Every run reads expiresAt
+// from the stored key of any managed secret the RenewalSchedule doesn't know yet, then renews the keys that expire
+// within the renewal window, soonest first, through BulkRotationWorkflow. Keys that aren't due are left alone, so a
+// run where nothing is due makes no Momento calls and no writes. An entry from an earlier run is re-read before its
+// key is renewed in case the secret was rotated some other way since.
+public class ExpiryAwareRenewalWorkflow {
+    private final LambdaLogger logger;
+    private final SecretsManager secretsManager;
+    private final CloudWatch cloudWatch;
+    private final Gson gson;
+    private final RenewalSchedule schedule;
+    private final BulkRotationWorkflow bulkRotationWorkflow;
+    private final int signingKeyTtlMinutes;
+    private final long renewalWindowMillis;
+    private final boolean exportMetrics;
+
+    public ExpiryAwareRenewalWorkflow(LambdaLogger logger,
+                                      SecretsManager secretsManager,
+                                      CloudWatch cloudWatch,
+                                      Gson gson,
+                                      RenewalSchedule schedule,
+                                      BulkRotationWorkflow bulkRotationWorkflow,
+                                      int signingKeyTtlMinutes,
+                                      long renewalWindowMillis,
+                                      boolean exportMetrics) {
+        if (renewalWindowMillis < 0 || renewalWindowMillis >= TimeUnit.MINUTES.toMillis(signingKeyTtlMinutes)) {
+            throw new IllegalArgumentException(String.format(
+                    "The renewal window must be between 0 and the signing key TTL of %d minutes, got %d minutes",
+                    signingKeyTtlMinutes, TimeUnit.MILLISECONDS.toMinutes(renewalWindowMillis)));
+        }
+        this.logger = logger;
+        this.secretsManager = secretsManager;
+        this.cloudWatch = cloudWatch;
+        this.gson = gson;
+        this.schedule = schedule;
+        this.bulkRotationWorkflow = bulkRotationWorkflow;
+        this.signingKeyTtlMinutes = signingKeyTtlMinutes;
+        this.renewalWindowMillis = renewalWindowMillis;
+        this.exportMetrics = exportMetrics;
+    }
+
+    public RenewalResult renew(List<String> secretNames, long deadlineMillis) {
+        long startedAtMillis = System.currentTimeMillis();
+        for (String secretName : this.schedule.retainAndFindUnknown(secretNames)) {
+            if (System.currentTimeMillis() >= deadlineMillis) {
+                // Whatever wasn't read yet is read by the next run
+                break;
+            }
+            this.schedule.put(secretName, readExpiresAtMillis(secretName), System.currentTimeMillis());
+        }
+
+        List<String> due = new ArrayList<>();
+        Map<String, Long> dueExpiresAtMillis = new HashMap<>();
+        Optional<RenewalSchedule.Entry> next;
+        while ((next = this.schedule.pollDue(System.currentTimeMillis(), this.renewalWindowMillis)).isPresent()) {
+            RenewalSchedule.Entry entry = next.get();
+            long expiresAtMillis = entry.getExpiresAtMillis();
+            if (entry.getReadAtMillis() < startedAtMillis) {
+                expiresAtMillis = readExpiresAtMillis(entry.getSecretName());
+                if (!isDue(expiresAtMillis, System.currentTimeMillis())) {
+                    this.schedule.put(entry.getSecretName(), expiresAtMillis, System.currentTimeMillis());
+                    continue;
+                }
+            }
+            due.add(entry.getSecretName());
+            dueExpiresAtMillis.put(entry.getSecretName(), expiresAtMillis);
+        }
+
+        RenewalResult result = new RenewalResult();
+        result.setNotDue(this.schedule.size());
+        BulkRotationResult rotation = this.bulkRotationWorkflow.rotate(due, deadlineMillis);
+        for (String secretName : rotation.getRotated()) {
+            // Read back rather than taken to be now plus the TTL: a key claimed from the signing key pool or recovered
+            // from the rotation journal was minted earlier and expires sooner
+            this.schedule.put(secretName, readRenewedExpiresAtMillis(secretName), System.currentTimeMillis());
+            result.addRenewed(secretName);
+        }
+        // Still due, so they're the first thing the next run renews
+        for (Map.Entry<String, String> failed : rotation.getFailed().entrySet()) {
+            this.schedule.put(failed.getKey(), dueExpiresAtMillis.get(failed.getKey()), System.currentTimeMillis());
+            result.addFailed(failed.getKey(), failed.getValue());
+        }
+        for (String secretName : rotation.getRemaining()) {
+            this.schedule.put(secretName, dueExpiresAtMillis.get(secretName), System.currentTimeMillis());
+            result.addRemaining(secretName);
+        }
+
+        Optional<RenewalSchedule.Entry> first = this.schedule.peek();
+        if (first.isPresent()) {
+            long secondsUntilNextRenewal = Math.max(0, TimeUnit.MILLISECONDS.toSeconds(
+                    first.get().getExpiresAtMillis() - this.renewalWindowMillis - System.currentTimeMillis()));
+            result.setSecondsUntilNextRenewal(secondsUntilNextRenewal);
+            if (this.exportMetrics) {
+                this.cloudWatch.putTimeUntilNextRenewal(secondsUntilNextRenewal);
+            }
+            this.logger.log(String.format("Renewal: %d renewed, %d failed, %d remaining, %d not due, next renewal of %s in %ds",
+                    result.getRenewed().size(), result.getFailed().size(), result.getRemaining().size(),
+                    result.getNotDue(), first.get().getSecretName(), secondsUntilNextRenewal));
+        }
+        return result;
+    }
+
+    private boolean isDue(long expiresAtMillis, long nowMillis) {
+        return expiresAtMillis - this.renewalWindowMillis <= nowMillis;
+    }
+
+    // If the new key can't be read, the secret is scheduled as due. Its entry is read again before it's renewed, so the
+    // next run either finds the real expiry or renews it
+    private long readRenewedExpiresAtMillis(String secretName) {
+        try {
+            return readExpiresAtMillis(secretName);
+        } catch (RuntimeException e) {
+            this.logger.log(String.format("Could not read the renewed signing key of %s: %s", secretName, e));
+            return 0;
+        }
+    }
+
+    // A secret that doesn't exist yet or doesn't hold a signing key is due right away, rotating it writes one
+    private long readExpiresAtMillis(String secretName) {
+        try {
+            MomentoSigningKey signingKey = this.gson.fromJson(
+                    this.secretsManager.getSecretValueString(secretName, null, null), MomentoSigningKey.class);
+            if (signingKey != null && signingKey.getExpiresAt() != null) {
+                return signingKey.getExpiresAt().getTime();
+            }
+            this.logger.log(String.format("%s does not hold a signing key, renewing it", secretName));
+        } catch (ResourceNotFoundException e) {
+            this.logger.log(String.format("%s has no current signing key, renewing it", secretName));
+        } catch (JsonParseException e) {
+            this.logger.log(String.format("%s does not hold a signing key, renewing it: %s", secretName, e.getMessage()));
+        }
+        return 0;
+    }
+}
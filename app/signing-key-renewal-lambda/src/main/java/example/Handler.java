@@ -2,88 +2,109 @@ package example;
 
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
-import com.amazonaws.services.lambda.runtime.LambdaLogger;
 
-import com.amazonaws.util.StringUtils;
-import com.google.gson.FieldNamingPolicy;
 import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import example.awsclients.AwsClientsFactory;
 import example.awsclients.cloudwatch.CloudWatch;
 import example.awsclients.secretsmanager.SecretsManager;
+import example.journal.RotationJournal;
+import example.logging.StructuredLogger;
 import momento.sdk.SimpleCacheClient;
-import momento.sdk.exceptions.InvalidArgumentException;
+import momento.sdk.exceptions.AuthenticationException;
+import momento.sdk.exceptions.InternalServerException;
+import momento.sdk.exceptions.ServerUnavailableException;
 
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 // Handler entry point: example.Handler
 public class Handler implements RequestHandler<Map<String,String>, String> {
-  private static final String MOMENTO_AUTH_TOKEN_SECRET_ARN = "MOMENTO_AUTH_TOKEN_SECRET_ARN";
-  private static final String SIGNING_KEY_TTL_MINUTES = "SIGNING_KEY_TTL_MINUTES";
-  private static final String EXPORT_METRICS = "EXPORT_METRICS";
-  private static final String USE_LOCAL_STUBS = "USE_LOCAL_STUBS";
-  private static final String AUTH_TOKEN_KEY_VALUE = "AUTH_TOKEN_KEY_VALUE";
-  private final List<String> environmentVariableNames = Arrays.asList(
-          MOMENTO_AUTH_TOKEN_SECRET_ARN,
-          SIGNING_KEY_TTL_MINUTES,
-          EXPORT_METRICS
-  );
-
-  private final Gson gson = new GsonBuilder()
-          .setFieldNamingPolicy(FieldNamingPolicy.LOWER_CASE_WITH_UNDERSCORES)
-          .setPrettyPrinting()
-          .create();
-
-  private void validateEnvironment() {
-    final Map<String, String> env = System.getenv();
-    for (String envVariable : environmentVariableNames) {
-      if (!env.containsKey(envVariable) || StringUtils.isNullOrEmpty(env.get(envVariable))) {
-        throw new InvalidArgumentException(String.format("Expected %s to have a value but none was provided", envVariable));
-      }
-    }
-  }
+  private static final Gson gson = createGson();
+
+  // Bulk rotations have to finish this long before the Lambda times out. It leaves room for BulkRotationWorkflow to give
+  // running rotations a grace period and then interrupt them
+  private static final long BULK_ROTATION_DEADLINE_MARGIN_MILLIS = 10_000;
+  private static final int DEFAULT_BULK_ROTATION_CONCURRENCY = 16;
+  // Signing key pool refills stop this long before the Lambda times out
+  private static final long POOL_REFILL_DEADLINE_MARGIN_MILLIS = 5_000;
+  // Run ids end up in secret tags, which allow only a few punctuation characters
+  private static final Pattern BULK_RUN_ID_PATTERN = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+
+  // Shared by every invocation that lands on this container
+  private static final ContainerClients containerClients = new ContainerClients(gson);
+  // Held here because CRaC only keeps a weak reference to registered resources
+  private static final SnapStartPriming snapStartPriming = SnapStartPriming.register(containerClients, gson);
+  // Cleared by the first invocation on the container
+  private static final AtomicBoolean coldStart = new AtomicBoolean(true);
 
   @Override
   public String handleRequest(Map<String,String> event, Context context) {
-    if (isAutomaticRotationWorkflow(event)) {
-      automaticRotationWorkflow(event, context);
-    } else {
-      manualRotationWorkflow(event, context);
+    containerClients.getMetricsSink().recordInvocation(coldStart.getAndSet(false));
+    try {
+      if (isAutomaticRotationWorkflow(event)) {
+        automaticRotationWorkflow(event, context);
+      } else if (isSigningKeyPoolRefillWorkflow(event)) {
+        signingKeyPoolRefillWorkflow(event, context);
+      } else if (isRenewalSchedulerWorkflow(event)) {
+        return renewalSchedulerWorkflow(event, context);
+      } else if (isBulkRotationWorkflow(event)) {
+        return bulkRotationWorkflow(event, context);
+      } else {
+        manualRotationWorkflow(event, context);
+      }
+      return "";
+    } finally {
+      // The logs are flushed even if publishing the metrics fails
+      try {
+        containerClients.flushMetrics();
+        containerClients.logInvocationStats(containerClients.getLogger(context.getLogger()));
+      } finally {
+        containerClients.flushLogs();
+      }
     }
-    return "";
   }
 
   private void automaticRotationWorkflow(Map<String, String> event, Context context) {
-    LambdaLogger logger = context.getLogger();
-    validateEnvironment();
-    final String momentoAuthTokenSecretArn = System.getenv(MOMENTO_AUTH_TOKEN_SECRET_ARN);
-    final String authTokenKeyValue = System.getenv(AUTH_TOKEN_KEY_VALUE);
-    final int signingKeyTtlMinutes = Integer.parseInt(System.getenv(SIGNING_KEY_TTL_MINUTES));
-    final boolean exportMetrics = Boolean.parseBoolean(System.getenv(EXPORT_METRICS));
-    final boolean shouldUseLocalStubs = shouldUseLocalStubs();
-
-    SecretsManager secretsManager = AwsClientsFactory.getSecretsManagerClient(shouldUseLocalStubs, logger);
-    CloudWatch cloudWatch = AwsClientsFactory.getCloudWatchClient(shouldUseLocalStubs, logger);
-    try (SimpleCacheClient momentoClient = createSimpleCacheClient(secretsManager, momentoAuthTokenSecretArn, authTokenKeyValue)) {
-      RotationWorkflow rotationWorkflow = new RotationWorkflow(logger,
-              secretsManager,
-              cloudWatch,
-              gson,
-              momentoClient,
-              signingKeyTtlMinutes,
-              exportMetrics);
-      rotationWorkflow.processRotation(event);
-    }
+    StructuredLogger logger = containerClients.getLogger(context.getLogger());
+    final RotationConfig config = containerClients.getConfig();
+
+    SecretsManager secretsManager = containerClients.getSecretsManager(config.shouldUseLocalStubs(), logger);
+    CloudWatch cloudWatch = containerClients.getCloudWatch(config.shouldUseLocalStubs(),
+            config.shouldUseEmbeddedMetricFormat(),
+            logger);
+    // Only the workflow gets the step's fields, the clients above are kept for later invocations
+    StructuredLogger stepLogger = logger.withField("secret_arn", event.get("SecretId"))
+            .withField("client_request_token", event.get("ClientRequestToken"))
+            .withField("step", event.get("Step"));
+    runWithMomentoClient(logger,
+            () -> containerClients.acquireMomentoClient(secretsManager,
+                    config.getMomentoAuthTokenSecretArn(),
+                    config.getAuthTokenKeyValue()),
+            (momentoClient, signingKeyMinter) -> {
+              containerClients.newRotationWorkflow(logger,
+                      stepLogger,
+                      config,
+                      secretsManager,
+                      cloudWatch,
+                      momentoClient,
+                      signingKeyMinter)
+                      .processRotation(event);
+              return null;
+            });
   }
 
   private void manualRotationWorkflow(Map<String, String> event, Context context) {
-    LambdaLogger logger = context.getLogger();
-    logger.log("Received event: " + event.toString());
+    StructuredLogger logger = containerClients.getLogger(context.getLogger());
+    // The event holds the auth token, which the logger redacts
+    logger.debug("Received manual rotation event {}", event);
     final Optional<String> momentoAuthToken = Optional.ofNullable(event.getOrDefault("momento_auth_token", null));
     final Optional<String> momentoSigningKeySecretName = Optional.ofNullable(event.getOrDefault("momento_signing_key_secret_name", null));
     if (!momentoAuthToken.isPresent()) {
@@ -92,49 +113,219 @@ public class Handler implements RequestHandler<Map<String,String>, String> {
     if (!momentoSigningKeySecretName.isPresent()) {
       throw new IllegalArgumentException("Presumed manual rotation workflow, momento_signing_key_secret_name is required.");
     }
-    logger.log(momentoSigningKeySecretName.get());
-    final int signingKeyTtlMinutes = Integer.parseInt(event.getOrDefault("signing_key_ttl_minutes", "20160" ));
-    final boolean exportMetrics = Boolean.parseBoolean(event.getOrDefault("export_metrics", "false" ));
-    final boolean shouldUseLocalStubs = Boolean.parseBoolean(event.getOrDefault("use_local_stubs", "false" ));
-
-    SecretsManager secretsManager = AwsClientsFactory.getSecretsManagerClient(shouldUseLocalStubs, logger);
-    CloudWatch cloudWatch = AwsClientsFactory.getCloudWatchClient(shouldUseLocalStubs, logger);
-    try (SimpleCacheClient momentoClient = SimpleCacheClient.builder(momentoAuthToken.get(), 300).build()) {
-      RotationWorkflow rotationWorkflow = new RotationWorkflow(logger,
-              secretsManager,
-              cloudWatch,
-              gson,
-              momentoClient,
-              signingKeyTtlMinutes,
-              exportMetrics);
-      rotationWorkflow.manualRotation(momentoSigningKeySecretName.get());
+    logger.info("Manual rotation of {}", momentoSigningKeySecretName.get());
+    final RotationConfig config = eventRotationConfig(event);
+
+    SecretsManager secretsManager = containerClients.getSecretsManager(config.shouldUseLocalStubs(), logger);
+    CloudWatch cloudWatch = containerClients.getCloudWatch(config.shouldUseLocalStubs(),
+            config.shouldUseEmbeddedMetricFormat(),
+            logger);
+    StructuredLogger rotationLogger = logger.withField("secret_name", momentoSigningKeySecretName.get());
+    runWithMomentoClient(logger,
+            () -> containerClients.acquireMomentoClient(momentoAuthToken.get()),
+            (momentoClient, signingKeyMinter) -> {
+              containerClients.newRotationWorkflow(logger,
+                      rotationLogger,
+                      config,
+                      secretsManager,
+                      cloudWatch,
+                      momentoClient,
+                      signingKeyMinter)
+                      .manualRotation(momentoSigningKeySecretName.get());
+              return null;
+            });
+  }
+
+  private String bulkRotationWorkflow(Map<String, String> event, Context context) {
+    StructuredLogger logger = containerClients.getLogger(context.getLogger());
+    final long deadlineMillis = System.currentTimeMillis() + context.getRemainingTimeInMillis() - BULK_ROTATION_DEADLINE_MARGIN_MILLIS;
+    final Optional<String> momentoAuthToken = Optional.ofNullable(event.getOrDefault("momento_auth_token", null));
+    if (!momentoAuthToken.isPresent()) {
+      throw new IllegalArgumentException("Presumed bulk rotation workflow, momento_auth_token is required.");
+    }
+    final RotationConfig config = eventRotationConfig(event);
+    final int maxConcurrency = Integer.parseInt(event.getOrDefault("max_concurrency",
+            String.valueOf(DEFAULT_BULK_ROTATION_CONCURRENCY)));
+    // Passing back the run_id of an earlier result skips what that run already rotated, if a journal is configured
+    final String runId = event.getOrDefault("bulk_run_id", UUID.randomUUID().toString());
+    if (!BULK_RUN_ID_PATTERN.matcher(runId).matches()) {
+      throw new IllegalArgumentException("bulk_run_id must be 1 to 64 letters, digits, '.', '_' or '-'.");
+    }
+
+    SecretsManager secretsManager = containerClients.getSecretsManager(config.shouldUseLocalStubs(), logger);
+    CloudWatch cloudWatch = containerClients.getCloudWatch(config.shouldUseLocalStubs(),
+            config.shouldUseEmbeddedMetricFormat(),
+            logger);
+    final List<String> secretNames = getBulkRotationSecretNames(event, secretsManager);
+    logger.info("Bulk rotating {} secrets with concurrency {} in run {}", secretNames.size(), maxConcurrency, runId);
+
+    BulkRotationResult result = runWithMomentoClient(logger,
+            () -> containerClients.acquireMomentoClient(momentoAuthToken.get()),
+            (momentoClient, signingKeyMinter) -> {
+              Optional<RotationJournal> journal = containerClients.getRotationJournal(secretsManager, momentoClient);
+              RotationWorkflow rotationWorkflow = containerClients.newRotationWorkflow(logger,
+                      logger,
+                      config,
+                      secretsManager,
+                      cloudWatch,
+                      momentoClient,
+                      signingKeyMinter);
+              return new BulkRotationWorkflow(logger,
+                      rotationWorkflow,
+                      maxConcurrency,
+                      journal,
+                      journal.isPresent() ? Optional.of(runId) : Optional.empty())
+                      .rotate(secretNames, deadlineMillis);
+            });
+    return gson.toJson(result);
+  }
+
+  // Scheduled by the stack instead of a fixed rotation schedule when a renewal window is configured. Uses the same
+  // environment as automatic rotation, the event only carries the secrets to manage and the window
+  private String renewalSchedulerWorkflow(Map<String, String> event, Context context) {
+    StructuredLogger logger = containerClients.getLogger(context.getLogger());
+    final long deadlineMillis = System.currentTimeMillis() + context.getRemainingTimeInMillis() - BULK_ROTATION_DEADLINE_MARGIN_MILLIS;
+    final RotationConfig config = containerClients.getConfig();
+    final long renewalWindowMillis = TimeUnit.MINUTES.toMillis(
+            Long.parseLong(event.get("momento_signing_key_renewal_window_minutes")));
+    final int maxConcurrency = Integer.parseInt(event.getOrDefault("max_concurrency",
+            String.valueOf(DEFAULT_BULK_ROTATION_CONCURRENCY)));
+
+    SecretsManager secretsManager = containerClients.getSecretsManager(config.shouldUseLocalStubs(), logger);
+    CloudWatch cloudWatch = containerClients.getCloudWatch(config.shouldUseLocalStubs(),
+            config.shouldUseEmbeddedMetricFormat(),
+            logger);
+    final List<String> secretNames = getBulkRotationSecretNames(event, secretsManager);
+
+    RenewalResult result = runWithMomentoClient(logger,
+            () -> containerClients.acquireMomentoClient(secretsManager,
+                    config.getMomentoAuthTokenSecretArn(),
+                    config.getAuthTokenKeyValue()),
+            (momentoClient, signingKeyMinter) -> {
+              RotationWorkflow rotationWorkflow = containerClients.newRotationWorkflow(logger,
+                      logger,
+                      config,
+                      secretsManager,
+                      cloudWatch,
+                      momentoClient,
+                      signingKeyMinter);
+              return new ExpiryAwareRenewalWorkflow(logger,
+                      secretsManager,
+                      cloudWatch,
+                      gson,
+                      containerClients.getRenewalSchedule(),
+                      new BulkRotationWorkflow(logger, rotationWorkflow, maxConcurrency),
+                      config.getSigningKeyTtlMinutes(),
+                      renewalWindowMillis,
+                      config.shouldExportMetrics())
+                      .renew(secretNames, deadlineMillis);
+            });
+    return gson.toJson(result);
+  }
+
+  // Scheduled by the stack when a signing key pool is configured, so rotations only ever claim from the pool and never
+  // wait on refilling it. Uses the same environment as automatic rotation, the event only lists the secrets whose
+  // pools to refill
+  private void signingKeyPoolRefillWorkflow(Map<String, String> event, Context context) {
+    StructuredLogger logger = containerClients.getLogger(context.getLogger());
+    final long deadlineMillis = System.currentTimeMillis() + context.getRemainingTimeInMillis() - POOL_REFILL_DEADLINE_MARGIN_MILLIS;
+    final RotationConfig config = containerClients.getConfig();
+    final List<String> secretNames = splitSecretNames(event.get("momento_signing_key_pool_secret_names"));
+
+    SecretsManager secretsManager = containerClients.getSecretsManager(config.shouldUseLocalStubs(), logger);
+    runWithMomentoClient(logger,
+            () -> containerClients.acquireMomentoClient(secretsManager,
+                    config.getMomentoAuthTokenSecretArn(),
+                    config.getAuthTokenKeyValue()),
+            (momentoClient, signingKeyMinter) -> {
+              Optional<SigningKeyPool> signingKeyPool = containerClients.getSigningKeyPool(logger,
+                      secretsManager,
+                      momentoClient,
+                      signingKeyMinter,
+                      config.getSigningKeyTtlMinutes());
+              if (!signingKeyPool.isPresent()) {
+                throw new IllegalStateException("Presumed signing key pool refill, SIGNING_KEY_POOL_CACHE_NAME is required.");
+              }
+              for (String secretName : secretNames) {
+                containerClients.getMetricsSink().time("signingKeyPool.refill", () -> {
+                  signingKeyPool.get().refill(secretName, deadlineMillis);
+                  return null;
+                });
+              }
+              return null;
+            });
+  }
+
+  // Manual and bulk rotations take the settings automatic rotation reads from the environment from the event instead
+  private static RotationConfig eventRotationConfig(Map<String, String> event) {
+    return new RotationConfig(null,
+            null,
+            Integer.parseInt(event.getOrDefault("signing_key_ttl_minutes", "20160" )),
+            Boolean.parseBoolean(event.getOrDefault("export_metrics", "false" )),
+            Boolean.parseBoolean(event.getOrDefault("use_local_stubs", "false" )),
+            RotationConfig.isEmbeddedMetricFormat(event.get("metrics_format")));
+  }
+
+  // Secrets can either be listed explicitly as a comma separated string, or selected by name prefix
+  private List<String> getBulkRotationSecretNames(Map<String, String> event, SecretsManager secretsManager) {
+    final Optional<String> secretNames = Optional.ofNullable(event.getOrDefault("momento_signing_key_secret_names", null));
+    if (secretNames.isPresent()) {
+      return splitSecretNames(secretNames.get());
     }
+    return secretsManager.listSecretNames(event.get("momento_signing_key_secret_name_prefix"));
   }
 
-  private SimpleCacheClient createSimpleCacheClient(SecretsManager secretsManager,
-                                                    String momentoAuthTokenSecretId,
-                                                    String authTokenKeyValue) {
-    String momentoAuthToken = secretsManager.getSecretValueString(momentoAuthTokenSecretId, null, null);
-    // If your token is stored like this: '{"token": "<momento auth token value>"}',
-    // you would pass in "token" for authTokenKeyValue.
-    // Otherwise, this will presume your token is stored as a simple string
-    Optional<String> maybeAuthTokenKeyValue = Optional.ofNullable(authTokenKeyValue);
-    if (maybeAuthTokenKeyValue.isPresent()) {
-      JsonElement element = gson.fromJson(momentoAuthToken, JsonElement.class);
-      JsonObject obj = element.getAsJsonObject();
-      String parsedToken = obj.get(maybeAuthTokenKeyValue.get()).getAsString();
-      return SimpleCacheClient.builder(parsedToken, 300).build();
+  private static List<String> splitSecretNames(String secretNames) {
+    return Arrays.stream(secretNames.split(","))
+            .map(String::trim)
+            .filter(name -> !name.isEmpty())
+            .distinct()
+            .collect(Collectors.toList());
+  }
+
+  // Runs the rotation with the container's cached Momento client. Minting and revoking go through a minter that
+  // rebuilds the client and retries the call once if the auth token was rejected or the channel is broken. The
+  // rotation as a whole isn't retried: the pool, journal and keyset calls on the same client can come after a key was
+  // written, and running the rotation again would write another. If one of those fails, the client is still dropped
+  // so the next invocation builds a new one. A dropped client is only closed once every rotation using it, such as
+  // the other secrets of a bulk rotation, has released it.
+  private <T> T runWithMomentoClient(StructuredLogger logger,
+                                     Supplier<SimpleCacheClient> momentoClientSupplier,
+                                     BiFunction<SimpleCacheClient, SigningKeyMinter, T> rotation) {
+    SimpleCacheClient momentoClient = momentoClientSupplier.get();
+    try (ReconnectingSigningKeyMinter signingKeyMinter =
+                 new ReconnectingSigningKeyMinter(logger, containerClients, momentoClient, momentoClientSupplier)) {
+      return rotation.apply(momentoClient, signingKeyMinter);
+    } catch (AuthenticationException e) {
+      containerClients.invalidateMomentoClient(momentoClient, true);
+      throw e;
+    } catch (ServerUnavailableException | InternalServerException e) {
+      containerClients.invalidateMomentoClient(momentoClient, false);
+      throw e;
+    } finally {
+      containerClients.releaseMomentoClient(momentoClient);
     }
-    return SimpleCacheClient.builder(momentoAuthToken, 300).build();
   }
 
-  private boolean shouldUseLocalStubs() {
-    Optional<String> maybeUseLocalStubs = Optional.ofNullable(System.getenv(USE_LOCAL_STUBS));
-    return maybeUseLocalStubs.filter(Boolean::parseBoolean).isPresent();
+  // Gson used for the bulk rotation result and the signing key pool, and what MomentoSigningKeyCodec's v1 format
+  // matches. Package-private so the benchmarks can use the same one
+  static Gson createGson() {
+    return ContainerClients.createGson();
+  }
+
+  private boolean isSigningKeyPoolRefillWorkflow(Map<String, String> event) {
+    return event.containsKey("momento_signing_key_pool_secret_names");
+  }
+
+  private boolean isRenewalSchedulerWorkflow(Map<String, String> event) {
+    return event.containsKey("momento_signing_key_renewal_window_minutes");
+  }
+
+  private boolean isBulkRotationWorkflow(Map<String, String> event) {
+    return event.containsKey("momento_signing_key_secret_names") || event.containsKey("momento_signing_key_secret_name_prefix");
   }
 
   private boolean isAutomaticRotationWorkflow(Map<String, String> event) {
     return event.containsKey("ClientRequestToken") && event.containsKey("SecretId") && event.containsKey("Step");
   }
 }
-
@@ -0,0 +1,58 @@
+package example;
+
+import com.amazonaws.util.StringUtils;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+// Settings for publishing a keyset document next to every signing key secret. Publishing is only enabled when
+// KEYSET_SECRET_SUFFIX is set, the keyset of secret "momento/signing-key" is then written to the secret
+// "momento/signing-key" + suffix. With KEYSET_NOTIFICATION_CACHE_NAME a small item in that Momento cache is also
+// updated whenever a new key goes live, so readers can watch it instead of re-reading the secret on an interval.
+public class KeysetConfig {
+    private static final String KEYSET_SECRET_SUFFIX = "KEYSET_SECRET_SUFFIX";
+    private static final String KEYSET_NOTIFICATION_CACHE_NAME = "KEYSET_NOTIFICATION_CACHE_NAME";
+    private static final String KEYSET_NOTIFICATION_TTL_SECONDS = "KEYSET_NOTIFICATION_TTL_SECONDS";
+    // Long enough to outlive the time between rotations, a reader that finds no item just keeps the keys it has
+    private static final long DEFAULT_NOTIFICATION_TTL_SECONDS = TimeUnit.DAYS.toSeconds(30);
+
+    private final String secretSuffix;
+    private final Optional<String> notificationCacheName;
+    private final long notificationTtlSeconds;
+
+    public KeysetConfig(String secretSuffix, Optional<String> notificationCacheName, long notificationTtlSeconds) {
+        if (StringUtils.isNullOrEmpty(secretSuffix)) {
+            throw new IllegalArgumentException(String.format("%s must not be empty", KEYSET_SECRET_SUFFIX));
+        }
+        if (notificationTtlSeconds < 1) {
+            throw new IllegalArgumentException(String.format("%s must be positive, got %d",
+                    KEYSET_NOTIFICATION_TTL_SECONDS, notificationTtlSeconds));
+        }
+        this.secretSuffix = secretSuffix;
+        this.notificationCacheName = notificationCacheName;
+        this.notificationTtlSeconds = notificationTtlSeconds;
+    }
+
+    public static Optional<KeysetConfig> fromEnvironment() {
+        final Map<String, String> env = System.getenv();
+        if (StringUtils.isNullOrEmpty(env.get(KEYSET_SECRET_SUFFIX))) {
+            return Optional.empty();
+        }
+        return Optional.of(new KeysetConfig(env.get(KEYSET_SECRET_SUFFIX),
+                Optional.ofNullable(env.get(KEYSET_NOTIFICATION_CACHE_NAME)).filter(name -> !name.isEmpty()),
+                Long.parseLong(env.getOrDefault(KEYSET_NOTIFICATION_TTL_SECONDS, String.valueOf(DEFAULT_NOTIFICATION_TTL_SECONDS)))));
+    }
+
+    public String getSecretSuffix() {
+        return this.secretSuffix;
+    }
+
+    public Optional<String> getNotificationCacheName() {
+        return this.notificationCacheName;
+    }
+
+    public long getNotificationTtlSeconds() {
+        return this.notificationTtlSeconds;
+    }
+}
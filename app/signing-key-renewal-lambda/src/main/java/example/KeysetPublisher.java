@@ -0,0 +1,132 @@
+package example;
+
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
+import com.amazonaws.services.secretsmanager.model.ResourceNotFoundException;
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import example.awsclients.Futures;
+import example.awsclients.secretsmanager.SecretsManager;
+import momento.sdk.SimpleCacheClient;
+import momento.sdk.exceptions.SdkException;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+// Publishes the previous, current and next signing keys of a secret as one keyset document, so readers can hold on to
+// all of them and never sign with a key that has just been replaced or look for one that isn't current yet. The
+// document is built from the secret's AWSPREVIOUS, AWSCURRENT and AWSPENDING versions and written as the AWSCURRENT
+// value of a companion secret:
+//
+//   {"secret_name": "...", "published_at": <epoch millis>, "previous": {<signing key>}, "current": {...}, "next": {...}}
+//
+// Each key is embedded exactly as it's stored, missing ones are left out. When a new key goes live an item holding
+// the secret name, the current and previous key ids and the publish time is also written to the notification cache.
+// It holds no key material, it only tells readers that the keyset changed.
+public class KeysetPublisher {
+    public static final String NOTIFICATION_KEY_PREFIX = "keyset-notification/";
+    private static final String AWSPREVIOUS = "AWSPREVIOUS";
+    private static final String AWSCURRENT = "AWSCURRENT";
+    private static final String AWSPENDING = "AWSPENDING";
+    private static final Gson GSON = new Gson();
+
+    private final LambdaLogger logger;
+    private final SecretsManager secretsManager;
+    private final SimpleCacheClient momentoClient;
+    private final KeysetConfig config;
+
+    public KeysetPublisher(LambdaLogger logger, SecretsManager secretsManager, SimpleCacheClient momentoClient, KeysetConfig config) {
+        this.logger = logger;
+        this.secretsManager = secretsManager;
+        this.momentoClient = momentoClient;
+        this.config = config;
+    }
+
+    // Rewrites the keyset of secretId from the secret's current stages. keyWentLive is set once AWSCURRENT has moved,
+    // which is when readers are notified. Safe to repeat, a retried step publishes the same keys again
+    public void publish(String secretId, boolean keyWentLive) {
+        String secretName = SigningKeyReplicator.replicaSecretName(secretId);
+        CompletableFuture<Optional<JsonObject>> previous = readStage(secretId, AWSPREVIOUS);
+        CompletableFuture<Optional<JsonObject>> current = readStage(secretId, AWSCURRENT);
+        CompletableFuture<Optional<JsonObject>> pending = readStage(secretId, AWSPENDING);
+        Optional<JsonObject> currentKey = Futures.join(current);
+        // Secrets Manager can leave AWSPENDING on the version that just became current, and AWSPREVIOUS on it after a
+        // manual rotation put the same key twice. Neither is a different key
+        Optional<JsonObject> previousKey = Futures.join(previous).filter(key -> !sameKey(key, currentKey));
+        Optional<JsonObject> nextKey = Futures.join(pending).filter(key -> !sameKey(key, currentKey));
+
+        long publishedAt = System.currentTimeMillis();
+        JsonObject keyset = new JsonObject();
+        keyset.addProperty("secret_name", secretName);
+        keyset.addProperty("published_at", publishedAt);
+        previousKey.ifPresent(key -> keyset.add("previous", key));
+        currentKey.ifPresent(key -> keyset.add("current", key));
+        nextKey.ifPresent(key -> keyset.add("next", key));
+        writeKeyset(secretId, secretName + this.config.getSecretSuffix(), GSON.toJson(keyset));
+        this.logger.log(String.format("Published keyset of %s: previous %s, current %s, next %s", secretName,
+                keyId(previousKey), keyId(currentKey), keyId(nextKey)));
+
+        if (keyWentLive && this.config.getNotificationCacheName().isPresent()) {
+            JsonObject notification = new JsonObject();
+            notification.addProperty("secret_name", secretName);
+            notification.addProperty("current_key_id", keyId(currentKey));
+            notification.addProperty("previous_key_id", keyId(previousKey));
+            notification.addProperty("published_at", publishedAt);
+            notify(this.config.getNotificationCacheName().get(), secretName, GSON.toJson(notification));
+        }
+    }
+
+    private CompletableFuture<Optional<JsonObject>> readStage(String secretId, String versionStage) {
+        CompletableFuture<Optional<JsonObject>> signingKey = new CompletableFuture<>();
+        this.secretsManager.getSecretValueStringAsync(secretId, null, versionStage).whenComplete((value, error) -> {
+            if (error == null) {
+                signingKey.complete(Optional.ofNullable(value).map(KeysetPublisher::parseSigningKey));
+            } else if (Futures.unwrap(error) instanceof ResourceNotFoundException) {
+                signingKey.complete(Optional.empty());
+            } else {
+                signingKey.completeExceptionally(Futures.unwrap(error));
+            }
+        });
+        return signingKey;
+    }
+
+    private static JsonObject parseSigningKey(String secretString) {
+        JsonElement signingKey = JsonParser.parseString(secretString);
+        if (!signingKey.isJsonObject()) {
+            throw new IllegalStateException("Secret does not hold a signing key");
+        }
+        return signingKey.getAsJsonObject();
+    }
+
+    // The keyset holds the same keys as the signing key secret, so it's created encrypted with the same KMS key
+    private void writeKeyset(String secretId, String keysetSecretName, String keyset) {
+        try {
+            this.secretsManager.putSecretValue(keysetSecretName, keyset, null, null);
+        } catch (ResourceNotFoundException e) {
+            this.logger.log(String.format("%s not found, creating new keyset secret", keysetSecretName));
+            this.secretsManager.createSecret(keysetSecretName, keyset, this.secretsManager.getKmsKeyId(secretId).orElse(null));
+        }
+    }
+
+    // Readers fall back to re-reading the keyset on an interval, so a failed notification doesn't fail the rotation
+    private void notify(String cacheName, String secretName, String notification) {
+        try {
+            this.momentoClient.set(cacheName, NOTIFICATION_KEY_PREFIX + secretName, notification, this.config.getNotificationTtlSeconds());
+        } catch (SdkException e) {
+            this.logger.log(String.format("Could not notify readers of the new keyset of %s: %s", secretName, e));
+        }
+    }
+
+    private static boolean sameKey(JsonObject signingKey, Optional<JsonObject> other) {
+        return other.isPresent() && Objects.equals(keyId(Optional.of(signingKey)), keyId(other));
+    }
+
+    private static String keyId(Optional<JsonObject> signingKey) {
+        return signingKey.map(key -> key.get("key_id"))
+                .filter(JsonElement::isJsonPrimitive)
+                .map(JsonElement::getAsString)
+                .orElse(null);
+    }
+}
@@ -0,0 +1,138 @@
+package example;
+
+import com.google.gson.stream.JsonWriter;
+import example.signingkeycache.UtcDateTypeAdapter;
+import momento.sdk.messages.CreateSigningKeyResponse;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.io.UncheckedIOException;
+import java.text.DateFormat;
+import java.util.Date;
+
+// Writes the signing key JSON stored in Secrets Manager field by field with a streaming JsonWriter, instead of going
+// through Gson's reflective type adapters. V1_PRETTY is byte for byte what Handler's Gson writes: the same field names
+// and order, two space indents, HTML-safe escaping, null fields left out and Gson's default date format in UTC.
+public class MomentoSigningKeyCodec {
+    public enum Format {
+        // What the lambda has always written
+        V1_PRETTY("  "),
+        // The same document without whitespace, for when every reader parses the JSON rather than comparing text
+        V2_COMPACT("");
+
+        private final String indent;
+
+        Format(String indent) {
+            this.indent = indent;
+        }
+
+        // "v1" or "v2", anything else is rejected so a typo doesn't silently change the stored format
+        public static Format fromVersion(String version) {
+            if (version == null || version.isEmpty() || "v1".equalsIgnoreCase(version)) {
+                return V1_PRETTY;
+            }
+            if ("v2".equalsIgnoreCase(version)) {
+                return V2_COMPACT;
+            }
+            throw new IllegalArgumentException(String.format("Unknown signing key format %s, expected v1 or v2", version));
+        }
+    }
+
+    // Each thread writes into the same buffer every time, so the only per-key allocations are the formatted date and
+    // the returned string. A buffer that grew past MAX_RETAINED_CHARS for an unusually large key isn't kept
+    private static final ThreadLocal<StringBuilderWriter> BUFFER = ThreadLocal.withInitial(StringBuilderWriter::new);
+    private static final int MAX_RETAINED_CHARS = 64 * 1024;
+    // What Handler's Gson formats dates with, see UtcDateTypeAdapter. DateFormat isn't thread-safe
+    private static final ThreadLocal<DateFormat> DATE_FORMAT = ThreadLocal.withInitial(UtcDateTypeAdapter::newDateFormat);
+
+    private final Format format;
+
+    public MomentoSigningKeyCodec(Format format) {
+        this.format = format;
+    }
+
+    // Writes the SDK response directly, without copying it into a MomentoSigningKey first
+    public String toJson(CreateSigningKeyResponse response) {
+        return toJson(response.getKeyId(), response.getEndpoint(), response.getKey(), response.getExpiresAt());
+    }
+
+    public String toJson(MomentoSigningKey signingKey) {
+        return toJson(signingKey.getKeyId(), signingKey.getEndpoint(), signingKey.getKey(), signingKey.getExpiresAt());
+    }
+
+    public Format getFormat() {
+        return this.format;
+    }
+
+    private String toJson(String keyId, String endpoint, String key, Date expiresAt) {
+        StringBuilderWriter out = BUFFER.get();
+        out.reset();
+        try (JsonWriter writer = new JsonWriter(out)) {
+            writer.setIndent(this.format.indent);
+            writer.setHtmlSafe(true);
+            writer.beginObject();
+            writeField(writer, "key_id", keyId);
+            writeField(writer, "endpoint", endpoint);
+            writeField(writer, "key", key);
+            if (expiresAt != null) {
+                writer.name("expires_at").value(DATE_FORMAT.get().format(expiresAt));
+            }
+            writer.endObject();
+        } catch (IOException e) {
+            // A StringWriter never throws
+            throw new UncheckedIOException(e);
+        }
+        String json = out.toString();
+        if (out.capacity() > MAX_RETAINED_CHARS) {
+            BUFFER.remove();
+        }
+        return json;
+    }
+
+    private static void writeField(JsonWriter writer, String name, String value) throws IOException {
+        if (value != null) {
+            writer.name(name).value(value);
+        }
+    }
+
+    // Unsynchronized, reusable StringWriter. Only ever used by the thread that owns it
+    private static final class StringBuilderWriter extends Writer {
+        private final StringBuilder builder = new StringBuilder(1024);
+
+        void reset() {
+            this.builder.setLength(0);
+        }
+
+        int capacity() {
+            return this.builder.capacity();
+        }
+
+        @Override
+        public void write(int c) {
+            this.builder.append((char) c);
+        }
+
+        @Override
+        public void write(char[] chars, int offset, int length) {
+            this.builder.append(chars, offset, length);
+        }
+
+        @Override
+        public void write(String string, int offset, int length) {
+            this.builder.append(string, offset, offset + length);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public String toString() {
+            return this.builder.toString();
+        }
+    }
+}
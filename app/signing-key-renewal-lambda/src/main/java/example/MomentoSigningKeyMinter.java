@@ -0,0 +1,21 @@
+package example;
+
+import momento.sdk.SimpleCacheClient;
+
+public class MomentoSigningKeyMinter implements SigningKeyMinter {
+    private final SimpleCacheClient momentoClient;
+
+    public MomentoSigningKeyMinter(SimpleCacheClient momentoClient) {
+        this.momentoClient = momentoClient;
+    }
+
+    @Override
+    public MomentoSigningKey createSigningKey(int ttlMinutes) {
+        return MomentoSigningKey.fromCreateSigningResponse(this.momentoClient.createSigningKey(ttlMinutes));
+    }
+
+    @Override
+    public void revokeSigningKey(String keyId) {
+        this.momentoClient.revokeSigningKey(keyId);
+    }
+}
@@ -0,0 +1,80 @@
+package example;
+
+import example.logging.StructuredLogger;
+import momento.sdk.SimpleCacheClient;
+import momento.sdk.exceptions.AuthenticationException;
+import momento.sdk.exceptions.InternalServerException;
+import momento.sdk.exceptions.ServerUnavailableException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// Mints and revokes signing keys through the container's cached Momento client. If the client fails because its auth
+// token was rejected or its channel is broken, it's dropped, a new one is built and the call is retried once. Neither
+// call writes anything, so a retry can't leave a second key behind: a key minted by a call that failed on the way back
+// is never handed out and just expires. The supplier acquires clients from ContainerClients, close releases the ones
+// this minter acquired; the client it starts with belongs to the caller.
+public class ReconnectingSigningKeyMinter implements SigningKeyMinter, AutoCloseable {
+    private final StructuredLogger logger;
+    private final ContainerClients containerClients;
+    private final Supplier<SimpleCacheClient> momentoClientSupplier;
+    private final List<SimpleCacheClient> acquiredClients = new ArrayList<>();
+    private volatile SimpleCacheClient momentoClient;
+
+    public ReconnectingSigningKeyMinter(StructuredLogger logger,
+                                        ContainerClients containerClients,
+                                        SimpleCacheClient momentoClient,
+                                        Supplier<SimpleCacheClient> momentoClientSupplier) {
+        this.logger = logger;
+        this.containerClients = containerClients;
+        this.momentoClient = momentoClient;
+        this.momentoClientSupplier = momentoClientSupplier;
+    }
+
+    @Override
+    public MomentoSigningKey createSigningKey(int ttlMinutes) {
+        return callWithRetry(client -> MomentoSigningKey.fromCreateSigningResponse(client.createSigningKey(ttlMinutes)));
+    }
+
+    @Override
+    public void revokeSigningKey(String keyId) {
+        callWithRetry(client -> {
+            client.revokeSigningKey(keyId);
+            return null;
+        });
+    }
+
+    private <T> T callWithRetry(Function<SimpleCacheClient, T> call) {
+        SimpleCacheClient client = this.momentoClient;
+        try {
+            return call.apply(client);
+        } catch (AuthenticationException e) {
+            this.logger.warn("Momento auth token was rejected, refreshing it and retrying: {}", e.getMessage());
+            return call.apply(reconnect(client, true));
+        } catch (ServerUnavailableException | InternalServerException e) {
+            this.logger.warn("Momento client failed, rebuilding it and retrying: {}", e.getMessage());
+            return call.apply(reconnect(client, false));
+        }
+    }
+
+    // Speculative mints run on their own threads, only the first to fail on a client replaces it
+    private synchronized SimpleCacheClient reconnect(SimpleCacheClient failedClient, boolean refreshAuthToken) {
+        if (this.momentoClient == failedClient) {
+            this.containerClients.invalidateMomentoClient(failedClient, refreshAuthToken);
+            this.momentoClient = this.momentoClientSupplier.get();
+            this.acquiredClients.add(this.momentoClient);
+        }
+        return this.momentoClient;
+    }
+
+    // Called once the rotation is done with the minter
+    @Override
+    public synchronized void close() {
+        for (SimpleCacheClient client : this.acquiredClients) {
+            this.containerClients.releaseMomentoClient(client);
+        }
+        this.acquiredClients.clear();
+    }
+}
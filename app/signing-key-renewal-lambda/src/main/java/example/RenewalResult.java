@@ -0,0 +1,58 @@
+package example;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Outcome of one run of the expiry-aware renewal scheduler. Keys in `remaining` were due but not renewed before the
+// invocation ran out of time, they're renewed first on the next run.
+public class RenewalResult {
+    private final List<String> renewed = new ArrayList<>();
+    private final Map<String, String> failed = new LinkedHashMap<>();
+    private final List<String> remaining = new ArrayList<>();
+    private int notDue;
+    private long secondsUntilNextRenewal = -1;
+
+    public void addRenewed(String secretName) {
+        this.renewed.add(secretName);
+    }
+
+    public void addFailed(String secretName, String error) {
+        this.failed.put(secretName, error);
+    }
+
+    public void addRemaining(String secretName) {
+        this.remaining.add(secretName);
+    }
+
+    public void setNotDue(int notDue) {
+        this.notDue = notDue;
+    }
+
+    public void setSecondsUntilNextRenewal(long secondsUntilNextRenewal) {
+        this.secondsUntilNextRenewal = secondsUntilNextRenewal;
+    }
+
+    public List<String> getRenewed() {
+        return this.renewed;
+    }
+
+    public Map<String, String> getFailed() {
+        return this.failed;
+    }
+
+    public List<String> getRemaining() {
+        return this.remaining;
+    }
+
+    // Managed secrets whose keys were left alone because they don't expire within the renewal window
+    public int getNotDue() {
+        return this.notDue;
+    }
+
+    // -1 if no secret is managed
+    public long getSecondsUntilNextRenewal() {
+        return this.secondsUntilNextRenewal;
+    }
+}
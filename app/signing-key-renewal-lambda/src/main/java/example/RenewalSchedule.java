@@ -0,0 +1,94 @@
+package example;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+// Min-heap of the secrets the renewal scheduler manages, ordered by when their current signing key expires. It's kept
+// for the lifetime of the container so a warm invocation only has to look at the keys at the top of the heap instead
+// of reading every secret again. Entries can go stale if a secret is rotated some other way, so an entry is checked
+// against Secrets Manager before its key is renewed, see ExpiryAwareRenewalWorkflow.
+public class RenewalSchedule {
+    private final PriorityQueue<Entry> heap = new PriorityQueue<>((a, b) -> Long.compare(a.expiresAtMillis, b.expiresAtMillis));
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    public static final class Entry {
+        private final String secretName;
+        private final long expiresAtMillis;
+        private final long readAtMillis;
+
+        Entry(String secretName, long expiresAtMillis, long readAtMillis) {
+            this.secretName = secretName;
+            this.expiresAtMillis = expiresAtMillis;
+            this.readAtMillis = readAtMillis;
+        }
+
+        public String getSecretName() {
+            return this.secretName;
+        }
+
+        public long getExpiresAtMillis() {
+            return this.expiresAtMillis;
+        }
+
+        // When expiresAtMillis was read from Secrets Manager
+        public long getReadAtMillis() {
+            return this.readAtMillis;
+        }
+    }
+
+    // Forgets secrets that are no longer managed and returns the managed ones the schedule doesn't know about yet
+    public synchronized List<String> retainAndFindUnknown(Collection<String> secretNames) {
+        Set<String> managed = new HashSet<>(secretNames);
+        this.entries.keySet().removeIf(secretName -> !managed.contains(secretName));
+        this.heap.removeIf(entry -> !managed.contains(entry.secretName));
+        List<String> unknown = new ArrayList<>();
+        for (String secretName : secretNames) {
+            if (!this.entries.containsKey(secretName)) {
+                unknown.add(secretName);
+            }
+        }
+        return unknown;
+    }
+
+    // Adds the secret or replaces what's known about it
+    public synchronized void put(String secretName, long expiresAtMillis, long readAtMillis) {
+        Entry previous = this.entries.remove(secretName);
+        if (previous != null) {
+            this.heap.remove(previous);
+        }
+        Entry entry = new Entry(secretName, expiresAtMillis, readAtMillis);
+        this.entries.put(secretName, entry);
+        this.heap.add(entry);
+    }
+
+    // Removes and returns the entry expiring first if it expires within renewalWindowMillis of nowMillis
+    public synchronized Optional<Entry> pollDue(long nowMillis, long renewalWindowMillis) {
+        Entry first = this.heap.peek();
+        if (first == null || first.expiresAtMillis - renewalWindowMillis > nowMillis) {
+            return Optional.empty();
+        }
+        this.heap.poll();
+        this.entries.remove(first.secretName);
+        return Optional.of(first);
+    }
+
+    public synchronized Optional<Entry> peek() {
+        return Optional.ofNullable(this.heap.peek());
+    }
+
+    public synchronized int size() {
+        return this.heap.size();
+    }
+
+    public synchronized void clear() {
+        this.heap.clear();
+        this.entries.clear();
+    }
+}
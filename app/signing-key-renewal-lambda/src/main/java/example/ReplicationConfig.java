@@ -0,0 +1,67 @@
+package example;
+
+import com.amazonaws.util.StringUtils;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+// Settings for copying rotated signing keys to other regions. Replication is only used when REPLICA_REGIONS is set to
+// a comma separated list of regions, each of which gets a secret of the same name. REPLICA_WRITE_QUORUM is how many of
+// those regions must hold a new key before it's made AWSCURRENT anywhere, a majority of them by default.
+public class ReplicationConfig {
+    private static final String REPLICA_REGIONS = "REPLICA_REGIONS";
+    private static final String REPLICA_WRITE_QUORUM = "REPLICA_WRITE_QUORUM";
+    private static final String REPLICA_TIMEOUT_MILLIS = "REPLICA_TIMEOUT_MILLIS";
+    private static final long DEFAULT_TIMEOUT_MILLIS = 10_000;
+
+    private final List<String> regions;
+    private final int writeQuorum;
+    private final long timeoutMillis;
+
+    public ReplicationConfig(List<String> regions, int writeQuorum, long timeoutMillis) {
+        if (regions.isEmpty()) {
+            throw new IllegalArgumentException(String.format("%s must list at least one region", REPLICA_REGIONS));
+        }
+        if (writeQuorum < 1 || writeQuorum > regions.size()) {
+            throw new IllegalArgumentException(String.format("%s must be between 1 and the %d replica regions, got %d",
+                    REPLICA_WRITE_QUORUM, regions.size(), writeQuorum));
+        }
+        if (timeoutMillis < 1) {
+            throw new IllegalArgumentException(String.format("%s must be positive, got %d", REPLICA_TIMEOUT_MILLIS, timeoutMillis));
+        }
+        this.regions = regions;
+        this.writeQuorum = writeQuorum;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    public static Optional<ReplicationConfig> fromEnvironment() {
+        final Map<String, String> env = System.getenv();
+        if (StringUtils.isNullOrEmpty(env.get(REPLICA_REGIONS))) {
+            return Optional.empty();
+        }
+        List<String> regions = Arrays.stream(env.get(REPLICA_REGIONS).split(","))
+                .map(String::trim)
+                .filter(region -> !region.isEmpty())
+                .distinct()
+                .collect(Collectors.toList());
+        return Optional.of(new ReplicationConfig(regions,
+                Integer.parseInt(env.getOrDefault(REPLICA_WRITE_QUORUM, String.valueOf(regions.size() / 2 + 1))),
+                Long.parseLong(env.getOrDefault(REPLICA_TIMEOUT_MILLIS, String.valueOf(DEFAULT_TIMEOUT_MILLIS)))));
+    }
+
+    public List<String> getRegions() {
+        return this.regions;
+    }
+
+    public int getWriteQuorum() {
+        return this.writeQuorum;
+    }
+
+    // How long a replication stage waits for the slowest region before counting it as failed
+    public long getTimeoutMillis() {
+        return this.timeoutMillis;
+    }
+}
@@ -0,0 +1,45 @@
+package example;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Per-region outcome of one replication stage. Latency is recorded for every region that answered, whether it
+// acknowledged the write or failed it; a region that timed out only shows up in `failed`.
+public class ReplicationResult {
+    private final List<String> acknowledged = new ArrayList<>();
+    private final Map<String, String> failed = new LinkedHashMap<>();
+    private final Map<String, Long> latencyMillis = new LinkedHashMap<>();
+
+    public void addAcknowledged(String region, long latencyMillis) {
+        this.acknowledged.add(region);
+        this.latencyMillis.put(region, latencyMillis);
+    }
+
+    public void addFailed(String region, String error) {
+        this.failed.put(region, error);
+    }
+
+    public void addFailed(String region, String error, long latencyMillis) {
+        addFailed(region, error);
+        this.latencyMillis.put(region, latencyMillis);
+    }
+
+    public List<String> getAcknowledged() {
+        return this.acknowledged;
+    }
+
+    public Map<String, String> getFailed() {
+        return this.failed;
+    }
+
+    public Map<String, Long> getLatencyMillis() {
+        return this.latencyMillis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("acknowledged %s, failed %s, latency (ms) %s", this.acknowledged, this.failed, this.latencyMillis);
+    }
+}
@@ -0,0 +1,121 @@
+package example;
+
+import com.amazonaws.util.StringUtils;
+import momento.sdk.exceptions.InvalidArgumentException;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+// Configuration for the automatic rotation workflow. The environment can't change during the lifetime of a
+// Lambda container so this is read and validated once and then reused by every warm invocation.
+public class RotationConfig {
+    private static final String MOMENTO_AUTH_TOKEN_SECRET_ARN = "MOMENTO_AUTH_TOKEN_SECRET_ARN";
+    private static final String SIGNING_KEY_TTL_MINUTES = "SIGNING_KEY_TTL_MINUTES";
+    private static final String EXPORT_METRICS = "EXPORT_METRICS";
+    private static final String USE_LOCAL_STUBS = "USE_LOCAL_STUBS";
+    private static final String AUTH_TOKEN_KEY_VALUE = "AUTH_TOKEN_KEY_VALUE";
+    private static final String METRICS_FORMAT = "METRICS_FORMAT";
+    private static final String EMBEDDED_METRIC_FORMAT = "emf";
+    private static final String USE_ASYNC_CLIENTS = "USE_ASYNC_CLIENTS";
+    private static final String METRICS_SINK = "METRICS_SINK";
+    private static final String SIGNING_KEY_FORMAT = "SIGNING_KEY_FORMAT";
+    private static final String IN_MEMORY_METRICS_SINK = "memory";
+    private static final String SPECULATIVE_MINT = "SPECULATIVE_MINT";
+    private static final List<String> REQUIRED_ENVIRONMENT_VARIABLES = Arrays.asList(
+            MOMENTO_AUTH_TOKEN_SECRET_ARN,
+            SIGNING_KEY_TTL_MINUTES,
+            EXPORT_METRICS
+    );
+
+    private final String momentoAuthTokenSecretArn;
+    private final String authTokenKeyValue;
+    private final int signingKeyTtlMinutes;
+    private final boolean exportMetrics;
+    private final boolean useLocalStubs;
+    private final boolean useEmbeddedMetricFormat;
+
+    public RotationConfig(String momentoAuthTokenSecretArn,
+                          String authTokenKeyValue,
+                          int signingKeyTtlMinutes,
+                          boolean exportMetrics,
+                          boolean useLocalStubs,
+                          boolean useEmbeddedMetricFormat) {
+        this.momentoAuthTokenSecretArn = momentoAuthTokenSecretArn;
+        this.authTokenKeyValue = authTokenKeyValue;
+        this.signingKeyTtlMinutes = signingKeyTtlMinutes;
+        this.exportMetrics = exportMetrics;
+        this.useLocalStubs = useLocalStubs;
+        this.useEmbeddedMetricFormat = useEmbeddedMetricFormat;
+    }
+
+    public static RotationConfig fromEnvironment() {
+        final Map<String, String> env = System.getenv();
+        for (String envVariable : REQUIRED_ENVIRONMENT_VARIABLES) {
+            if (!env.containsKey(envVariable) || StringUtils.isNullOrEmpty(env.get(envVariable))) {
+                throw new InvalidArgumentException(String.format("Expected %s to have a value but none was provided", envVariable));
+            }
+        }
+        Optional<String> maybeUseLocalStubs = Optional.ofNullable(env.get(USE_LOCAL_STUBS));
+        return new RotationConfig(env.get(MOMENTO_AUTH_TOKEN_SECRET_ARN),
+                env.get(AUTH_TOKEN_KEY_VALUE),
+                Integer.parseInt(env.get(SIGNING_KEY_TTL_MINUTES)),
+                Boolean.parseBoolean(env.get(EXPORT_METRICS)),
+                maybeUseLocalStubs.filter(Boolean::parseBoolean).isPresent(),
+                isEmbeddedMetricFormat(env.get(METRICS_FORMAT)));
+    }
+
+    // Metrics are published with PutMetricData unless the format is "emf", in which case they're written to the log
+    // in CloudWatch Embedded Metric Format
+    public static boolean isEmbeddedMetricFormat(String metricsFormat) {
+        return EMBEDDED_METRIC_FORMAT.equalsIgnoreCase(metricsFormat);
+    }
+
+    // Whether the AWS clients should be the non-blocking SDK v2 ones. This applies to every workflow, manual ones
+    // included, so it's read on its own rather than as part of the validated config
+    public static boolean isAsyncClientsEnabled() {
+        return Boolean.parseBoolean(System.getenv(USE_ASYNC_CLIENTS));
+    }
+
+    // Whether step and dependency timings should be collected in memory and logged at the end of every invocation.
+    // Like USE_ASYNC_CLIENTS this applies to every workflow
+    public static boolean isInMemoryMetricsSinkEnabled() {
+        return IN_MEMORY_METRICS_SINK.equalsIgnoreCase(System.getenv(METRICS_SINK));
+    }
+
+    // Format signing keys are written to Secrets Manager in, v1 (pretty printed) unless SIGNING_KEY_FORMAT is v2
+    public static MomentoSigningKeyCodec.Format getSigningKeyFormat() {
+        return MomentoSigningKeyCodec.Format.fromVersion(System.getenv(SIGNING_KEY_FORMAT));
+    }
+
+    // Whether createSecret should start minting the signing key while it's still asking Secrets Manager whether the
+    // version already has one. Saves the mint's latency on every rotation at the cost of a revoked key on retries
+    public static boolean isSpeculativeMintEnabled() {
+        return Boolean.parseBoolean(System.getenv(SPECULATIVE_MINT));
+    }
+
+    public String getMomentoAuthTokenSecretArn() {
+        return this.momentoAuthTokenSecretArn;
+    }
+
+    public String getAuthTokenKeyValue() {
+        return this.authTokenKeyValue;
+    }
+
+    public int getSigningKeyTtlMinutes() {
+        return this.signingKeyTtlMinutes;
+    }
+
+    public boolean shouldExportMetrics() {
+        return this.exportMetrics;
+    }
+
+    public boolean shouldUseLocalStubs() {
+        return this.useLocalStubs;
+    }
+
+    public boolean shouldUseEmbeddedMetricFormat() {
+        return this.useEmbeddedMetricFormat;
+    }
+}
@@ -0,0 +1,79 @@
+package example;
+
+import com.amazonaws.util.StringUtils;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+// A rotation queued for the daemon or sent in an SQS batch, in the same shape as the lambda's events: either a Secrets
+// Manager rotation step (SecretId, ClientRequestToken and Step) or a manual rotation (momento_signing_key_secret_name).
+// See RotationJobRunner for how it's run.
+public class RotationJob {
+    private static final String SECRET_ID = "SecretId";
+    private static final String CLIENT_REQUEST_TOKEN = "ClientRequestToken";
+    private static final String STEP = "Step";
+    private static final String SECRET_NAME = "momento_signing_key_secret_name";
+    private static final String MOMENTO_AUTH_TOKEN = "momento_auth_token";
+
+    private final String id;
+    private final Map<String, String> event;
+    private final long enqueuedAtMillis;
+
+    private RotationJob(String id, Map<String, String> event, long enqueuedAtMillis) {
+        this.id = id;
+        this.event = event;
+        this.enqueuedAtMillis = enqueuedAtMillis;
+    }
+
+    public static RotationJob fromEvent(Map<String, String> event) {
+        if (event == null) {
+            throw new IllegalArgumentException("Expected a JSON object describing the rotation");
+        }
+        // Jobs are run with the auth token in MOMENTO_AUTH_TOKEN_SECRET_ARN, it's never sent along with one
+        if (event.containsKey(MOMENTO_AUTH_TOKEN)) {
+            throw new IllegalArgumentException(String.format("%s can't be passed with a rotation job", MOMENTO_AUTH_TOKEN));
+        }
+        boolean automaticRotation = event.containsKey(SECRET_ID) || event.containsKey(CLIENT_REQUEST_TOKEN) || event.containsKey(STEP);
+        if (automaticRotation && (StringUtils.isNullOrEmpty(event.get(SECRET_ID))
+                || StringUtils.isNullOrEmpty(event.get(CLIENT_REQUEST_TOKEN))
+                || StringUtils.isNullOrEmpty(event.get(STEP)))) {
+            throw new IllegalArgumentException(String.format("A rotation step needs %s, %s and %s", SECRET_ID, CLIENT_REQUEST_TOKEN, STEP));
+        }
+        if (!automaticRotation && StringUtils.isNullOrEmpty(event.get(SECRET_NAME))) {
+            throw new IllegalArgumentException(String.format("Expected either %s, %s and %s or %s",
+                    SECRET_ID, CLIENT_REQUEST_TOKEN, STEP, SECRET_NAME));
+        }
+        return new RotationJob(UUID.randomUUID().toString(),
+                Collections.unmodifiableMap(new HashMap<>(event)),
+                System.currentTimeMillis());
+    }
+
+    public String getId() {
+        return this.id;
+    }
+
+    public Map<String, String> getEvent() {
+        return this.event;
+    }
+
+    public long getEnqueuedAtMillis() {
+        return this.enqueuedAtMillis;
+    }
+
+    public boolean isAutomaticRotation() {
+        return this.event.containsKey(STEP);
+    }
+
+    public String getSecretName() {
+        return isAutomaticRotation() ? this.event.get(SECRET_ID) : this.event.get(SECRET_NAME);
+    }
+
+    @Override
+    public String toString() {
+        return isAutomaticRotation()
+                ? String.format("%s (%s of %s)", this.id, this.event.get(STEP), getSecretName())
+                : String.format("%s (manual rotation of %s)", this.id, getSecretName());
+    }
+}
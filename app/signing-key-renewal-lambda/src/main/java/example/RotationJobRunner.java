@@ -0,0 +1,100 @@
+package example;
+
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
+import example.awsclients.cloudwatch.CloudWatch;
+import example.awsclients.secretsmanager.SecretsManager;
+import example.logging.StructuredLogger;
+import momento.sdk.SimpleCacheClient;
+import momento.sdk.exceptions.AuthenticationException;
+import momento.sdk.exceptions.InternalServerException;
+import momento.sdk.exceptions.ServerUnavailableException;
+
+import java.util.function.UnaryOperator;
+
+// Runs RotationJobs against the container's shared clients, for entry points that take many jobs at once (the
+// rotation daemon and the SQS batch handler). Everything comes from the same environment as automatic rotation and
+// the Momento auth token is always read from MOMENTO_AUTH_TOKEN_SECRET_ARN. Safe to use from several threads.
+public class RotationJobRunner {
+    private final StructuredLogger logger;
+    private final ContainerClients containerClients;
+    private final UnaryOperator<SecretsManager> secretsManagerDecorator;
+    private final UnaryOperator<CloudWatch> cloudWatchDecorator;
+
+    public RotationJobRunner(LambdaLogger logger, ContainerClients containerClients) {
+        this(logger, containerClients, UnaryOperator.identity(), UnaryOperator.identity());
+    }
+
+    // The decorators wrap the shared clients for every job, the daemon uses them to put its bulkheads in front
+    public RotationJobRunner(LambdaLogger logger,
+                             ContainerClients containerClients,
+                             UnaryOperator<SecretsManager> secretsManagerDecorator,
+                             UnaryOperator<CloudWatch> cloudWatchDecorator) {
+        this.logger = StructuredLogger.of(logger);
+        this.containerClients = containerClients;
+        this.secretsManagerDecorator = secretsManagerDecorator;
+        this.cloudWatchDecorator = cloudWatchDecorator;
+    }
+
+    public void run(RotationJob job) {
+        RotationConfig config = this.containerClients.getConfig();
+        SecretsManager secretsManager = this.secretsManagerDecorator.apply(
+                this.containerClients.getSecretsManager(config.shouldUseLocalStubs(), this.logger));
+        CloudWatch cloudWatch = this.cloudWatchDecorator.apply(
+                this.containerClients.getCloudWatch(config.shouldUseLocalStubs(), config.shouldUseEmbeddedMetricFormat(), this.logger));
+        // Only minting and revoking are retried on a new Momento client, like the lambda does, see
+        // Handler.runWithMomentoClient. Only the first job to fail on a broken client replaces it
+        // Clients are released when the job is done, a client replaced meanwhile stays open for the other jobs on it
+        SimpleCacheClient momentoClient = acquireMomentoClient(config, secretsManager);
+        try (ReconnectingSigningKeyMinter signingKeyMinter = new ReconnectingSigningKeyMinter(this.logger,
+                this.containerClients,
+                momentoClient,
+                () -> acquireMomentoClient(config, secretsManager))) {
+            run(job, config, secretsManager, cloudWatch, momentoClient, signingKeyMinter);
+        } catch (AuthenticationException e) {
+            this.containerClients.invalidateMomentoClient(momentoClient, true);
+            throw e;
+        } catch (ServerUnavailableException | InternalServerException e) {
+            this.containerClients.invalidateMomentoClient(momentoClient, false);
+            throw e;
+        } finally {
+            this.containerClients.releaseMomentoClient(momentoClient);
+        }
+    }
+
+    private void run(RotationJob job,
+                     RotationConfig config,
+                     SecretsManager secretsManager,
+                     CloudWatch cloudWatch,
+                     SimpleCacheClient momentoClient,
+                     SigningKeyMinter signingKeyMinter) {
+        RotationWorkflow rotationWorkflow = this.containerClients.newRotationWorkflow(this.logger,
+                jobLogger(job),
+                config,
+                secretsManager,
+                cloudWatch,
+                momentoClient,
+                signingKeyMinter);
+        if (job.isAutomaticRotation()) {
+            rotationWorkflow.processRotation(job.getEvent());
+        } else {
+            rotationWorkflow.manualRotation(job.getSecretName());
+        }
+    }
+
+    // The job's fields go on the workflow's lines only, the shared clients keep the runner's logger
+    private StructuredLogger jobLogger(RotationJob job) {
+        StructuredLogger jobLogger = this.logger.withField("job_id", job.getId());
+        if (!job.isAutomaticRotation()) {
+            return jobLogger.withField("secret_name", job.getSecretName());
+        }
+        return jobLogger.withField("secret_arn", job.getSecretName())
+                .withField("client_request_token", job.getEvent().get("ClientRequestToken"))
+                .withField("step", job.getEvent().get("Step"));
+    }
+
+    private SimpleCacheClient acquireMomentoClient(RotationConfig config, SecretsManager secretsManager) {
+        return this.containerClients.acquireMomentoClient(secretsManager,
+                config.getMomentoAuthTokenSecretArn(),
+                config.getAuthTokenKeyValue());
+    }
+}
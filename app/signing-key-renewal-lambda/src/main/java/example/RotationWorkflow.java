@@ -1,54 +1,152 @@
 package example;
 
 import com.amazonaws.services.lambda.runtime.LambdaLogger;
+import com.amazonaws.services.secretsmanager.model.ResourceExistsException;
 import com.amazonaws.services.secretsmanager.model.ResourceNotFoundException;
 import com.amazonaws.util.StringUtils;
-import com.google.gson.Gson;
+import example.awsclients.Futures;
 import example.awsclients.cloudwatch.CloudWatch;
+import example.awsclients.secretsmanager.SecretMetadataSnapshot;
 import example.awsclients.secretsmanager.SecretsManager;
+import example.journal.JournalEntry;
+import example.journal.RotationJournal;
+import example.logging.StructuredLogger;
+import example.metrics.MetricsSink;
+import example.metrics.NoOpMetricsSink;
 import momento.sdk.SimpleCacheClient;
+import momento.sdk.exceptions.SdkException;
 
 import java.util.Collections;
+import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 public class RotationWorkflow {
-    private final LambdaLogger logger;
+    private static final String SPECULATIVE_MINT_USED = "createSecret.speculativeMint.used";
+    private static final String SPECULATIVE_MINT_WASTED = "createSecret.speculativeMint.wasted";
+    private static final String SPECULATIVE_MINT_CANCELLED = "createSecret.speculativeMint.cancelled";
+    private static final String SPECULATIVE_MINT_SKIPPED = "createSecret.speculativeMint.skipped";
+    private static final String API_CALLS_SAVED = "secretsmanager.apiCallsSaved";
+    // Speculative mints in flight at once. Past this createSecret mints after the lookups, as without speculation
+    private static final int SPECULATIVE_MINT_THREADS = 16;
+    // Minting blocks on Momento, so speculative mints run here instead of holding up the Secrets Manager lookups
+    private static final ThreadPoolExecutor SPECULATIVE_MINTER = createSpeculativeMinter();
+
+    private final StructuredLogger logger;
     private final SecretsManager secretsManager;
     private final CloudWatch cloudWatch;
-    private final Gson gson;
-    private final SimpleCacheClient momentoClient;
+    private final MomentoSigningKeyCodec signingKeyCodec;
+    private final SigningKeyMinter signingKeyMinter;
     private final int signingKeyTtlMinutes;
     private final boolean exportMetrics;
+    private final Optional<SigningKeyPool> signingKeyPool;
+    private final MetricsSink metrics;
+    private final Optional<SigningKeyReplicator> replicator;
+    private final Optional<RotationJournal> journal;
+    private final boolean speculativeMint;
+    private final Optional<KeysetPublisher> keysetPublisher;
 
     public RotationWorkflow(LambdaLogger logger,
                             SecretsManager secretsManager,
                             CloudWatch cloudWatch,
-                            Gson gson,
+                            MomentoSigningKeyCodec signingKeyCodec,
                             SimpleCacheClient momentoClient,
                             int signingKeyTtlMinutes,
                             boolean exportMetrics) {
-        this.logger = logger;
-        this.secretsManager = secretsManager;
-        this.cloudWatch = cloudWatch;
-        this.gson = gson;
-        this.momentoClient = momentoClient;
-        this.signingKeyTtlMinutes = signingKeyTtlMinutes;
-        this.exportMetrics = exportMetrics;
+        this(builder(logger, secretsManager, cloudWatch, signingKeyCodec)
+                .momentoClient(momentoClient)
+                .signingKeyTtlMinutes(signingKeyTtlMinutes)
+                .exportMetrics(exportMetrics));
+    }
+
+    private RotationWorkflow(Builder builder) {
+        this.logger = StructuredLogger.of(builder.logger);
+        this.secretsManager = builder.secretsManager;
+        this.cloudWatch = builder.cloudWatch;
+        this.signingKeyCodec = builder.signingKeyCodec;
+        this.signingKeyMinter = builder.signingKeyMinter;
+        this.signingKeyTtlMinutes = builder.signingKeyTtlMinutes;
+        this.exportMetrics = builder.exportMetrics;
+        this.signingKeyPool = builder.signingKeyPool;
+        this.metrics = builder.metrics;
+        this.replicator = builder.replicator;
+        this.journal = builder.journal;
+        this.speculativeMint = builder.speculativeMint;
+        this.keysetPublisher = builder.keysetPublisher;
+    }
+
+    // Everything past the clients is optional and off by default, except the signing key TTL and how keys are minted
+    public static Builder builder(LambdaLogger logger,
+                                  SecretsManager secretsManager,
+                                  CloudWatch cloudWatch,
+                                  MomentoSigningKeyCodec signingKeyCodec) {
+        return new Builder(logger, secretsManager, cloudWatch, signingKeyCodec);
     }
 
     public void manualRotation(String secretName) {
+        manualRotation(secretName, Optional.empty());
+    }
+
+    // runId names the bulk rotation this is part of, it's recorded in the journal so a resumed run can skip the secret
+    public void manualRotation(String secretName, Optional<String> runId) {
+        this.metrics.time("step.manualRotation", () -> {
+            rotate(secretName, runId.orElse(null));
+            return null;
+        });
+    }
+
+    private void rotate(String secretName, String runId) {
         try {
             secretsManager.getSecretValueString(secretName, null, null);
         } catch (ResourceNotFoundException e) {
-            this.logger.log(String.format("%s not found, creating new secret", secretName));
-            secretsManager.createSecret(secretName, null, null);
+            this.logger.info("{} not found, creating new secret", secretName);
+            try {
+                secretsManager.createSecret(secretName, null, null);
+            } catch (ResourceExistsException alreadyCreated) {
+                // An earlier attempt created it but stopped before its put, the secret has no value yet
+                this.logger.info("{} was created by an earlier attempt", secretName);
+            }
+        }
+        // An attempt that stopped before its write is finished with the version it picked, so a retry never adds a
+        // second one. WRITTEN is left to the automatic rotation that wrote it, it's only AWSPENDING
+        Optional<JournalEntry> unfinished = latestJournalEntry(secretName)
+                .filter(entry -> entry.getEvent() == JournalEntry.Event.STARTED || entry.getEvent() == JournalEntry.Event.MINTED);
+        final String versionId;
+        if (unfinished.isPresent()) {
+            versionId = unfinished.get().getVersionId();
+            this.logger.info("Resuming rotation of {} after {}", secretName, unfinished.get());
+            if (hasVersion(secretName, versionId)) {
+                appendToJournal(secretName, JournalEntry.completed(versionId, runId));
+                // The attempt may have stopped before it got to the keyset
+                publishKeyset(secretName, true);
+                this.logger.info("Signing key for {} was already written by an earlier attempt", secretName);
+                return;
+            }
+        } else {
+            versionId = UUID.randomUUID().toString();
+            appendToJournal(secretName, JournalEntry.started(versionId, runId));
         }
-        MomentoSigningKey signingKey = MomentoSigningKey.fromCreateSigningResponse(this.momentoClient.createSigningKey(this.signingKeyTtlMinutes));
-        String serializedSigningKey = this.gson.toJson(signingKey);
-        secretsManager.putSecretValue(secretName, serializedSigningKey, null, null);
-        this.logger.log(String.format("Signing key rotated for %s", secretName));
+        MintedSigningKey signingKey = recoverSigningKey(secretName, versionId)
+                .orElseGet(() -> mintSigningKey(secretName, versionId, runId));
+        if (this.replicator.isPresent()) {
+            // The replicas are made current first so the key is never AWSCURRENT here without a quorum behind it
+            this.replicator.get().promote(secretName, versionId, signingKey.serialized);
+        }
+        secretsManager.putSecretValue(secretName, signingKey.serialized, versionId, null);
+        appendToJournal(secretName, JournalEntry.completed(versionId, runId));
+        publishKeyset(secretName, true);
+        this.logger.info("Signing key rotated for {}", secretName);
     }
 
     public void processRotation(Map<String, String> event) {
@@ -62,15 +160,27 @@ public class RotationWorkflow {
                             "and Step (%s) to have values", arn, token, step)
             );
         }
+        this.metrics.time("step." + step, () -> {
+            processStep(arn, token, step);
+            return null;
+        });
+    }
 
-        Map<String, List<String>> versionStages = secretsManager.getVersionStages(arn);
-        logger.log(versionStages.toString());
+    private void processStep(String arn, String token, String step) {
+        // Shared by every call in this step so DescribeSecret is made at most once
+        SecretMetadataSnapshot snapshot = new SecretMetadataSnapshot(secretsManager, arn);
+        Map<String, List<String>> versionStages = snapshot.getVersionStages();
+        this.logger.debug("Version stages of {}: {}", arn, versionStages);
         if (!versionStages.containsKey(token)) {
             throw new IllegalArgumentException(String.format("Secret version %s has no stage for rotation of secret %s.",
                     token, arn));
         }
         if (versionStages.get(token).contains(VERSION_STAGES.AWSCURRENT.toString())) {
-            this.logger.log(String.format("Secret version %s already set as AWSCURRENT for secret %s.", token, arn));
+            this.logger.info("Secret version {} already set as AWSCURRENT for secret {}.", token, arn);
+            // A finishSecret retried after the keyset failed to publish ends up here, the stage already moved
+            if ("finishSecret".equals(step)) {
+                publishKeyset(arn, true);
+            }
             return;
         } else if (!versionStages.get(token).contains(VERSION_STAGES.AWSPENDING.toString())) {
             throw new IllegalArgumentException(String.format("Secret version %s not set as AWSPENDING for rotation of secret %s.",
@@ -79,7 +189,7 @@ public class RotationWorkflow {
 
         switch(step) {
             case "createSecret": {
-                createSecret(arn, token);
+                createSecret(arn, token, snapshot);
                 break;
             }
             case "setSecret": {
@@ -91,34 +201,222 @@ public class RotationWorkflow {
                 break;
             }
             case "finishSecret": {
-                finishSecret(arn, token);
+                finishSecret(arn, token, snapshot);
                 break;
             }
             default: {
                 throw new IllegalArgumentException(String.format("Invalid step parameter: %s", step));
             }
         }
+        this.metrics.increment(API_CALLS_SAVED, snapshot.getApiCallsSaved());
+        this.logger.debug("{}: skipped {} Secrets Manager API calls for {}", step, snapshot.getApiCallsSaved(), arn);
+    }
+
+    private void createSecret(String arn, String token, SecretMetadataSnapshot snapshot) {
+        // Almost every createSecret ends up minting, so in speculative mode the mint isn't made to wait for the lookups
+        // below. It's only committed once AWSPENDING turns out to be missing
+        Optional<SpeculativeMint> speculativeSigningKey = this.speculativeMint ? startSpeculativeMint() : Optional.empty();
+        boolean speculativeSigningKeyUsed = false;
+        try {
+            // Ensure our secret exists first, this call should not throw an exception. It doesn't depend on the
+            // AWSPENDING lookup below, so with a non-blocking client both requests are in flight at the same time
+            CompletableFuture<Void> currentVersionCheck = snapshot.ensureCurrentVersionExistsAsync();
+            CompletableFuture<String> pendingVersion = secretsManager.getSecretValueStringAsync(arn, token, VERSION_STAGES.AWSPENDING.toString());
+            Futures.join(currentVersionCheck);
+
+            // Attempt to retrieve the secret version. If this fails, put a new secret
+            String pendingSigningKey;
+            try {
+                pendingSigningKey = Futures.join(pendingVersion);
+                this.logger.info("createSecret: Successfully retrieved secret for {}", arn);
+            } catch (ResourceNotFoundException e) {
+                // Reuse the key an earlier attempt at this step minted but didn't get to write, otherwise get our
+                // updated signing key. Only done now that AWSPENDING is known to be empty: until then the journal's
+                // key may be the one an earlier attempt already wrote, and recovery revokes keys it can't reuse
+                Optional<MintedSigningKey> recoveredSigningKey = recoverSigningKey(arn, token);
+                MintedSigningKey signingKey;
+                if (recoveredSigningKey.isPresent()) {
+                    signingKey = recoveredSigningKey.get();
+                } else if (speculativeSigningKey.isPresent()) {
+                    signingKey = awaitSpeculativeSigningKey(speculativeSigningKey.get());
+                    speculativeSigningKeyUsed = true;
+                } else {
+                    signingKey = newMintedSigningKey(arn);
+                }
+                if (!signingKey.fromJournal) {
+                    recordMinted(arn, token, null, signingKey);
+                }
+                pendingSigningKey = putPendingSigningKey(arn, token, signingKey);
+            }
+            // Also done when the pending version already existed, in case this is a retry after too few regions took it
+            if (this.replicator.isPresent()) {
+                this.replicator.get().stage(arn, token, pendingSigningKey);
+            }
+            // Readers see the next key before it becomes current
+            publishKeyset(arn, false);
+        } finally {
+            if (speculativeSigningKey.isPresent()) {
+                if (speculativeSigningKeyUsed) {
+                    this.metrics.increment(SPECULATIVE_MINT_USED);
+                } else {
+                    speculativeSigningKey.get().discard(arn);
+                }
+            }
+        }
+    }
+
+    private String putPendingSigningKey(String arn, String token, MintedSigningKey signingKey) {
+        String serializedSigningKey = signingKey.serialized;
+        CompletableFuture<Void> put = secretsManager.putSecretValueAsync(arn, serializedSigningKey, token, Collections.singletonList(VERSION_STAGES.AWSPENDING.toString()));
+        // Record the metric while the put is in flight, it's only buffered and published once the invocation ends
+        if (this.exportMetrics) {
+            cloudWatch.putMetricData(signingKey.expiresAt, arn, "createSecret");
+        }
+        Futures.join(put);
+        appendToJournal(arn, JournalEntry.written(token, null));
+        this.logger.info("createSecret: Successfully put secret for ARN {} and version {}", arn, token);
+        if (this.exportMetrics) {
+            this.logger.debug("createSecret: exported metrics with updated time until expiration");
+        }
+        return serializedSigningKey;
+    }
+
+    // Only ever a new key, never one recovered from the journal, see createSecret. Empty if too many speculative mints
+    // are already in flight
+    private Optional<SpeculativeMint> startSpeculativeMint() {
+        SpeculativeMint speculativeMint = new SpeculativeMint();
+        try {
+            SPECULATIVE_MINTER.execute(speculativeMint);
+            return Optional.of(speculativeMint);
+        } catch (RejectedExecutionException e) {
+            this.metrics.increment(SPECULATIVE_MINT_SKIPPED);
+            return Optional.empty();
+        }
+    }
+
+    private MintedSigningKey awaitSpeculativeSigningKey(Future<MintedSigningKey> speculativeSigningKey) {
+        try {
+            return speculativeSigningKey.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the speculatively minted signing key", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Speculative signing key mint failed", e.getCause());
+        }
+    }
+
+    private MintedSigningKey mintSigningKey(String secretId, String versionId, String runId) {
+        MintedSigningKey signingKey = newMintedSigningKey(secretId);
+        recordMinted(secretId, versionId, runId, signingKey);
+        return signingKey;
     }
 
-    private void createSecret(String arn, String token) {
-        // Ensure our secret exists first, this call should not throw an exception
-        secretsManager.getSecretValueString(arn, null, VERSION_STAGES.AWSCURRENT.toString());
+    private MintedSigningKey newMintedSigningKey(String secretId) {
+        return toMintedSigningKey(newSigningKey(secretId));
+    }
+
+    private MintedSigningKey toMintedSigningKey(MomentoSigningKey signingKey) {
+        return new MintedSigningKey(signingKey.getKeyId(), this.signingKeyCodec.toJson(signingKey), signingKey.getExpiresAt(), false);
+    }
 
-        // Attempt to retrieve the secret version. If this fails, put a new secret
+    private void recordMinted(String secretId, String versionId, String runId, MintedSigningKey signingKey) {
+        this.journal.ifPresent(journal -> appendToJournal(secretId, JournalEntry.minted(versionId,
+                runId,
+                signingKey.keyId,
+                signingKey.expiresAt.getTime(),
+                journal.canHoldSigningKeys() ? signingKey.serialized : null)));
+    }
+
+    // Returns the key an earlier attempt minted for this version if the journal kept it and at least half its TTL is
+    // left. Callers have checked that the version isn't in this region. A key that can't be reused is revoked unless a
+    // replica may hold it: rotate promotes the replicas before its own put, so a key whose put never went through can
+    // still be AWSCURRENT in other regions. Such a key is left to expire.
+    private Optional<MintedSigningKey> recoverSigningKey(String secretId, String versionId) {
+        Optional<JournalEntry> minted = latestJournalEntry(secretId)
+                .filter(entry -> entry.getEvent() == JournalEntry.Event.MINTED && versionId.equals(entry.getVersionId()));
+        if (!minted.isPresent()) {
+            return Optional.empty();
+        }
+        JournalEntry entry = minted.get();
+        long minRemainingMillis = TimeUnit.MINUTES.toMillis(this.signingKeyTtlMinutes) / 2;
+        if (entry.getSigningKey().isPresent() && entry.getExpiresAtMillis().isPresent()
+                && entry.getExpiresAtMillis().get() - System.currentTimeMillis() >= minRemainingMillis) {
+            this.logger.info("Reusing signing key {} minted for {} by an earlier attempt",
+                    entry.getKeyId().orElse("?"), secretId);
+            return Optional.of(new MintedSigningKey(entry.getKeyId().orElse(null),
+                    entry.getSigningKey().get(),
+                    new Date(entry.getExpiresAtMillis().get()),
+                    true));
+        }
+        if (entry.getKeyId().isPresent()) {
+            if (this.replicator.isPresent() && this.replicator.get().mayHoldVersion(secretId, versionId)) {
+                this.logger.info("Not revoking signing key {} minted for {}, a replica region may be using it",
+                        entry.getKeyId().get(), secretId);
+            } else {
+                revokeSigningKey(secretId, entry.getKeyId().get());
+            }
+        }
+        return Optional.empty();
+    }
+
+    private void revokeSigningKey(String secretId, String keyId) {
         try {
-            secretsManager.getSecretValueString(arn, token, VERSION_STAGES.AWSPENDING.toString());
-            this.logger.log(String.format("createSecret: Successfully retrieved secret for %s", arn));
+            this.metrics.time("momento.revokeSigningKey", () -> {
+                this.signingKeyMinter.revokeSigningKey(keyId);
+                return null;
+            });
+            this.logger.info("Revoked unused signing key {} minted for {}", keyId, secretId);
+        } catch (SdkException e) {
+            // It expires on its own
+            this.logger.warn("Could not revoke signing key {}: {}", keyId, e);
+        }
+    }
+
+    private boolean hasVersion(String secretId, String versionId) {
+        try {
+            secretsManager.getSecretValueString(secretId, versionId, null);
+            return true;
         } catch (ResourceNotFoundException e) {
-            // Get our updated signing key
-            MomentoSigningKey signingKey = MomentoSigningKey.fromCreateSigningResponse(this.momentoClient.createSigningKey(this.signingKeyTtlMinutes));
-            String serializedSigningKey = this.gson.toJson(signingKey);
-            secretsManager.putSecretValue(arn, serializedSigningKey, token, Collections.singletonList(VERSION_STAGES.AWSPENDING.toString()));
-            this.logger.log(String.format("createSecret: Successfully put secret for ARN %s and version %s", arn, token));
-            if (this.exportMetrics) {
-                cloudWatch.putMetricData(signingKey.getExpiresAt());
-                this.logger.log("createSecret: exported metrics with updated time until expiration");
+            return false;
+        }
+    }
+
+    // The journal only saves work, a rotation never fails because it can't be read or written
+    private Optional<JournalEntry> latestJournalEntry(String secretId) {
+        try {
+            return this.journal.flatMap(journal -> journal.latest(secretId));
+        } catch (RuntimeException e) {
+            this.logger.warn("Could not read the rotation journal of {}: {}", secretId, e);
+            return Optional.empty();
+        }
+    }
+
+    private void appendToJournal(String secretId, JournalEntry entry) {
+        try {
+            this.journal.ifPresent(journal -> journal.append(secretId, entry));
+        } catch (RuntimeException e) {
+            this.logger.warn("Could not record {} in the rotation journal of {}: {}", entry, secretId, e);
+        }
+    }
+
+    // Claims a key pre-minted for secretId from the signing key pool when one is configured, otherwise mints a new one
+    private MomentoSigningKey newSigningKey(String secretId) {
+        if (this.signingKeyPool.isPresent()) {
+            Optional<MomentoSigningKey> pooledSigningKey = this.metrics.time("signingKeyPool.claim",
+                    () -> this.signingKeyPool.get().claim(secretId));
+            if (pooledSigningKey.isPresent()) {
+                return pooledSigningKey.get();
             }
         }
+        return createSigningKey();
+    }
+
+    private MomentoSigningKey createSigningKey() {
+        return this.metrics.time("momento.createSigningKey",
+                () -> this.signingKeyMinter.createSigningKey(this.signingKeyTtlMinutes));
     }
 
     private void setSecret() {
@@ -129,26 +427,189 @@ public class RotationWorkflow {
         // No-op, we don't require testing the secret anywhere against the service
     }
 
-    private void finishSecret(String arn, String token) {
-        // First describe the secret to get the current version
-        Map<String, List<String>> versionStages = secretsManager.getVersionStages(arn);
-        Optional<String> currentVersion = Optional.empty();
-        for (Map.Entry<String, List<String>> version: versionStages.entrySet()) {
-            if (versionStages.get(version.getKey()).contains(VERSION_STAGES.AWSCURRENT.toString())) {
-                if (token.equals(version.getKey())) {
-                    this.logger.log(String.format("finishSecret: Version %s already marked as AWSCURRENT for %s", version.getKey(), arn));
-                    return;
-                }
-                currentVersion = Optional.of(version.getKey());
-                break;
-            }
+    private void finishSecret(String arn, String token, SecretMetadataSnapshot snapshot) {
+        // First get the current version, the snapshot already described the secret for this step
+        Optional<String> currentVersion = snapshot.getVersionInStage(VERSION_STAGES.AWSCURRENT.toString());
+        // Replicas are made current first, and the rotation is retried if too few of them hold the new key
+        if (this.replicator.isPresent()) {
+            String pendingSigningKey = secretsManager.getSecretValueString(arn, token, VERSION_STAGES.AWSPENDING.toString());
+            this.replicator.get().promote(arn, token, pendingSigningKey);
         }
         // Finalize by staging the secret version current
-        secretsManager.updateSecretVersionStage(arn, VERSION_STAGES.AWSCURRENT.toString(), token, currentVersion.orElse(null));
-        this.logger.log(String.format("finishSecret: Successfully set AWSCURRENT stage to version %s for secret %s", token, arn));
+        snapshot.updateSecretVersionStage(VERSION_STAGES.AWSCURRENT.toString(), token, currentVersion.orElse(null));
+        appendToJournal(arn, JournalEntry.completed(token, null));
+        publishKeyset(arn, true);
+        this.logger.info("finishSecret: Successfully set AWSCURRENT stage to version {} for secret {}", token, arn);
+    }
+
+    // Unlike the journal this isn't best effort: a failure fails the step so Secrets Manager retries it and readers
+    // aren't left with a keyset that's missing the new key
+    private void publishKeyset(String secretId, boolean keyWentLive) {
+        if (this.keysetPublisher.isPresent()) {
+            this.metrics.time("keyset.publish", () -> {
+                this.keysetPublisher.get().publish(secretId, keyWentLive);
+                return null;
+            });
+        }
+    }
+
+    // Always mints from Momento rather than claiming from the signing key pool, a wasted speculation would otherwise
+    // burn a pooled key. A speculative mint that isn't used is cancelled if it hasn't started. One that has is waited
+    // for and its key revoked before createSecret returns: once the invocation returns Lambda may freeze the container,
+    // and a revocation left to the minter's thread could be lost with the key still live
+    private final class SpeculativeMint extends FutureTask<MintedSigningKey> {
+        private SpeculativeMint() {
+            super(() -> RotationWorkflow.this.toMintedSigningKey(RotationWorkflow.this.createSigningKey()));
+        }
+
+        private void discard(String secretId) {
+            if (cancel(false)) {
+                metrics.increment(SPECULATIVE_MINT_CANCELLED);
+                return;
+            }
+            MintedSigningKey signingKey;
+            try {
+                signingKey = get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                logger.warn("createSecret: interrupted before the speculative mint for {} finished, its key may be left to expire",
+                        secretId);
+                return;
+            } catch (ExecutionException | CancellationException e) {
+                // Nothing was minted
+                return;
+            }
+            metrics.increment(SPECULATIVE_MINT_WASTED);
+            logger.info("createSecret: {} already had a pending signing key, discarding speculatively minted key {}",
+                    secretId, signingKey.keyId);
+            revokeSigningKey(secretId, signingKey.keyId);
+        }
+    }
+
+    private static ThreadPoolExecutor createSpeculativeMinter() {
+        // No queue: a mint that has to wait for a thread wouldn't be ahead of the lookups anymore
+        ThreadPoolExecutor minter = new ThreadPoolExecutor(SPECULATIVE_MINT_THREADS,
+                SPECULATIVE_MINT_THREADS,
+                60,
+                TimeUnit.SECONDS,
+                new SynchronousQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "speculative-signing-key-mint");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        minter.allowCoreThreadTimeOut(true);
+        return minter;
+    }
+
+    private static class MintedSigningKey {
+        private final String keyId;
+        private final String serialized;
+        private final Date expiresAt;
+        // Recovered from the journal rather than minted by this attempt
+        private final boolean fromJournal;
+
+        private MintedSigningKey(String keyId, String serialized, Date expiresAt, boolean fromJournal) {
+            this.keyId = keyId;
+            this.serialized = serialized;
+            this.expiresAt = expiresAt;
+            this.fromJournal = fromJournal;
+        }
     }
 
     private enum VERSION_STAGES {
         AWSCURRENT, AWSPENDING
     }
+
+    public static final class Builder {
+        private final LambdaLogger logger;
+        private final SecretsManager secretsManager;
+        private final CloudWatch cloudWatch;
+        private final MomentoSigningKeyCodec signingKeyCodec;
+        private SigningKeyMinter signingKeyMinter;
+        private int signingKeyTtlMinutes;
+        private boolean exportMetrics;
+        private Optional<SigningKeyPool> signingKeyPool = Optional.empty();
+        private MetricsSink metrics = NoOpMetricsSink.INSTANCE;
+        private Optional<SigningKeyReplicator> replicator = Optional.empty();
+        private Optional<RotationJournal> journal = Optional.empty();
+        private boolean speculativeMint;
+        private Optional<KeysetPublisher> keysetPublisher = Optional.empty();
+
+        private Builder(LambdaLogger logger,
+                        SecretsManager secretsManager,
+                        CloudWatch cloudWatch,
+                        MomentoSigningKeyCodec signingKeyCodec) {
+            this.logger = logger;
+            this.secretsManager = secretsManager;
+            this.cloudWatch = cloudWatch;
+            this.signingKeyCodec = signingKeyCodec;
+        }
+
+        // Mints and revokes keys with the Momento client
+        public Builder momentoClient(SimpleCacheClient momentoClient) {
+            return signingKeyMinter(new MomentoSigningKeyMinter(momentoClient));
+        }
+
+        public Builder signingKeyMinter(SigningKeyMinter signingKeyMinter) {
+            this.signingKeyMinter = signingKeyMinter;
+            return this;
+        }
+
+        public Builder signingKeyTtlMinutes(int signingKeyTtlMinutes) {
+            this.signingKeyTtlMinutes = signingKeyTtlMinutes;
+            return this;
+        }
+
+        public Builder exportMetrics(boolean exportMetrics) {
+            this.exportMetrics = exportMetrics;
+            return this;
+        }
+
+        // Keys are claimed from the pool before minting new ones. Refilling it is left to Handler's scheduled refill
+        public Builder signingKeyPool(Optional<SigningKeyPool> signingKeyPool) {
+            this.signingKeyPool = signingKeyPool;
+            return this;
+        }
+
+        public Builder metrics(MetricsSink metrics) {
+            this.metrics = metrics;
+            return this;
+        }
+
+        // New keys are made current in the replica regions before the primary
+        public Builder replicator(Optional<SigningKeyReplicator> replicator) {
+            this.replicator = replicator;
+            return this;
+        }
+
+        public Builder journal(Optional<RotationJournal> journal) {
+            this.journal = journal;
+            return this;
+        }
+
+        // createSecret mints the signing key while it checks whether the version already has one, and throws the key
+        // away if it does
+        public Builder speculativeMint(boolean speculativeMint) {
+            this.speculativeMint = speculativeMint;
+            return this;
+        }
+
+        // Rewrites the secret's keyset document whenever the pending or current key changes
+        public Builder keysetPublisher(Optional<KeysetPublisher> keysetPublisher) {
+            this.keysetPublisher = keysetPublisher;
+            return this;
+        }
+
+        public RotationWorkflow build() {
+            if (this.signingKeyMinter == null) {
+                throw new IllegalStateException("A Momento client or signing key minter is required");
+            }
+            if (this.signingKeyTtlMinutes <= 0) {
+                throw new IllegalArgumentException(String.format("The signing key TTL must be positive, got %d minutes",
+                        this.signingKeyTtlMinutes));
+            }
+            return new RotationWorkflow(this);
+        }
+    }
 }
@@ -0,0 +1,9 @@
+package example;
+
+// The Momento calls a rotation makes to mint and revoke signing keys. MomentoSigningKeyMinter makes them through the
+// Momento client, the load test swaps in a stand-in with configurable latency.
+public interface SigningKeyMinter {
+    MomentoSigningKey createSigningKey(int ttlMinutes);
+
+    void revokeSigningKey(String keyId);
+}
@@ -0,0 +1,204 @@
+package example;
+
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
+import com.google.gson.Gson;
+import momento.sdk.SimpleCacheClient;
+import momento.sdk.exceptions.SdkException;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+// Pool of signing keys minted ahead of time and stored, AES-GCM encrypted, in a Momento cache so createSecret can
+// claim one with a few cache calls instead of waiting on createSigningKey. Each secret has its own slots, addressed by
+// the secret's name so rotations passing its ARN share them. Pooled keys are minted for the signing key TTL plus the
+// pool's max age, so a key claimed within that age still has the full TTL left, and each cache item lives as long as
+// its key so Momento never drops a key that's still valid. A key that's too old is revoked, by the claim that finds
+// it or by the next refill. Refills run in their own scheduled invocation rather than in a rotation. If the pool is
+// empty or unreachable, callers mint a key as usual.
+//
+// Momento has no compare-and-set, so a slot is taken by reading it and deleting it, and two claims that read it at
+// the same time both get its key. Slots are per secret and Secrets Manager runs one rotation of a secret at a time,
+// so that only happens when a manual rotation races another rotation of the same secret, and the key still ends up
+// in that one secret.
+public class SigningKeyPool {
+    private static final String KEY_PREFIX = "signing-key-pool/";
+    private static final String SLOT_KEY_INFIX = "/slot/";
+    // A refill only revokes a key this long after claims stopped taking it, so it never revokes one a claim has just
+    // read. Keys in between are revoked by the claim that finds them or by a later refill
+    private static final long REFILL_REVOKE_GRACE_MILLIS = TimeUnit.MINUTES.toMillis(10);
+    private static final int GCM_IV_BYTES = 12;
+    private static final int GCM_TAG_BITS = 128;
+    private static final SecureRandom RANDOM = new SecureRandom();
+    // Claims made from this container are serialized so concurrent rotations here never take the same key
+    private static final Object CLAIM_LOCK = new Object();
+
+    private final LambdaLogger logger;
+    private final SimpleCacheClient momentoClient;
+    private final SigningKeyMinter signingKeyMinter;
+    private final Gson gson;
+    private final SigningKeyPoolConfig config;
+    private final SecretKey encryptionKey;
+
+    public SigningKeyPool(LambdaLogger logger,
+                          SimpleCacheClient momentoClient,
+                          SigningKeyMinter signingKeyMinter,
+                          Gson gson,
+                          SigningKeyPoolConfig config,
+                          SecretKey encryptionKey) {
+        this.logger = logger;
+        this.momentoClient = momentoClient;
+        this.signingKeyMinter = signingKeyMinter;
+        this.gson = gson;
+        this.config = config;
+        this.encryptionKey = encryptionKey;
+    }
+
+    public Optional<MomentoSigningKey> claim(String secretId) {
+        try {
+            synchronized (CLAIM_LOCK) {
+                int firstSlot = RANDOM.nextInt(this.config.getPoolSize());
+                for (int i = 0; i < this.config.getPoolSize(); i++) {
+                    Optional<MomentoSigningKey> signingKey = claimSlot(secretId, (firstSlot + i) % this.config.getPoolSize());
+                    if (signingKey.isPresent()) {
+                        return signingKey;
+                    }
+                }
+            }
+            this.logger.log(String.format("Signing key pool of %s is empty", secretId));
+            return Optional.empty();
+        } catch (SdkException e) {
+            this.logger.log(String.format("Could not claim a key from the signing key pool of %s: %s", secretId, e));
+            return Optional.empty();
+        }
+    }
+
+    private Optional<MomentoSigningKey> claimSlot(String secretId, int slot) {
+        String slotKey = slotKey(secretId, slot);
+        Optional<String> sealedSigningKey = this.momentoClient.get(this.config.getCacheName(), slotKey).string();
+        if (!sealedSigningKey.isPresent()) {
+            return Optional.empty();
+        }
+        this.momentoClient.delete(this.config.getCacheName(), slotKey);
+
+        Optional<MomentoSigningKey> signingKey = open(slotKey, sealedSigningKey.get());
+        if (signingKey.isPresent() && remainingMillis(signingKey.get()) < signingKeyTtlMillis()) {
+            this.logger.log(String.format("Discarding pooled signing key %s, it's older than %d minutes",
+                    signingKey.get().getKeyId(), this.config.getMaxAgeMinutes()));
+            revoke(signingKey.get());
+            return Optional.empty();
+        }
+        return signingKey;
+    }
+
+    // Mints into the secret's empty slots, and replaces keys that are too old, until every slot holds a usable key or
+    // the deadline has passed. Never throws
+    public void refill(String secretId, long deadlineMillis) {
+        int minted = 0;
+        try {
+            for (int slot = 0; slot < this.config.getPoolSize(); slot++) {
+                if (System.currentTimeMillis() >= deadlineMillis) {
+                    this.logger.log(String.format("Stopped refilling the signing key pool of %s at the deadline", secretId));
+                    break;
+                }
+                if (refillSlot(slotKey(secretId, slot))) {
+                    minted++;
+                }
+            }
+        } catch (RuntimeException e) {
+            this.logger.log(String.format("Failed to refill the signing key pool of %s: %s", secretId, e));
+        }
+        if (minted > 0) {
+            this.logger.log(String.format("Minted %d signing keys into the signing key pool of %s", minted, secretId));
+        }
+    }
+
+    private boolean refillSlot(String slotKey) {
+        Optional<String> sealedSigningKey = this.momentoClient.get(this.config.getCacheName(), slotKey).string();
+        if (sealedSigningKey.isPresent()) {
+            Optional<MomentoSigningKey> pooledSigningKey = open(slotKey, sealedSigningKey.get());
+            if (pooledSigningKey.isPresent()
+                    && remainingMillis(pooledSigningKey.get()) >= signingKeyTtlMillis() - REFILL_REVOKE_GRACE_MILLIS) {
+                return false;
+            }
+            this.momentoClient.delete(this.config.getCacheName(), slotKey);
+            pooledSigningKey.ifPresent(this::revoke);
+        }
+        MomentoSigningKey signingKey = this.signingKeyMinter.createSigningKey(pooledSigningKeyTtlMinutes());
+        try {
+            this.momentoClient.set(this.config.getCacheName(), slotKey, seal(slotKey, signingKey),
+                    Math.max(1, TimeUnit.MILLISECONDS.toSeconds(remainingMillis(signingKey))));
+        } catch (RuntimeException e) {
+            // Never made it into the pool, so nothing would ever hand it out
+            revoke(signingKey);
+            throw e;
+        }
+        return true;
+    }
+
+    private void revoke(MomentoSigningKey signingKey) {
+        try {
+            this.signingKeyMinter.revokeSigningKey(signingKey.getKeyId());
+            this.logger.log(String.format("Revoked pooled signing key %s", signingKey.getKeyId()));
+        } catch (RuntimeException e) {
+            // Two claims racing for the same stale key both revoke it
+            this.logger.log(String.format("Could not revoke pooled signing key %s: %s", signingKey.getKeyId(), e));
+        }
+    }
+
+    // Slots are addressed by the secret's name, whether the rotation was given the name or the ARN
+    private static String slotKey(String secretId, int slot) {
+        return KEY_PREFIX + SigningKeyReplicator.replicaSecretName(secretId) + SLOT_KEY_INFIX + slot;
+    }
+
+    private int pooledSigningKeyTtlMinutes() {
+        return this.config.getSigningKeyTtlMinutes() + this.config.getMaxAgeMinutes();
+    }
+
+    private long signingKeyTtlMillis() {
+        return TimeUnit.MINUTES.toMillis(this.config.getSigningKeyTtlMinutes());
+    }
+
+    private static long remainingMillis(MomentoSigningKey signingKey) {
+        return signingKey.getExpiresAt().getTime() - System.currentTimeMillis();
+    }
+
+    // The slot key, and with it the secret, is bound in as associated data so a sealed key can't be moved to another slot
+    private String seal(String slotKey, MomentoSigningKey signingKey) {
+        try {
+            byte[] iv = new byte[GCM_IV_BYTES];
+            RANDOM.nextBytes(iv);
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.ENCRYPT_MODE, this.encryptionKey, new GCMParameterSpec(GCM_TAG_BITS, iv));
+            cipher.updateAAD(slotKey.getBytes(StandardCharsets.UTF_8));
+            byte[] ciphertext = cipher.doFinal(this.gson.toJson(signingKey).getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(ByteBuffer.allocate(iv.length + ciphertext.length)
+                    .put(iv)
+                    .put(ciphertext)
+                    .array());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Failed to encrypt signing key for the signing key pool", e);
+        }
+    }
+
+    private Optional<MomentoSigningKey> open(String slotKey, String sealedSigningKey) {
+        try {
+            byte[] sealed = Base64.getDecoder().decode(sealedSigningKey);
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.DECRYPT_MODE, this.encryptionKey, new GCMParameterSpec(GCM_TAG_BITS, sealed, 0, GCM_IV_BYTES));
+            cipher.updateAAD(slotKey.getBytes(StandardCharsets.UTF_8));
+            byte[] plaintext = cipher.doFinal(sealed, GCM_IV_BYTES, sealed.length - GCM_IV_BYTES);
+            return Optional.of(this.gson.fromJson(new String(plaintext, StandardCharsets.UTF_8), MomentoSigningKey.class));
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            this.logger.log(String.format("Discarding pooled signing key in %s, it could not be decrypted: %s", slotKey, e));
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package example;
+
+import com.amazonaws.util.StringUtils;
+
+import java.util.Map;
+import java.util.Optional;
+
+// Settings for the optional pool of pre-minted signing keys. The pool is only used when SIGNING_KEY_POOL_CACHE_NAME
+// is set, in which case SIGNING_KEY_POOL_ENCRYPTION_KEY_SECRET_ARN must point to a secret holding a base64 encoded
+// 256 bit AES key used to encrypt the pooled keys, and SIGNING_KEY_POOL_MAX_AGE_MINUTES says how long a pooled key
+// is kept. Size that to the longest time between two rotations of a secret, since a key refilled after one rotation
+// waits for the next. Pooled keys are minted for the function's SIGNING_KEY_TTL_MINUTES plus the max age.
+public class SigningKeyPoolConfig {
+    private static final String SIGNING_KEY_POOL_CACHE_NAME = "SIGNING_KEY_POOL_CACHE_NAME";
+    private static final String SIGNING_KEY_POOL_ENCRYPTION_KEY_SECRET_ARN = "SIGNING_KEY_POOL_ENCRYPTION_KEY_SECRET_ARN";
+    private static final String SIGNING_KEY_POOL_SIZE = "SIGNING_KEY_POOL_SIZE";
+    private static final String SIGNING_KEY_POOL_MAX_AGE_MINUTES = "SIGNING_KEY_POOL_MAX_AGE_MINUTES";
+    private static final String SIGNING_KEY_TTL_MINUTES = "SIGNING_KEY_TTL_MINUTES";
+    // Slots are per secret, so a secret rarely needs more than the key for its next rotation
+    private static final int DEFAULT_POOL_SIZE = 1;
+
+    private final String cacheName;
+    private final String encryptionKeySecretArn;
+    private final int poolSize;
+    private final int maxAgeMinutes;
+    private final int signingKeyTtlMinutes;
+
+    public SigningKeyPoolConfig(String cacheName,
+                                String encryptionKeySecretArn,
+                                int poolSize,
+                                int maxAgeMinutes,
+                                int signingKeyTtlMinutes) {
+        if (poolSize < 1) {
+            throw new IllegalArgumentException(String.format("%s must be at least 1, got %d", SIGNING_KEY_POOL_SIZE, poolSize));
+        }
+        if (maxAgeMinutes < 1) {
+            throw new IllegalArgumentException(String.format("%s must be at least 1, got %d",
+                    SIGNING_KEY_POOL_MAX_AGE_MINUTES, maxAgeMinutes));
+        }
+        if (signingKeyTtlMinutes < 1) {
+            throw new IllegalArgumentException(String.format("%s must be at least 1, got %d",
+                    SIGNING_KEY_TTL_MINUTES, signingKeyTtlMinutes));
+        }
+        this.cacheName = cacheName;
+        this.encryptionKeySecretArn = encryptionKeySecretArn;
+        this.poolSize = poolSize;
+        this.maxAgeMinutes = maxAgeMinutes;
+        this.signingKeyTtlMinutes = signingKeyTtlMinutes;
+    }
+
+    public static Optional<SigningKeyPoolConfig> fromEnvironment() {
+        final Map<String, String> env = System.getenv();
+        if (StringUtils.isNullOrEmpty(env.get(SIGNING_KEY_POOL_CACHE_NAME))) {
+            return Optional.empty();
+        }
+        if (StringUtils.isNullOrEmpty(env.get(SIGNING_KEY_POOL_ENCRYPTION_KEY_SECRET_ARN))) {
+            throw new IllegalArgumentException(String.format("Expected %s to have a value since %s is set",
+                    SIGNING_KEY_POOL_ENCRYPTION_KEY_SECRET_ARN, SIGNING_KEY_POOL_CACHE_NAME));
+        }
+        if (StringUtils.isNullOrEmpty(env.get(SIGNING_KEY_POOL_MAX_AGE_MINUTES))) {
+            throw new IllegalArgumentException(String.format("Expected %s to have a value since %s is set",
+                    SIGNING_KEY_POOL_MAX_AGE_MINUTES, SIGNING_KEY_POOL_CACHE_NAME));
+        }
+        if (StringUtils.isNullOrEmpty(env.get(SIGNING_KEY_TTL_MINUTES))) {
+            throw new IllegalArgumentException(String.format("Expected %s to have a value since %s is set",
+                    SIGNING_KEY_TTL_MINUTES, SIGNING_KEY_POOL_CACHE_NAME));
+        }
+        return Optional.of(new SigningKeyPoolConfig(env.get(SIGNING_KEY_POOL_CACHE_NAME),
+                env.get(SIGNING_KEY_POOL_ENCRYPTION_KEY_SECRET_ARN),
+                Integer.parseInt(env.getOrDefault(SIGNING_KEY_POOL_SIZE, String.valueOf(DEFAULT_POOL_SIZE))),
+                Integer.parseInt(env.get(SIGNING_KEY_POOL_MAX_AGE_MINUTES)),
+                Integer.parseInt(env.get(SIGNING_KEY_TTL_MINUTES))));
+    }
+
+    public String getCacheName() {
+        return this.cacheName;
+    }
+
+    public String getEncryptionKeySecretArn() {
+        return this.encryptionKeySecretArn;
+    }
+
+    public int getPoolSize() {
+        return this.poolSize;
+    }
+
+    // A pooled key is only handed out this long after it was minted, and revoked after that
+    public int getMaxAgeMinutes() {
+        return this.maxAgeMinutes;
+    }
+
+    // The TTL a claimed key has at least left. Rotations asking for another TTL don't use the pool
+    public int getSigningKeyTtlMinutes() {
+        return this.signingKeyTtlMinutes;
+    }
+}
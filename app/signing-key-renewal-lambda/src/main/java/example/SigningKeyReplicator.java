@@ -0,0 +1,215 @@
+package example;
+
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
+import com.amazonaws.services.secretsmanager.model.ResourceExistsException;
+import com.amazonaws.services.secretsmanager.model.ResourceNotFoundException;
+import example.awsclients.secretsmanager.SecretsManager;
+import example.metrics.MetricsSink;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+// Copies rotated signing keys to secrets of the same name in other regions. Every region is written at the same time,
+// and a new key is only made AWSCURRENT, in the replicas and by the caller in the primary region, once writeQuorum
+// regions hold it. Writes reuse the rotation's version id, so writing a key a region already has is a no-op and a
+// stage can be repeated to catch up the regions that failed it. Takes any SecretsManager per region, so the in-memory
+// emulator can stand in for them.
+public class SigningKeyReplicator {
+    private static final String AWSCURRENT = "AWSCURRENT";
+    private static final String AWSPENDING = "AWSPENDING";
+    private static final ExecutorService REPLICATOR = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "signing-key-replicator");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final LambdaLogger logger;
+    private final Map<String, SecretsManager> replicas;
+    private final int writeQuorum;
+    private final long timeoutMillis;
+    private final MetricsSink metrics;
+
+    public SigningKeyReplicator(LambdaLogger logger,
+                                Map<String, SecretsManager> replicas,
+                                int writeQuorum,
+                                long timeoutMillis,
+                                MetricsSink metrics) {
+        if (writeQuorum < 1 || writeQuorum > replicas.size()) {
+            throw new IllegalArgumentException(String.format("Write quorum must be between 1 and the %d replica regions, got %d",
+                    replicas.size(), writeQuorum));
+        }
+        this.logger = logger;
+        this.replicas = replicas;
+        this.writeQuorum = writeQuorum;
+        this.timeoutMillis = timeoutMillis;
+        this.metrics = metrics;
+    }
+
+    // Writes the key to every region as AWSPENDING, creating the regional secret if it doesn't exist yet. Throws
+    // unless at least writeQuorum regions acknowledged the write
+    public ReplicationResult stage(String secretId, String versionId, String signingKey) {
+        String secretName = replicaSecretName(secretId);
+        ReplicationResult result = inParallel("stage", secretName, this.replicas.keySet(),
+                replica -> writePending(replica, secretName, versionId, signingKey));
+        requireQuorum("stage", secretName, result);
+        return result;
+    }
+
+    // Stages the key again, which catches up any region that missed it, then moves AWSCURRENT to it in every region
+    // that holds it. Throws unless writeQuorum regions hold the key, before any label is moved, and unless writeQuorum
+    // regions made it AWSCURRENT
+    public ReplicationResult promote(String secretId, String versionId, String signingKey) {
+        String secretName = replicaSecretName(secretId);
+        ReplicationResult staged = stage(secretId, versionId, signingKey);
+        ReplicationResult result = inParallel("promote", secretName, staged.getAcknowledged(),
+                replica -> moveCurrent(replica, secretName, versionId));
+        requireQuorum("promote", secretName, result);
+        return result;
+    }
+
+    // Whether any region may hold the version. A region that can't be asked in time counts as holding it. A key in a
+    // replica may already be AWSCURRENT there, even when the caller's own put never went through
+    public boolean mayHoldVersion(String secretId, String versionId) {
+        String secretName = replicaSecretName(secretId);
+        List<Future<Boolean>> lookups = new ArrayList<>();
+        for (SecretsManager replica : this.replicas.values()) {
+            lookups.add(REPLICATOR.submit(() -> hasVersion(replica, secretName, versionId)));
+        }
+        long deadlineMillis = System.currentTimeMillis() + this.timeoutMillis;
+        for (Future<Boolean> lookup : lookups) {
+            try {
+                long waitMillis = Math.max(0, deadlineMillis - System.currentTimeMillis());
+                if (lookup.get(waitMillis, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+            } catch (TimeoutException | ExecutionException e) {
+                lookup.cancel(true);
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Rotation events carry the secret's ARN, which differs per region, so replicas are addressed by name. Secrets
+    // Manager ends the ARN with the name, a dash and six random characters
+    static String replicaSecretName(String secretId) {
+        int nameStart = secretId.indexOf(":secret:");
+        if (!secretId.startsWith("arn:") || nameStart < 0) {
+            return secretId;
+        }
+        String nameWithSuffix = secretId.substring(nameStart + ":secret:".length());
+        int suffixStart = nameWithSuffix.lastIndexOf('-');
+        return suffixStart < 0 ? nameWithSuffix : nameWithSuffix.substring(0, suffixStart);
+    }
+
+    private void writePending(SecretsManager replica, String secretName, String versionId, String signingKey) {
+        List<String> stages = Collections.singletonList(AWSPENDING);
+        try {
+            replica.putSecretValue(secretName, signingKey, versionId, stages);
+        } catch (ResourceNotFoundException e) {
+            try {
+                replica.createSecret(secretName, null, null);
+            } catch (ResourceExistsException raced) {
+                // Another rotation created it in the meantime
+            }
+            replica.putSecretValue(secretName, signingKey, versionId, stages);
+        }
+    }
+
+    private static boolean hasVersion(SecretsManager replica, String secretName, String versionId) {
+        try {
+            replica.getSecretValueString(secretName, versionId, null);
+            return true;
+        } catch (ResourceNotFoundException e) {
+            return false;
+        }
+    }
+
+    private void moveCurrent(SecretsManager replica, String secretName, String versionId) {
+        Optional<String> currentVersion = replica.getVersionIdInStage(secretName, AWSCURRENT);
+        if (currentVersion.isPresent() && currentVersion.get().equals(versionId)) {
+            return;
+        }
+        replica.updateSecretVersionStage(secretName, AWSCURRENT, versionId, currentVersion.orElse(null));
+    }
+
+    private ReplicationResult inParallel(String stage,
+                                         String secretName,
+                                         Iterable<String> regions,
+                                         Consumer<SecretsManager> write) {
+        Map<String, Future<RegionOutcome>> writes = new LinkedHashMap<>();
+        for (String region : regions) {
+            SecretsManager replica = this.replicas.get(region);
+            writes.put(region, REPLICATOR.submit(() -> {
+                long startNanos = System.nanoTime();
+                try {
+                    this.metrics.time(String.format("replication.%s.%s", region, stage), () -> {
+                        write.accept(replica);
+                        return null;
+                    });
+                    return new RegionOutcome(System.nanoTime() - startNanos, null);
+                } catch (RuntimeException e) {
+                    return new RegionOutcome(System.nanoTime() - startNanos, e);
+                }
+            }));
+        }
+
+        ReplicationResult result = new ReplicationResult();
+        long deadlineMillis = System.currentTimeMillis() + this.timeoutMillis;
+        for (Map.Entry<String, Future<RegionOutcome>> regionWrite : writes.entrySet()) {
+            String region = regionWrite.getKey();
+            try {
+                long waitMillis = Math.max(0, deadlineMillis - System.currentTimeMillis());
+                RegionOutcome outcome = regionWrite.getValue().get(waitMillis, TimeUnit.MILLISECONDS);
+                long latencyMillis = TimeUnit.NANOSECONDS.toMillis(outcome.latencyNanos);
+                if (outcome.error == null) {
+                    result.addAcknowledged(region, latencyMillis);
+                } else {
+                    result.addFailed(region, outcome.error.toString(), latencyMillis);
+                }
+            } catch (TimeoutException e) {
+                regionWrite.getValue().cancel(true);
+                result.addFailed(region, String.format("timed out after %dms", this.timeoutMillis));
+            } catch (ExecutionException e) {
+                result.addFailed(region, e.getCause().toString());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                result.addFailed(region, "interrupted");
+            }
+        }
+        this.logger.log(String.format("Replication %s of %s: %s", stage, secretName, result));
+        return result;
+    }
+
+    private void requireQuorum(String stage, String secretName, ReplicationResult result) {
+        if (result.getAcknowledged().size() < this.writeQuorum) {
+            throw new IllegalStateException(String.format("Replication %s of %s reached %d of %d replica regions, " +
+                    "%d required: %s", stage, secretName, result.getAcknowledged().size(), this.replicas.size(),
+                    this.writeQuorum, result.getFailed()));
+        }
+    }
+
+    private static class RegionOutcome {
+        private final long latencyNanos;
+        private final RuntimeException error;
+
+        private RegionOutcome(long latencyNanos, RuntimeException error) {
+            this.latencyNanos = latencyNanos;
+            this.error = error;
+        }
+    }
+}
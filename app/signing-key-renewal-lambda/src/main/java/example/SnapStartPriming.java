@@ -0,0 +1,96 @@
+package example;
+
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
+import com.amazonaws.services.lambda.runtime.LambdaRuntime;
+import com.google.gson.Gson;
+import momento.sdk.exceptions.InvalidArgumentException;
+import org.crac.Context;
+import org.crac.Core;
+import org.crac.Resource;
+
+import java.util.Date;
+
+// CRaC hooks for Lambda SnapStart. beforeCheckpoint runs once while a function version is published and loads what
+// the first rotation would otherwise load lazily (Gson adapters, the signing key codec, SDK clients and marshallers,
+// the Momento gRPC stack) so it's already part of the snapshot. afterRestore drops every client, since connections
+// and credentials can't be carried over from a snapshot; they're rebuilt by the first invocation after the restore.
+// On a JVM without CRaC support registering is a no-op and none of this runs.
+public class SnapStartPriming implements Resource {
+    private static final String[] PRIMED_CLASSES = {
+            "com.amazonaws.services.secretsmanager.model.transform.GetSecretValueRequestProtocolMarshaller",
+            "com.amazonaws.services.secretsmanager.model.transform.GetSecretValueResultJsonUnmarshaller",
+            "com.amazonaws.services.secretsmanager.model.transform.DescribeSecretRequestProtocolMarshaller",
+            "com.amazonaws.services.secretsmanager.model.transform.DescribeSecretResultJsonUnmarshaller",
+            "com.amazonaws.services.secretsmanager.model.transform.PutSecretValueRequestProtocolMarshaller",
+            "com.amazonaws.services.secretsmanager.model.transform.UpdateSecretVersionStageRequestProtocolMarshaller",
+            "com.amazonaws.services.cloudwatch.model.transform.PutMetricDataRequestMarshaller",
+            "momento.sdk.SimpleCacheClient",
+            "momento.sdk.messages.CreateSigningKeyResponse",
+            "io.grpc.ManagedChannelBuilder",
+            "io.grpc.netty.NettyChannelBuilder",
+            "io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder",
+    };
+
+    private final ContainerClients containerClients;
+    private final Gson gson;
+
+    private SnapStartPriming(ContainerClients containerClients, Gson gson) {
+        this.containerClients = containerClients;
+        this.gson = gson;
+    }
+
+    // The global context only holds resources weakly, so the caller has to keep the returned instance reachable
+    public static SnapStartPriming register(ContainerClients containerClients, Gson gson) {
+        SnapStartPriming priming = new SnapStartPriming(containerClients, gson);
+        Core.getGlobalContext().register(priming);
+        return priming;
+    }
+
+    @Override
+    public void beforeCheckpoint(Context<? extends Resource> context) {
+        LambdaLogger logger = LambdaRuntime.getLogger();
+        primeGson();
+        primeAwsClients(logger);
+        primeClasses(logger);
+        // Nothing that holds a connection may end up in the snapshot
+        this.containerClients.invalidateMomentoClient(true);
+        logger.log("SnapStart: primed before checkpoint");
+    }
+
+    @Override
+    public void afterRestore(Context<? extends Resource> context) {
+        this.containerClients.reset();
+        LambdaRuntime.getLogger().log("SnapStart: dropped clients after restore");
+    }
+
+    private void primeGson() {
+        MomentoSigningKey signingKey = new MomentoSigningKey("key-id", "endpoint", "{}", new Date());
+        this.gson.fromJson(this.gson.toJson(signingKey), MomentoSigningKey.class);
+        new MomentoSigningKeyCodec(RotationConfig.getSigningKeyFormat()).toJson(signingKey);
+    }
+
+    // Building the clients doesn't make any network calls or resolve credentials, it only loads and initializes them
+    private void primeAwsClients(LambdaLogger logger) {
+        RotationConfig config;
+        try {
+            config = this.containerClients.getConfig();
+        } catch (InvalidArgumentException e) {
+            logger.log("SnapStart: skipping client priming, " + e.getMessage());
+            return;
+        }
+        this.containerClients.getSecretsManager(config.shouldUseLocalStubs(), logger);
+        this.containerClients.getCloudWatch(config.shouldUseLocalStubs(), config.shouldUseEmbeddedMetricFormat(), logger);
+    }
+
+    private void primeClasses(LambdaLogger logger) {
+        ClassLoader classLoader = SnapStartPriming.class.getClassLoader();
+        for (String className : PRIMED_CLASSES) {
+            try {
+                Class.forName(className, true, classLoader);
+            } catch (ClassNotFoundException | LinkageError e) {
+                // Names differ between SDK versions, priming is best effort
+                logger.log(String.format("SnapStart: could not prime %s", className));
+            }
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package example;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+import example.logging.StructuredLogger;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Handler entry point: example.SqsBatchHandler
+// Consumes SQS batches of rotation requests. Each record's body is a RotationJob in JSON, the records are rotated
+// concurrently over the container's shared clients and only the records that failed are reported back in
+// batchItemFailures, so SQS redelivers those and deletes the rest. The event source mapping must have
+// ReportBatchItemFailures enabled, otherwise a partial failure is treated as a success.
+public class SqsBatchHandler implements RequestHandler<Map<String,Object>, Map<String,Object>> {
+  private static final Gson gson = ContainerClients.createGson();
+  private static final Type EVENT_TYPE = new TypeToken<Map<String, String>>() {}.getType();
+
+  // Records that haven't started this long before the Lambda times out are handed back to SQS
+  private static final long DEADLINE_MARGIN_MILLIS = 10_000;
+  private static final int DEFAULT_CONCURRENCY = 10;
+
+  // Shared by every invocation that lands on this container
+  private static final ContainerClients containerClients = new ContainerClients(gson);
+  // Held here because CRaC only keeps a weak reference to registered resources
+  private static final SnapStartPriming snapStartPriming = SnapStartPriming.register(containerClients, gson);
+  // Cleared by the first invocation on the container
+  private static final AtomicBoolean coldStart = new AtomicBoolean(true);
+
+  @Override
+  public Map<String,Object> handleRequest(Map<String,Object> event, Context context) {
+    containerClients.getMetricsSink().recordInvocation(coldStart.getAndSet(false));
+    try {
+      return processBatch(event, context);
+    } finally {
+      // The logs are flushed even if publishing the metrics fails
+      try {
+        containerClients.flushMetrics();
+        containerClients.logInvocationStats(containerClients.getLogger(context.getLogger()));
+      } finally {
+        containerClients.flushLogs();
+      }
+    }
+  }
+
+  private Map<String,Object> processBatch(Map<String,Object> event, Context context) {
+    StructuredLogger logger = containerClients.getLogger(context.getLogger());
+    final long deadlineMillis = System.currentTimeMillis() + context.getRemainingTimeInMillis() - DEADLINE_MARGIN_MILLIS;
+    // A bad configuration fails every record alike, so fail the invocation and let SQS retry the whole batch
+    containerClients.getConfig();
+
+    List<String> messageIds = new ArrayList<>();
+    Set<String> failedMessageIds = Collections.synchronizedSet(new HashSet<>());
+    // Records for the same secret are rotated one after another, in the order SQS delivered them
+    Map<String, List<BatchRecord>> recordsBySecret = new LinkedHashMap<>();
+    for (Map<String, Object> record : getRecords(event)) {
+      String messageId = String.valueOf(record.get("messageId"));
+      messageIds.add(messageId);
+      try {
+        RotationJob job = RotationJob.fromEvent(gson.fromJson(String.valueOf(record.get("body")), EVENT_TYPE));
+        recordsBySecret.computeIfAbsent(job.getSecretName(), secretName -> new ArrayList<>())
+                .add(new BatchRecord(messageId, job));
+      } catch (JsonParseException | IllegalArgumentException e) {
+        // Retrying won't fix a malformed record, reporting it lets the queue's redrive policy move it to the DLQ
+        logger.warn("Rejecting SQS message {}: {}", messageId, e.getMessage());
+        failedMessageIds.add(messageId);
+      }
+    }
+
+    if (!recordsBySecret.isEmpty()) {
+      int concurrency = Math.min(getConcurrency(), recordsBySecret.size());
+      logger.info("Rotating {} SQS messages for {} secrets with concurrency {}",
+              messageIds.size() - failedMessageIds.size(), recordsBySecret.size(), concurrency);
+      RotationJobRunner jobRunner = new RotationJobRunner(logger, containerClients);
+      ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+      try {
+        List<Future<?>> futures = new ArrayList<>();
+        for (List<BatchRecord> records : recordsBySecret.values()) {
+          futures.add(executor.submit(() -> rotate(logger, jobRunner, records, deadlineMillis, failedMessageIds)));
+        }
+        for (Future<?> future : futures) {
+          future.get();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("Interrupted while rotating an SQS batch", e);
+      } catch (ExecutionException e) {
+        throw new IllegalStateException("Failed to rotate an SQS batch", e.getCause());
+      } finally {
+        executor.shutdownNow();
+      }
+    }
+
+    List<Map<String, String>> batchItemFailures = new ArrayList<>();
+    for (String messageId : messageIds) {
+      if (failedMessageIds.contains(messageId)) {
+        batchItemFailures.add(Collections.singletonMap("itemIdentifier", messageId));
+      }
+    }
+    logger.info("Processed {} SQS messages, {} failed", messageIds.size(), batchItemFailures.size());
+    return Collections.singletonMap("batchItemFailures", batchItemFailures);
+  }
+
+  // Once a record fails, the records after it for the same secret are failed too without running them, so a later
+  // step never runs ahead of an earlier one that SQS is about to redeliver
+  private static void rotate(StructuredLogger logger,
+                             RotationJobRunner jobRunner,
+                             List<BatchRecord> records,
+                             long deadlineMillis,
+                             Set<String> failedMessageIds) {
+    boolean failed = false;
+    for (BatchRecord record : records) {
+      if (failed || System.currentTimeMillis() >= deadlineMillis) {
+        failedMessageIds.add(record.messageId);
+        continue;
+      }
+      try {
+        jobRunner.run(record.job);
+      } catch (RuntimeException e) {
+        logger.warn("Rotation {} from SQS message {} failed: {}", record.job, record.messageId, e);
+        failedMessageIds.add(record.messageId);
+        failed = true;
+      }
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static List<Map<String, Object>> getRecords(Map<String, Object> event) {
+    Object records = event == null ? null : event.get("Records");
+    if (!(records instanceof List)) {
+      throw new IllegalArgumentException("Expected an SQS event with a Records list");
+    }
+    return (List<Map<String, Object>>) records;
+  }
+
+  private static int getConcurrency() {
+    int concurrency = Integer.parseInt(System.getenv().getOrDefault("SQS_BATCH_CONCURRENCY",
+            String.valueOf(DEFAULT_CONCURRENCY)));
+    if (concurrency < 1) {
+      throw new IllegalArgumentException(String.format("SQS_BATCH_CONCURRENCY must be at least 1, got %d", concurrency));
+    }
+    return concurrency;
+  }
+
+  private static class BatchRecord {
+    private final String messageId;
+    private final RotationJob job;
+
+    private BatchRecord(String messageId, RotationJob job) {
+      this.messageId = messageId;
+      this.job = job;
+    }
+  }
+}
@@ -1,14 +1,24 @@
 package example.awsclients;
 
+import com.amazonaws.ClientConfiguration;
 import com.amazonaws.services.cloudwatch.AmazonCloudWatchClientBuilder;
 import com.amazonaws.services.lambda.runtime.LambdaLogger;
-import com.amazonaws.services.secretsmanager.AWSSecretsManagerClient;
+import com.amazonaws.services.secretsmanager.AWSSecretsManagerClientBuilder;
+import example.awsclients.cloudwatch.AsyncCloudWatchClient;
 import example.awsclients.cloudwatch.CloudWatch;
 import example.awsclients.cloudwatch.CloudWatchClient;
+import example.awsclients.cloudwatch.EmbeddedMetricFormatCloudWatch;
 import example.awsclients.cloudwatch.LocalCloudWatchClient;
+import example.awsclients.secretsmanager.AsyncSecretsManagerClient;
 import example.awsclients.secretsmanager.LocalSecretsMangerClient;
 import example.awsclients.secretsmanager.SecretsManager;
 import example.awsclients.secretsmanager.SecretsManagerClient;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.core.retry.RetryPolicy;
+import software.amazon.awssdk.http.crt.AwsCrtAsyncHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.cloudwatch.CloudWatchAsyncClient;
+import software.amazon.awssdk.services.secretsmanager.SecretsManagerAsyncClient;
 
 import java.util.Collections;
 import java.util.HashMap;
@@ -16,7 +26,7 @@ import java.util.List;
 import java.util.Map;
 
 public class AwsClientsFactory {
-    public static SecretsManager getSecretsManagerClient(boolean useLocalStubs, LambdaLogger logger) {
+    public static SecretsManager getSecretsManagerClient(boolean useLocalStubs, boolean useAsyncClients, LambdaLogger logger) {
         if (useLocalStubs) {
             String localMomentoToken = System.getenv("TEST_AUTH_TOKEN");
             Map<String, List<String>> versionStagesOverride = new HashMap<>();
@@ -25,14 +35,50 @@ public class AwsClientsFactory {
             versionStagesOverride.put("c", Collections.singletonList("AWSPENDING"));
             return new LocalSecretsMangerClient(logger, localMomentoToken, versionStagesOverride);
         }
-        return new SecretsManagerClient(AWSSecretsManagerClient.builder().build());
+        // SDK retries are turned off, ResilientSecretsManager retries with a shared rate limit and circuit breaker
+        if (useAsyncClients) {
+            return new AsyncSecretsManagerClient(SecretsManagerAsyncClient.builder()
+                    .httpClientBuilder(AwsCrtAsyncHttpClient.builder())
+                    .overrideConfiguration(ClientOverrideConfiguration.builder()
+                            .retryPolicy(RetryPolicy.none())
+                            .build())
+                    .build());
+        }
+        return new SecretsManagerClient(AWSSecretsManagerClientBuilder.standard()
+                .withClientConfiguration(new ClientConfiguration().withMaxErrorRetry(0))
+                .build());
     }
 
-    public static CloudWatch getCloudWatchClient(boolean isDockerEnv, LambdaLogger logger) {
+    // Client for a replica region rather than the one the lambda runs in, with retries off for the same reason
+    public static SecretsManager getSecretsManagerClient(String region, boolean useAsyncClients) {
+        if (useAsyncClients) {
+            return new AsyncSecretsManagerClient(SecretsManagerAsyncClient.builder()
+                    .httpClientBuilder(AwsCrtAsyncHttpClient.builder())
+                    .region(Region.of(region))
+                    .overrideConfiguration(ClientOverrideConfiguration.builder()
+                            .retryPolicy(RetryPolicy.none())
+                            .build())
+                    .build());
+        }
+        return new SecretsManagerClient(AWSSecretsManagerClientBuilder.standard()
+                .withRegion(region)
+                .withClientConfiguration(new ClientConfiguration().withMaxErrorRetry(0))
+                .build());
+    }
+
+    public static CloudWatch getCloudWatchClient(boolean isDockerEnv, boolean useEmbeddedMetricFormat, boolean useAsyncClients, LambdaLogger logger) {
         if (isDockerEnv) {
             return new LocalCloudWatchClient(logger);
         }
+        if (useEmbeddedMetricFormat) {
+            return new EmbeddedMetricFormatCloudWatch(logger);
+        }
+        if (useAsyncClients) {
+            return new AsyncCloudWatchClient(CloudWatchAsyncClient.builder()
+                    .httpClientBuilder(AwsCrtAsyncHttpClient.builder())
+                    .build(), logger);
+        }
         return new CloudWatchClient(AmazonCloudWatchClientBuilder.standard()
-                .build());
+                .build(), logger);
     }
 }
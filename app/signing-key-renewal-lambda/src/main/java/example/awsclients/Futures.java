@@ -0,0 +1,54 @@
+package example.awsclients;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+// Helpers to bridge the blocking and CompletableFuture flavours of the client interfaces
+public final class Futures {
+    private Futures() {
+    }
+
+    // Runs the call on the calling thread and returns its result, or its exception, as an already completed future
+    public static <T> CompletableFuture<T> supply(Supplier<T> call) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            future.complete(call.get());
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    public static CompletableFuture<Void> run(Runnable call) {
+        return supply(() -> {
+            call.run();
+            return null;
+        });
+    }
+
+    // Waits for the future and rethrows whatever it failed with as-is, rather than wrapped in a CompletionException,
+    // so callers can keep catching the exceptions the blocking calls throw
+    public static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw unwrap(e);
+        }
+    }
+
+    public static RuntimeException unwrap(Throwable throwable) {
+        Throwable cause = throwable;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof RuntimeException) {
+            return (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return new CompletionException(cause);
+    }
+}
@@ -0,0 +1,111 @@
+package example.awsclients.cloudwatch;
+
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
+import example.awsclients.Futures;
+import software.amazon.awssdk.services.cloudwatch.CloudWatchAsyncClient;
+import software.amazon.awssdk.services.cloudwatch.model.Dimension;
+import software.amazon.awssdk.services.cloudwatch.model.MetricDatum;
+import software.amazon.awssdk.services.cloudwatch.model.PutMetricDataRequest;
+import software.amazon.awssdk.services.cloudwatch.model.StandardUnit;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Buffers datums like CloudWatchClient, but publishes full batches with the non-blocking SDK v2 client instead of a
+// background thread. flush() publishes the rest and waits for every request still in flight.
+public class AsyncCloudWatchClient implements CloudWatch {
+    // PutMetricData accepts at most 1000 datums per request
+    private static final int MAX_DATUMS_PER_REQUEST = 1000;
+
+    private final CloudWatchAsyncClient cloudWatch;
+    private final LambdaLogger logger;
+    private final Queue<MetricDatum> bufferedDatums = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger bufferedDatumCount = new AtomicInteger();
+    private final Queue<CompletableFuture<?>> inFlightPublishes = new ConcurrentLinkedQueue<>();
+
+    public AsyncCloudWatchClient(CloudWatchAsyncClient cloudWatch, LambdaLogger logger) {
+        this.cloudWatch = cloudWatch;
+        this.logger = logger;
+    }
+
+    @Override
+    public void putMetricData(Date expiresAt, String secretId, String step) {
+        Instant now = Instant.now();
+        double differenceInSeconds = TimeUnit.MILLISECONDS.toSeconds(expiresAt.getTime() - now.toEpochMilli());
+        buffer(timeUntilExpiryDatum(now, differenceInSeconds)
+                .dimensions(
+                        Dimension.builder().name(SECRET_ID_DIMENSION).value(secretId).build(),
+                        Dimension.builder().name(STEP_DIMENSION).value(step).build())
+                .build());
+        buffer(timeUntilExpiryDatum(now, differenceInSeconds).build());
+    }
+
+    private static MetricDatum.Builder timeUntilExpiryDatum(Instant now, double differenceInSeconds) {
+        return MetricDatum.builder()
+                .metricName(TIME_UNTIL_EXPIRY_METRIC_NAME)
+                .unit(StandardUnit.SECONDS)
+                .value(differenceInSeconds)
+                .timestamp(now);
+    }
+
+    @Override
+    public void putTimeUntilNextRenewal(long seconds) {
+        buffer(MetricDatum.builder()
+                .metricName(TIME_UNTIL_NEXT_RENEWAL_METRIC_NAME)
+                .unit(StandardUnit.SECONDS)
+                .value((double) seconds)
+                .timestamp(Instant.now())
+                .build());
+    }
+
+    private void buffer(MetricDatum datum) {
+        bufferedDatums.add(datum);
+        if (bufferedDatumCount.incrementAndGet() >= MAX_DATUMS_PER_REQUEST) {
+            publishBufferedDatums();
+        }
+    }
+
+    @Override
+    public void flush() {
+        publishBufferedDatums();
+        CompletableFuture<?> publish;
+        while ((publish = inFlightPublishes.poll()) != null) {
+            try {
+                Futures.join(publish);
+            } catch (RuntimeException e) {
+                this.logger.log(String.format("Failed to publish metrics: %s", e));
+            }
+        }
+    }
+
+    private void publishBufferedDatums() {
+        List<MetricDatum> batch = new ArrayList<>();
+        MetricDatum datum;
+        while ((datum = bufferedDatums.poll()) != null) {
+            bufferedDatumCount.decrementAndGet();
+            batch.add(datum);
+            if (batch.size() == MAX_DATUMS_PER_REQUEST) {
+                publish(batch);
+                batch = new ArrayList<>();
+            }
+        }
+        if (!batch.isEmpty()) {
+            publish(batch);
+        }
+    }
+
+    private void publish(List<MetricDatum> batch) {
+        PutMetricDataRequest request = PutMetricDataRequest.builder()
+                .namespace(NAMESPACE)
+                .metricData(batch)
+                .build();
+        inFlightPublishes.add(cloudWatch.putMetricData(request));
+    }
+}
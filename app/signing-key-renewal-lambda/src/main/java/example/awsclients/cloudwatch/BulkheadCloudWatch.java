@@ -0,0 +1,32 @@
+package example.awsclients.cloudwatch;
+
+import example.awsclients.resilience.Bulkhead;
+
+import java.util.Date;
+
+// Makes every CloudWatch call through a bulkhead. putMetricData usually only buffers, so in practice this bounds
+// concurrent flushes.
+public class BulkheadCloudWatch implements CloudWatch {
+    private final CloudWatch delegate;
+    private final Bulkhead bulkhead;
+
+    public BulkheadCloudWatch(CloudWatch delegate, Bulkhead bulkhead) {
+        this.delegate = delegate;
+        this.bulkhead = bulkhead;
+    }
+
+    @Override
+    public void putMetricData(Date expiresAt, String secretId, String step) {
+        this.bulkhead.run(() -> this.delegate.putMetricData(expiresAt, secretId, step));
+    }
+
+    @Override
+    public void putTimeUntilNextRenewal(long seconds) {
+        this.bulkhead.run(() -> this.delegate.putTimeUntilNextRenewal(seconds));
+    }
+
+    @Override
+    public void flush() {
+        this.bulkhead.run(this.delegate::flush);
+    }
+}
@@ -1,12 +1,24 @@
 package example.awsclients.cloudwatch;
 
-import com.amazonaws.services.lambda.runtime.LambdaLogger;
-
 import java.util.Date;
 
 public interface CloudWatch {
-    // Export CW metrics to account indicating how long until the given Momento signing key needs to be renewed.
-    // This will only be called if EXPORT_METRICS is true
-    public void putMetricData(Date expiresAt);
-}
+    String NAMESPACE = "Momento/SigningKeyRenewalLambda";
+    String TIME_UNTIL_EXPIRY_METRIC_NAME = "time_until_signing_key_expires_seconds";
+    String TIME_UNTIL_NEXT_RENEWAL_METRIC_NAME = "time_until_next_signing_key_renewal_seconds";
+    String SECRET_ID_DIMENSION = "SecretId";
+    String STEP_DIMENSION = "Step";
+
+    // Export CW metrics to account indicating how long until the given Momento signing key needs to be renewed. The
+    // metric is published with the SecretId and Step dimensions, and again without dimensions so alarms created
+    // before the dimensions were added keep their data. This will only be called if EXPORT_METRICS is true
+    public void putMetricData(Date expiresAt, String secretId, String step);
 
+    // Export how long until the expiry-aware renewal scheduler next has a key to renew. It covers every secret the
+    // scheduler manages so it has no dimensions. Only called if EXPORT_METRICS is true
+    public void putTimeUntilNextRenewal(long seconds);
+
+    // Publish anything putMetricData has buffered. Lambda can freeze the container as soon as the handler returns,
+    // so this is called at the end of every invocation.
+    public void flush();
+}
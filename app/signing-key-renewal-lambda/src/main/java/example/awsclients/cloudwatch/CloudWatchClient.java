@@ -1,31 +1,121 @@
 package example.awsclients.cloudwatch;
 
 import com.amazonaws.services.cloudwatch.AmazonCloudWatch;
+import com.amazonaws.services.cloudwatch.model.Dimension;
 import com.amazonaws.services.cloudwatch.model.MetricDatum;
 import com.amazonaws.services.cloudwatch.model.PutMetricDataRequest;
 import com.amazonaws.services.cloudwatch.model.StandardUnit;
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+// Buffers datums and publishes them in batches. A full batch is published in the background so putMetricData never
+// blocks the rotation; whatever is left is published by flush() at the end of the invocation.
 public class CloudWatchClient implements CloudWatch {
+    // PutMetricData accepts at most 1000 datums per request
+    private static final int MAX_DATUMS_PER_REQUEST = 1000;
+
     private final AmazonCloudWatch cloudWatch;
+    private final LambdaLogger logger;
+    private final Queue<MetricDatum> bufferedDatums = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger bufferedDatumCount = new AtomicInteger();
+    private final ExecutorService publisher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "cloudwatch-metric-publisher");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile Future<?> lastPublish;
 
-    public CloudWatchClient(AmazonCloudWatch cloudWatch) {
+    public CloudWatchClient(AmazonCloudWatch cloudWatch, LambdaLogger logger) {
         this.cloudWatch = cloudWatch;
+        this.logger = logger;
     }
 
     @Override
-    public void putMetricData(Date expiresAt) {
+    public void putMetricData(Date expiresAt, String secretId, String step) {
         Date now = new Date();
         double differenceInSeconds = TimeUnit.MILLISECONDS.toSeconds(expiresAt.getTime() - now.getTime());
-        MetricDatum datum = new MetricDatum()
-                .withMetricName("time_until_signing_key_expires_seconds")
+        buffer(timeUntilExpiryDatum(now, differenceInSeconds).withDimensions(
+                new Dimension().withName(SECRET_ID_DIMENSION).withValue(secretId),
+                new Dimension().withName(STEP_DIMENSION).withValue(step)));
+        buffer(timeUntilExpiryDatum(now, differenceInSeconds));
+    }
+
+    private static MetricDatum timeUntilExpiryDatum(Date now, double differenceInSeconds) {
+        return new MetricDatum()
+                .withMetricName(TIME_UNTIL_EXPIRY_METRIC_NAME)
+                .withUnit(StandardUnit.Seconds)
+                .withValue(differenceInSeconds)
+                .withTimestamp(now);
+    }
+
+    @Override
+    public void putTimeUntilNextRenewal(long seconds) {
+        buffer(new MetricDatum()
+                .withMetricName(TIME_UNTIL_NEXT_RENEWAL_METRIC_NAME)
                 .withUnit(StandardUnit.Seconds)
-                .withValue(differenceInSeconds);
+                .withValue((double) seconds)
+                .withTimestamp(new Date()));
+    }
+
+    private void buffer(MetricDatum datum) {
+        bufferedDatums.add(datum);
+        if (bufferedDatumCount.incrementAndGet() >= MAX_DATUMS_PER_REQUEST) {
+            lastPublish = publisher.submit(this::publishBufferedDatums);
+        }
+    }
+
+    @Override
+    public void flush() {
+        publishBufferedDatums();
+        Future<?> inFlight = lastPublish;
+        if (inFlight == null) {
+            return;
+        }
+        try {
+            inFlight.get();
+        } catch (ExecutionException e) {
+            this.logger.log(String.format("Failed to publish metrics: %s", e.getCause()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void publishBufferedDatums() {
+        List<MetricDatum> batch = new ArrayList<>();
+        MetricDatum datum;
+        while ((datum = bufferedDatums.poll()) != null) {
+            bufferedDatumCount.decrementAndGet();
+            batch.add(datum);
+            if (batch.size() == MAX_DATUMS_PER_REQUEST) {
+                publish(batch);
+                batch = new ArrayList<>();
+            }
+        }
+        if (!batch.isEmpty()) {
+            publish(batch);
+        }
+    }
+
+    // A failed publish is logged and dropped, flush() runs in the handler's finally and must not throw
+    private void publish(List<MetricDatum> batch) {
         PutMetricDataRequest request = new PutMetricDataRequest()
-                .withNamespace("Momento/SigningKeyRenewalLambda")
-                .withMetricData(datum);
-        cloudWatch.putMetricData(request);
+                .withNamespace(NAMESPACE)
+                .withMetricData(batch);
+        try {
+            cloudWatch.putMetricData(request);
+        } catch (RuntimeException e) {
+            this.logger.log(String.format("Failed to publish metrics: %s", e));
+        }
     }
 }
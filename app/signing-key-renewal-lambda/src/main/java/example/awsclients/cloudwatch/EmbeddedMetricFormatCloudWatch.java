@@ -0,0 +1,82 @@
+package example.awsclients.cloudwatch;
+
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
+import example.logging.StructuredLogger;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Writes metrics to the Lambda log in CloudWatch Embedded Metric Format. CloudWatch Logs extracts the metrics from
+// the log line, so no PutMetricData call is made at all.
+// See https://docs.aws.amazon.com/AmazonCloudWatch/latest/monitoring/CloudWatch_Embedded_Metric_Format_Specification.html
+public class EmbeddedMetricFormatCloudWatch implements CloudWatch {
+    private final LambdaLogger logger;
+
+    public EmbeddedMetricFormatCloudWatch(LambdaLogger logger) {
+        // CloudWatch only extracts metrics from lines that are the EMF document and nothing else
+        this.logger = StructuredLogger.unwrap(logger);
+    }
+
+    @Override
+    public void putMetricData(Date expiresAt, String secretId, String step) {
+        long differenceInSeconds = TimeUnit.MILLISECONDS.toSeconds(expiresAt.getTime() - System.currentTimeMillis());
+        Map<String, String> dimensions = new LinkedHashMap<>();
+        dimensions.put(SECRET_ID_DIMENSION, secretId);
+        dimensions.put(STEP_DIMENSION, step);
+        writeMetric(TIME_UNTIL_EXPIRY_METRIC_NAME, differenceInSeconds, dimensions);
+    }
+
+    @Override
+    public void putTimeUntilNextRenewal(long seconds) {
+        writeMetric(TIME_UNTIL_NEXT_RENEWAL_METRIC_NAME, seconds, Collections.emptyMap());
+    }
+
+    private void writeMetric(String metricName, long seconds, Map<String, String> dimensions) {
+        StringWriter line = new StringWriter();
+        try (JsonWriter writer = new JsonWriter(line)) {
+            writer.beginObject();
+            writer.name("_aws").beginObject();
+            writer.name("Timestamp").value(System.currentTimeMillis());
+            writer.name("CloudWatchMetrics").beginArray().beginObject();
+            writer.name("Namespace").value(NAMESPACE);
+            // Every metric is also published without dimensions, see CloudWatch.putMetricData
+            writer.name("Dimensions").beginArray();
+            if (!dimensions.isEmpty()) {
+                writer.beginArray();
+                for (String dimension : dimensions.keySet()) {
+                    writer.value(dimension);
+                }
+                writer.endArray();
+            }
+            writer.beginArray().endArray();
+            writer.endArray();
+            writer.name("Metrics").beginArray().beginObject()
+                    .name("Name").value(metricName)
+                    .name("Unit").value("Seconds")
+                    .endObject().endArray();
+            writer.endObject().endArray();
+            writer.endObject();
+            for (Map.Entry<String, String> dimension : dimensions.entrySet()) {
+                writer.name(dimension.getKey()).value(dimension.getValue());
+            }
+            writer.name(metricName).value(seconds);
+            writer.endObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        // EMF lines must be written on their own line
+        this.logger.log(line.toString() + "\n");
+    }
+
+    @Override
+    public void flush() {
+        // Nothing is buffered, every metric is written as soon as it is recorded
+    }
+}
@@ -0,0 +1,41 @@
+package example.awsclients.cloudwatch;
+
+import example.metrics.MetricsSink;
+
+import java.util.Date;
+
+// Times CloudWatch calls as "cloudwatch.<method>". putMetricData usually only buffers, the PutMetricData request
+// itself is made by flush, so that's where a slow CloudWatch shows up.
+public class InstrumentedCloudWatch implements CloudWatch {
+    private final CloudWatch delegate;
+    private final MetricsSink metrics;
+
+    public InstrumentedCloudWatch(CloudWatch delegate, MetricsSink metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void putMetricData(Date expiresAt, String secretId, String step) {
+        this.metrics.time("cloudwatch.putMetricData", () -> {
+            this.delegate.putMetricData(expiresAt, secretId, step);
+            return null;
+        });
+    }
+
+    @Override
+    public void putTimeUntilNextRenewal(long seconds) {
+        this.metrics.time("cloudwatch.putTimeUntilNextRenewal", () -> {
+            this.delegate.putTimeUntilNextRenewal(seconds);
+            return null;
+        });
+    }
+
+    @Override
+    public void flush() {
+        this.metrics.time("cloudwatch.flush", () -> {
+            this.delegate.flush();
+            return null;
+        });
+    }
+}
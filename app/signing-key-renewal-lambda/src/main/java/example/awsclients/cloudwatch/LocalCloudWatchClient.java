@@ -1,18 +1,30 @@
 package example.awsclients.cloudwatch;
 
 import com.amazonaws.services.lambda.runtime.LambdaLogger;
+import example.logging.StructuredLogger;
 
 import java.util.Date;
 
 public class LocalCloudWatchClient implements CloudWatch {
-    private final LambdaLogger logger;
+    private final StructuredLogger logger;
 
     public LocalCloudWatchClient(LambdaLogger logger) {
-        this.logger = logger;
+        // Logged at DEBUG, these are called on every step when running locally
+        this.logger = StructuredLogger.of(logger);
     }
 
     @Override
-    public void putMetricData(Date expiresAt) {
-        this.logger.log("No-op, called cloudWatch.putMetricData()" );
+    public void putMetricData(Date expiresAt, String secretId, String step) {
+        this.logger.debug("No-op, called cloudWatch.putMetricData()");
+    }
+
+    @Override
+    public void putTimeUntilNextRenewal(long seconds) {
+        this.logger.debug("No-op, called cloudWatch.putTimeUntilNextRenewal()");
+    }
+
+    @Override
+    public void flush() {
+        this.logger.debug("No-op, called cloudWatch.flush()");
     }
 }
@@ -0,0 +1,91 @@
+package example.awsclients.resilience;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Caps how many calls to one dependency are in flight at once, so a burst of rotations queues up in front of the
+// dependency instead of all hitting it together. Callers past the cap wait up to maxWaitMillis for a permit and are
+// then rejected. Permits are handed out in arrival order.
+public class Bulkhead {
+    private final String name;
+    private final int maxConcurrentCalls;
+    private final long maxWaitMillis;
+    private final Semaphore permits;
+
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong queuedCalls = new AtomicLong();
+    private final AtomicLong rejectedCalls = new AtomicLong();
+
+    public Bulkhead(String name, int maxConcurrentCalls, long maxWaitMillis) {
+        if (maxConcurrentCalls < 1 || maxWaitMillis < 0) {
+            throw new IllegalArgumentException(String.format(
+                    "%s bulkhead needs at least 1 concurrent call and a wait of at least 0, got %d and %d",
+                    name, maxConcurrentCalls, maxWaitMillis));
+        }
+        this.name = name;
+        this.maxConcurrentCalls = maxConcurrentCalls;
+        this.maxWaitMillis = maxWaitMillis;
+        this.permits = new Semaphore(maxConcurrentCalls, true);
+    }
+
+    public <T> T call(Supplier<T> call) {
+        acquire();
+        try {
+            return call.get();
+        } finally {
+            this.permits.release();
+        }
+    }
+
+    public void run(Runnable call) {
+        call(() -> {
+            call.run();
+            return null;
+        });
+    }
+
+    // The permit is held until the returned future completes, not just until the call returns it
+    public <T> CompletableFuture<T> callAsync(Supplier<CompletableFuture<T>> call) {
+        acquire();
+        CompletableFuture<T> future;
+        try {
+            future = call.get();
+        } catch (RuntimeException e) {
+            this.permits.release();
+            throw e;
+        }
+        return future.whenComplete((result, error) -> this.permits.release());
+    }
+
+    public String describe() {
+        return String.format("%s bulkhead: %d calls, %d waited for a permit, %d rejected, %d of %d permits in use",
+                this.name,
+                this.calls.get(),
+                this.queuedCalls.get(),
+                this.rejectedCalls.get(),
+                this.maxConcurrentCalls - this.permits.availablePermits(),
+                this.maxConcurrentCalls);
+    }
+
+    private void acquire() {
+        this.calls.incrementAndGet();
+        if (this.permits.tryAcquire()) {
+            return;
+        }
+        this.queuedCalls.incrementAndGet();
+        try {
+            if (this.permits.tryAcquire(this.maxWaitMillis, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BulkheadFullException(String.format("Interrupted while waiting for a %s bulkhead permit", this.name));
+        }
+        this.rejectedCalls.incrementAndGet();
+        throw new BulkheadFullException(String.format("%s already has %d calls in flight, gave up after waiting %d ms",
+                this.name, this.maxConcurrentCalls, this.maxWaitMillis));
+    }
+}
@@ -0,0 +1,8 @@
+package example.awsclients.resilience;
+
+// Thrown instead of making a call when the bulkhead had no permit free within its wait time
+public class BulkheadFullException extends IllegalStateException {
+    public BulkheadFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,82 @@
+package example.awsclients.resilience;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Stops calling a dependency that keeps failing. After failureThreshold consecutive failures the circuit opens and
+// every call is rejected for openDurationMillis. The first call after that is let through as a trial: if it succeeds
+// the circuit closes again, if it fails it opens for another openDurationMillis.
+public class CircuitBreaker {
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openDurationMillis;
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAtMillis;
+    private boolean trialInFlight;
+
+    private final AtomicLong timesOpened = new AtomicLong();
+    private final AtomicLong rejectedCalls = new AtomicLong();
+
+    public CircuitBreaker(int failureThreshold, long openDurationMillis) {
+        if (failureThreshold < 1 || openDurationMillis < 0) {
+            throw new IllegalArgumentException(String.format(
+                    "Expected a failure threshold of at least 1 and a non-negative open duration, got %d and %d",
+                    failureThreshold, openDurationMillis));
+        }
+        this.failureThreshold = failureThreshold;
+        this.openDurationMillis = openDurationMillis;
+    }
+
+    // Returns false if the call must not be made
+    public synchronized boolean tryAcquirePermission() {
+        if (this.state == State.OPEN && System.currentTimeMillis() - this.openedAtMillis >= this.openDurationMillis) {
+            this.state = State.HALF_OPEN;
+        }
+        if (this.state == State.CLOSED) {
+            return true;
+        }
+        if (this.state == State.HALF_OPEN && !this.trialInFlight) {
+            this.trialInFlight = true;
+            return true;
+        }
+        this.rejectedCalls.incrementAndGet();
+        return false;
+    }
+
+    public synchronized void onSuccess() {
+        this.state = State.CLOSED;
+        this.consecutiveFailures = 0;
+        this.trialInFlight = false;
+    }
+
+    // Returns true if this failure opened the circuit
+    public synchronized boolean onFailure() {
+        this.consecutiveFailures++;
+        this.trialInFlight = false;
+        if (this.state == State.HALF_OPEN || this.consecutiveFailures >= this.failureThreshold) {
+            boolean opened = this.state != State.OPEN;
+            if (opened) {
+                this.timesOpened.incrementAndGet();
+            }
+            this.state = State.OPEN;
+            this.openedAtMillis = System.currentTimeMillis();
+            return opened;
+        }
+        return false;
+    }
+
+    public synchronized State getState() {
+        return this.state;
+    }
+
+    public long getTimesOpened() {
+        return this.timesOpened.get();
+    }
+
+    public long getRejectedCalls() {
+        return this.rejectedCalls.get();
+    }
+}
@@ -0,0 +1,8 @@
+package example.awsclients.resilience;
+
+// Thrown instead of making a call while the circuit breaker is open
+public class CircuitOpenException extends IllegalStateException {
+    public CircuitOpenException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,27 @@
+package example.awsclients.resilience;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+// "Decorrelated jitter" from https://aws.amazon.com/blogs/architecture/exponential-backoff-and-jitter/: each delay is
+// picked at random between the base delay and three times the previous one, capped at maxDelayMillis. Retries from
+// many concurrent callers spread out rather than arriving in waves.
+public class DecorrelatedJitterBackoff {
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+
+    public DecorrelatedJitterBackoff(long baseDelayMillis, long maxDelayMillis) {
+        if (baseDelayMillis < 1 || maxDelayMillis < baseDelayMillis) {
+            throw new IllegalArgumentException(String.format(
+                    "Expected 1 <= base delay <= max delay, got %d and %d", baseDelayMillis, maxDelayMillis));
+        }
+        this.baseDelayMillis = baseDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+    }
+
+    // Pass 0 for the first retry
+    public long nextDelayMillis(long previousDelayMillis) {
+        long upperBound = Math.max(this.baseDelayMillis, previousDelayMillis * 3);
+        long delay = ThreadLocalRandom.current().nextLong(this.baseDelayMillis, upperBound + 1);
+        return Math.min(this.maxDelayMillis, delay);
+    }
+}
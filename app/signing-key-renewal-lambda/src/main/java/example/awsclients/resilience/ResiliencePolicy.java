@@ -0,0 +1,302 @@
+package example.awsclients.resilience;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.AmazonServiceException;
+import example.awsclients.Futures;
+import example.metrics.MetricsSink;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Runs calls to a dependency through a shared rate limiter, a circuit breaker and decorrelated jitter retries.
+// Only throttling, 5xx and retryable client (network) errors are retried and count against the circuit breaker;
+// anything else, such as ResourceNotFoundException which the rotation relies on, is passed straight through.
+// Throttling, server and client errors, exhausted retries and the circuit opening or rejecting calls are counted
+// both here for describe() and in the metrics sink as "<metricPrefix>.<counter>".
+public class ResiliencePolicy {
+    private static final Set<String> THROTTLING_ERROR_CODES = new HashSet<>(Arrays.asList(
+            "Throttling",
+            "ThrottlingException",
+            "ThrottledException",
+            "TooManyRequestsException",
+            "RequestLimitExceeded",
+            "RequestThrottled",
+            "RequestThrottledException",
+            "SlowDown"
+    ));
+    private static final String MAX_REQUESTS_PER_SECOND = "MAX_REQUESTS_PER_SECOND";
+    private static final String BURST = "BURST";
+    private static final String MAX_ATTEMPTS = "MAX_ATTEMPTS";
+    private static final String CIRCUIT_FAILURE_THRESHOLD = "CIRCUIT_FAILURE_THRESHOLD";
+    private static final String CIRCUIT_OPEN_MILLIS = "CIRCUIT_OPEN_MILLIS";
+    private static final long RETRY_BASE_DELAY_MILLIS = 100;
+    private static final long RETRY_MAX_DELAY_MILLIS = 5_000;
+
+    private final String name;
+    private final String metricPrefix;
+    private final MetricsSink metrics;
+    private final TokenBucketRateLimiter rateLimiter;
+    private final DecorrelatedJitterBackoff backoff;
+    private final int maxAttempts;
+    private final CircuitBreaker circuitBreaker;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "resilience-policy-scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong attempts = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong throttlingErrors = new AtomicLong();
+    private final AtomicLong serverErrors = new AtomicLong();
+    private final AtomicLong clientErrors = new AtomicLong();
+    private final AtomicLong exhaustedCalls = new AtomicLong();
+
+    public ResiliencePolicy(String name,
+                            String metricPrefix,
+                            MetricsSink metrics,
+                            TokenBucketRateLimiter rateLimiter,
+                            DecorrelatedJitterBackoff backoff,
+                            int maxAttempts,
+                            CircuitBreaker circuitBreaker) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException(String.format("Max attempts must be at least 1, got %d", maxAttempts));
+        }
+        this.name = name;
+        this.metricPrefix = metricPrefix;
+        this.metrics = metrics;
+        this.rateLimiter = rateLimiter;
+        this.backoff = backoff;
+        this.maxAttempts = maxAttempts;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    // Reads <prefix>_MAX_REQUESTS_PER_SECOND, <prefix>_BURST, <prefix>_MAX_ATTEMPTS, <prefix>_CIRCUIT_FAILURE_THRESHOLD
+    // and <prefix>_CIRCUIT_OPEN_MILLIS, falling back to the given defaults
+    public static ResiliencePolicy fromEnvironment(String name,
+                                                   String metricPrefix,
+                                                   MetricsSink metrics,
+                                                   String prefix,
+                                                   double defaultMaxRequestsPerSecond,
+                                                   int defaultMaxAttempts,
+                                                   int defaultCircuitFailureThreshold,
+                                                   long defaultCircuitOpenMillis) {
+        final Map<String, String> env = System.getenv();
+        double maxRequestsPerSecond = Double.parseDouble(env.getOrDefault(prefix + "_" + MAX_REQUESTS_PER_SECOND,
+                String.valueOf(defaultMaxRequestsPerSecond)));
+        double burst = Double.parseDouble(env.getOrDefault(prefix + "_" + BURST, String.valueOf(maxRequestsPerSecond)));
+        return new ResiliencePolicy(name,
+                metricPrefix,
+                metrics,
+                new TokenBucketRateLimiter(maxRequestsPerSecond, burst),
+                new DecorrelatedJitterBackoff(RETRY_BASE_DELAY_MILLIS, RETRY_MAX_DELAY_MILLIS),
+                Integer.parseInt(env.getOrDefault(prefix + "_" + MAX_ATTEMPTS, String.valueOf(defaultMaxAttempts))),
+                new CircuitBreaker(
+                        Integer.parseInt(env.getOrDefault(prefix + "_" + CIRCUIT_FAILURE_THRESHOLD,
+                                String.valueOf(defaultCircuitFailureThreshold))),
+                        Long.parseLong(env.getOrDefault(prefix + "_" + CIRCUIT_OPEN_MILLIS,
+                                String.valueOf(defaultCircuitOpenMillis)))));
+    }
+
+    // Blocking calls wait on the calling thread so concurrent callers aren't serialized behind the scheduler
+    public <T> T call(Supplier<T> call) {
+        this.calls.incrementAndGet();
+        long previousDelayMillis = 0;
+        for (int attempt = 1; ; attempt++) {
+            acquirePermission();
+            sleepNanos(this.rateLimiter.reserve());
+            this.attempts.incrementAndGet();
+            RuntimeException failure;
+            try {
+                T result = call.get();
+                this.circuitBreaker.onSuccess();
+                return result;
+            } catch (RuntimeException e) {
+                failure = e;
+            }
+            if (!shouldRetry(failure, attempt)) {
+                throw failure;
+            }
+            previousDelayMillis = this.backoff.nextDelayMillis(previousDelayMillis);
+            this.retries.incrementAndGet();
+            sleepNanos(TimeUnit.MILLISECONDS.toNanos(previousDelayMillis));
+        }
+    }
+
+    // Non-blocking calls wait for permits and backoff on the scheduler instead of blocking the caller
+    public <T> CompletableFuture<T> callAsync(Supplier<CompletableFuture<T>> call) {
+        this.calls.incrementAndGet();
+        CompletableFuture<T> result = new CompletableFuture<>();
+        attemptAsync(call, 1, 0, result);
+        return result;
+    }
+
+    private <T> void attemptAsync(Supplier<CompletableFuture<T>> call,
+                                  int attempt,
+                                  long previousDelayMillis,
+                                  CompletableFuture<T> result) {
+        try {
+            acquirePermission();
+        } catch (CircuitOpenException e) {
+            result.completeExceptionally(e);
+            return;
+        }
+        runAfter(this.rateLimiter.reserve(), () -> {
+            this.attempts.incrementAndGet();
+            CompletableFuture<T> future;
+            try {
+                future = call.get();
+            } catch (RuntimeException e) {
+                future = new CompletableFuture<>();
+                future.completeExceptionally(e);
+            }
+            future.whenComplete((value, throwable) -> {
+                if (throwable == null) {
+                    this.circuitBreaker.onSuccess();
+                    result.complete(value);
+                    return;
+                }
+                RuntimeException failure = Futures.unwrap(throwable);
+                if (!shouldRetry(failure, attempt)) {
+                    result.completeExceptionally(failure);
+                    return;
+                }
+                long delayMillis = this.backoff.nextDelayMillis(previousDelayMillis);
+                this.retries.incrementAndGet();
+                runAfter(TimeUnit.MILLISECONDS.toNanos(delayMillis),
+                        () -> attemptAsync(call, attempt + 1, delayMillis, result));
+            });
+        });
+    }
+
+    private void acquirePermission() {
+        if (!this.circuitBreaker.tryAcquirePermission()) {
+            count("circuitRejected");
+            throw new CircuitOpenException(String.format("Circuit breaker for %s is open, not calling it", this.name));
+        }
+    }
+
+    // Records the failure and decides whether it's worth another attempt
+    private boolean shouldRetry(RuntimeException failure, int attempt) {
+        if (!isRetryable(failure)) {
+            // The dependency answered, so as far as the circuit breaker is concerned it's healthy
+            this.circuitBreaker.onSuccess();
+            return false;
+        }
+        if (this.circuitBreaker.onFailure()) {
+            count("circuitOpened");
+        }
+        if (attempt >= this.maxAttempts) {
+            this.exhaustedCalls.incrementAndGet();
+            count("retriesExhausted");
+            return false;
+        }
+        return true;
+    }
+
+    private boolean isRetryable(RuntimeException failure) {
+        if (failure instanceof AmazonServiceException) {
+            AmazonServiceException serviceException = (AmazonServiceException) failure;
+            if (serviceException.getStatusCode() == 429 || THROTTLING_ERROR_CODES.contains(serviceException.getErrorCode())) {
+                this.throttlingErrors.incrementAndGet();
+                count("throttled");
+                return true;
+            }
+            if (serviceException.getStatusCode() >= 500) {
+                this.serverErrors.incrementAndGet();
+                count("serverError");
+                return true;
+            }
+            return false;
+        }
+        if (failure instanceof AmazonClientException && ((AmazonClientException) failure).isRetryable()) {
+            this.clientErrors.incrementAndGet();
+            count("clientError");
+            return true;
+        }
+        return false;
+    }
+
+    private void count(String counter) {
+        this.metrics.increment(this.metricPrefix + "." + counter);
+    }
+
+    private void runAfter(long delayNanos, Runnable task) {
+        if (delayNanos <= 0) {
+            task.run();
+        } else {
+            this.scheduler.schedule(task, delayNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static void sleepNanos(long nanos) {
+        if (nanos <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to retry", e);
+        }
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public TokenBucketRateLimiter getRateLimiter() {
+        return this.rateLimiter;
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return this.circuitBreaker;
+    }
+
+    public long getCalls() {
+        return this.calls.get();
+    }
+
+    public long getAttempts() {
+        return this.attempts.get();
+    }
+
+    public long getRetries() {
+        return this.retries.get();
+    }
+
+    public long getThrottlingErrors() {
+        return this.throttlingErrors.get();
+    }
+
+    public long getServerErrors() {
+        return this.serverErrors.get();
+    }
+
+    public long getClientErrors() {
+        return this.clientErrors.get();
+    }
+
+    // Calls that still failed with a retryable error after maxAttempts attempts
+    public long getExhaustedCalls() {
+        return this.exhaustedCalls.get();
+    }
+
+    public String describe() {
+        return String.format("%s: calls=%d attempts=%d retries=%d throttled=%d server_errors=%d client_errors=%d " +
+                        "exhausted=%d rate_limited=%d rate_limit_delay_ms=%d circuit=%s circuit_opened=%d circuit_rejected=%d",
+                this.name, getCalls(), getAttempts(), getRetries(), getThrottlingErrors(), getServerErrors(),
+                getClientErrors(), getExhaustedCalls(), this.rateLimiter.getDelayedAcquisitions(),
+                this.rateLimiter.getTotalDelayMillis(), this.circuitBreaker.getState(),
+                this.circuitBreaker.getTimesOpened(), this.circuitBreaker.getRejectedCalls());
+    }
+}
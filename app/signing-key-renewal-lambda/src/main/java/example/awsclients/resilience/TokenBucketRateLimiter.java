@@ -0,0 +1,81 @@
+package example.awsclients.resilience;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Token bucket shared by every caller of a client. The bucket holds up to `burst` permits and refills at
+// permitsPerSecond. Once it's empty, callers borrow permits from the future and are told how long to wait before
+// using them, which spaces requests out evenly instead of letting them all through and getting throttled.
+public class TokenBucketRateLimiter {
+    private final double permitsPerSecond;
+    private final double burst;
+    private double availablePermits;
+    private long lastRefillNanos;
+
+    private final AtomicLong acquisitions = new AtomicLong();
+    private final AtomicLong delayedAcquisitions = new AtomicLong();
+    private final AtomicLong totalDelayMillis = new AtomicLong();
+
+    public TokenBucketRateLimiter(double permitsPerSecond, double burst) {
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException(String.format(
+                    "Rate limit must be positive and burst at least 1, got %s per second with burst %s", permitsPerSecond, burst));
+        }
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = burst;
+        this.availablePermits = burst;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    // Takes a permit and returns how long, in nanoseconds, the caller has to wait before using it
+    public long reserve() {
+        long waitNanos;
+        synchronized (this) {
+            refill();
+            this.availablePermits -= 1;
+            waitNanos = this.availablePermits >= 0
+                    ? 0
+                    : (long) (-this.availablePermits * TimeUnit.SECONDS.toNanos(1) / this.permitsPerSecond);
+        }
+        this.acquisitions.incrementAndGet();
+        if (waitNanos > 0) {
+            this.delayedAcquisitions.incrementAndGet();
+            this.totalDelayMillis.addAndGet(TimeUnit.NANOSECONDS.toMillis(waitNanos));
+        }
+        return waitNanos;
+    }
+
+    // Takes a permit only if one is available right away, the way a server decides whether to throttle a request
+    public boolean tryAcquire() {
+        synchronized (this) {
+            refill();
+            if (this.availablePermits < 1) {
+                return false;
+            }
+            this.availablePermits -= 1;
+        }
+        this.acquisitions.incrementAndGet();
+        return true;
+    }
+
+    // Callers hold the lock
+    private void refill() {
+        long now = System.nanoTime();
+        this.availablePermits = Math.min(this.burst,
+                this.availablePermits + (now - this.lastRefillNanos) * this.permitsPerSecond / TimeUnit.SECONDS.toNanos(1));
+        this.lastRefillNanos = now;
+    }
+
+    public long getAcquisitions() {
+        return this.acquisitions.get();
+    }
+
+    // Number of calls that had to wait for a permit
+    public long getDelayedAcquisitions() {
+        return this.delayedAcquisitions.get();
+    }
+
+    public long getTotalDelayMillis() {
+        return this.totalDelayMillis.get();
+    }
+}
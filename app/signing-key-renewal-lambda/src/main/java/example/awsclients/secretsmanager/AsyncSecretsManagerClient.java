@@ -0,0 +1,242 @@
+package example.awsclients.secretsmanager;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.AmazonServiceException;
+import example.awsclients.Futures;
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.services.secretsmanager.SecretsManagerAsyncClient;
+import software.amazon.awssdk.services.secretsmanager.model.CreateSecretRequest;
+import software.amazon.awssdk.services.secretsmanager.model.DescribeSecretRequest;
+import software.amazon.awssdk.services.secretsmanager.model.Filter;
+import software.amazon.awssdk.services.secretsmanager.model.FilterNameStringType;
+import software.amazon.awssdk.services.secretsmanager.model.GetSecretValueRequest;
+import software.amazon.awssdk.services.secretsmanager.model.GetSecretValueResponse;
+import software.amazon.awssdk.services.secretsmanager.model.InternalServiceErrorException;
+import software.amazon.awssdk.services.secretsmanager.model.InvalidParameterException;
+import software.amazon.awssdk.services.secretsmanager.model.InvalidRequestException;
+import software.amazon.awssdk.services.secretsmanager.model.LimitExceededException;
+import software.amazon.awssdk.services.secretsmanager.model.ListSecretsRequest;
+import software.amazon.awssdk.services.secretsmanager.model.ListSecretsResponse;
+import software.amazon.awssdk.services.secretsmanager.model.PutSecretValueRequest;
+import software.amazon.awssdk.services.secretsmanager.model.ResourceExistsException;
+import software.amazon.awssdk.services.secretsmanager.model.ResourceNotFoundException;
+import software.amazon.awssdk.services.secretsmanager.model.SecretListEntry;
+import software.amazon.awssdk.services.secretsmanager.model.Tag;
+import software.amazon.awssdk.services.secretsmanager.model.TagResourceRequest;
+import software.amazon.awssdk.services.secretsmanager.model.UpdateSecretVersionStageRequest;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+// SecretsManager backed by the non-blocking SDK v2 client. Failures are translated into the SDK v1 exceptions the
+// blocking SecretsManagerClient throws, down to the modeled Secrets Manager errors, so callers and ResiliencePolicy
+// don't need to know which implementation they were given.
+public class AsyncSecretsManagerClient implements SecretsManager {
+    private final SecretsManagerAsyncClient secretsManager;
+
+    public AsyncSecretsManagerClient(SecretsManagerAsyncClient secretsManager) {
+        this.secretsManager = secretsManager;
+    }
+
+    @Override
+    public String getSecretValueString(String secretId, String versionId, String versionStage) {
+        return Futures.join(getSecretValueStringAsync(secretId, versionId, versionStage));
+    }
+
+    @Override
+    public CompletableFuture<String> getSecretValueStringAsync(String secretId, String versionId, String versionStage) {
+        GetSecretValueRequest.Builder getSecretValueRequest = GetSecretValueRequest.builder()
+                .secretId(secretId);
+        Optional.ofNullable(versionId).ifPresent(getSecretValueRequest::versionId);
+        Optional.ofNullable(versionStage).ifPresent(getSecretValueRequest::versionStage);
+        return translated(secretsManager.getSecretValue(getSecretValueRequest.build())
+                .thenApply(GetSecretValueResponse::secretString));
+    }
+
+    @Override
+    public void createSecret(String secretId, String secretString, String kmsKeyArn) {
+        CreateSecretRequest.Builder createSecretRequest = CreateSecretRequest.builder()
+                .name(secretId)
+                .description("Stores a serialized Momento signing key to create presigned URLs")
+                .secretString(secretString);
+        Optional.ofNullable(kmsKeyArn).ifPresent(createSecretRequest::kmsKeyId);
+        Futures.join(translated(secretsManager.createSecret(createSecretRequest.build())));
+    }
+
+    @Override
+    public Map<String, List<String>> getVersionStages(String secretId) {
+        return Futures.join(getVersionStagesAsync(secretId));
+    }
+
+    @Override
+    public CompletableFuture<Map<String, List<String>>> getVersionStagesAsync(String secretId) {
+        DescribeSecretRequest describeSecretRequest = DescribeSecretRequest.builder()
+                .secretId(secretId)
+                .build();
+        return translated(secretsManager.describeSecret(describeSecretRequest).thenApply(describeSecretResponse -> {
+            if (!Boolean.TRUE.equals(describeSecretResponse.rotationEnabled())) {
+                throw new IllegalArgumentException(String.format("Secret %s is not enabled for rotation", secretId));
+            }
+            return describeSecretResponse.versionIdsToStages();
+        }));
+    }
+
+    @Override
+    public void putSecretValue(String secretId, String newSecretString, String token, List<String> versionStages) {
+        Futures.join(putSecretValueAsync(secretId, newSecretString, token, versionStages));
+    }
+
+    @Override
+    public CompletableFuture<Void> putSecretValueAsync(String secretId, String newSecretString, String token, List<String> versionStages) {
+        PutSecretValueRequest.Builder putSecretValueRequest = PutSecretValueRequest.builder()
+                .secretId(secretId)
+                .secretString(newSecretString);
+        Optional.ofNullable(token).ifPresent(putSecretValueRequest::clientRequestToken);
+        Optional.ofNullable(versionStages).ifPresent(putSecretValueRequest::versionStages);
+        return translated(secretsManager.putSecretValue(putSecretValueRequest.build()).thenApply(response -> null));
+    }
+
+    @Override
+    public void updateSecretVersionStage(String secretId, String versionStage, String moveToVersionId, String removeFromVersionId) {
+        Futures.join(updateSecretVersionStageAsync(secretId, versionStage, moveToVersionId, removeFromVersionId));
+    }
+
+    @Override
+    public CompletableFuture<Void> updateSecretVersionStageAsync(String secretId, String versionStage, String moveToVersionId, String removeFromVersionId) {
+        UpdateSecretVersionStageRequest.Builder updateSecretVersionStageRequest = UpdateSecretVersionStageRequest.builder()
+                .secretId(secretId)
+                .versionStage(versionStage)
+                .moveToVersionId(moveToVersionId);
+        Optional.ofNullable(removeFromVersionId).ifPresent(updateSecretVersionStageRequest::removeFromVersionId);
+        return translated(secretsManager.updateSecretVersionStage(updateSecretVersionStageRequest.build())
+                .thenApply(response -> null));
+    }
+
+    @Override
+    public Optional<String> getVersionIdInStage(String secretId, String versionStage) {
+        GetSecretValueRequest getSecretValueRequest = GetSecretValueRequest.builder()
+                .secretId(secretId)
+                .versionStage(versionStage)
+                .build();
+        try {
+            return Optional.ofNullable(Futures.join(translated(secretsManager.getSecretValue(getSecretValueRequest)
+                    .thenApply(GetSecretValueResponse::versionId))));
+        } catch (com.amazonaws.services.secretsmanager.model.ResourceNotFoundException e) {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public Map<String, String> getTags(String secretId) {
+        DescribeSecretRequest describeSecretRequest = DescribeSecretRequest.builder()
+                .secretId(secretId)
+                .build();
+        return Futures.join(translated(secretsManager.describeSecret(describeSecretRequest).thenApply(describeSecretResponse -> {
+            Map<String, String> tags = new HashMap<>();
+            Optional.ofNullable(describeSecretResponse.tags())
+                    .ifPresent(secretTags -> secretTags.forEach(tag -> tags.put(tag.key(), tag.value())));
+            return tags;
+        })));
+    }
+
+    @Override
+    public Optional<String> getKmsKeyId(String secretId) {
+        DescribeSecretRequest describeSecretRequest = DescribeSecretRequest.builder()
+                .secretId(secretId)
+                .build();
+        return Futures.join(translated(secretsManager.describeSecret(describeSecretRequest)
+                .thenApply(describeSecretResponse -> Optional.ofNullable(describeSecretResponse.kmsKeyId()))));
+    }
+
+    @Override
+    public void tagSecret(String secretId, String key, String value) {
+        TagResourceRequest tagResourceRequest = TagResourceRequest.builder()
+                .secretId(secretId)
+                .tags(Tag.builder().key(key).value(value).build())
+                .build();
+        Futures.join(translated(secretsManager.tagResource(tagResourceRequest)));
+    }
+
+    @Override
+    public List<String> listSecretNames(String namePrefix) {
+        // The name filter of ListSecrets matches on prefix
+        Filter nameFilter = Filter.builder()
+                .key(FilterNameStringType.NAME)
+                .values(namePrefix)
+                .build();
+        List<String> secretNames = new ArrayList<>();
+        Optional<String> nextToken = Optional.empty();
+        do {
+            ListSecretsRequest.Builder listSecretsRequest = ListSecretsRequest.builder()
+                    .filters(nameFilter);
+            nextToken.ifPresent(listSecretsRequest::nextToken);
+            ListSecretsResponse listSecretsResponse = Futures.join(translated(secretsManager.listSecrets(listSecretsRequest.build())));
+            for (SecretListEntry secret : listSecretsResponse.secretList()) {
+                secretNames.add(secret.name());
+            }
+            nextToken = Optional.ofNullable(listSecretsResponse.nextToken());
+        } while (nextToken.isPresent());
+        return secretNames;
+    }
+
+    private static <T> CompletableFuture<T> translated(CompletableFuture<T> future) {
+        CompletableFuture<T> translated = new CompletableFuture<>();
+        future.whenComplete((result, throwable) -> {
+            if (throwable == null) {
+                translated.complete(result);
+            } else {
+                translated.completeExceptionally(translate(Futures.unwrap(throwable)));
+            }
+        });
+        return translated;
+    }
+
+    private static RuntimeException translate(RuntimeException exception) {
+        if (exception instanceof SdkClientException) {
+            // A connection failure or timeout, which the blocking client reports as a retryable AmazonClientException
+            return new AmazonClientException(exception.getMessage(), exception);
+        }
+        if (!(exception instanceof AwsServiceException)) {
+            return exception;
+        }
+        AwsServiceException serviceException = (AwsServiceException) exception;
+        AmazonServiceException translated = translateModeled(serviceException);
+        translated.setStatusCode(serviceException.statusCode());
+        translated.setRequestId(serviceException.requestId());
+        if (serviceException.awsErrorDetails() != null) {
+            translated.setErrorCode(serviceException.awsErrorDetails().errorCode());
+            translated.setServiceName(serviceException.awsErrorDetails().serviceName());
+        }
+        translated.initCause(serviceException);
+        return translated;
+    }
+
+    // The modeled Secrets Manager errors callers catch by type, anything else is a plain AmazonServiceException
+    private static AmazonServiceException translateModeled(AwsServiceException exception) {
+        String message = exception.getMessage();
+        if (exception instanceof ResourceNotFoundException) {
+            return new com.amazonaws.services.secretsmanager.model.ResourceNotFoundException(message);
+        }
+        if (exception instanceof ResourceExistsException) {
+            return new com.amazonaws.services.secretsmanager.model.ResourceExistsException(message);
+        }
+        if (exception instanceof InvalidParameterException) {
+            return new com.amazonaws.services.secretsmanager.model.InvalidParameterException(message);
+        }
+        if (exception instanceof InvalidRequestException) {
+            return new com.amazonaws.services.secretsmanager.model.InvalidRequestException(message);
+        }
+        if (exception instanceof LimitExceededException) {
+            return new com.amazonaws.services.secretsmanager.model.LimitExceededException(message);
+        }
+        if (exception instanceof InternalServiceErrorException) {
+            return new com.amazonaws.services.secretsmanager.model.InternalServiceErrorException(message);
+        }
+        return new AmazonServiceException(message);
+    }
+}
@@ -0,0 +1,90 @@
+package example.awsclients.secretsmanager;
+
+import example.awsclients.resilience.Bulkhead;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+// Makes every Secrets Manager call through a bulkhead so only so many are in flight at once, however many rotations
+// are running. Non-blocking calls hold their permit until the response arrives.
+public class BulkheadSecretsManager implements SecretsManager {
+    private final SecretsManager delegate;
+    private final Bulkhead bulkhead;
+
+    public BulkheadSecretsManager(SecretsManager delegate, Bulkhead bulkhead) {
+        this.delegate = delegate;
+        this.bulkhead = bulkhead;
+    }
+
+    @Override
+    public String getSecretValueString(String secretId, String versionId, String versionStage) {
+        return this.bulkhead.call(() -> this.delegate.getSecretValueString(secretId, versionId, versionStage));
+    }
+
+    @Override
+    public void createSecret(String secretId, String secretString, String kmsKeyArn) {
+        this.bulkhead.run(() -> this.delegate.createSecret(secretId, secretString, kmsKeyArn));
+    }
+
+    @Override
+    public Map<String, List<String>> getVersionStages(String secretId) {
+        return this.bulkhead.call(() -> this.delegate.getVersionStages(secretId));
+    }
+
+    @Override
+    public void putSecretValue(String secretId, String newSecretString, String token, List<String> versionStages) {
+        this.bulkhead.run(() -> this.delegate.putSecretValue(secretId, newSecretString, token, versionStages));
+    }
+
+    @Override
+    public void updateSecretVersionStage(String secretId, String versionStage, String moveToVersionId, String removeFromVersionId) {
+        this.bulkhead.run(() -> this.delegate.updateSecretVersionStage(secretId, versionStage, moveToVersionId, removeFromVersionId));
+    }
+
+    @Override
+    public List<String> listSecretNames(String namePrefix) {
+        return this.bulkhead.call(() -> this.delegate.listSecretNames(namePrefix));
+    }
+
+    @Override
+    public Map<String, String> getTags(String secretId) {
+        return this.bulkhead.call(() -> this.delegate.getTags(secretId));
+    }
+
+    @Override
+    public Optional<String> getKmsKeyId(String secretId) {
+        return this.bulkhead.call(() -> this.delegate.getKmsKeyId(secretId));
+    }
+
+    @Override
+    public void tagSecret(String secretId, String key, String value) {
+        this.bulkhead.run(() -> this.delegate.tagSecret(secretId, key, value));
+    }
+
+    @Override
+    public Optional<String> getVersionIdInStage(String secretId, String versionStage) {
+        return this.bulkhead.call(() -> this.delegate.getVersionIdInStage(secretId, versionStage));
+    }
+
+    @Override
+    public CompletableFuture<String> getSecretValueStringAsync(String secretId, String versionId, String versionStage) {
+        return this.bulkhead.callAsync(() -> this.delegate.getSecretValueStringAsync(secretId, versionId, versionStage));
+    }
+
+    @Override
+    public CompletableFuture<Map<String, List<String>>> getVersionStagesAsync(String secretId) {
+        return this.bulkhead.callAsync(() -> this.delegate.getVersionStagesAsync(secretId));
+    }
+
+    @Override
+    public CompletableFuture<Void> putSecretValueAsync(String secretId, String newSecretString, String token, List<String> versionStages) {
+        return this.bulkhead.callAsync(() -> this.delegate.putSecretValueAsync(secretId, newSecretString, token, versionStages));
+    }
+
+    @Override
+    public CompletableFuture<Void> updateSecretVersionStageAsync(String secretId, String versionStage, String moveToVersionId, String removeFromVersionId) {
+        return this.bulkhead.callAsync(() -> this.delegate.updateSecretVersionStageAsync(secretId, versionStage, moveToVersionId, removeFromVersionId));
+    }
+}
@@ -0,0 +1,110 @@
+package example.awsclients.secretsmanager;
+
+import example.metrics.MetricsSink;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+// Times every Secrets Manager call as "secretsmanager.<call>" and counts its failures by exception type. Calls are
+// named after the API operation they make, or after the method where another method makes the same operation:
+// getTags and getKmsKeyId are DescribeSecrets like getVersionStages, getVersionIdInStage a GetSecretValue. It wraps the retrying
+// client, so what's recorded is the latency the rotation sees, retries and rate limiting included.
+public class InstrumentedSecretsManager implements SecretsManager {
+    private static final String PREFIX = "secretsmanager.";
+
+    private final SecretsManager delegate;
+    private final MetricsSink metrics;
+
+    public InstrumentedSecretsManager(SecretsManager delegate, MetricsSink metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public String getSecretValueString(String secretId, String versionId, String versionStage) {
+        return this.metrics.time(PREFIX + "getSecretValue",
+                () -> this.delegate.getSecretValueString(secretId, versionId, versionStage));
+    }
+
+    @Override
+    public void createSecret(String secretId, String secretString, String kmsKeyArn) {
+        this.metrics.time(PREFIX + "createSecret", () -> {
+            this.delegate.createSecret(secretId, secretString, kmsKeyArn);
+            return null;
+        });
+    }
+
+    @Override
+    public Map<String, List<String>> getVersionStages(String secretId) {
+        return this.metrics.time(PREFIX + "describeSecret", () -> this.delegate.getVersionStages(secretId));
+    }
+
+    @Override
+    public void putSecretValue(String secretId, String newSecretString, String token, List<String> versionStages) {
+        this.metrics.time(PREFIX + "putSecretValue", () -> {
+            this.delegate.putSecretValue(secretId, newSecretString, token, versionStages);
+            return null;
+        });
+    }
+
+    @Override
+    public void updateSecretVersionStage(String secretId, String versionStage, String moveToVersionId, String removeFromVersionId) {
+        this.metrics.time(PREFIX + "updateSecretVersionStage", () -> {
+            this.delegate.updateSecretVersionStage(secretId, versionStage, moveToVersionId, removeFromVersionId);
+            return null;
+        });
+    }
+
+    @Override
+    public List<String> listSecretNames(String namePrefix) {
+        return this.metrics.time(PREFIX + "listSecrets", () -> this.delegate.listSecretNames(namePrefix));
+    }
+
+    @Override
+    public Map<String, String> getTags(String secretId) {
+        return this.metrics.time(PREFIX + "getTags", () -> this.delegate.getTags(secretId));
+    }
+
+    @Override
+    public Optional<String> getKmsKeyId(String secretId) {
+        return this.metrics.time(PREFIX + "getKmsKeyId", () -> this.delegate.getKmsKeyId(secretId));
+    }
+
+    @Override
+    public void tagSecret(String secretId, String key, String value) {
+        this.metrics.time(PREFIX + "tagResource", () -> {
+            this.delegate.tagSecret(secretId, key, value);
+            return null;
+        });
+    }
+
+    @Override
+    public Optional<String> getVersionIdInStage(String secretId, String versionStage) {
+        return this.metrics.time(PREFIX + "getVersionIdInStage", () -> this.delegate.getVersionIdInStage(secretId, versionStage));
+    }
+
+    @Override
+    public CompletableFuture<String> getSecretValueStringAsync(String secretId, String versionId, String versionStage) {
+        return this.metrics.timeAsync(PREFIX + "getSecretValue",
+                () -> this.delegate.getSecretValueStringAsync(secretId, versionId, versionStage));
+    }
+
+    @Override
+    public CompletableFuture<Map<String, List<String>>> getVersionStagesAsync(String secretId) {
+        return this.metrics.timeAsync(PREFIX + "describeSecret", () -> this.delegate.getVersionStagesAsync(secretId));
+    }
+
+    @Override
+    public CompletableFuture<Void> putSecretValueAsync(String secretId, String newSecretString, String token, List<String> versionStages) {
+        return this.metrics.timeAsync(PREFIX + "putSecretValue",
+                () -> this.delegate.putSecretValueAsync(secretId, newSecretString, token, versionStages));
+    }
+
+    @Override
+    public CompletableFuture<Void> updateSecretVersionStageAsync(String secretId, String versionStage, String moveToVersionId, String removeFromVersionId) {
+        return this.metrics.timeAsync(PREFIX + "updateSecretVersionStage",
+                () -> this.delegate.updateSecretVersionStageAsync(secretId, versionStage, moveToVersionId, removeFromVersionId));
+    }
+}
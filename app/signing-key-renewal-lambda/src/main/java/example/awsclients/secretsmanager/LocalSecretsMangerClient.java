@@ -1,45 +1,72 @@
 package example.awsclients.secretsmanager;
 
 import com.amazonaws.services.lambda.runtime.LambdaLogger;
+import example.logging.StructuredLogger;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 public class LocalSecretsMangerClient implements SecretsManager {
     public LocalSecretsMangerClient(LambdaLogger logger, String getSecretValueStringReturnOverride, Map<String, List<String>> getVersionStagesReturnOverride) {
-        this.logger = logger;
+        // Logged at DEBUG, these are called on every step when running locally
+        this.logger = StructuredLogger.of(logger);
         this.getSecretValueStringReturnOverride = getSecretValueStringReturnOverride;
         this.getVersionStagesReturnOverride = getVersionStagesReturnOverride;
     }
 
-    private final LambdaLogger logger;
+    private final StructuredLogger logger;
     private final String getSecretValueStringReturnOverride;
     private final Map<String, List<String>> getVersionStagesReturnOverride;
 
     @Override
     public String getSecretValueString(String secretId, String versionId, String versionStage) {
-        this.logger.log("Called getSecretValueString");
+        this.logger.debug("Called getSecretValueString");
         return getSecretValueStringReturnOverride;
     }
 
     @Override
     public void createSecret(String secretId, String secretString, String kmsKeyArn) {
-        this.logger.log("Called createSecret");
+        this.logger.debug("Called createSecret");
     }
 
     @Override
     public Map<String, List<String>> getVersionStages(String secretId) {
-        this.logger.log("Called getVersionStages");
+        this.logger.debug("Called getVersionStages");
         return getVersionStagesReturnOverride;
     }
 
     @Override
     public void putSecretValue(String secretId, String newSecretString, String token, List<String> versionStages) {
-        this.logger.log("Called putSecretValue");
+        this.logger.debug("Called putSecretValue");
     }
 
     @Override
     public void updateSecretVersionStage(String secretId, String versionStage, String moveToVersionId, String removeFromVersionId) {
-        this.logger.log("Called updateSecretValue");
+        this.logger.debug("Called updateSecretValue");
+    }
+
+    @Override
+    public List<String> listSecretNames(String namePrefix) {
+        this.logger.debug("Called listSecretNames");
+        return Collections.emptyList();
+    }
+
+    @Override
+    public Map<String, String> getTags(String secretId) {
+        this.logger.debug("Called getTags");
+        return Collections.emptyMap();
+    }
+
+    @Override
+    public Optional<String> getKmsKeyId(String secretId) {
+        this.logger.debug("Called getKmsKeyId");
+        return Optional.empty();
+    }
+
+    @Override
+    public void tagSecret(String secretId, String key, String value) {
+        this.logger.debug("Called tagSecret");
     }
 }
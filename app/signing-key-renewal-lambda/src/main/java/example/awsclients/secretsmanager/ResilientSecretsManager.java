@@ -0,0 +1,102 @@
+package example.awsclients.secretsmanager;
+
+import example.awsclients.resilience.ResiliencePolicy;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+// Sends every Secrets Manager call through a ResiliencePolicy. The wrapped client is expected to have its own retries
+// turned off so a throttled request isn't retried both by the SDK and here.
+public class ResilientSecretsManager implements SecretsManager {
+    private final SecretsManager delegate;
+    private final ResiliencePolicy policy;
+
+    public ResilientSecretsManager(SecretsManager delegate, ResiliencePolicy policy) {
+        this.delegate = delegate;
+        this.policy = policy;
+    }
+
+    @Override
+    public String getSecretValueString(String secretId, String versionId, String versionStage) {
+        return this.policy.call(() -> this.delegate.getSecretValueString(secretId, versionId, versionStage));
+    }
+
+    @Override
+    public void createSecret(String secretId, String secretString, String kmsKeyArn) {
+        this.policy.call(() -> {
+            this.delegate.createSecret(secretId, secretString, kmsKeyArn);
+            return null;
+        });
+    }
+
+    @Override
+    public Map<String, List<String>> getVersionStages(String secretId) {
+        return this.policy.call(() -> this.delegate.getVersionStages(secretId));
+    }
+
+    @Override
+    public void putSecretValue(String secretId, String newSecretString, String token, List<String> versionStages) {
+        this.policy.call(() -> {
+            this.delegate.putSecretValue(secretId, newSecretString, token, versionStages);
+            return null;
+        });
+    }
+
+    @Override
+    public void updateSecretVersionStage(String secretId, String versionStage, String moveToVersionId, String removeFromVersionId) {
+        this.policy.call(() -> {
+            this.delegate.updateSecretVersionStage(secretId, versionStage, moveToVersionId, removeFromVersionId);
+            return null;
+        });
+    }
+
+    @Override
+    public List<String> listSecretNames(String namePrefix) {
+        return this.policy.call(() -> this.delegate.listSecretNames(namePrefix));
+    }
+
+    @Override
+    public Map<String, String> getTags(String secretId) {
+        return this.policy.call(() -> this.delegate.getTags(secretId));
+    }
+
+    @Override
+    public Optional<String> getKmsKeyId(String secretId) {
+        return this.policy.call(() -> this.delegate.getKmsKeyId(secretId));
+    }
+
+    @Override
+    public void tagSecret(String secretId, String key, String value) {
+        this.policy.call(() -> {
+            this.delegate.tagSecret(secretId, key, value);
+            return null;
+        });
+    }
+
+    @Override
+    public Optional<String> getVersionIdInStage(String secretId, String versionStage) {
+        return this.policy.call(() -> this.delegate.getVersionIdInStage(secretId, versionStage));
+    }
+
+    @Override
+    public CompletableFuture<String> getSecretValueStringAsync(String secretId, String versionId, String versionStage) {
+        return this.policy.callAsync(() -> this.delegate.getSecretValueStringAsync(secretId, versionId, versionStage));
+    }
+
+    @Override
+    public CompletableFuture<Map<String, List<String>>> getVersionStagesAsync(String secretId) {
+        return this.policy.callAsync(() -> this.delegate.getVersionStagesAsync(secretId));
+    }
+
+    @Override
+    public CompletableFuture<Void> putSecretValueAsync(String secretId, String newSecretString, String token, List<String> versionStages) {
+        return this.policy.callAsync(() -> this.delegate.putSecretValueAsync(secretId, newSecretString, token, versionStages));
+    }
+
+    @Override
+    public CompletableFuture<Void> updateSecretVersionStageAsync(String secretId, String versionStage, String moveToVersionId, String removeFromVersionId) {
+        return this.policy.callAsync(() -> this.delegate.updateSecretVersionStageAsync(secretId, versionStage, moveToVersionId, removeFromVersionId));
+    }
+}
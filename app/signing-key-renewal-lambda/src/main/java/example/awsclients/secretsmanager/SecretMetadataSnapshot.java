@@ -0,0 +1,88 @@
+package example.awsclients.secretsmanager;
+
+import example.awsclients.Futures;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+// Remembers what a single rotation step has learned about a secret so the step never asks Secrets Manager the same
+// question twice. DescribeSecret is called at most once, writes made through the snapshot are applied to the cached
+// copy, and questions the cached copy can already answer are skipped. Create one per step: the snapshot must not
+// outlive it because anything else can change the secret in between.
+public class SecretMetadataSnapshot {
+    private static final String AWSCURRENT = "AWSCURRENT";
+
+    private final SecretsManager secretsManager;
+    private final String secretId;
+    private Map<String, List<String>> versionStages;
+    private int apiCallsSaved;
+
+    public SecretMetadataSnapshot(SecretsManager secretsManager, String secretId) {
+        this.secretsManager = secretsManager;
+        this.secretId = secretId;
+    }
+
+    public Map<String, List<String>> getVersionStages() {
+        if (this.versionStages == null) {
+            this.versionStages = copyOf(this.secretsManager.getVersionStages(this.secretId));
+        } else {
+            this.apiCallsSaved++;
+        }
+        return this.versionStages;
+    }
+
+    public Optional<String> getVersionInStage(String versionStage) {
+        return findVersionInStage(getVersionStages(), versionStage);
+    }
+
+    // Makes sure the secret has an AWSCURRENT value. If DescribeSecret has already shown a version labelled
+    // AWSCURRENT we know the value exists and skip the GetSecretValue call.
+    public void ensureCurrentVersionExists() {
+        Futures.join(ensureCurrentVersionExistsAsync());
+    }
+
+    public CompletableFuture<Void> ensureCurrentVersionExistsAsync() {
+        if (this.versionStages != null && findVersionInStage(this.versionStages, AWSCURRENT).isPresent()) {
+            this.apiCallsSaved++;
+            return CompletableFuture.completedFuture(null);
+        }
+        return this.secretsManager.getSecretValueStringAsync(this.secretId, null, AWSCURRENT).thenApply(value -> null);
+    }
+
+    public void updateSecretVersionStage(String versionStage, String moveToVersionId, String removeFromVersionId) {
+        this.secretsManager.updateSecretVersionStage(this.secretId, versionStage, moveToVersionId, removeFromVersionId);
+        if (this.versionStages == null) {
+            return;
+        }
+        Optional.ofNullable(removeFromVersionId)
+                .map(this.versionStages::get)
+                .ifPresent(stages -> stages.remove(versionStage));
+        this.versionStages.computeIfAbsent(moveToVersionId, versionId -> new ArrayList<>()).add(versionStage);
+    }
+
+    // Number of Secrets Manager calls the step didn't have to make because the snapshot already knew the answer
+    public int getApiCallsSaved() {
+        return this.apiCallsSaved;
+    }
+
+    private static Optional<String> findVersionInStage(Map<String, List<String>> versionStages, String versionStage) {
+        for (Map.Entry<String, List<String>> version : versionStages.entrySet()) {
+            if (version.getValue().contains(versionStage)) {
+                return Optional.of(version.getKey());
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static Map<String, List<String>> copyOf(Map<String, List<String>> versionStages) {
+        Map<String, List<String>> copy = new HashMap<>();
+        for (Map.Entry<String, List<String>> version : versionStages.entrySet()) {
+            copy.put(version.getKey(), new ArrayList<>(version.getValue()));
+        }
+        return copy;
+    }
+}
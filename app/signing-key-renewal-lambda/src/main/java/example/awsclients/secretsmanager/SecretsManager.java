@@ -1,7 +1,12 @@
 package example.awsclients.secretsmanager;
 
+import com.amazonaws.services.secretsmanager.model.ResourceNotFoundException;
+import example.awsclients.Futures;
+
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 public interface SecretsManager {
     String getSecretValueString(String secretId, String versionId, String versionStage);
@@ -9,4 +14,42 @@ public interface SecretsManager {
     Map<String, List<String>> getVersionStages(String secretId);
     void putSecretValue(String secretId, String newSecretString, String token, List<String> versionStages);
     void updateSecretVersionStage(String secretId, String versionStage, String moveToVersionId, String removeFromVersionId);
+    List<String> listSecretNames(String namePrefix);
+    Map<String, String> getTags(String secretId);
+    // The KMS key the secret is encrypted with, or empty if it uses the account's default aws/secretsmanager key
+    Optional<String> getKmsKeyId(String secretId);
+    void tagSecret(String secretId, String key, String value);
+
+    // Id of the version labelled versionStage, or empty if no version is. Unlike getVersionStages this doesn't require
+    // rotation to be configured on the secret, so it also works on the regional copies of a signing key.
+    default Optional<String> getVersionIdInStage(String secretId, String versionStage) {
+        try {
+            for (Map.Entry<String, List<String>> version : getVersionStages(secretId).entrySet()) {
+                if (version.getValue().contains(versionStage)) {
+                    return Optional.of(version.getKey());
+                }
+            }
+        } catch (ResourceNotFoundException e) {
+            // Same as the SDK clients, which can't tell a missing secret from a missing stage
+        }
+        return Optional.empty();
+    }
+
+    // Non-blocking variants so independent calls can overlap. Implementations backed by a blocking client complete
+    // the future before returning, so callers behave the same either way.
+    default CompletableFuture<String> getSecretValueStringAsync(String secretId, String versionId, String versionStage) {
+        return Futures.supply(() -> getSecretValueString(secretId, versionId, versionStage));
+    }
+
+    default CompletableFuture<Map<String, List<String>>> getVersionStagesAsync(String secretId) {
+        return Futures.supply(() -> getVersionStages(secretId));
+    }
+
+    default CompletableFuture<Void> putSecretValueAsync(String secretId, String newSecretString, String token, List<String> versionStages) {
+        return Futures.run(() -> putSecretValue(secretId, newSecretString, token, versionStages));
+    }
+
+    default CompletableFuture<Void> updateSecretVersionStageAsync(String secretId, String versionStage, String moveToVersionId, String removeFromVersionId) {
+        return Futures.run(() -> updateSecretVersionStage(secretId, versionStage, moveToVersionId, removeFromVersionId));
+    }
 }
@@ -4,10 +4,20 @@ import com.amazonaws.services.secretsmanager.AWSSecretsManager;
 import com.amazonaws.services.secretsmanager.model.CreateSecretRequest;
 import com.amazonaws.services.secretsmanager.model.DescribeSecretRequest;
 import com.amazonaws.services.secretsmanager.model.DescribeSecretResult;
+import com.amazonaws.services.secretsmanager.model.Filter;
+import com.amazonaws.services.secretsmanager.model.FilterNameStringType;
 import com.amazonaws.services.secretsmanager.model.GetSecretValueRequest;
+import com.amazonaws.services.secretsmanager.model.ListSecretsRequest;
+import com.amazonaws.services.secretsmanager.model.ListSecretsResult;
 import com.amazonaws.services.secretsmanager.model.PutSecretValueRequest;
+import com.amazonaws.services.secretsmanager.model.ResourceNotFoundException;
+import com.amazonaws.services.secretsmanager.model.SecretListEntry;
+import com.amazonaws.services.secretsmanager.model.Tag;
+import com.amazonaws.services.secretsmanager.model.TagResourceRequest;
 import com.amazonaws.services.secretsmanager.model.UpdateSecretVersionStageRequest;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -71,4 +81,62 @@ public class SecretsManagerClient implements SecretsManager {
         maybeRemoveFromVersionId.ifPresent(updateSecretVersionStageRequest::withRemoveFromVersionId);
         awsSecretsManager.updateSecretVersionStage(updateSecretVersionStageRequest);
     }
+
+    @Override
+    public Optional<String> getVersionIdInStage(String secretId, String versionStage) {
+        GetSecretValueRequest getSecretValueRequest = new GetSecretValueRequest()
+                .withSecretId(secretId)
+                .withVersionStage(versionStage);
+        try {
+            return Optional.ofNullable(awsSecretsManager.getSecretValue(getSecretValueRequest).getVersionId());
+        } catch (ResourceNotFoundException e) {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public Map<String, String> getTags(String secretId) {
+        DescribeSecretRequest describeSecretRequest = new DescribeSecretRequest()
+                .withSecretId(secretId);
+        Map<String, String> tags = new HashMap<>();
+        Optional.ofNullable(awsSecretsManager.describeSecret(describeSecretRequest).getTags())
+                .ifPresent(secretTags -> secretTags.forEach(tag -> tags.put(tag.getKey(), tag.getValue())));
+        return tags;
+    }
+
+    @Override
+    public Optional<String> getKmsKeyId(String secretId) {
+        DescribeSecretRequest describeSecretRequest = new DescribeSecretRequest()
+                .withSecretId(secretId);
+        return Optional.ofNullable(awsSecretsManager.describeSecret(describeSecretRequest).getKmsKeyId());
+    }
+
+    @Override
+    public void tagSecret(String secretId, String key, String value) {
+        TagResourceRequest tagResourceRequest = new TagResourceRequest()
+                .withSecretId(secretId)
+                .withTags(new Tag().withKey(key).withValue(value));
+        awsSecretsManager.tagResource(tagResourceRequest);
+    }
+
+    @Override
+    public List<String> listSecretNames(String namePrefix) {
+        // The name filter of ListSecrets matches on prefix
+        Filter nameFilter = new Filter()
+                .withKey(FilterNameStringType.Name)
+                .withValues(namePrefix);
+        List<String> secretNames = new ArrayList<>();
+        Optional<String> nextToken = Optional.empty();
+        do {
+            ListSecretsRequest listSecretsRequest = new ListSecretsRequest()
+                    .withFilters(nameFilter);
+            nextToken.ifPresent(listSecretsRequest::withNextToken);
+            ListSecretsResult listSecretsResult = awsSecretsManager.listSecrets(listSecretsRequest);
+            for (SecretListEntry secret : listSecretsResult.getSecretList()) {
+                secretNames.add(secret.getName());
+            }
+            nextToken = Optional.ofNullable(listSecretsResult.getNextToken());
+        } while (nextToken.isPresent());
+        return secretNames;
+    }
 }
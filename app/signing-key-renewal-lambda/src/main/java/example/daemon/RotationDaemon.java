@@ -0,0 +1,306 @@
+package example.daemon;
+
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+import example.ContainerClients;
+import example.RotationJob;
+import example.RotationJobRunner;
+import example.awsclients.cloudwatch.BulkheadCloudWatch;
+import example.awsclients.resilience.Bulkhead;
+import example.awsclients.secretsmanager.BulkheadSecretsManager;
+import example.metrics.MetricsSink;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Runs the rotation workflows as a long-lived service instead of a lambda, for example as a sidecar. Jobs come in
+// over HTTP (see RotationJobHttpServer), from standard input as one JSON object per line, or from submit when the
+// daemon is embedded, and wait in a bounded queue. Each runs on its own virtual thread where the JVM has them, at most
+// ROTATION_DAEMON_MAX_CONCURRENT_ROTATIONS at a time, with separate caps on concurrent Secrets Manager and CloudWatch
+// calls. Clients are shared by every job the same way warm invocations share them in the lambda.
+//
+// On SIGTERM, or at the end of standard input when there's no HTTP endpoint, the daemon stops taking jobs, runs what's
+// queued and waits for running jobs for up to ROTATION_DAEMON_SHUTDOWN_GRACE_MILLIS. Whatever is left after that is
+// logged and abandoned, a rotation step left half done is retried by Secrets Manager like any other failed step.
+//
+// Entry point: java -cp <jar> example.daemon.RotationDaemon
+public class RotationDaemon {
+    private static final long DISPATCH_POLL_MILLIS = 100;
+    private static final Type EVENT_TYPE = new TypeToken<Map<String, String>>() {}.getType();
+
+    private final LambdaLogger logger;
+    private final RotationDaemonConfig daemonConfig;
+    private final ContainerClients containerClients;
+    private final RotationJobRunner jobRunner;
+    private final Gson gson = new Gson();
+    private final BlockingQueue<RotationJob> queue;
+    private final Semaphore rotationPermits;
+    private final Bulkhead secretsManagerBulkhead;
+    private final Bulkhead cloudWatchBulkhead;
+    private final ExecutorService rotationExecutor;
+    private final ScheduledExecutorService statsReporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "rotation-daemon-stats");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean acceptingJobs = new AtomicBoolean(true);
+    private final AtomicBoolean shutdownStarted = new AtomicBoolean();
+    // Set once the shutdown grace period is over, the dispatcher stops handing out queued jobs
+    private final AtomicBoolean abandonQueuedJobs = new AtomicBoolean();
+    private final AtomicInteger runningJobs = new AtomicInteger();
+    private final CountDownLatch dispatcherStopped = new CountDownLatch(1);
+    private final CountDownLatch stopped = new CountDownLatch(1);
+    private Optional<RotationJobHttpServer> httpServer = Optional.empty();
+
+    public RotationDaemon(LambdaLogger logger, RotationDaemonConfig daemonConfig, ContainerClients containerClients) {
+        this.logger = logger;
+        this.daemonConfig = daemonConfig;
+        this.containerClients = containerClients;
+        this.queue = new ArrayBlockingQueue<>(daemonConfig.getQueueCapacity());
+        this.rotationPermits = new Semaphore(daemonConfig.getMaxConcurrentRotations());
+        this.secretsManagerBulkhead = new Bulkhead("Secrets Manager",
+                daemonConfig.getSecretsManagerConcurrency(),
+                daemonConfig.getBulkheadMaxWaitMillis());
+        this.cloudWatchBulkhead = new Bulkhead("CloudWatch",
+                daemonConfig.getCloudWatchConcurrency(),
+                daemonConfig.getBulkheadMaxWaitMillis());
+        this.rotationExecutor = VirtualThreads.newThreadPerTaskExecutor("rotation-");
+        this.jobRunner = new RotationJobRunner(logger,
+                containerClients,
+                secretsManager -> new BulkheadSecretsManager(secretsManager, this.secretsManagerBulkhead),
+                cloudWatch -> new BulkheadCloudWatch(cloudWatch, this.cloudWatchBulkhead));
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        LambdaLogger logger = new StandardOutputLogger();
+        RotationDaemon daemon = new RotationDaemon(logger,
+                RotationDaemonConfig.fromEnvironment(),
+                new ContainerClients(ContainerClients.createGson()));
+        Runtime.getRuntime().addShutdownHook(new Thread(daemon::shutdown, "rotation-daemon-shutdown"));
+        daemon.start();
+        daemon.awaitTermination();
+    }
+
+    public void start() throws IOException {
+        // Fails fast on a missing environment variable rather than on the first job
+        this.containerClients.getConfig();
+        if (this.daemonConfig.getPort() > 0) {
+            RotationJobHttpServer server = new RotationJobHttpServer(this,
+                    this.gson,
+                    this.daemonConfig.getBindAddress(),
+                    this.daemonConfig.getPort());
+            server.start();
+            this.httpServer = Optional.of(server);
+            this.logger.log(String.format("Rotation daemon listening on %s", server.getAddress()));
+        }
+        if (this.daemonConfig.shouldReadStdin()) {
+            startDaemonThread("rotation-daemon-stdin", this::readStdin);
+        }
+        startDaemonThread("rotation-daemon-dispatcher", this::dispatch);
+        this.statsReporter.scheduleAtFixedRate(this::reportStats,
+                this.daemonConfig.getStatsIntervalSeconds(),
+                this.daemonConfig.getStatsIntervalSeconds(),
+                TimeUnit.SECONDS);
+        this.logger.log(String.format("Rotation daemon started, running up to %d rotations at once on %s threads",
+                this.daemonConfig.getMaxConcurrentRotations(),
+                VirtualThreads.isAvailable() ? "virtual" : "platform"));
+    }
+
+    // Queues the job unless the queue is full or the daemon is shutting down
+    public boolean submit(RotationJob job) {
+        if (!this.acceptingJobs.get() || !this.queue.offer(job)) {
+            return false;
+        }
+        this.logger.log(String.format("Queued rotation job %s", job));
+        return true;
+    }
+
+    public boolean isAcceptingJobs() {
+        return this.acceptingJobs.get();
+    }
+
+    public int getQueuedJobs() {
+        return this.queue.size();
+    }
+
+    public int getRunningJobs() {
+        return this.runningJobs.get();
+    }
+
+    public void awaitTermination() throws InterruptedException {
+        this.stopped.await();
+    }
+
+    // Safe to call more than once and from several threads, later callers wait for the first to finish
+    public void shutdown() {
+        if (!this.shutdownStarted.compareAndSet(false, true)) {
+            try {
+                awaitTermination();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return;
+        }
+        long deadline = System.currentTimeMillis() + this.daemonConfig.getShutdownGraceMillis();
+        this.logger.log(String.format("Rotation daemon shutting down, %d jobs queued and %d running",
+                this.queue.size(), this.runningJobs.get()));
+        this.acceptingJobs.set(false);
+        this.httpServer.ifPresent(RotationJobHttpServer::stop);
+        try {
+            if (!this.dispatcherStopped.await(remainingMillis(deadline), TimeUnit.MILLISECONDS)) {
+                // The dispatcher checks this at least every DISPATCH_POLL_MILLIS, even while waiting for a permit
+                this.abandonQueuedJobs.set(true);
+                this.dispatcherStopped.await();
+            }
+            this.rotationExecutor.shutdown();
+            if (!this.rotationExecutor.awaitTermination(remainingMillis(deadline), TimeUnit.MILLISECONDS)) {
+                this.logger.log(String.format("Abandoning %d running rotation jobs after the shutdown grace period",
+                        this.runningJobs.get()));
+                this.rotationExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            this.rotationExecutor.shutdownNow();
+        } finally {
+            if (!this.queue.isEmpty()) {
+                this.logger.log(String.format("Abandoning %d queued rotation jobs after the shutdown grace period", this.queue.size()));
+            }
+            this.statsReporter.shutdownNow();
+            reportStats();
+            this.containerClients.reset();
+            this.logger.log("Rotation daemon stopped");
+            this.stopped.countDown();
+        }
+    }
+
+    private void dispatch() {
+        try {
+            while (!this.abandonQueuedJobs.get()) {
+                RotationJob job = this.queue.poll(DISPATCH_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (job == null) {
+                    if (!this.acceptingJobs.get()) {
+                        return;
+                    }
+                    continue;
+                }
+                // Waiting here rather than in the job keeps the backlog in the queue, where it's bounded and visible.
+                // The wait is polled so the dispatcher stops once shutdown gives up on the queued jobs
+                if (!awaitRotationPermit()) {
+                    // Back in the queue so it's counted with the other abandoned jobs
+                    this.queue.offer(job);
+                    return;
+                }
+                this.runningJobs.incrementAndGet();
+                try {
+                    this.rotationExecutor.execute(() -> run(job));
+                } catch (RuntimeException e) {
+                    this.runningJobs.decrementAndGet();
+                    this.rotationPermits.release();
+                    throw e;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            this.dispatcherStopped.countDown();
+        }
+    }
+
+    // False if the queued jobs were abandoned before a rotation permit was free
+    private boolean awaitRotationPermit() throws InterruptedException {
+        while (!this.abandonQueuedJobs.get()) {
+            if (this.rotationPermits.tryAcquire(DISPATCH_POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void run(RotationJob job) {
+        MetricsSink metrics = this.containerClients.getMetricsSink();
+        long queuedMillis = System.currentTimeMillis() - job.getEnqueuedAtMillis();
+        try {
+            metrics.time("daemon.rotation", () -> {
+                this.jobRunner.run(job);
+                return null;
+            });
+            this.logger.log(String.format("Rotation job %s finished after %d ms in the queue", job, queuedMillis));
+        } catch (RuntimeException e) {
+            metrics.increment("daemon.rotation.failed");
+            this.logger.log(String.format("Rotation job %s failed: %s", job, e));
+        } finally {
+            this.runningJobs.decrementAndGet();
+            this.rotationPermits.release();
+        }
+    }
+
+    // Blocks while the queue is full, so a producer piping jobs in is slowed down instead of losing any
+    private void readStdin() {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null && this.acceptingJobs.get()) {
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                RotationJob job;
+                try {
+                    job = RotationJob.fromEvent(this.gson.fromJson(line, EVENT_TYPE));
+                } catch (JsonParseException | IllegalArgumentException e) {
+                    this.logger.log(String.format("Skipping rotation job read from standard input: %s", e.getMessage()));
+                    continue;
+                }
+                while (this.acceptingJobs.get() && !this.queue.offer(job, DISPATCH_POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                    // Wait for room in the queue
+                }
+            }
+        } catch (IOException e) {
+            this.logger.log(String.format("Stopped reading rotation jobs from standard input: %s", e));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!this.httpServer.isPresent()) {
+            this.logger.log("End of standard input, no more rotation jobs will arrive");
+            shutdown();
+        }
+    }
+
+    // The lambda does this at the end of every invocation, the daemon on an interval
+    private void reportStats() {
+        try {
+            this.containerClients.flushMetrics();
+            this.containerClients.logInvocationStats(this.logger);
+            this.logger.log(this.secretsManagerBulkhead.describe());
+            this.logger.log(this.cloudWatchBulkhead.describe());
+            this.logger.log(String.format("Rotation daemon: %d jobs queued, %d running", this.queue.size(), this.runningJobs.get()));
+        } catch (RuntimeException e) {
+            this.logger.log(String.format("Failed to report rotation daemon stats: %s", e));
+        }
+    }
+
+    private static long remainingMillis(long deadline) {
+        return Math.max(0, deadline - System.currentTimeMillis());
+    }
+
+    private static void startDaemonThread(String name, Runnable runnable) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+}
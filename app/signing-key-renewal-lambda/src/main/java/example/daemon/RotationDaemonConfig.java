@@ -0,0 +1,143 @@
+package example.daemon;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Settings for the standalone rotation daemon, read from ROTATION_DAEMON_* environment variables. Everything about
+// the rotation itself comes from the same environment variables as the lambda's automatic rotation.
+public class RotationDaemonConfig {
+    private static final String PREFIX = "ROTATION_DAEMON_";
+    private static final String BIND_ADDRESS = "BIND_ADDRESS";
+    private static final String PORT = "PORT";
+    private static final String READ_STDIN = "READ_STDIN";
+    private static final String QUEUE_CAPACITY = "QUEUE_CAPACITY";
+    private static final String MAX_CONCURRENT_ROTATIONS = "MAX_CONCURRENT_ROTATIONS";
+    private static final String SECRETS_MANAGER_CONCURRENCY = "SECRETS_MANAGER_CONCURRENCY";
+    private static final String CLOUDWATCH_CONCURRENCY = "CLOUDWATCH_CONCURRENCY";
+    private static final String BULKHEAD_MAX_WAIT_MILLIS = "BULKHEAD_MAX_WAIT_MILLIS";
+    private static final String SHUTDOWN_GRACE_MILLIS = "SHUTDOWN_GRACE_MILLIS";
+    private static final String STATS_INTERVAL_SECONDS = "STATS_INTERVAL_SECONDS";
+    // The endpoint has no authentication, so it only listens on loopback unless told otherwise
+    private static final String DEFAULT_BIND_ADDRESS = "127.0.0.1";
+    private static final int DEFAULT_PORT = 8080;
+    private static final int DEFAULT_QUEUE_CAPACITY = 10_000;
+    private static final int DEFAULT_MAX_CONCURRENT_ROTATIONS = 64;
+    private static final int DEFAULT_SECRETS_MANAGER_CONCURRENCY = 32;
+    private static final int DEFAULT_CLOUDWATCH_CONCURRENCY = 4;
+    private static final long DEFAULT_BULKHEAD_MAX_WAIT_MILLIS = TimeUnit.SECONDS.toMillis(30);
+    private static final long DEFAULT_SHUTDOWN_GRACE_MILLIS = TimeUnit.SECONDS.toMillis(30);
+    private static final int DEFAULT_STATS_INTERVAL_SECONDS = 60;
+
+    private final String bindAddress;
+    private final int port;
+    private final boolean readStdin;
+    private final int queueCapacity;
+    private final int maxConcurrentRotations;
+    private final int secretsManagerConcurrency;
+    private final int cloudWatchConcurrency;
+    private final long bulkheadMaxWaitMillis;
+    private final long shutdownGraceMillis;
+    private final int statsIntervalSeconds;
+
+    public RotationDaemonConfig(String bindAddress,
+                                int port,
+                                boolean readStdin,
+                                int queueCapacity,
+                                int maxConcurrentRotations,
+                                int secretsManagerConcurrency,
+                                int cloudWatchConcurrency,
+                                long bulkheadMaxWaitMillis,
+                                long shutdownGraceMillis,
+                                int statsIntervalSeconds) {
+        if (port < 0 || port > 65535) {
+            throw new IllegalArgumentException(String.format("%s%s must be between 0 and 65535, got %d", PREFIX, PORT, port));
+        }
+        if (port == 0 && !readStdin) {
+            throw new IllegalArgumentException(String.format("%s%s is 0 and %s%s isn't set, the daemon would have no jobs",
+                    PREFIX, PORT, PREFIX, READ_STDIN));
+        }
+        requireAtLeastOne(QUEUE_CAPACITY, queueCapacity);
+        requireAtLeastOne(MAX_CONCURRENT_ROTATIONS, maxConcurrentRotations);
+        requireAtLeastOne(SECRETS_MANAGER_CONCURRENCY, secretsManagerConcurrency);
+        requireAtLeastOne(CLOUDWATCH_CONCURRENCY, cloudWatchConcurrency);
+        requireAtLeastOne(STATS_INTERVAL_SECONDS, statsIntervalSeconds);
+        if (bulkheadMaxWaitMillis < 0 || shutdownGraceMillis < 0) {
+            throw new IllegalArgumentException(String.format("%s%s and %s%s can't be negative",
+                    PREFIX, BULKHEAD_MAX_WAIT_MILLIS, PREFIX, SHUTDOWN_GRACE_MILLIS));
+        }
+        this.bindAddress = bindAddress;
+        this.port = port;
+        this.readStdin = readStdin;
+        this.queueCapacity = queueCapacity;
+        this.maxConcurrentRotations = maxConcurrentRotations;
+        this.secretsManagerConcurrency = secretsManagerConcurrency;
+        this.cloudWatchConcurrency = cloudWatchConcurrency;
+        this.bulkheadMaxWaitMillis = bulkheadMaxWaitMillis;
+        this.shutdownGraceMillis = shutdownGraceMillis;
+        this.statsIntervalSeconds = statsIntervalSeconds;
+    }
+
+    public static RotationDaemonConfig fromEnvironment() {
+        final Map<String, String> env = System.getenv();
+        return new RotationDaemonConfig(env.getOrDefault(PREFIX + BIND_ADDRESS, DEFAULT_BIND_ADDRESS),
+                Integer.parseInt(env.getOrDefault(PREFIX + PORT, String.valueOf(DEFAULT_PORT))),
+                Boolean.parseBoolean(env.get(PREFIX + READ_STDIN)),
+                Integer.parseInt(env.getOrDefault(PREFIX + QUEUE_CAPACITY, String.valueOf(DEFAULT_QUEUE_CAPACITY))),
+                Integer.parseInt(env.getOrDefault(PREFIX + MAX_CONCURRENT_ROTATIONS, String.valueOf(DEFAULT_MAX_CONCURRENT_ROTATIONS))),
+                Integer.parseInt(env.getOrDefault(PREFIX + SECRETS_MANAGER_CONCURRENCY, String.valueOf(DEFAULT_SECRETS_MANAGER_CONCURRENCY))),
+                Integer.parseInt(env.getOrDefault(PREFIX + CLOUDWATCH_CONCURRENCY, String.valueOf(DEFAULT_CLOUDWATCH_CONCURRENCY))),
+                Long.parseLong(env.getOrDefault(PREFIX + BULKHEAD_MAX_WAIT_MILLIS, String.valueOf(DEFAULT_BULKHEAD_MAX_WAIT_MILLIS))),
+                Long.parseLong(env.getOrDefault(PREFIX + SHUTDOWN_GRACE_MILLIS, String.valueOf(DEFAULT_SHUTDOWN_GRACE_MILLIS))),
+                Integer.parseInt(env.getOrDefault(PREFIX + STATS_INTERVAL_SECONDS, String.valueOf(DEFAULT_STATS_INTERVAL_SECONDS))));
+    }
+
+    public String getBindAddress() {
+        return this.bindAddress;
+    }
+
+    // 0 turns the HTTP endpoint off
+    public int getPort() {
+        return this.port;
+    }
+
+    // Whether jobs are also read from standard input, one JSON object per line
+    public boolean shouldReadStdin() {
+        return this.readStdin;
+    }
+
+    public int getQueueCapacity() {
+        return this.queueCapacity;
+    }
+
+    // Also what bounds concurrent Momento calls, a rotation makes at most one at a time (two with SPECULATIVE_MINT)
+    public int getMaxConcurrentRotations() {
+        return this.maxConcurrentRotations;
+    }
+
+    public int getSecretsManagerConcurrency() {
+        return this.secretsManagerConcurrency;
+    }
+
+    public int getCloudWatchConcurrency() {
+        return this.cloudWatchConcurrency;
+    }
+
+    public long getBulkheadMaxWaitMillis() {
+        return this.bulkheadMaxWaitMillis;
+    }
+
+    // How long queued and running rotations get to finish once shutdown starts
+    public long getShutdownGraceMillis() {
+        return this.shutdownGraceMillis;
+    }
+
+    public int getStatsIntervalSeconds() {
+        return this.statsIntervalSeconds;
+    }
+
+    private static void requireAtLeastOne(String name, long value) {
+        if (value < 1) {
+            throw new IllegalArgumentException(String.format("%s%s must be at least 1, got %d", PREFIX, name, value));
+        }
+    }
+}
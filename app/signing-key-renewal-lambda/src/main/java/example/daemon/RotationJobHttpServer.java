@@ -0,0 +1,116 @@
+package example.daemon;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import example.RotationJob;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+
+// HTTP front end of the rotation daemon, built on the JDK's own server so the daemon needs nothing the lambda doesn't.
+// POST /rotations takes a job as a JSON object and answers 202 once it's queued, 400 if it's malformed and 503 if the
+// queue is full or the daemon is shutting down. GET /health answers 200 while the daemon takes jobs and 503 after.
+public class RotationJobHttpServer {
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+    private static final Type EVENT_TYPE = new TypeToken<Map<String, String>>() {}.getType();
+
+    private final RotationDaemon daemon;
+    private final Gson gson;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    public RotationJobHttpServer(RotationDaemon daemon, Gson gson, String bindAddress, int port) throws IOException {
+        this.daemon = daemon;
+        this.gson = gson;
+        this.server = HttpServer.create(new InetSocketAddress(bindAddress, port), 0);
+        this.executor = VirtualThreads.newThreadPerTaskExecutor("rotation-daemon-http-");
+        this.server.setExecutor(this.executor);
+        this.server.createContext("/rotations", this::handleRotation);
+        this.server.createContext("/health", this::handleHealth);
+    }
+
+    public void start() {
+        this.server.start();
+    }
+
+    public InetSocketAddress getAddress() {
+        return this.server.getAddress();
+    }
+
+    // Stops accepting connections and gives requests already being handled up to a second to finish
+    public void stop() {
+        this.server.stop(1);
+        this.executor.shutdown();
+    }
+
+    private void handleRotation(HttpExchange exchange) throws IOException {
+        try {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                respond(exchange, 405, Collections.singletonMap("error", "Use POST"));
+                return;
+            }
+            RotationJob job;
+            try {
+                job = RotationJob.fromEvent(this.gson.fromJson(readBody(exchange), EVENT_TYPE));
+            } catch (JsonParseException | IllegalArgumentException e) {
+                respond(exchange, 400, Collections.singletonMap("error", e.getMessage()));
+                return;
+            }
+            if (!this.daemon.submit(job)) {
+                respond(exchange, 503, Collections.singletonMap("error", "The daemon is shutting down or its queue is full"));
+                return;
+            }
+            respond(exchange, 202, Collections.singletonMap("job_id", job.getId()));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void handleHealth(HttpExchange exchange) throws IOException {
+        try {
+            Map<String, Object> health = new LinkedHashMap<>();
+            health.put("accepting_jobs", this.daemon.isAcceptingJobs());
+            health.put("queued", this.daemon.getQueuedJobs());
+            health.put("running", this.daemon.getRunningJobs());
+            respond(exchange, this.daemon.isAcceptingJobs() ? 200 : 503, health);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private String readBody(HttpExchange exchange) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        try (InputStream in = exchange.getRequestBody()) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                if (body.size() + read > MAX_BODY_BYTES) {
+                    throw new IllegalArgumentException(String.format("Request body is larger than %d bytes", MAX_BODY_BYTES));
+                }
+                body.write(buffer, 0, read);
+            }
+        }
+        return new String(body.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private void respond(HttpExchange exchange, int status, Object body) throws IOException {
+        byte[] response = this.gson.toJson(body).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, response.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(response);
+        }
+    }
+}
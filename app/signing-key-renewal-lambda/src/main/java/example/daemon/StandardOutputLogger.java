@@ -0,0 +1,31 @@
+package example.daemon;
+
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
+
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+// Stands in for the Lambda runtime's logger when the rotation runs outside Lambda. Every message becomes one line
+// prefixed with the time and the thread it was logged from, since several rotations log at the same time.
+public class StandardOutputLogger implements LambdaLogger {
+    private final PrintStream out;
+
+    public StandardOutputLogger() {
+        this(System.out);
+    }
+
+    public StandardOutputLogger(PrintStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public void log(String message) {
+        this.out.println(String.format("%s [%s] %s", Instant.now(), Thread.currentThread().getName(), message));
+    }
+
+    @Override
+    public void log(byte[] message) {
+        log(new String(message, StandardCharsets.UTF_8));
+    }
+}
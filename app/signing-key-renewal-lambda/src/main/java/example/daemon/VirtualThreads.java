@@ -0,0 +1,52 @@
+package example.daemon;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Virtual threads only exist from Java 21 and the code is built for Java 8, so they're created reflectively. On an
+// older JVM every task gets a platform thread from a cached pool instead, which behaves the same, just with a higher
+// cost per blocked rotation.
+public final class VirtualThreads {
+    private static final Method OF_VIRTUAL = findMethod(Thread.class, "ofVirtual");
+    private static final Method NEW_THREAD_PER_TASK_EXECUTOR = findMethod(Executors.class, "newThreadPerTaskExecutor", ThreadFactory.class);
+
+    private VirtualThreads() {
+    }
+
+    public static boolean isAvailable() {
+        return OF_VIRTUAL != null && NEW_THREAD_PER_TASK_EXECUTOR != null;
+    }
+
+    // Starts a new thread, named threadNamePrefix followed by a counter, for every task
+    public static ExecutorService newThreadPerTaskExecutor(String threadNamePrefix) {
+        if (isAvailable()) {
+            try {
+                // Looked up on the public Thread.Builder interface, the builder's own class isn't accessible
+                Object builder = OF_VIRTUAL.invoke(null);
+                Class<?> builderInterface = Class.forName("java.lang.Thread$Builder");
+                builder = builderInterface.getMethod("name", String.class, long.class).invoke(builder, threadNamePrefix, 0L);
+                ThreadFactory factory = (ThreadFactory) builderInterface.getMethod("factory").invoke(builder);
+                return (ExecutorService) NEW_THREAD_PER_TASK_EXECUTOR.invoke(null, factory);
+            } catch (ReflectiveOperationException e) {
+                // Fall back to platform threads below
+            }
+        }
+        AtomicLong threadCount = new AtomicLong();
+        return Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, threadNamePrefix + threadCount.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static Method findMethod(Class<?> type, String name, Class<?>... parameterTypes) {
+        try {
+            return type.getMethod(name, parameterTypes);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
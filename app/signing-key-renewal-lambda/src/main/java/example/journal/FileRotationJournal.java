@@ -0,0 +1,108 @@
+package example.journal;
+
+import com.google.gson.JsonParseException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Journal kept as one file of JSON lines per secret in a local directory, by default under /tmp so it survives for as
+// long as the Lambda container does. Files are only readable by their owner, so minted keys are recorded. Once a
+// rotation completes its file is rewritten to just the COMPLETED entry, which drops the key from disk and keeps the
+// file from growing across rotations. A line cut short by a crash mid-append is skipped on read.
+public class FileRotationJournal implements RotationJournal {
+    private static final String SUFFIX = ".jsonl";
+    private static final Object LOCK = new Object();
+
+    private final Path directory;
+
+    public FileRotationJournal(Path directory) {
+        this.directory = directory;
+    }
+
+    @Override
+    public void append(String secretId, JournalEntry entry) {
+        Path file = fileFor(secretId);
+        // The newline goes first so an entry appended after a torn one still starts on a line of its own
+        byte[] line = ("\n" + entry.toJson()).getBytes(StandardCharsets.UTF_8);
+        synchronized (LOCK) {
+            try {
+                if (!Files.exists(this.directory)) {
+                    Files.createDirectories(this.directory);
+                }
+                if (entry.getEvent() == JournalEntry.Event.COMPLETED) {
+                    Path compacted = Files.createTempFile(this.directory, "compact", SUFFIX);
+                    Files.write(compacted, line, StandardOpenOption.WRITE, StandardOpenOption.SYNC);
+                    Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                    return;
+                }
+                if (!Files.exists(file)) {
+                    createOwnerOnly(file);
+                }
+                Files.write(file, line, StandardOpenOption.APPEND, StandardOpenOption.SYNC);
+            } catch (IOException e) {
+                throw new UncheckedIOException(String.format("Failed to append to the rotation journal of %s", secretId), e);
+            }
+        }
+    }
+
+    @Override
+    public List<JournalEntry> read(String secretId) {
+        List<String> lines;
+        synchronized (LOCK) {
+            try {
+                lines = Files.readAllLines(fileFor(secretId), StandardCharsets.UTF_8);
+            } catch (NoSuchFileException e) {
+                return Collections.emptyList();
+            } catch (IOException e) {
+                throw new UncheckedIOException(String.format("Failed to read the rotation journal of %s", secretId), e);
+            }
+        }
+        List<JournalEntry> entries = new ArrayList<>(lines.size());
+        for (String line : lines) {
+            try {
+                JournalEntry entry = JournalEntry.fromJson(line);
+                if (entry != null && entry.getEvent() != null) {
+                    entries.add(entry);
+                }
+            } catch (JsonParseException e) {
+                // A torn write, the step it recorded didn't finish either
+            }
+        }
+        return entries;
+    }
+
+    @Override
+    public boolean canHoldSigningKeys() {
+        return true;
+    }
+
+    private Path fileFor(String secretId) {
+        try {
+            // Secret names and ARNs contain '/' and ':', encoding them keeps every secret in a single flat file
+            return this.directory.resolve(URLEncoder.encode(secretId, StandardCharsets.UTF_8.name()) + SUFFIX);
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Temp files from createTempFile are already owner only. Filesystems without POSIX permissions get the default
+    private static void createOwnerOnly(Path file) throws IOException {
+        try {
+            Files.createFile(file, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+        } catch (UnsupportedOperationException e) {
+            Files.createFile(file);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package example.journal;
+
+import com.google.gson.FieldNamingPolicy;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import java.util.Optional;
+
+// One step of a rotation as recorded in the RotationJournal. Every entry names the secret version the rotation is
+// writing, which is also the ClientRequestToken of its PutSecretValue, so a retry that reuses it can't create a
+// second version. A MINTED entry carries the new key's id and expiry, and the key itself if the journal can hold it.
+public class JournalEntry {
+    private static final Gson GSON = new GsonBuilder()
+            .setFieldNamingPolicy(FieldNamingPolicy.LOWER_CASE_WITH_UNDERSCORES)
+            .create();
+
+    public enum Event {
+        // A new version was picked, nothing has been minted or written yet
+        STARTED,
+        // A signing key was minted for the version
+        MINTED,
+        // The version was written as AWSPENDING by createSecret
+        WRITTEN,
+        // The version is AWSCURRENT, the rotation is done
+        COMPLETED
+    }
+
+    private final Event event;
+    private final String versionId;
+    private final String runId;
+    private final String keyId;
+    private final Long expiresAtMillis;
+    private final String signingKey;
+    private final long timestampMillis;
+
+    JournalEntry(Event event,
+                 String versionId,
+                 String runId,
+                 String keyId,
+                 Long expiresAtMillis,
+                 String signingKey,
+                 long timestampMillis) {
+        this.event = event;
+        this.versionId = versionId;
+        this.runId = runId;
+        this.keyId = keyId;
+        this.expiresAtMillis = expiresAtMillis;
+        this.signingKey = signingKey;
+        this.timestampMillis = timestampMillis;
+    }
+
+    public static JournalEntry started(String versionId, String runId) {
+        return new JournalEntry(Event.STARTED, versionId, runId, null, null, null, System.currentTimeMillis());
+    }
+
+    public static JournalEntry minted(String versionId, String runId, String keyId, long expiresAtMillis, String signingKey) {
+        return new JournalEntry(Event.MINTED, versionId, runId, keyId, expiresAtMillis, signingKey, System.currentTimeMillis());
+    }
+
+    public static JournalEntry written(String versionId, String runId) {
+        return new JournalEntry(Event.WRITTEN, versionId, runId, null, null, null, System.currentTimeMillis());
+    }
+
+    public static JournalEntry completed(String versionId, String runId) {
+        return new JournalEntry(Event.COMPLETED, versionId, runId, null, null, null, System.currentTimeMillis());
+    }
+
+    public Event getEvent() {
+        return this.event;
+    }
+
+    public String getVersionId() {
+        return this.versionId;
+    }
+
+    // Bulk run the rotation belonged to, empty outside of bulk rotations
+    public Optional<String> getRunId() {
+        return Optional.ofNullable(this.runId);
+    }
+
+    public Optional<String> getKeyId() {
+        return Optional.ofNullable(this.keyId);
+    }
+
+    public Optional<Long> getExpiresAtMillis() {
+        return Optional.ofNullable(this.expiresAtMillis);
+    }
+
+    // The serialized signing key, only recorded by journals that can hold it
+    public Optional<String> getSigningKey() {
+        return Optional.ofNullable(this.signingKey);
+    }
+
+    public long getTimestampMillis() {
+        return this.timestampMillis;
+    }
+
+    public boolean isCompletedInRun(String runId) {
+        return this.event == Event.COMPLETED && runId != null && runId.equals(this.runId);
+    }
+
+    public JournalEntry withoutSigningKey() {
+        return this.signingKey == null ? this : new JournalEntry(this.event, this.versionId, this.runId, this.keyId,
+                this.expiresAtMillis, null, this.timestampMillis);
+    }
+
+    String toJson() {
+        return GSON.toJson(this);
+    }
+
+    static JournalEntry fromJson(String json) {
+        return GSON.fromJson(json, JournalEntry.class);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s of version %s%s", this.event, this.versionId,
+                this.runId == null ? "" : " in run " + this.runId);
+    }
+}
@@ -0,0 +1,65 @@
+package example.journal;
+
+import com.google.gson.JsonParseException;
+import momento.sdk.SimpleCacheClient;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+// Journal kept in a Momento cache, one item of JSON lines per secret, so any container can resume what another one
+// started. The cache is shared, so minted keys are never recorded, only their ids. Momento has no append, so an
+// append reads the item and writes it back; that's safe because a secret is only rotated by one invocation at a time.
+// A completed rotation replaces the item with just its COMPLETED entry, and items expire after ttlSeconds.
+public class MomentoRotationJournal implements RotationJournal {
+    private static final String KEY_PREFIX = "rotation-journal/";
+
+    private final SimpleCacheClient momentoClient;
+    private final String cacheName;
+    private final long ttlSeconds;
+
+    public MomentoRotationJournal(SimpleCacheClient momentoClient, String cacheName, long ttlSeconds) {
+        this.momentoClient = momentoClient;
+        this.cacheName = cacheName;
+        this.ttlSeconds = ttlSeconds;
+    }
+
+    @Override
+    public void append(String secretId, JournalEntry entry) {
+        String line = entry.withoutSigningKey().toJson();
+        String value = line;
+        if (entry.getEvent() != JournalEntry.Event.COMPLETED) {
+            Optional<String> existing = this.momentoClient.get(this.cacheName, KEY_PREFIX + secretId).string();
+            if (existing.isPresent()) {
+                value = existing.get() + "\n" + line;
+            }
+        }
+        this.momentoClient.set(this.cacheName, KEY_PREFIX + secretId, value, this.ttlSeconds);
+    }
+
+    @Override
+    public List<JournalEntry> read(String secretId) {
+        Optional<String> value = this.momentoClient.get(this.cacheName, KEY_PREFIX + secretId).string();
+        if (!value.isPresent()) {
+            return Collections.emptyList();
+        }
+        List<JournalEntry> entries = new ArrayList<>();
+        for (String line : value.get().split("\n")) {
+            try {
+                JournalEntry entry = JournalEntry.fromJson(line);
+                if (entry != null && entry.getEvent() != null) {
+                    entries.add(entry);
+                }
+            } catch (JsonParseException e) {
+                // Not written by this journal, ignore it
+            }
+        }
+        return entries;
+    }
+
+    @Override
+    public boolean canHoldSigningKeys() {
+        return false;
+    }
+}
@@ -0,0 +1,22 @@
+package example.journal;
+
+import java.util.List;
+import java.util.Optional;
+
+// Append-only record of how far the rotation of each secret got, so a retried step or a resumed bulk run picks up the
+// version, and where possible the signing key, of the attempt that stopped instead of starting over. Entries are
+// read back oldest first. A secret is only ever rotated by one invocation at a time, so backends don't have to
+// handle concurrent appends to the same secret.
+public interface RotationJournal {
+    void append(String secretId, JournalEntry entry);
+
+    List<JournalEntry> read(String secretId);
+
+    // Whether MINTED entries may include the signing key. Backends that can't keep it safe only record its id
+    boolean canHoldSigningKeys();
+
+    default Optional<JournalEntry> latest(String secretId) {
+        List<JournalEntry> entries = read(secretId);
+        return entries.isEmpty() ? Optional.empty() : Optional.of(entries.get(entries.size() - 1));
+    }
+}
@@ -0,0 +1,81 @@
+package example.journal;
+
+import com.amazonaws.util.StringUtils;
+import example.awsclients.secretsmanager.SecretsManager;
+import momento.sdk.SimpleCacheClient;
+
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+// Settings for the optional rotation journal. ROTATION_JOURNAL picks the backend: "file" for a directory on local
+// disk, "momento" for a Momento cache named by ROTATION_JOURNAL_CACHE_NAME, or "tag" for a tag on each secret.
+public class RotationJournalConfig {
+    private static final String ROTATION_JOURNAL = "ROTATION_JOURNAL";
+    private static final String ROTATION_JOURNAL_DIRECTORY = "ROTATION_JOURNAL_DIRECTORY";
+    private static final String ROTATION_JOURNAL_CACHE_NAME = "ROTATION_JOURNAL_CACHE_NAME";
+    private static final String ROTATION_JOURNAL_TTL_SECONDS = "ROTATION_JOURNAL_TTL_SECONDS";
+    private static final String DEFAULT_DIRECTORY = "/tmp/rotation-journal";
+    private static final long DEFAULT_TTL_SECONDS = TimeUnit.DAYS.toSeconds(7);
+
+    public enum Backend {
+        FILE, MOMENTO, TAG
+    }
+
+    private final Backend backend;
+    private final String directory;
+    private final String cacheName;
+    private final long ttlSeconds;
+
+    public RotationJournalConfig(Backend backend, String directory, String cacheName, long ttlSeconds) {
+        if (backend == Backend.MOMENTO && StringUtils.isNullOrEmpty(cacheName)) {
+            throw new IllegalArgumentException(String.format("Expected %s to have a value since %s is momento",
+                    ROTATION_JOURNAL_CACHE_NAME, ROTATION_JOURNAL));
+        }
+        if (ttlSeconds < 1) {
+            throw new IllegalArgumentException(String.format("%s must be positive, got %d", ROTATION_JOURNAL_TTL_SECONDS, ttlSeconds));
+        }
+        this.backend = backend;
+        this.directory = directory;
+        this.cacheName = cacheName;
+        this.ttlSeconds = ttlSeconds;
+    }
+
+    public static Optional<RotationJournalConfig> fromEnvironment() {
+        final Map<String, String> env = System.getenv();
+        String backend = env.get(ROTATION_JOURNAL);
+        if (StringUtils.isNullOrEmpty(backend) || backend.equalsIgnoreCase("none")) {
+            return Optional.empty();
+        }
+        Backend parsedBackend;
+        try {
+            parsedBackend = Backend.valueOf(backend.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(String.format("%s must be one of file, momento, tag or none, got %s",
+                    ROTATION_JOURNAL, backend));
+        }
+        return Optional.of(new RotationJournalConfig(parsedBackend,
+                env.getOrDefault(ROTATION_JOURNAL_DIRECTORY, DEFAULT_DIRECTORY),
+                env.get(ROTATION_JOURNAL_CACHE_NAME),
+                Long.parseLong(env.getOrDefault(ROTATION_JOURNAL_TTL_SECONDS, String.valueOf(DEFAULT_TTL_SECONDS)))));
+    }
+
+    public Backend getBackend() {
+        return this.backend;
+    }
+
+    // The journal is cheap to create, the Momento one has to be rebuilt whenever the Momento client is
+    public RotationJournal create(SecretsManager secretsManager, SimpleCacheClient momentoClient) {
+        switch (this.backend) {
+            case FILE:
+                return new FileRotationJournal(Paths.get(this.directory));
+            case MOMENTO:
+                return new MomentoRotationJournal(momentoClient, this.cacheName, this.ttlSeconds);
+            case TAG:
+                return new SecretTagRotationJournal(secretsManager);
+            default:
+                throw new IllegalStateException(String.format("Unknown rotation journal backend %s", this.backend));
+        }
+    }
+}
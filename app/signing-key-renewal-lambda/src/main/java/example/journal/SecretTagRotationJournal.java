@@ -0,0 +1,74 @@
+package example.journal;
+
+import example.awsclients.secretsmanager.SecretsManager;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+// Journal kept in a tag on the secret itself, so it needs no other storage and goes wherever the secret goes. A tag
+// holds one value of at most 256 characters, so only the latest entry is kept, which is all resuming needs, and
+// minted keys are never recorded. The secret has to exist before anything can be appended for it.
+public class SecretTagRotationJournal implements RotationJournal {
+    static final String TAG_KEY = "momento-rotation-journal";
+    // Tag values allow letters, digits, spaces and + - = . _ : / @, so fields are separated by spaces
+    private static final String SEPARATOR = " ";
+    private static final String ABSENT = "-";
+
+    private final SecretsManager secretsManager;
+
+    public SecretTagRotationJournal(SecretsManager secretsManager) {
+        this.secretsManager = secretsManager;
+    }
+
+    @Override
+    public void append(String secretId, JournalEntry entry) {
+        this.secretsManager.tagSecret(secretId, TAG_KEY, encode(entry));
+    }
+
+    @Override
+    public List<JournalEntry> read(String secretId) {
+        return Optional.ofNullable(this.secretsManager.getTags(secretId).get(TAG_KEY))
+                .flatMap(SecretTagRotationJournal::decode)
+                .map(Collections::singletonList)
+                .orElse(Collections.emptyList());
+    }
+
+    @Override
+    public boolean canHoldSigningKeys() {
+        return false;
+    }
+
+    private static String encode(JournalEntry entry) {
+        return String.join(SEPARATOR,
+                entry.getEvent().name(),
+                entry.getVersionId(),
+                entry.getRunId().orElse(ABSENT),
+                entry.getKeyId().orElse(ABSENT),
+                entry.getExpiresAtMillis().map(String::valueOf).orElse(ABSENT),
+                String.valueOf(entry.getTimestampMillis()));
+    }
+
+    private static Optional<JournalEntry> decode(String value) {
+        String[] fields = value.split(SEPARATOR);
+        if (fields.length != 6) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(new JournalEntry(JournalEntry.Event.valueOf(fields[0]),
+                    fields[1],
+                    present(fields[2]),
+                    present(fields[3]),
+                    Optional.ofNullable(present(fields[4])).map(Long::valueOf).orElse(null),
+                    null,
+                    Long.parseLong(fields[5])));
+        } catch (IllegalArgumentException e) {
+            // Someone else's tag value, treat the secret as having no journal
+            return Optional.empty();
+        }
+    }
+
+    private static String present(String field) {
+        return ABSENT.equals(field) ? null : field;
+    }
+}
@@ -0,0 +1,20 @@
+package example.logging;
+
+import java.util.Locale;
+
+public enum LogLevel {
+    DEBUG,
+    INFO,
+    WARN,
+    ERROR,
+    // Only valid as the configured level, turns logging off
+    OFF;
+
+    public static LogLevel fromName(String name) {
+        try {
+            return LogLevel.valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(String.format("Unknown log level %s, expected DEBUG, INFO, WARN, ERROR or OFF", name));
+        }
+    }
+}
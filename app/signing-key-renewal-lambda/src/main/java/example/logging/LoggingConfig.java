@@ -0,0 +1,56 @@
+package example.logging;
+
+import java.util.Map;
+
+// How StructuredLogger writes, read from LOG_LEVEL, LOG_FORMAT and LOG_BUFFER_BYTES
+public class LoggingConfig {
+    private static final String LOG_LEVEL = "LOG_LEVEL";
+    private static final String LOG_FORMAT = "LOG_FORMAT";
+    private static final String LOG_BUFFER_BYTES = "LOG_BUFFER_BYTES";
+    private static final String JSON_FORMAT = "json";
+    private static final String TEXT_FORMAT = "text";
+    // Unbuffered unless asked for: buffered lines are lost if the invocation times out before they're flushed
+    private static final int DEFAULT_BUFFER_BYTES = 0;
+
+    private final LogLevel level;
+    private final boolean json;
+    private final int bufferBytes;
+
+    public LoggingConfig(LogLevel level, boolean json, int bufferBytes) {
+        if (bufferBytes < 0) {
+            throw new IllegalArgumentException(String.format("%s can't be negative, got %d", LOG_BUFFER_BYTES, bufferBytes));
+        }
+        this.level = level;
+        this.json = json;
+        this.bufferBytes = bufferBytes;
+    }
+
+    public static LoggingConfig fromEnvironment() {
+        final Map<String, String> env = System.getenv();
+        String format = env.getOrDefault(LOG_FORMAT, TEXT_FORMAT);
+        if (!JSON_FORMAT.equalsIgnoreCase(format) && !TEXT_FORMAT.equalsIgnoreCase(format)) {
+            throw new IllegalArgumentException(String.format("%s must be %s or %s, got %s", LOG_FORMAT, TEXT_FORMAT, JSON_FORMAT, format));
+        }
+        return new LoggingConfig(LogLevel.fromName(env.getOrDefault(LOG_LEVEL, LogLevel.INFO.name())),
+                JSON_FORMAT.equalsIgnoreCase(format),
+                Integer.parseInt(env.getOrDefault(LOG_BUFFER_BYTES, String.valueOf(DEFAULT_BUFFER_BYTES))));
+    }
+
+    public LoggingConfig unbuffered() {
+        return new LoggingConfig(this.level, this.json, 0);
+    }
+
+    public LogLevel getLevel() {
+        return this.level;
+    }
+
+    // One JSON object per line instead of the message followed by key=value fields
+    public boolean isJson() {
+        return this.json;
+    }
+
+    // Lines are held until this many bytes are buffered or the logger is flushed. 0 writes every line right away
+    public int getBufferBytes() {
+        return this.bufferBytes;
+    }
+}
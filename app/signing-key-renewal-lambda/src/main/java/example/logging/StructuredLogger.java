@@ -0,0 +1,290 @@
+package example.logging;
+
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+// Leveled, structured logging on top of a LambdaLogger. Messages are templates with {} placeholders, or suppliers,
+// and are only formatted once their level is known to be enabled. Every line carries the logger's fields, such as
+// the secret ARN, ClientRequestToken and step of the rotation it belongs to, either as key=value pairs after the
+// message or as members of a JSON object. Fields and Map arguments with a sensitive name, momento_auth_token among
+// them, are redacted. With a buffer, lines are written at flush, one log call per line so each stays its own log event;
+// ERROR lines flush the buffer right away. Implements LambdaLogger so it can be handed to anything that takes one,
+// plain log calls are logged at INFO.
+public class StructuredLogger implements LambdaLogger {
+    private static final String REDACTED = "[REDACTED]";
+    private static final Set<String> REDACTED_NAMES = new HashSet<>(Arrays.asList(
+            "momento_auth_token", "auth_token", "authtoken", "token", "key", "signing_key", "secret_string",
+            "secretstring", "password"));
+
+    private final Output output;
+    private final Map<String, String> fields;
+
+    private StructuredLogger(Output output, Map<String, String> fields) {
+        this.output = output;
+        this.fields = fields;
+    }
+
+    // A root logger that buffers as configured. Whoever creates it has to flush it
+    public static StructuredLogger create(LambdaLogger sink, LoggingConfig config) {
+        return new StructuredLogger(new Output(sink, config), Collections.emptyMap());
+    }
+
+    // For code that's handed a plain LambdaLogger: returns it as is if it's already structured, otherwise wraps it
+    // without buffering since nobody would flush it
+    public static StructuredLogger of(LambdaLogger logger) {
+        if (logger instanceof StructuredLogger) {
+            return (StructuredLogger) logger;
+        }
+        return create(logger, LoggingConfig.fromEnvironment().unbuffered());
+    }
+
+    // The underlying logger, for output that has to reach the log exactly as written, like Embedded Metric Format
+    public static LambdaLogger unwrap(LambdaLogger logger) {
+        return logger instanceof StructuredLogger ? ((StructuredLogger) logger).output.sink : logger;
+    }
+
+    // A logger that adds the field to every line and shares this one's buffer
+    public StructuredLogger withField(String name, Object value) {
+        Map<String, String> fields = new LinkedHashMap<>(this.fields);
+        fields.put(name, redact(name, value));
+        return new StructuredLogger(this.output, Collections.unmodifiableMap(fields));
+    }
+
+    public boolean isEnabled(LogLevel level) {
+        return level != LogLevel.OFF && level.compareTo(this.output.config.getLevel()) >= 0;
+    }
+
+    public void debug(String message) {
+        log(LogLevel.DEBUG, message, null);
+    }
+
+    public void debug(String template, Object arg) {
+        if (isEnabled(LogLevel.DEBUG)) {
+            log(LogLevel.DEBUG, template, new Object[]{arg});
+        }
+    }
+
+    public void debug(String template, Object arg1, Object arg2) {
+        if (isEnabled(LogLevel.DEBUG)) {
+            log(LogLevel.DEBUG, template, new Object[]{arg1, arg2});
+        }
+    }
+
+    public void debug(String template, Object... args) {
+        log(LogLevel.DEBUG, template, args);
+    }
+
+    public void debug(Supplier<String> message) {
+        if (isEnabled(LogLevel.DEBUG)) {
+            log(LogLevel.DEBUG, message.get(), null);
+        }
+    }
+
+    public void info(String message) {
+        log(LogLevel.INFO, message, null);
+    }
+
+    public void info(String template, Object arg) {
+        if (isEnabled(LogLevel.INFO)) {
+            log(LogLevel.INFO, template, new Object[]{arg});
+        }
+    }
+
+    public void info(String template, Object arg1, Object arg2) {
+        if (isEnabled(LogLevel.INFO)) {
+            log(LogLevel.INFO, template, new Object[]{arg1, arg2});
+        }
+    }
+
+    public void info(String template, Object... args) {
+        log(LogLevel.INFO, template, args);
+    }
+
+    public void info(Supplier<String> message) {
+        if (isEnabled(LogLevel.INFO)) {
+            log(LogLevel.INFO, message.get(), null);
+        }
+    }
+
+    public void warn(String message) {
+        log(LogLevel.WARN, message, null);
+    }
+
+    public void warn(String template, Object arg) {
+        if (isEnabled(LogLevel.WARN)) {
+            log(LogLevel.WARN, template, new Object[]{arg});
+        }
+    }
+
+    public void warn(String template, Object arg1, Object arg2) {
+        if (isEnabled(LogLevel.WARN)) {
+            log(LogLevel.WARN, template, new Object[]{arg1, arg2});
+        }
+    }
+
+    public void warn(String template, Object... args) {
+        log(LogLevel.WARN, template, args);
+    }
+
+    public void error(String message) {
+        log(LogLevel.ERROR, message, null);
+    }
+
+    public void error(String template, Object arg) {
+        log(LogLevel.ERROR, template, new Object[]{arg});
+    }
+
+    public void error(String template, Object arg1, Object arg2) {
+        log(LogLevel.ERROR, template, new Object[]{arg1, arg2});
+    }
+
+    public void error(String template, Object... args) {
+        log(LogLevel.ERROR, template, args);
+    }
+
+    @Override
+    public void log(String message) {
+        log(LogLevel.INFO, message, null);
+    }
+
+    @Override
+    public void log(byte[] message) {
+        if (isEnabled(LogLevel.INFO)) {
+            log(LogLevel.INFO, new String(message, StandardCharsets.UTF_8), null);
+        }
+    }
+
+    // Writes every buffered line. Entry points call this before returning, Lambda can freeze the container after that
+    public void flush() {
+        this.output.flush();
+    }
+
+    private void log(LogLevel level, String template, Object[] args) {
+        if (!isEnabled(level)) {
+            return;
+        }
+        Map<String, String> fields = this.fields;
+        // A Throwable left over after the placeholders is logged as the error field, like SLF4J does
+        if (args != null && args.length > 0 && args[args.length - 1] instanceof Throwable
+                && countPlaceholders(template) < args.length) {
+            fields = new LinkedHashMap<>(fields);
+            fields.put("error", String.valueOf(args[args.length - 1]));
+        }
+        String message = format(template, args);
+        this.output.write(this.output.config.isJson() ? toJson(level, message, fields) : toText(level, message, fields),
+                level == LogLevel.ERROR);
+    }
+
+    private static String format(String template, Object[] args) {
+        if (args == null || args.length == 0) {
+            return template;
+        }
+        StringBuilder message = new StringBuilder(template.length() + 32 * args.length);
+        int start = 0;
+        for (Object arg : args) {
+            int placeholder = template.indexOf("{}", start);
+            if (placeholder < 0) {
+                break;
+            }
+            message.append(template, start, placeholder).append(render(arg));
+            start = placeholder + 2;
+        }
+        return message.append(template, start, template.length()).toString();
+    }
+
+    private static int countPlaceholders(String template) {
+        int count = 0;
+        for (int index = template.indexOf("{}"); index >= 0; index = template.indexOf("{}", index + 2)) {
+            count++;
+        }
+        return count;
+    }
+
+    // Maps, like a whole Lambda event, are logged with their sensitive entries redacted
+    private static String render(Object arg) {
+        if (!(arg instanceof Map)) {
+            return String.valueOf(arg);
+        }
+        Map<String, String> redacted = new LinkedHashMap<>();
+        for (Map.Entry<?, ?> entry : ((Map<?, ?>) arg).entrySet()) {
+            String name = String.valueOf(entry.getKey());
+            redacted.put(name, redact(name, entry.getValue()));
+        }
+        return redacted.toString();
+    }
+
+    private static String redact(String name, Object value) {
+        return REDACTED_NAMES.contains(name.toLowerCase(Locale.ROOT)) ? REDACTED : String.valueOf(value);
+    }
+
+    private static String toText(LogLevel level, String message, Map<String, String> fields) {
+        StringBuilder line = new StringBuilder(message.length() + 64).append(level).append(' ').append(message);
+        for (Map.Entry<String, String> field : fields.entrySet()) {
+            line.append(' ').append(field.getKey()).append('=').append(field.getValue());
+        }
+        return line.toString();
+    }
+
+    // Buffered lines reach the log after the fact, so they carry the time they were logged at
+    private static String toJson(LogLevel level, String message, Map<String, String> fields) {
+        StringWriter line = new StringWriter(message.length() + 128);
+        try (JsonWriter writer = new JsonWriter(line)) {
+            writer.beginObject()
+                    .name("time").value(Instant.now().toString())
+                    .name("level").value(level.name())
+                    .name("message").value(message);
+            for (Map.Entry<String, String> field : fields.entrySet()) {
+                writer.name(field.getKey()).value(field.getValue());
+            }
+            writer.endObject();
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to write a log line", e);
+        }
+        return line.toString();
+    }
+
+    // Shared by a root logger and every logger derived from it with withField
+    private static final class Output {
+        private final LambdaLogger sink;
+        private final LoggingConfig config;
+        private final List<String> lines = new ArrayList<>();
+        private int bufferedBytes;
+
+        private Output(LambdaLogger sink, LoggingConfig config) {
+            this.sink = sink;
+            this.config = config;
+        }
+
+        private synchronized void write(String line, boolean flush) {
+            this.lines.add(line);
+            this.bufferedBytes += line.length();
+            if (flush || this.bufferedBytes >= this.config.getBufferBytes()) {
+                flush();
+            }
+        }
+
+        // Writes under the lock so lines from concurrent rotations keep the order they were logged in
+        private synchronized void flush() {
+            for (String line : this.lines) {
+                this.sink.log(line);
+            }
+            this.lines.clear();
+            this.bufferedBytes = 0;
+        }
+    }
+}
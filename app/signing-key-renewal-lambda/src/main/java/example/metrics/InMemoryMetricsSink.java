@@ -0,0 +1,96 @@
+package example.metrics;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Keeps every recording in memory for the lifetime of the container. Used by the tests and the load test to check
+// what rotations did, and by METRICS_SINK=memory to log a per-dependency summary at the end of each invocation.
+public class InMemoryMetricsSink implements MetricsSink {
+    private final ConcurrentMap<String, LatencyHistogram> latencies = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, ConcurrentMap<String, LongAdder>> errors = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final LongAdder coldInvocations = new LongAdder();
+    private final LongAdder warmInvocations = new LongAdder();
+
+    @Override
+    public void recordLatency(String operation, long durationNanos) {
+        this.latencies.computeIfAbsent(operation, key -> new LatencyHistogram()).record(durationNanos);
+    }
+
+    @Override
+    public void recordError(String operation, String errorType) {
+        this.errors.computeIfAbsent(operation, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(errorType, key -> new LongAdder())
+                .increment();
+    }
+
+    @Override
+    public void recordInvocation(boolean coldStart) {
+        (coldStart ? this.coldInvocations : this.warmInvocations).increment();
+    }
+
+    @Override
+    public void increment(String counter, long count) {
+        this.counters.computeIfAbsent(counter, key -> new LongAdder()).add(count);
+    }
+
+    public long getCount(String counter) {
+        return Optional.ofNullable(this.counters.get(counter)).map(LongAdder::sum).orElse(0L);
+    }
+
+    public Optional<LatencyHistogram> getLatency(String operation) {
+        return Optional.ofNullable(this.latencies.get(operation));
+    }
+
+    public long getErrorCount(String operation, String errorType) {
+        return Optional.ofNullable(this.errors.get(operation))
+                .map(errorTypes -> errorTypes.get(errorType))
+                .map(LongAdder::sum)
+                .orElse(0L);
+    }
+
+    // Error counts by exception type for one operation, sorted by type
+    public Map<String, Long> getErrorCounts(String operation) {
+        Map<String, Long> counts = new TreeMap<>();
+        Optional.ofNullable(this.errors.get(operation))
+                .ifPresent(errorTypes -> errorTypes.forEach((errorType, count) -> counts.put(errorType, count.sum())));
+        return counts;
+    }
+
+    public long getColdInvocations() {
+        return this.coldInvocations.sum();
+    }
+
+    public long getWarmInvocations() {
+        return this.warmInvocations.sum();
+    }
+
+    public void reset() {
+        this.latencies.clear();
+        this.errors.clear();
+        this.counters.clear();
+        this.coldInvocations.reset();
+        this.warmInvocations.reset();
+    }
+
+    // One line per operation, sorted by name
+    public String describe() {
+        StringBuilder description = new StringBuilder(String.format("invocations: cold=%d warm=%d",
+                getColdInvocations(), getWarmInvocations()));
+        for (Map.Entry<String, LatencyHistogram> operation : new TreeMap<>(this.latencies).entrySet()) {
+            description.append('\n').append(operation.getKey()).append(": ").append(operation.getValue());
+            Map<String, Long> errorCounts = getErrorCounts(operation.getKey());
+            if (!errorCounts.isEmpty()) {
+                description.append(" errors=").append(errorCounts);
+            }
+        }
+        for (Map.Entry<String, LongAdder> counter : new TreeMap<>(this.counters).entrySet()) {
+            description.append('\n').append(counter.getKey()).append(": count=").append(counter.getValue().sum());
+        }
+        return description.toString();
+    }
+}
@@ -0,0 +1,73 @@
+package example.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Lock-free latency histogram with power of two microsecond buckets: bucket i counts durations below 2^i
+// microseconds, the last bucket everything from about 18 minutes up. Percentiles are reported as the upper bound of
+// the bucket they fall in, so they're accurate to within a factor of two, which is enough to tell a slow dependency
+// from a fast one.
+public class LatencyHistogram {
+    private static final int BUCKETS = 32;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private volatile long maxNanos;
+
+    public void record(long durationNanos) {
+        long micros = Math.max(0, TimeUnit.NANOSECONDS.toMicros(durationNanos));
+        int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+        this.buckets.incrementAndGet(bucket);
+        this.count.increment();
+        this.totalNanos.add(durationNanos);
+        // Racing updates can lose a max, but only to another value that was just as large
+        if (durationNanos > this.maxNanos) {
+            synchronized (this) {
+                if (durationNanos > this.maxNanos) {
+                    this.maxNanos = durationNanos;
+                }
+            }
+        }
+    }
+
+    public long getCount() {
+        return this.count.sum();
+    }
+
+    public double getMeanMillis() {
+        long count = getCount();
+        return count == 0 ? 0 : this.totalNanos.sum() / (double) count / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    public double getMaxMillis() {
+        return this.maxNanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    // percentile is between 0 and 100
+    public double getPercentileMillis(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException(String.format("Percentile must be between 0 and 100, got %s", percentile));
+        }
+        long count = getCount();
+        if (count == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(count * percentile / 100);
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            seen += this.buckets.get(bucket);
+            if (seen >= Math.max(1, rank)) {
+                return Math.min(getMaxMillis(), (1L << bucket) / 1000.0);
+            }
+        }
+        return getMaxMillis();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count=%d mean=%.1fms p50=%.1fms p99=%.1fms max=%.1fms",
+                getCount(), getMeanMillis(), getPercentileMillis(50), getPercentileMillis(99), getMaxMillis());
+    }
+}
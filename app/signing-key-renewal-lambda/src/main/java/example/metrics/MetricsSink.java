@@ -0,0 +1,57 @@
+package example.metrics;
+
+import example.awsclients.Futures;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+// Where timings and error counts for rotation steps and dependency calls go. Operations are named
+// "<component>.<call>", for example "step.createSecret" or "secretsmanager.describeSecret".
+public interface MetricsSink {
+    void recordLatency(String operation, long durationNanos);
+
+    // errorType is the simple class name of the exception the operation failed with
+    void recordError(String operation, String errorType);
+
+    // Called once per invocation, coldStart is true for the first invocation on a container
+    void recordInvocation(boolean coldStart);
+
+    // Counts occurrences of something that has no latency, for example discarded speculative signing key mints
+    void increment(String counter, long count);
+
+    default void increment(String counter) {
+        increment(counter, 1);
+    }
+
+    // Times the call and counts the exception it fails with, if any. Latency is recorded either way
+    default <T> T time(String operation, Supplier<T> call) {
+        long startNanos = System.nanoTime();
+        try {
+            return call.get();
+        } catch (RuntimeException e) {
+            recordError(operation, e.getClass().getSimpleName());
+            throw e;
+        } finally {
+            recordLatency(operation, System.nanoTime() - startNanos);
+        }
+    }
+
+    // Times the call until its future completes rather than until it returns
+    default <T> CompletableFuture<T> timeAsync(String operation, Supplier<CompletableFuture<T>> call) {
+        long startNanos = System.nanoTime();
+        CompletableFuture<T> future;
+        try {
+            future = call.get();
+        } catch (RuntimeException e) {
+            recordError(operation, e.getClass().getSimpleName());
+            recordLatency(operation, System.nanoTime() - startNanos);
+            throw e;
+        }
+        return future.whenComplete((result, throwable) -> {
+            if (throwable != null) {
+                recordError(operation, Futures.unwrap(throwable).getClass().getSimpleName());
+            }
+            recordLatency(operation, System.nanoTime() - startNanos);
+        });
+    }
+}
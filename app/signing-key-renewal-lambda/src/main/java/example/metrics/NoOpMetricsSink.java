@@ -0,0 +1,38 @@
+package example.metrics;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+// Default sink, drops everything without reading the clock
+public final class NoOpMetricsSink implements MetricsSink {
+    public static final NoOpMetricsSink INSTANCE = new NoOpMetricsSink();
+
+    private NoOpMetricsSink() {
+    }
+
+    @Override
+    public void recordLatency(String operation, long durationNanos) {
+    }
+
+    @Override
+    public void recordError(String operation, String errorType) {
+    }
+
+    @Override
+    public void recordInvocation(boolean coldStart) {
+    }
+
+    @Override
+    public void increment(String counter, long count) {
+    }
+
+    @Override
+    public <T> T time(String operation, Supplier<T> call) {
+        return call.get();
+    }
+
+    @Override
+    public <T> CompletableFuture<T> timeAsync(String operation, Supplier<CompletableFuture<T>> call) {
+        return call.get();
+    }
+}
@@ -0,0 +1,110 @@
+package example;
+
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
+import example.awsclients.secretsmanager.InMemorySecretsManager;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BulkRotationWorkflowTest {
+    private static final String FAST_SECRET = "momento/fast-signing-key";
+    private static final String STUCK_SECRET = "momento/stuck-signing-key";
+
+    private final InMemorySecretsManager secretsManager = new InMemorySecretsManager();
+    private final StuckSigningKeyMinter minter = new StuckSigningKeyMinter();
+    private final RotationWorkflow workflow = RotationWorkflow.builder(new NoOpLambdaLogger(), this.secretsManager, null,
+                    new MomentoSigningKeyCodec(MomentoSigningKeyCodec.Format.V2_COMPACT))
+            .signingKeyMinter(this.minter)
+            .signingKeyTtlMinutes(60)
+            .build();
+    // One at a time, so the fast secret is always the one minted first
+    private final BulkRotationWorkflow bulkRotation = new BulkRotationWorkflow(new NoOpLambdaLogger(), this.workflow, 1);
+
+    @Test
+    public void interruptsRotationsStillRunningAfterTheGracePeriod() {
+        // The stuck secret's mint never returns on its own, the fast one's does
+        this.minter.stickAfter(1);
+
+        BulkRotationResult result = this.bulkRotation.rotate(Arrays.asList(FAST_SECRET, STUCK_SECRET),
+                System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(3));
+
+        assertEquals(Collections.singletonList(FAST_SECRET), result.getRotated());
+        assertEquals(Collections.singletonList(STUCK_SECRET), result.getRemaining());
+        assertTrue(result.getFailed().isEmpty(), String.valueOf(result.getFailed()));
+        assertEquals(1, this.minter.getInterrupted());
+        // No rotation thread outlives the bulk rotation
+        for (Thread thread : this.minter.getThreads()) {
+            assertFalse(thread.isAlive(), thread.getName());
+        }
+    }
+
+    @Test
+    public void startsNothingWithoutTimeLeftForARotation() {
+        BulkRotationResult result = this.bulkRotation.rotate(Arrays.asList(FAST_SECRET, STUCK_SECRET),
+                System.currentTimeMillis() + 500);
+
+        assertEquals(Arrays.asList(FAST_SECRET, STUCK_SECRET), result.getRemaining());
+        assertEquals(0, this.minter.getThreads().size());
+        assertEquals(0, this.secretsManager.getSecretCount());
+    }
+
+    // Mints the first keys straight away, every later mint blocks until its thread is interrupted
+    private static class StuckSigningKeyMinter implements SigningKeyMinter {
+        private final List<Thread> threads = Collections.synchronizedList(new ArrayList<>());
+        private final AtomicInteger interrupted = new AtomicInteger();
+        private volatile int stickAfter = Integer.MAX_VALUE;
+
+        void stickAfter(int mints) {
+            this.stickAfter = mints;
+        }
+
+        @Override
+        public MomentoSigningKey createSigningKey(int ttlMinutes) {
+            this.threads.add(Thread.currentThread());
+            if (this.threads.size() > this.stickAfter) {
+                try {
+                    new CountDownLatch(1).await();
+                } catch (InterruptedException e) {
+                    this.interrupted.incrementAndGet();
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while minting", e);
+                }
+            }
+            return new MomentoSigningKey("key-" + this.threads.size(), "endpoint", "jwk",
+                    new Date(System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(ttlMinutes)));
+        }
+
+        @Override
+        public void revokeSigningKey(String keyId) {
+        }
+
+        int getInterrupted() {
+            return this.interrupted.get();
+        }
+
+        List<Thread> getThreads() {
+            return new ArrayList<>(this.threads);
+        }
+    }
+
+    private static class NoOpLambdaLogger implements LambdaLogger {
+        @Override
+        public void log(String message) {
+        }
+
+        @Override
+        public void log(byte[] message) {
+        }
+    }
+}
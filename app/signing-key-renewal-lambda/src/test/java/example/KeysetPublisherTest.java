@@ -0,0 +1,49 @@
+package example;
+
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
+import example.awsclients.secretsmanager.InMemorySecretsManager;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class KeysetPublisherTest {
+    private static final String SECRET = "momento/signing-key";
+    private static final String KEYSET_SECRET = "momento/signing-key/keyset";
+    private static final String KMS_KEY_ARN = "arn:aws:kms:us-west-2:123456789012:key/1234abcd-12ab-34cd-56ef-1234567890ab";
+
+    private final InMemorySecretsManager secretsManager = new InMemorySecretsManager();
+    private final KeysetPublisher publisher = new KeysetPublisher(new NoOpLambdaLogger(), this.secretsManager, null,
+            new KeysetConfig("/keyset", Optional.empty(), 60));
+
+    @Test
+    public void createsTheKeysetSecretWithTheSigningKeySecretsKmsKey() {
+        this.secretsManager.createSecret(SECRET, "{\"key_id\":\"first\"}", KMS_KEY_ARN);
+
+        this.publisher.publish(SECRET, true);
+
+        assertEquals(Optional.of(KMS_KEY_ARN), this.secretsManager.getKmsKeyId(KEYSET_SECRET));
+        assertTrue(this.secretsManager.getSecretValueString(KEYSET_SECRET, null, null).contains("\"current\":{\"key_id\":\"first\"}"));
+    }
+
+    @Test
+    public void createsTheKeysetSecretWithTheDefaultKeyIfTheSigningKeySecretUsesIt() {
+        this.secretsManager.createSecret(SECRET, "{\"key_id\":\"first\"}", null);
+
+        this.publisher.publish(SECRET, true);
+
+        assertEquals(Optional.empty(), this.secretsManager.getKmsKeyId(KEYSET_SECRET));
+    }
+
+    private static class NoOpLambdaLogger implements LambdaLogger {
+        @Override
+        public void log(String message) {
+        }
+
+        @Override
+        public void log(byte[] message) {
+        }
+    }
+}
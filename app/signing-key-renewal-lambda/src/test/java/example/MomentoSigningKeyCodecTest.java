@@ -0,0 +1,54 @@
+package example;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.TimeZone;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// V1_PRETTY has to stay byte for byte what Handler's Gson writes, consumers may compare the secret as text
+public class MomentoSigningKeyCodecTest {
+    // 2023-11-14T22:13:20Z, late enough in the day that a local time zone would change the date
+    private static final Date EXPIRES_AT = new Date(1_700_000_000_000L);
+
+    private final Gson gson = ContainerClients.createGson();
+    private final MomentoSigningKeyCodec codec = new MomentoSigningKeyCodec(MomentoSigningKeyCodec.Format.V1_PRETTY);
+
+    @Test
+    public void writesEveryFieldLikeGson() {
+        assertSameAsGson(new MomentoSigningKey("key-id", "cell-us-east-1-1.prod.a.momentohq.com",
+                "{\"kty\":\"RSA\",\"n\":\"abc\"}", EXPIRES_AT));
+    }
+
+    @Test
+    public void leavesOutNullFieldsLikeGson() {
+        assertSameAsGson(new MomentoSigningKey("key-id", null, "key", EXPIRES_AT));
+        assertSameAsGson(new MomentoSigningKey("key-id", "endpoint", "key", null));
+        assertSameAsGson(new MomentoSigningKey(null, null, null, null));
+    }
+
+    @Test
+    public void escapesHtmlAndControlCharactersLikeGson() {
+        assertSameAsGson(new MomentoSigningKey("<script>&'=", "a\"b\\c\n\t", "\u0001\u00e9\u2028\u2029", EXPIRES_AT));
+    }
+
+    @Test
+    public void formatsExpiresAtInUtcWhateverTheDefaultTimeZone() {
+        TimeZone defaultTimeZone = TimeZone.getDefault();
+        try {
+            TimeZone.setDefault(TimeZone.getTimeZone("Pacific/Kiritimati"));
+            MomentoSigningKey signingKey = new MomentoSigningKey("key-id", "endpoint", "key", EXPIRES_AT);
+
+            assertSameAsGson(signingKey);
+            assertEquals(EXPIRES_AT, this.gson.fromJson(this.codec.toJson(signingKey), MomentoSigningKey.class).getExpiresAt());
+        } finally {
+            TimeZone.setDefault(defaultTimeZone);
+        }
+    }
+
+    private void assertSameAsGson(MomentoSigningKey signingKey) {
+        assertEquals(this.gson.toJson(signingKey), this.codec.toJson(signingKey));
+    }
+}
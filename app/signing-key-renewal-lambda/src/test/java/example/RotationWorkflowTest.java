@@ -0,0 +1,200 @@
+package example;
+
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
+import example.awsclients.secretsmanager.InMemorySecretsManager;
+import example.journal.JournalEntry;
+import example.journal.RotationJournal;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RotationWorkflowTest {
+    private static final String SECRET = "momento/signing-key";
+    private static final String OTHER_SECRET = "momento/other-signing-key";
+    private static final String AWSCURRENT = "AWSCURRENT";
+    private static final String AWSPENDING = "AWSPENDING";
+    private static final int SIGNING_KEY_TTL_MINUTES = 60;
+
+    private final FlakySecretsManager secretsManager = new FlakySecretsManager();
+    private final CountingSigningKeyMinter minter = new CountingSigningKeyMinter();
+    private final InMemoryRotationJournal journal = new InMemoryRotationJournal();
+    private final RotationWorkflow workflow = RotationWorkflow.builder(new NoOpLambdaLogger(), this.secretsManager, null,
+                    new MomentoSigningKeyCodec(MomentoSigningKeyCodec.Format.V2_COMPACT))
+            .signingKeyMinter(this.minter)
+            .signingKeyTtlMinutes(SIGNING_KEY_TTL_MINUTES)
+            .journal(Optional.of(this.journal))
+            .build();
+
+    @Test
+    public void manualRotationStoppedBeforeThePutReusesTheMintedKey() {
+        this.secretsManager.failNextPut(false);
+
+        assertThrows(IllegalStateException.class, () -> this.workflow.manualRotation(SECRET));
+        JournalEntry minted = this.journal.latest(SECRET).get();
+        assertEquals(JournalEntry.Event.MINTED, minted.getEvent());
+        assertEquals(Optional.of("key-1"), minted.getKeyId());
+
+        this.workflow.manualRotation(SECRET);
+
+        assertEquals(1, this.minter.getMinted());
+        assertEquals(Collections.emptyList(), this.minter.getRevoked());
+        // Written under the version the stopped attempt picked, with the key it minted
+        assertEquals(Optional.of(minted.getVersionId()), this.secretsManager.getVersionIdInStage(SECRET, AWSCURRENT));
+        assertTrue(this.secretsManager.getSecretValueString(SECRET, null, AWSCURRENT).contains("\"key_id\":\"key-1\""));
+        assertEquals(JournalEntry.Event.COMPLETED, this.journal.latest(SECRET).get().getEvent());
+    }
+
+    @Test
+    public void manualRotationRetriedAfterThePutDoesNotMintAgain() {
+        // The put goes through but the attempt stops before it hears back
+        this.secretsManager.failNextPut(true);
+
+        assertThrows(IllegalStateException.class, () -> this.workflow.manualRotation(SECRET));
+        String versionId = this.journal.latest(SECRET).get().getVersionId();
+        assertEquals(Optional.of(versionId), this.secretsManager.getVersionIdInStage(SECRET, AWSCURRENT));
+
+        this.workflow.manualRotation(SECRET);
+
+        assertEquals(1, this.minter.getMinted());
+        assertEquals(Optional.of(versionId), this.secretsManager.getVersionIdInStage(SECRET, AWSCURRENT));
+        assertEquals(1, this.secretsManager.getVersionStages(SECRET).size());
+        assertEquals(JournalEntry.completed(versionId, null).toString(), this.journal.latest(SECRET).get().toString());
+    }
+
+    @Test
+    public void createSecretRetriedAfterAFailedPutReusesTheMintedKey() {
+        this.secretsManager.createSecret(SECRET, "{\"key_id\":\"key-0\"}", null);
+        String token = this.secretsManager.startRotation(SECRET);
+        this.secretsManager.failNextPut(false);
+
+        assertThrows(IllegalStateException.class, () -> this.workflow.processRotation(step(token, "createSecret")));
+        this.workflow.processRotation(step(token, "createSecret"));
+
+        assertEquals(1, this.minter.getMinted());
+        assertEquals(Collections.emptyList(), this.minter.getRevoked());
+        assertTrue(this.secretsManager.getSecretValueString(SECRET, token, AWSPENDING).contains("\"key_id\":\"key-1\""));
+        assertEquals(JournalEntry.Event.WRITTEN, this.journal.latest(SECRET).get().getEvent());
+    }
+
+    @Test
+    public void resumedBulkRotationSkipsSecretsTheRunAlreadyRotated() {
+        List<String> secretNames = Arrays.asList(SECRET, OTHER_SECRET);
+        // The first invocation of the run only got to one of the secrets
+        this.workflow.manualRotation(SECRET, Optional.of("run-1"));
+
+        BulkRotationResult resumed = bulkRotation("run-1").rotate(secretNames, System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(1));
+
+        assertEquals(Collections.singletonList(SECRET), resumed.getAlreadyRotated());
+        assertEquals(Collections.singletonList(OTHER_SECRET), resumed.getRotated());
+        assertEquals(Collections.emptyList(), resumed.getRemaining());
+        assertEquals(2, this.minter.getMinted());
+
+        // A new run rotates everything again
+        BulkRotationResult nextRun = bulkRotation("run-2").rotate(secretNames, System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(1));
+
+        assertEquals(secretNames, nextRun.getRotated());
+        assertEquals(4, this.minter.getMinted());
+    }
+
+    private BulkRotationWorkflow bulkRotation(String runId) {
+        return new BulkRotationWorkflow(new NoOpLambdaLogger(), this.workflow, 2, Optional.of(this.journal), Optional.of(runId));
+    }
+
+    private static Map<String, String> step(String token, String step) {
+        Map<String, String> event = new HashMap<>();
+        event.put("SecretId", SECRET);
+        event.put("ClientRequestToken", token);
+        event.put("Step", step);
+        return event;
+    }
+
+    // Stands in for a rotation that stops around its PutSecretValue, either before or after the put goes through
+    private static class FlakySecretsManager extends InMemorySecretsManager {
+        private volatile boolean failNextPut;
+        private volatile boolean afterPut;
+
+        void failNextPut(boolean afterPut) {
+            this.failNextPut = true;
+            this.afterPut = afterPut;
+        }
+
+        @Override
+        public void putSecretValue(String secretId, String newSecretString, String token, List<String> versionStages) {
+            if (this.failNextPut && !this.afterPut) {
+                this.failNextPut = false;
+                throw new IllegalStateException("Stopped before the put");
+            }
+            super.putSecretValue(secretId, newSecretString, token, versionStages);
+            if (this.failNextPut) {
+                this.failNextPut = false;
+                throw new IllegalStateException("Stopped after the put");
+            }
+        }
+    }
+
+    private static class CountingSigningKeyMinter implements SigningKeyMinter {
+        private final List<String> revoked = Collections.synchronizedList(new ArrayList<>());
+        private int minted;
+
+        @Override
+        public synchronized MomentoSigningKey createSigningKey(int ttlMinutes) {
+            this.minted++;
+            return new MomentoSigningKey("key-" + this.minted, "endpoint", "jwk",
+                    new Date(System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(ttlMinutes)));
+        }
+
+        @Override
+        public void revokeSigningKey(String keyId) {
+            this.revoked.add(keyId);
+        }
+
+        synchronized int getMinted() {
+            return this.minted;
+        }
+
+        List<String> getRevoked() {
+            return new ArrayList<>(this.revoked);
+        }
+    }
+
+    private static class InMemoryRotationJournal implements RotationJournal {
+        private final Map<String, List<JournalEntry>> entries = new HashMap<>();
+
+        @Override
+        public synchronized void append(String secretId, JournalEntry entry) {
+            this.entries.computeIfAbsent(secretId, ignored -> new ArrayList<>()).add(entry);
+        }
+
+        @Override
+        public synchronized List<JournalEntry> read(String secretId) {
+            return new ArrayList<>(this.entries.getOrDefault(secretId, Collections.emptyList()));
+        }
+
+        @Override
+        public boolean canHoldSigningKeys() {
+            return true;
+        }
+    }
+
+    private static class NoOpLambdaLogger implements LambdaLogger {
+        @Override
+        public void log(String message) {
+        }
+
+        @Override
+        public void log(byte[] message) {
+        }
+    }
+}
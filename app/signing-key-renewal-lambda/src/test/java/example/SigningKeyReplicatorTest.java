@@ -0,0 +1,123 @@
+package example;
+
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
+import example.awsclients.secretsmanager.InMemorySecretsManager;
+import example.awsclients.secretsmanager.SecretsManager;
+import example.metrics.NoOpMetricsSink;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SigningKeyReplicatorTest {
+    private static final String SECRET_NAME = "momento/signing-key";
+    private static final String SECRET_ARN = "arn:aws:secretsmanager:us-west-2:123456789012:secret:momento/signing-key-AbCdEf";
+    private static final String AWSCURRENT = "AWSCURRENT";
+    private static final String AWSPENDING = "AWSPENDING";
+    private static final long TIMEOUT_MILLIS = 5_000;
+
+    private final InMemorySecretsManager east = new InMemorySecretsManager();
+    private final InMemorySecretsManager central = new InMemorySecretsManager();
+    private final InMemorySecretsManager west = new InMemorySecretsManager();
+
+    @Test
+    public void promoteWithoutQuorumLeavesAwsCurrentWhereItWas() {
+        SigningKeyReplicator replicator = replicator(3);
+        replicator.promote(SECRET_ARN, "first-version", "first");
+        // Every call to the region is throttled, so it never gets the second key
+        this.west.setThrottlingProbability(1);
+
+        assertThrows(IllegalStateException.class, () -> replicator.promote(SECRET_ARN, "second-version", "second"));
+
+        for (InMemorySecretsManager replica : Arrays.asList(this.east, this.central)) {
+            assertEquals(Optional.of("first-version"), replica.getVersionIdInStage(SECRET_NAME, AWSCURRENT));
+            assertEquals(Collections.singletonList(AWSPENDING), replica.getVersionStages(SECRET_NAME).get("second-version"));
+        }
+        this.west.setThrottlingProbability(0);
+        assertEquals(Optional.of("first-version"), this.west.getVersionIdInStage(SECRET_NAME, AWSCURRENT));
+        assertFalse(this.west.getVersionStages(SECRET_NAME).containsKey("second-version"));
+    }
+
+    @Test
+    public void stageWithoutQuorumFails() {
+        SigningKeyReplicator replicator = replicator(2);
+        this.central.setThrottlingProbability(1);
+        this.west.setThrottlingProbability(1);
+
+        assertThrows(IllegalStateException.class, () -> replicator.stage(SECRET_ARN, "first-version", "first"));
+
+        assertEquals(Optional.empty(), this.east.getVersionIdInStage(SECRET_NAME, AWSCURRENT));
+    }
+
+    @Test
+    public void promoteCatchesUpARegionThatMissedTheStage() {
+        SigningKeyReplicator replicator = replicator(2);
+        this.west.setThrottlingProbability(1);
+        ReplicationResult staged = replicator.stage(SECRET_ARN, "first-version", "first");
+        assertEquals(Arrays.asList("east", "central"), staged.getAcknowledged());
+        assertTrue(staged.getFailed().containsKey("west"));
+        this.west.setThrottlingProbability(0);
+
+        ReplicationResult promoted = replicator.promote(SECRET_ARN, "first-version", "first");
+
+        assertEquals(Arrays.asList("east", "central", "west"), promoted.getAcknowledged());
+        for (InMemorySecretsManager replica : Arrays.asList(this.east, this.central, this.west)) {
+            assertEquals(Optional.of("first-version"), replica.getVersionIdInStage(SECRET_NAME, AWSCURRENT));
+            assertEquals("first", replica.getSecretValueString(SECRET_NAME, null, AWSCURRENT));
+        }
+        // The regions that already had the key were written again under the same version, not given a second one
+        assertEquals(1, this.east.getVersionStages(SECRET_NAME).size());
+    }
+
+    @Test
+    public void mayHoldVersionOnlyOnceARegionHasTheKey() {
+        SigningKeyReplicator replicator = replicator(2);
+        assertFalse(replicator.mayHoldVersion(SECRET_ARN, "first-version"));
+
+        replicator.stage(SECRET_ARN, "first-version", "first");
+
+        assertTrue(replicator.mayHoldVersion(SECRET_ARN, "first-version"));
+    }
+
+    @Test
+    public void replicaSecretNameStripsTheArnAndItsRandomSuffix() {
+        assertEquals("momento/signing-key", SigningKeyReplicator.replicaSecretName(SECRET_ARN));
+        assertEquals("momento/signing-key-prod", SigningKeyReplicator.replicaSecretName(
+                "arn:aws:secretsmanager:eu-west-1:123456789012:secret:momento/signing-key-prod-x1Y2z3"));
+        assertEquals("signing-key-prod-eu", SigningKeyReplicator.replicaSecretName(
+                "arn:aws:secretsmanager:eu-west-1:123456789012:secret:signing-key-prod-eu-AbCdEf"));
+    }
+
+    @Test
+    public void replicaSecretNameLeavesPlainNamesAlone() {
+        assertEquals("momento/signing-key-prod", SigningKeyReplicator.replicaSecretName("momento/signing-key-prod"));
+        assertEquals("signing-key", SigningKeyReplicator.replicaSecretName("signing-key"));
+    }
+
+    private SigningKeyReplicator replicator(int writeQuorum) {
+        Map<String, SecretsManager> replicas = new LinkedHashMap<>();
+        replicas.put("east", this.east);
+        replicas.put("central", this.central);
+        replicas.put("west", this.west);
+        return new SigningKeyReplicator(new NoOpLambdaLogger(), replicas, writeQuorum, TIMEOUT_MILLIS,
+                NoOpMetricsSink.INSTANCE);
+    }
+
+    private static class NoOpLambdaLogger implements LambdaLogger {
+        @Override
+        public void log(String message) {
+        }
+
+        @Override
+        public void log(byte[] message) {
+        }
+    }
+}
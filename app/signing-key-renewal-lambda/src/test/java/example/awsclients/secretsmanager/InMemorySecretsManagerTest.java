@@ -0,0 +1,133 @@
+package example.awsclients.secretsmanager;
+
+import com.amazonaws.services.secretsmanager.model.InvalidParameterException;
+import com.amazonaws.services.secretsmanager.model.ResourceExistsException;
+import com.amazonaws.services.secretsmanager.model.ResourceNotFoundException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class InMemorySecretsManagerTest {
+    private static final String SECRET = "momento/signing-key";
+    private static final String AWSCURRENT = "AWSCURRENT";
+    private static final String AWSPENDING = "AWSPENDING";
+    private static final String AWSPREVIOUS = "AWSPREVIOUS";
+
+    private final InMemorySecretsManager secretsManager = new InMemorySecretsManager();
+
+    @Test
+    public void movingAwsCurrentLabelsTheOldVersionAwsPrevious() {
+        this.secretsManager.createSecret(SECRET, "first", null);
+        String firstVersion = this.secretsManager.getVersionIdInStage(SECRET, AWSCURRENT).get();
+
+        this.secretsManager.putSecretValue(SECRET, "second", "second-version", null);
+
+        Map<String, List<String>> versionStages = this.secretsManager.getVersionStages(SECRET);
+        assertEquals(Collections.singletonList(AWSCURRENT), versionStages.get("second-version"));
+        assertEquals(Collections.singletonList(AWSPREVIOUS), versionStages.get(firstVersion));
+        assertEquals("second", this.secretsManager.getSecretValueString(SECRET, null, null));
+        assertEquals("first", this.secretsManager.getSecretValueString(SECRET, null, AWSPREVIOUS));
+    }
+
+    @Test
+    public void finishingARotationMovesAwsCurrentToThePendingVersion() {
+        this.secretsManager.createSecret(SECRET, "first", null);
+        String firstVersion = this.secretsManager.getVersionIdInStage(SECRET, AWSCURRENT).get();
+        String token = this.secretsManager.startRotation(SECRET);
+        this.secretsManager.putSecretValue(SECRET, "second", token, Collections.singletonList(AWSPENDING));
+
+        this.secretsManager.updateSecretVersionStage(SECRET, AWSCURRENT, token, firstVersion);
+
+        Map<String, List<String>> versionStages = this.secretsManager.getVersionStages(SECRET);
+        assertTrue(versionStages.get(token).containsAll(Arrays.asList(AWSCURRENT, AWSPENDING)));
+        assertEquals(Collections.singletonList(AWSPREVIOUS), versionStages.get(firstVersion));
+        assertEquals("second", this.secretsManager.getSecretValueString(SECRET, null, AWSCURRENT));
+    }
+
+    @Test
+    public void puttingTheSameTokenAndValueAgainIsANoOp() {
+        this.secretsManager.createSecret(SECRET, "first", null);
+        this.secretsManager.putSecretValue(SECRET, "second", "second-version", null);
+
+        this.secretsManager.putSecretValue(SECRET, "second", "second-version", null);
+
+        assertEquals(2, this.secretsManager.getVersionStages(SECRET).size());
+        assertEquals("second", this.secretsManager.getSecretValueString(SECRET, "second-version", AWSCURRENT));
+        assertEquals(2, this.secretsManager.getCallCount("PutSecretValue"));
+    }
+
+    @Test
+    public void puttingADifferentValueUnderAnExistingTokenIsRejected() {
+        this.secretsManager.createSecret(SECRET, "first", null);
+        this.secretsManager.putSecretValue(SECRET, "second", "second-version", null);
+
+        ResourceExistsException e = assertThrows(ResourceExistsException.class,
+                () -> this.secretsManager.putSecretValue(SECRET, "other", "second-version", null));
+
+        assertEquals("ResourceExistsException", e.getErrorCode());
+        assertEquals("second", this.secretsManager.getSecretValueString(SECRET, "second-version", null));
+    }
+
+    @Test
+    public void movingALabelHeldByAnotherVersionRequiresRemovingItFromThatVersion() {
+        this.secretsManager.createSecret(SECRET, "first", null);
+        String firstVersion = this.secretsManager.getVersionIdInStage(SECRET, AWSCURRENT).get();
+        String token = this.secretsManager.startRotation(SECRET);
+        this.secretsManager.putSecretValue(SECRET, "second", token, Collections.singletonList(AWSPENDING));
+
+        InvalidParameterException e = assertThrows(InvalidParameterException.class,
+                () -> this.secretsManager.updateSecretVersionStage(SECRET, AWSCURRENT, token, null));
+
+        assertEquals("InvalidParameterException", e.getErrorCode());
+        assertEquals(firstVersion, this.secretsManager.getVersionIdInStage(SECRET, AWSCURRENT).get());
+    }
+
+    @Test
+    public void removingALabelFromAVersionThatDoesNotHaveItIsRejected() {
+        this.secretsManager.createSecret(SECRET, "first", null);
+        String token = this.secretsManager.startRotation(SECRET);
+        this.secretsManager.putSecretValue(SECRET, "second", token, Collections.singletonList(AWSPENDING));
+
+        InvalidParameterException e = assertThrows(InvalidParameterException.class,
+                () -> this.secretsManager.updateSecretVersionStage(SECRET, AWSCURRENT, null, token));
+
+        assertEquals("InvalidParameterException", e.getErrorCode());
+        assertEquals(Collections.singletonList(AWSPENDING), this.secretsManager.getVersionStages(SECRET).get(token));
+    }
+
+    @Test
+    public void versionsLeftWithoutALabelAreDropped() {
+        this.secretsManager.createSecret(SECRET, "first", null);
+        String firstVersion = this.secretsManager.getVersionIdInStage(SECRET, AWSCURRENT).get();
+        this.secretsManager.putSecretValue(SECRET, "second", "second-version", null);
+
+        // AWSPREVIOUS moves off the first version, which has nothing else
+        this.secretsManager.putSecretValue(SECRET, "third", "third-version", null);
+
+        Map<String, List<String>> versionStages = this.secretsManager.getVersionStages(SECRET);
+        assertFalse(versionStages.containsKey(firstVersion));
+        assertEquals(2, versionStages.size());
+        assertThrows(ResourceNotFoundException.class,
+                () -> this.secretsManager.getSecretValueString(SECRET, firstVersion, null));
+    }
+
+    @Test
+    public void removingTheLastLabelOfAVersionDropsIt() {
+        this.secretsManager.createSecret(SECRET, "first", null);
+        String token = this.secretsManager.startRotation(SECRET);
+        this.secretsManager.putSecretValue(SECRET, "second", token, Collections.singletonList(AWSPENDING));
+
+        this.secretsManager.updateSecretVersionStage(SECRET, AWSPENDING, null, token);
+
+        assertFalse(this.secretsManager.getVersionStages(SECRET).containsKey(token));
+        assertEquals(1, this.secretsManager.getVersionStages(SECRET).size());
+    }
+}
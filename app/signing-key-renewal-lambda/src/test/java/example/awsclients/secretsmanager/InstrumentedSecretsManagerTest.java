@@ -0,0 +1,51 @@
+package example.awsclients.secretsmanager;
+
+import com.amazonaws.services.secretsmanager.model.ResourceNotFoundException;
+import example.metrics.InMemoryMetricsSink;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class InstrumentedSecretsManagerTest {
+    private static final String SECRET = "momento/signing-key";
+
+    private final InMemorySecretsManager delegate = new InMemorySecretsManager();
+    private final InMemoryMetricsSink metrics = new InMemoryMetricsSink();
+    private final InstrumentedSecretsManager secretsManager = new InstrumentedSecretsManager(this.delegate, this.metrics);
+
+    @Test
+    public void recordsTagsAndVersionStagesUnderTheirOwnNames() {
+        this.delegate.createSecret(SECRET, "first", null);
+
+        this.secretsManager.getVersionStages(SECRET);
+        this.secretsManager.getTags(SECRET);
+        this.secretsManager.getTags(SECRET);
+
+        assertEquals(1, this.metrics.getLatency("secretsmanager.describeSecret").get().getCount());
+        assertEquals(2, this.metrics.getLatency("secretsmanager.getTags").get().getCount());
+    }
+
+    @Test
+    public void countsFailuresByExceptionType() {
+        assertThrows(ResourceNotFoundException.class, () -> this.secretsManager.getSecretValueString(SECRET, null, null));
+        assertThrows(ResourceNotFoundException.class, () -> this.secretsManager.getSecretValueString(SECRET, null, null));
+
+        assertEquals(2, this.metrics.getErrorCount("secretsmanager.getSecretValue", "ResourceNotFoundException"));
+        assertEquals(2, this.metrics.getLatency("secretsmanager.getSecretValue").get().getCount());
+    }
+
+    @Test
+    public void timesAsyncCallsUntilTheyComplete() {
+        this.delegate.createSecret(SECRET, "first", null);
+
+        this.secretsManager.putSecretValueAsync(SECRET, "second", "second-version", null).join();
+
+        assertEquals(1, this.metrics.getLatency("secretsmanager.putSecretValue").get().getCount());
+        assertEquals(Collections.emptyMap(), this.metrics.getErrorCounts("secretsmanager.putSecretValue"));
+        assertFalse(this.metrics.getLatency("secretsmanager.updateSecretVersionStage").isPresent());
+    }
+}
@@ -0,0 +1,63 @@
+package example.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class InMemoryMetricsSinkTest {
+    private final InMemoryMetricsSink metrics = new InMemoryMetricsSink();
+
+    @Test
+    public void timeRecordsLatencyAndTheExceptionType() {
+        assertEquals("ok", this.metrics.time("step.createSecret", () -> "ok"));
+        assertThrows(IllegalStateException.class, () -> this.metrics.time("step.createSecret", () -> {
+            throw new IllegalStateException("failed");
+        }));
+
+        assertEquals(2, this.metrics.getLatency("step.createSecret").get().getCount());
+        assertEquals(1, this.metrics.getErrorCount("step.createSecret", "IllegalStateException"));
+        assertEquals(0, this.metrics.getErrorCount("step.createSecret", "IllegalArgumentException"));
+    }
+
+    @Test
+    public void incrementAddsUpCounts() {
+        this.metrics.increment("secretsmanager.apiCallsSaved", 3);
+        this.metrics.increment("secretsmanager.apiCallsSaved");
+
+        assertEquals(4, this.metrics.getCount("secretsmanager.apiCallsSaved"));
+        assertEquals(0, this.metrics.getCount("secretsmanager.throttled"));
+    }
+
+    @Test
+    public void describeListsInvocationsOperationsAndCounters() {
+        this.metrics.recordInvocation(true);
+        this.metrics.recordInvocation(false);
+        this.metrics.recordLatency("step.finishSecret", 1_000_000);
+        this.metrics.recordError("step.finishSecret", "ResourceNotFoundException");
+        this.metrics.increment("secretsmanager.throttled");
+
+        String description = this.metrics.describe();
+
+        assertTrue(description.startsWith("invocations: cold=1 warm=1"), description);
+        assertTrue(description.contains("step.finishSecret: "), description);
+        assertTrue(description.contains("errors={ResourceNotFoundException=1}"), description);
+        assertTrue(description.contains("secretsmanager.throttled: count=1"), description);
+    }
+
+    @Test
+    public void resetClearsEverything() {
+        this.metrics.recordInvocation(true);
+        this.metrics.recordLatency("step.createSecret", 1_000_000);
+        this.metrics.increment("secretsmanager.throttled");
+
+        this.metrics.reset();
+
+        assertEquals(0, this.metrics.getColdInvocations());
+        assertEquals(Optional.empty(), this.metrics.getLatency("step.createSecret"));
+        assertEquals(0, this.metrics.getCount("secretsmanager.throttled"));
+    }
+}
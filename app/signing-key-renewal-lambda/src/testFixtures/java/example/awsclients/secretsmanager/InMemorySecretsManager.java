@@ -0,0 +1,360 @@
+package example.awsclients.secretsmanager;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.secretsmanager.model.InvalidParameterException;
+import com.amazonaws.services.secretsmanager.model.InvalidRequestException;
+import com.amazonaws.services.secretsmanager.model.ResourceExistsException;
+import com.amazonaws.services.secretsmanager.model.ResourceNotFoundException;
+import example.awsclients.resilience.TokenBucketRateLimiter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// Thread-safe Secrets Manager emulator for running rotations offline. It models what the rotation depends on:
+// - secrets made of versions, each with a set of staging labels, a label belonging to at most one version
+// - a version without a value stage defaulting to AWSCURRENT, and AWSCURRENT moving its old version to AWSPREVIOUS
+// - RotateSecret labelling a new, still empty version AWSPENDING before the rotation fills it in, see startRotation
+// - PutSecretValue being idempotent for a repeated ClientRequestToken with the same value, and rejecting a different
+//   value for an existing version
+// - UpdateSecretVersionStage refusing to move a label from a version it isn't on
+// - ResourceNotFoundException for missing secrets, versions and stages
+// Versions left without any label are dropped, as Secrets Manager eventually does, so memory stays flat however many
+// rotations run. Latency and throttling can be injected to exercise the retry and concurrency code; throttled calls
+// fail the same way Secrets Manager does, with a ThrottlingException error code.
+public class InMemorySecretsManager implements SecretsManager {
+    private static final String AWSCURRENT = "AWSCURRENT";
+    private static final String AWSPENDING = "AWSPENDING";
+    private static final String AWSPREVIOUS = "AWSPREVIOUS";
+    private static final String SERVICE_NAME = "AWSSecretsManager";
+
+    private final ConcurrentMap<String, Secret> secrets = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, AtomicLong> calls = new ConcurrentHashMap<>();
+    private final AtomicLong throttledCalls = new AtomicLong();
+
+    private volatile long minLatencyNanos;
+    private volatile long maxLatencyNanos;
+    private volatile double throttlingProbability;
+    private volatile TokenBucketRateLimiter requestRateLimit;
+
+    // Every call sleeps for a random duration between minLatencyMillis and maxLatencyMillis
+    public void setLatency(long minLatencyMillis, long maxLatencyMillis) {
+        if (minLatencyMillis < 0 || maxLatencyMillis < minLatencyMillis) {
+            throw new IllegalArgumentException(String.format("Invalid latency range %d to %d ms", minLatencyMillis, maxLatencyMillis));
+        }
+        this.minLatencyNanos = TimeUnit.MILLISECONDS.toNanos(minLatencyMillis);
+        this.maxLatencyNanos = TimeUnit.MILLISECONDS.toNanos(maxLatencyMillis);
+    }
+
+    // Fraction of calls, between 0 and 1, that are throttled regardless of the request rate
+    public void setThrottlingProbability(double throttlingProbability) {
+        if (throttlingProbability < 0 || throttlingProbability > 1) {
+            throw new IllegalArgumentException(String.format("Throttling probability must be between 0 and 1, got %s",
+                    throttlingProbability));
+        }
+        this.throttlingProbability = throttlingProbability;
+    }
+
+    // Throttles calls beyond maxRequestsPerSecond across all operations, like a service quota. Empty turns it off
+    public void setMaxRequestsPerSecond(Optional<Double> maxRequestsPerSecond) {
+        this.requestRateLimit = maxRequestsPerSecond
+                .map(limit -> new TokenBucketRateLimiter(limit, Math.max(1, limit)))
+                .orElse(null);
+    }
+
+    @Override
+    public String getSecretValueString(String secretId, String versionId, String versionStage) {
+        simulateCall("GetSecretValue");
+        Secret secret = getSecret(secretId);
+        synchronized (secret) {
+            return secret.getVersion(versionId, versionStage).secretString;
+        }
+    }
+
+    @Override
+    public void createSecret(String secretId, String secretString, String kmsKeyArn) {
+        simulateCall("CreateSecret");
+        Secret secret = new Secret(secretId, kmsKeyArn);
+        if (secretString != null) {
+            secret.putVersion(UUID.randomUUID().toString(), secretString, Collections.singletonList(AWSCURRENT));
+        }
+        if (this.secrets.putIfAbsent(secretId, secret) != null) {
+            throw withErrorDetails(new ResourceExistsException(String.format("The secret %s already exists.", secretId)),
+                    "ResourceExistsException");
+        }
+    }
+
+    @Override
+    public Map<String, List<String>> getVersionStages(String secretId) {
+        simulateCall("DescribeSecret");
+        Secret secret = getSecret(secretId);
+        synchronized (secret) {
+            Map<String, List<String>> versionStages = new HashMap<>();
+            for (Map.Entry<String, Version> version : secret.versions.entrySet()) {
+                versionStages.put(version.getKey(), new ArrayList<>(version.getValue().stages));
+            }
+            return versionStages;
+        }
+    }
+
+    @Override
+    public void putSecretValue(String secretId, String newSecretString, String token, List<String> versionStages) {
+        simulateCall("PutSecretValue");
+        Secret secret = getSecret(secretId);
+        String versionId = token == null ? UUID.randomUUID().toString() : token;
+        List<String> stages = versionStages == null ? Collections.singletonList(AWSCURRENT) : versionStages;
+        synchronized (secret) {
+            Version existing = secret.versions.get(versionId);
+            if (existing != null && existing.secretString == null) {
+                // The version startRotation created, this put gives it its value
+                existing.secretString = newSecretString;
+                for (String stage : stages) {
+                    secret.moveStage(stage, versionId);
+                }
+                return;
+            }
+            if (existing != null) {
+                if (!Objects.equals(existing.secretString, newSecretString)) {
+                    throw withErrorDetails(new ResourceExistsException(String.format(
+                            "A version with ID %s already exists for %s with a different value.", versionId, secretId)),
+                            "ResourceExistsException");
+                }
+                // Same token and value: a retry of a put that already went through
+                return;
+            }
+            secret.putVersion(versionId, newSecretString, stages);
+        }
+    }
+
+    @Override
+    public void updateSecretVersionStage(String secretId, String versionStage, String moveToVersionId, String removeFromVersionId) {
+        simulateCall("UpdateSecretVersionStage");
+        Secret secret = getSecret(secretId);
+        synchronized (secret) {
+            Optional<String> currentHolder = secret.findVersionInStage(versionStage);
+            if (currentHolder.isPresent() && !currentHolder.get().equals(moveToVersionId)
+                    && !currentHolder.get().equals(removeFromVersionId)) {
+                throw withErrorDetails(new InvalidParameterException(String.format(
+                        "The staging label %s is currently attached to version %s, specify it as RemoveFromVersionId.",
+                        versionStage, currentHolder.get())), "InvalidParameterException");
+            }
+            if (removeFromVersionId != null && !currentHolder.filter(removeFromVersionId::equals).isPresent()) {
+                throw withErrorDetails(new InvalidParameterException(String.format(
+                        "The staging label %s is not attached to version %s.", versionStage, removeFromVersionId)),
+                        "InvalidParameterException");
+            }
+            if (moveToVersionId == null) {
+                secret.versions.get(removeFromVersionId).stages.remove(versionStage);
+                secret.dropUnlabelledVersions();
+                return;
+            }
+            if (!secret.versions.containsKey(moveToVersionId)) {
+                throw notFound(String.format("Secrets Manager can't find version %s of %s.", moveToVersionId, secretId));
+            }
+            secret.moveStage(versionStage, moveToVersionId);
+        }
+    }
+
+    @Override
+    public List<String> listSecretNames(String namePrefix) {
+        simulateCall("ListSecrets");
+        List<String> secretNames = new ArrayList<>();
+        for (String secretName : this.secrets.keySet()) {
+            if (namePrefix == null || secretName.startsWith(namePrefix)) {
+                secretNames.add(secretName);
+            }
+        }
+        Collections.sort(secretNames);
+        return secretNames;
+    }
+
+    @Override
+    public Map<String, String> getTags(String secretId) {
+        simulateCall("DescribeSecret");
+        Secret secret = getSecret(secretId);
+        synchronized (secret) {
+            return new HashMap<>(secret.tags);
+        }
+    }
+
+    @Override
+    public Optional<String> getKmsKeyId(String secretId) {
+        simulateCall("DescribeSecret");
+        return Optional.ofNullable(getSecret(secretId).kmsKeyId);
+    }
+
+    @Override
+    public void tagSecret(String secretId, String key, String value) {
+        simulateCall("TagResource");
+        Secret secret = getSecret(secretId);
+        synchronized (secret) {
+            secret.tags.put(key, value);
+        }
+    }
+
+    // What RotateSecret does before invoking the rotation lambda: adds a version without a value, labelled AWSPENDING.
+    // Returns its version ID, the ClientRequestToken every rotation step is called with. Doesn't count as a call
+    public String startRotation(String secretId) {
+        Secret secret = getSecret(secretId);
+        String token = UUID.randomUUID().toString();
+        synchronized (secret) {
+            secret.versions.put(token, new Version(null));
+            secret.moveStage(AWSPENDING, token);
+        }
+        return token;
+    }
+
+    // Number of calls made to the operation, named as in the Secrets Manager API, throttled calls included
+    public long getCallCount(String operation) {
+        return Optional.ofNullable(this.calls.get(operation)).map(AtomicLong::get).orElse(0L);
+    }
+
+    public long getThrottledCalls() {
+        return this.throttledCalls.get();
+    }
+
+    public int getSecretCount() {
+        return this.secrets.size();
+    }
+
+    private Secret getSecret(String secretId) {
+        Secret secret = this.secrets.get(secretId);
+        if (secret == null) {
+            throw notFound("Secrets Manager can't find the specified secret.");
+        }
+        return secret;
+    }
+
+    private void simulateCall(String operation) {
+        this.calls.computeIfAbsent(operation, key -> new AtomicLong()).incrementAndGet();
+        long minLatencyNanos = this.minLatencyNanos;
+        long maxLatencyNanos = this.maxLatencyNanos;
+        if (maxLatencyNanos > 0) {
+            LockSupport.parkNanos(minLatencyNanos == maxLatencyNanos
+                    ? minLatencyNanos
+                    : ThreadLocalRandom.current().nextLong(minLatencyNanos, maxLatencyNanos + 1));
+        }
+        TokenBucketRateLimiter requestRateLimit = this.requestRateLimit;
+        boolean throttled = (requestRateLimit != null && !requestRateLimit.tryAcquire())
+                || (this.throttlingProbability > 0 && ThreadLocalRandom.current().nextDouble() < this.throttlingProbability);
+        if (throttled) {
+            this.throttledCalls.incrementAndGet();
+            AmazonServiceException throttlingException = new AmazonServiceException("Rate exceeded");
+            throw withErrorDetails(throttlingException, "ThrottlingException");
+        }
+    }
+
+    private static ResourceNotFoundException notFound(String message) {
+        return withErrorDetails(new ResourceNotFoundException(message), "ResourceNotFoundException");
+    }
+
+    // Fills in what the SDK would have parsed from the error response, so callers can tell errors apart the same way
+    private static <T extends AmazonServiceException> T withErrorDetails(T exception, String errorCode) {
+        exception.setErrorCode(errorCode);
+        exception.setStatusCode(400);
+        exception.setServiceName(SERVICE_NAME);
+        exception.setRequestId(UUID.randomUUID().toString());
+        return exception;
+    }
+
+    // Guarded by its own monitor
+    private static final class Secret {
+        private final String name;
+        private final Map<String, Version> versions = new LinkedHashMap<>();
+        private final Map<String, String> tags = new HashMap<>();
+        private final String kmsKeyId;
+
+        Secret(String name, String kmsKeyId) {
+            this.name = name;
+            this.kmsKeyId = kmsKeyId;
+        }
+
+        // No version and no stage means AWSCURRENT. If both are given they must point at the same version
+        Version getVersion(String versionId, String versionStage) {
+            String stage = versionId == null && versionStage == null ? AWSCURRENT : versionStage;
+            Version version;
+            if (versionId != null) {
+                version = this.versions.get(versionId);
+                if (version != null && stage != null && !version.stages.contains(stage)) {
+                    version = null;
+                }
+            } else {
+                version = findVersionInStage(stage).map(this.versions::get).orElse(null);
+            }
+            if (version == null || version.secretString == null) {
+                throw notFound(String.format("Secrets Manager can't find the specified secret value for %s: %s.",
+                        versionId == null ? "staging label" : "VersionId",
+                        versionId == null ? stage : versionId));
+            }
+            return version;
+        }
+
+        void putVersion(String versionId, String secretString, List<String> stages) {
+            this.versions.put(versionId, new Version(secretString));
+            for (String stage : stages) {
+                moveStage(stage, versionId);
+            }
+            if (!this.versions.get(versionId).stages.isEmpty()) {
+                return;
+            }
+            // A version has to be created with at least one label, otherwise Secrets Manager can't return it
+            this.versions.remove(versionId);
+            throw withErrorDetails(new InvalidRequestException(String.format(
+                    "A new version of %s must have at least one staging label.", this.name)), "InvalidRequestException");
+        }
+
+        // Moving AWSCURRENT labels the version it's taken from AWSPREVIOUS
+        void moveStage(String stage, String toVersionId) {
+            Optional<String> fromVersionId = findVersionInStage(stage);
+            if (fromVersionId.isPresent() && fromVersionId.get().equals(toVersionId)) {
+                return;
+            }
+            fromVersionId.ifPresent(versionId -> this.versions.get(versionId).stages.remove(stage));
+            this.versions.get(toVersionId).stages.add(stage);
+            if (AWSCURRENT.equals(stage) && fromVersionId.isPresent()) {
+                moveStage(AWSPREVIOUS, fromVersionId.get());
+            }
+            dropUnlabelledVersions();
+        }
+
+        Optional<String> findVersionInStage(String stage) {
+            for (Map.Entry<String, Version> version : this.versions.entrySet()) {
+                if (version.getValue().stages.contains(stage)) {
+                    return Optional.of(version.getKey());
+                }
+            }
+            return Optional.empty();
+        }
+
+        void dropUnlabelledVersions() {
+            Iterator<Version> versions = this.versions.values().iterator();
+            while (versions.hasNext()) {
+                if (versions.next().stages.isEmpty()) {
+                    versions.remove();
+                }
+            }
+        }
+    }
+
+    private static final class Version {
+        private String secretString;
+        private final List<String> stages = new ArrayList<>();
+
+        Version(String secretString) {
+            this.secretString = secretString;
+        }
+    }
+}
@@ -1,2 +1,3 @@
 ext["javaSdkVersion"] = "1.12.205"
+ext["awsSdkV2Version"] = "2.20.162"
 ext["momentoSdkVersion"] = "0.21.1"
@@ -10,12 +10,31 @@ const singingKeyTtlMinutes: string =
   process.env.SIGNING_KEY_TTL_MINUTES ?? DEFAULT_SIGNING_KEY_TTL_MINUTES;
 const autoRotationInDays: string =
   process.env.AUTO_ROTATION_IN_DAYS ?? DEFAULT_AUTO_ROTATION_IN_DAYS;
+const renewalWindowMinutes: string | undefined =
+  process.env.RENEWAL_WINDOW_MINUTES;
 const exportMetrics: boolean =
   process.env.EXPORT_METRICS?.toLowerCase() === 'true' ?? false;
 const kmsKeyArn: string | undefined = process.env.KMS_KEY_ARN;
 const authTokenKeyValue: string | undefined = process.env.AUTH_TOKEN_KEY_VALUE;
+const metricsFormat: string | undefined = process.env.METRICS_FORMAT;
 const useDockerImageLambda: boolean =
   process.env.USE_DOCKER_IMAGE_LAMBDA?.toLowerCase() === 'true' ?? false;
+const useAsyncClients: boolean =
+  process.env.USE_ASYNC_CLIENTS?.toLowerCase() === 'true' ?? false;
+const speculativeMint: boolean =
+  process.env.SPECULATIVE_MINT?.toLowerCase() === 'true' ?? false;
+const replicaRegions: string | undefined = process.env.REPLICA_REGIONS;
+const rotationJournal: string | undefined = process.env.ROTATION_JOURNAL;
+const keysetSecretSuffix: string | undefined = process.env.KEYSET_SECRET_SUFFIX;
+const keysetNotificationCacheName: string | undefined =
+  process.env.KEYSET_NOTIFICATION_CACHE_NAME;
+const signingKeyPoolCacheName: string | undefined =
+  process.env.SIGNING_KEY_POOL_CACHE_NAME;
+const signingKeyPoolEncryptionKeySecretArn: string | undefined =
+  process.env.SIGNING_KEY_POOL_ENCRYPTION_KEY_SECRET_ARN;
+const signingKeyPoolSize: string | undefined = process.env.SIGNING_KEY_POOL_SIZE;
+const useSnapStart: boolean =
+  process.env.USE_SNAPSTART?.toLowerCase() === 'true' ?? false;
 
 const app = new cdk.App();
 new InfrastructureStack(
@@ -33,8 +52,24 @@ new InfrastructureStack(
     exportMetrics: exportMetrics,
     signingKeyTtlMinutes: parseInt(singingKeyTtlMinutes),
     rotateAutomaticallyAfterInDays: parseInt(autoRotationInDays),
+    renewalWindowMinutes: renewalWindowMinutes
+      ? parseInt(renewalWindowMinutes)
+      : undefined,
     kmsKeyArn: kmsKeyArn,
     authTokenKeyValue: authTokenKeyValue,
+    metricsFormat: metricsFormat,
     useDockerImageLambda: useDockerImageLambda,
+    useSnapStart: useSnapStart,
+    useAsyncClients: useAsyncClients,
+    speculativeMint: speculativeMint,
+    replicaRegions: replicaRegions?.split(',').map(region => region.trim()),
+    rotationJournal: rotationJournal,
+    keysetSecretSuffix: keysetSecretSuffix,
+    keysetNotificationCacheName: keysetNotificationCacheName,
+    signingKeyPoolCacheName: signingKeyPoolCacheName,
+    signingKeyPoolEncryptionKeySecretArn: signingKeyPoolEncryptionKeySecretArn,
+    signingKeyPoolSize: signingKeyPoolSize
+      ? parseInt(signingKeyPoolSize)
+      : undefined,
   }
 );
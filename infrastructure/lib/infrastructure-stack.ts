@@ -5,6 +5,8 @@ import * as lambda from 'aws-cdk-lib/aws-lambda';
 import * as iam from 'aws-cdk-lib/aws-iam';
 import * as secretsmanager from 'aws-cdk-lib/aws-secretsmanager';
 import * as kms from 'aws-cdk-lib/aws-kms';
+import * as events from 'aws-cdk-lib/aws-events';
+import * as targets from 'aws-cdk-lib/aws-events-targets';
 import * as path from 'path';
 import {
   Effect,
@@ -23,15 +25,50 @@ interface SigningKeyOptions {
   // Override this if you wish to change when the secret is automatically rotated.
   // IMPORTANT: This MUST be less than signingKeyTtlMinutes
   rotateAutomaticallyAfterInDays: number;
+  // Set to renew the signing key only once it is within this many minutes of expiring, instead of rotating it
+  // every rotateAutomaticallyAfterInDays. An hourly schedule checks the key's expiry, so this must be at least 60
+  // and less than signingKeyTtlMinutes
+  renewalWindowMinutes?: number;
   // Override this if you are not using the default AWS KMS key for your secret
   kmsKeyArn?: string;
   // Override this if you are not storing your Momento auth token as a simple string.
   // Example: if this it is persisted in SecretsManager as '{"token": "<momento auth token value>"}', you
   // would pass in "token"
   authTokenKeyValue?: string;
+  // Set to "emf" to write metrics to the lambda's logs in CloudWatch Embedded Metric Format instead of
+  // calling PutMetricData
+  metricsFormat?: string;
   // Override this if you would like to have your lambda function be
   // Docker-based
   useDockerImageLambda?: boolean;
+  // Set to true to run the lambda on Java 17 with SnapStart enabled, so cold starts restore from a primed snapshot.
+  // Only supported for the zip-based lambda
+  useSnapStart?: boolean;
+  // Set to true to use the non-blocking AWS SDK v2 clients for Secrets Manager and CloudWatch
+  useAsyncClients?: boolean;
+  // Set to true to mint the new signing key in createSecret while Secrets Manager is still being asked whether the
+  // version already has one
+  speculativeMint?: boolean;
+  // Regions to copy every new signing key to, into a secret of the same name. A key is only made current once a
+  // majority of these regions hold it
+  replicaRegions?: string[];
+  // Set to "file" or "tag" to record each rotation's progress so an interrupted rotation is resumed rather than
+  // started over. "file" keeps it on the lambda's local disk, "tag" in a tag on the secret
+  rotationJournal?: string;
+  // Suffix of the companion secret the previous, current and next signing keys are published to as one keyset
+  // document, e.g. "/keyset". The lambda creates that secret on its first rotation, encrypted with the same KMS key as
+  // the signing key secret, so it isn't part of the stack and is left behind when the stack is deleted
+  keysetSecretSuffix?: string;
+  // Momento cache in which readers are told when a new key goes live
+  keysetNotificationCacheName?: string;
+  // Momento cache holding signing keys minted ahead of rotations. Set to have createSecret claim a pooled key instead
+  // of minting one, the pool is refilled by an hourly schedule
+  signingKeyPoolCacheName?: string;
+  // Secret holding the base64 encoded 256 bit AES key the pooled keys are encrypted with. Required with
+  // signingKeyPoolCacheName
+  signingKeyPoolEncryptionKeySecretArn?: string;
+  // How many keys to keep in the pool of each secret
+  signingKeyPoolSize?: number;
 }
 
 export class InfrastructureStack extends cdk.Stack {
@@ -59,6 +96,20 @@ export class InfrastructureStack extends cdk.Stack {
       signingKeyOptions.signingKeyTtlMinutes,
       signingKeyOptions.rotateAutomaticallyAfterInDays
     );
+    if (signingKeyOptions.renewalWindowMinutes !== undefined) {
+      InfrastructureStack.validateRenewalWindow(
+        signingKeyOptions.signingKeyTtlMinutes,
+        signingKeyOptions.renewalWindowMinutes
+      );
+    }
+    if (
+      signingKeyOptions.useSnapStart &&
+      signingKeyOptions.useDockerImageLambda
+    ) {
+      throw new Error(
+        'useSnapStart is not supported with useDockerImageLambda'
+      );
+    }
 
     const signingKeyName = signingKeyOptions.momentoSigningKeySecretName
       ? signingKeyOptions.momentoSigningKeySecretName
@@ -117,6 +168,8 @@ export class InfrastructureStack extends cdk.Stack {
           'secretsmanager:PutSecretValue',
           'secretsmanager:DescribeSecret',
           'secretsmanager:UpdateSecretVersionStage',
+          'secretsmanager:ListSecrets',
+          'secretsmanager:TagResource',
         ],
         resources: ['*'],
       })
@@ -164,7 +217,9 @@ export class InfrastructureStack extends cdk.Stack {
       );
     } else {
       func = new lambda.Function(this, 'momento-signing-key-renewal-lambda', {
-        runtime: lambda.Runtime.JAVA_8_CORRETTO,
+        runtime: signingKeyOptions.useSnapStart
+          ? new lambda.Runtime('java17', lambda.RuntimeFamily.JAVA)
+          : lambda.Runtime.JAVA_8_CORRETTO,
         code: lambda.Code.fromAsset(
           '../app/signing-key-renewal-lambda/build/libs/signing-key-renewal-lambda-1.0-SNAPSHOT.jar'
         ),
@@ -189,14 +244,154 @@ export class InfrastructureStack extends cdk.Stack {
       );
     }
 
-    func.grantInvoke(new iam.ServicePrincipal('secretsmanager.amazonaws.com'));
+    if (signingKeyOptions.useAsyncClients) {
+      func.addEnvironment('USE_ASYNC_CLIENTS', 'true');
+    }
+    if (signingKeyOptions.speculativeMint) {
+      func.addEnvironment('SPECULATIVE_MINT', 'true');
+    }
+    if (signingKeyOptions.replicaRegions?.length) {
+      func.addEnvironment(
+        'REPLICA_REGIONS',
+        signingKeyOptions.replicaRegions.join(',')
+      );
+    }
+    if (signingKeyOptions.rotationJournal) {
+      func.addEnvironment(
+        'ROTATION_JOURNAL',
+        signingKeyOptions.rotationJournal
+      );
+    }
+    if (signingKeyOptions.keysetSecretSuffix) {
+      // The lambda creates `${signingKeyName}${keysetSecretSuffix}` itself, with kmsKeyArn if one is set
+      func.addEnvironment(
+        'KEYSET_SECRET_SUFFIX',
+        signingKeyOptions.keysetSecretSuffix
+      );
+    }
+    if (signingKeyOptions.keysetNotificationCacheName) {
+      func.addEnvironment(
+        'KEYSET_NOTIFICATION_CACHE_NAME',
+        signingKeyOptions.keysetNotificationCacheName
+      );
+    }
+    if (signingKeyOptions.metricsFormat) {
+      func.addEnvironment('METRICS_FORMAT', signingKeyOptions.metricsFormat);
+    }
+    if (signingKeyOptions.signingKeyPoolCacheName) {
+      if (!signingKeyOptions.signingKeyPoolEncryptionKeySecretArn) {
+        throw new Error(
+          'signingKeyPoolEncryptionKeySecretArn is required with signingKeyPoolCacheName'
+        );
+      }
+      func.addEnvironment(
+        'SIGNING_KEY_POOL_CACHE_NAME',
+        signingKeyOptions.signingKeyPoolCacheName
+      );
+      func.addEnvironment(
+        'SIGNING_KEY_POOL_ENCRYPTION_KEY_SECRET_ARN',
+        signingKeyOptions.signingKeyPoolEncryptionKeySecretArn
+      );
+      func.addEnvironment(
+        'SIGNING_KEY_POOL_MAX_AGE_MINUTES',
+        InfrastructureStack.signingKeyPoolMaxAgeMinutes(
+          signingKeyOptions
+        ).toString()
+      );
+      if (signingKeyOptions.signingKeyPoolSize !== undefined) {
+        func.addEnvironment(
+          'SIGNING_KEY_POOL_SIZE',
+          signingKeyOptions.signingKeyPoolSize.toString()
+        );
+      }
+    }
 
-    momentoSigningKeySecret.addRotationSchedule('rotation-schedule', {
-      rotationLambda: func,
-      automaticallyAfter: Duration.days(
-        signingKeyOptions.rotateAutomaticallyAfterInDays
-      ),
-    });
+    // SnapStart only applies to published versions, so rotation has to invoke the version rather than $LATEST
+    let rotationLambda: lambda.IFunction = func;
+    if (signingKeyOptions.useSnapStart) {
+      (func.node.defaultChild as lambda.CfnFunction).addPropertyOverride(
+        'SnapStart',
+        {ApplyOn: 'PublishedVersions'}
+      );
+      rotationLambda = func.currentVersion;
+    }
+
+    if (signingKeyOptions.signingKeyPoolCacheName) {
+      // Refills run on their own so a rotation only ever claims from the pool. A rotation's key is replaced within
+      // the hour, long before the secret's next rotation
+      new events.Rule(this, 'momento-signing-key-pool-refill-schedule', {
+        schedule: events.Schedule.rate(Duration.hours(1)),
+        targets: [
+          new targets.LambdaFunction(rotationLambda, {
+            event: events.RuleTargetInput.fromObject({
+              momento_signing_key_pool_secret_names: signingKeyName,
+            }),
+          }),
+        ],
+      });
+    }
+
+    if (signingKeyOptions.renewalWindowMinutes !== undefined) {
+      // The lambda reads the key's expiry every hour and only renews it once it's inside the window
+      new events.Rule(this, 'momento-signing-key-renewal-schedule', {
+        schedule: events.Schedule.rate(Duration.hours(1)),
+        targets: [
+          new targets.LambdaFunction(rotationLambda, {
+            event: events.RuleTargetInput.fromObject({
+              momento_signing_key_secret_names: signingKeyName,
+              momento_signing_key_renewal_window_minutes: String(
+                signingKeyOptions.renewalWindowMinutes
+              ),
+            }),
+          }),
+        ],
+      });
+    } else {
+      rotationLambda.grantInvoke(
+        new iam.ServicePrincipal('secretsmanager.amazonaws.com')
+      );
+
+      momentoSigningKeySecret.addRotationSchedule('rotation-schedule', {
+        rotationLambda: rotationLambda,
+        automaticallyAfter: Duration.days(
+          signingKeyOptions.rotateAutomaticallyAfterInDays
+        ),
+      });
+    }
+  }
+
+  // A key refilled after one rotation waits in the pool for the next, so it has to last the longest time between two
+  // rotations: the schedule's interval plus a day, since Secrets Manager rotates at some point during the scheduled
+  // day, or with a renewal window, the time until a new key enters the window plus an hour for the hourly check
+  private static signingKeyPoolMaxAgeMinutes(
+    signingKeyOptions: SigningKeyOptions
+  ): number {
+    if (signingKeyOptions.renewalWindowMinutes !== undefined) {
+      return (
+        signingKeyOptions.signingKeyTtlMinutes -
+        signingKeyOptions.renewalWindowMinutes +
+        Duration.hours(1).toMinutes()
+      );
+    }
+    return Duration.days(
+      signingKeyOptions.rotateAutomaticallyAfterInDays + 1
+    ).toMinutes();
+  }
+
+  private static validateRenewalWindow(
+    signingKeyTtlMinutes: number,
+    renewalWindowMinutes: number
+  ) {
+    if (
+      !(
+        renewalWindowMinutes >= 60 &&
+        renewalWindowMinutes < signingKeyTtlMinutes
+      )
+    ) {
+      throw new Error(
+        'renewalWindowMinutes must be at least 60 and less than signingKeyTtlMinutes'
+      );
+    }
   }
 
   private static validateRotationParams(
@@ -6,5 +6,7 @@
 
 rootProject.name = "signing-key-renewal-lambda"
 include(
-  ":app:signing-key-renewal-lambda"
+  ":app:signing-key-renewal-lambda",
+  ":app:signing-key-cache",
+  ":app:presigned-url-signer"
 )